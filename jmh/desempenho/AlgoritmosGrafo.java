@@ -0,0 +1,76 @@
+package desempenho;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks JMH dos algoritmos do {@code Grafo}, sobre os grafos sintéticos
+ * do {@code GeradorGrafos}. Os casos são os mesmos do {@code Benchmark} de
+ * {@code src/}; como o JMH não aceita benchmarks no pacote padrão e um pacote
+ * nomeado não enxerga as classes de lá, a ponte é feita por reflexão uma
+ * única vez, antes das medições.
+ *
+ * Uso: {@code mvn -Pjmh package} e depois
+ * {@code java -jar target/benchmarks.jar -prof gc -p familia=GRADE -p tamanho=10000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "-Xss64m" })
+public class AlgoritmosGrafo {
+
+    @Param({ "ERDOS_RENYI", "GRADE", "LEI_DE_POTENCIA" })
+    public String familia;
+
+    @Param({ "1000", "10000" })
+    public int tamanho;
+
+    @Param({ "lerGrafo", "isConexo", "getComponentesConexas", "contarTriangulos", "getPageRank",
+            "getCentralidadeHarmonica", "caminhoMinimo", "caminhosMinimos", "fluxoMaximo", "corteMinimo",
+            "detectarComunidades", "getExcentricidades" })
+    public String metodo;
+
+    private Supplier<Object> preparacao;
+    private Function<Object, Object> execucao;
+    private Object alvo;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void carregar() throws ReflectiveOperationException {
+        Class<?> benchmark = Class.forName("Benchmark");
+        preparacao = (Supplier<Object>) benchmark.getMethod("preparacao", String.class, int.class, String.class)
+                .invoke(null, familia, tamanho, metodo);
+        execucao = (Function<Object, Object>) benchmark.getMethod("execucao", String.class).invoke(null, metodo);
+    }
+
+    /**
+     * Descarta o cache do grafo (ou o copia, se o caso o altera) antes de cada
+     * chamada, para que cada uma meça o algoritmo e não uma consulta ao cache.
+     */
+    @Setup(Level.Invocation)
+    public void preparar() {
+        alvo = preparacao.get();
+    }
+
+    @Benchmark
+    public void executar(Blackhole sumidouro) {
+        sumidouro.consume(execucao.apply(alvo));
+    }
+}
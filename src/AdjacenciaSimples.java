@@ -0,0 +1,226 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Versão não direcionada e simples de um {@link GrafoIndexado}: cada par de
+ * vértices ligado por algum arco, em qualquer sentido, vira uma única aresta,
+ * presente na lista dos dois vértices. Laços são descartados e as listas ficam
+ * em ordem crescente, o que permite interseções por intercalação.
+ *
+ * O peso de uma aresta é a soma dos pesos dos arcos entre o par (ou o menor
+ * deles, para distâncias). Quando o grafo de origem já é simétrico (não
+ * direcionado), só os arcos de saída de cada vértice são usados, para que
+ * cada aresta conte uma vez; se os dois arcos de uma aresta tiverem pesos
+ * diferentes, vale o maior (o menor, para distâncias) nas duas listas.
+ */
+class AdjacenciaSimples implements GrafoIndexado {
+    final int[] inicio;
+    final int[] vizinhos;
+    final int[] pesos;
+    private final GrafoIndexado origem;
+
+    private AdjacenciaSimples(int[] inicio, int[] vizinhos, int[] pesos, GrafoIndexado origem) {
+        this.inicio = inicio;
+        this.vizinhos = vizinhos;
+        this.pesos = pesos;
+        this.origem = origem;
+    }
+
+    /**
+     * @param grafo
+     *            O grafo de origem (com menos de 2^31 arcos).
+     * @param simetrico
+     *            true se todo arco do grafo tem o seu inverso.
+     * @param comPesos
+     *            false para não guardar pesos (todos valem 1).
+     * @return A adjacência simples.
+     */
+    static AdjacenciaSimples de(GrafoIndexado grafo, boolean simetrico, boolean comPesos) {
+        return de(grafo, simetrico, comPesos, false);
+    }
+
+    /**
+     * @param menorPeso
+     *            true para que o peso de uma aresta seja o menor dos arcos
+     *            entre o par, e não a soma (para distâncias).
+     * @see #de(GrafoIndexado, boolean, boolean)
+     */
+    static AdjacenciaSimples de(GrafoIndexado grafo, boolean simetrico, boolean comPesos, boolean menorPeso) {
+        int n = grafo.numeroVertices();
+        int[] buffer = new int[Math.max(1, grafo.grauMaximo())];
+        int[] bufferPesos = comPesos ? new int[buffer.length] : null;
+
+        // Listas brutas: arcos de saída e, se não for simétrico, também os de
+        // entrada
+        int[] grau = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int g = grafo.vizinhos(u, buffer, 0);
+            grau[u] += g;
+            if (!simetrico) {
+                for (int i = 0; i < g; i++) {
+                    grau[buffer[i]]++;
+                }
+            }
+        }
+        int[] inicioBruto = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inicioBruto[v + 1] = inicioBruto[v] + grau[v];
+        }
+        int[] bruto = new int[inicioBruto[n]];
+        int[] pesosBrutos = comPesos ? new int[bruto.length] : null;
+        int[] posicao = Arrays.copyOf(inicioBruto, n);
+        for (int u = 0; u < n; u++) {
+            int g = grafo.vizinhos(u, buffer, 0);
+            if (comPesos) {
+                grafo.pesos(u, bufferPesos, 0);
+            }
+            for (int i = 0; i < g; i++) {
+                int v = buffer[i];
+                int k = posicao[u]++;
+                bruto[k] = v;
+                if (comPesos) {
+                    pesosBrutos[k] = bufferPesos[i];
+                }
+                if (!simetrico) {
+                    k = posicao[v]++;
+                    bruto[k] = u;
+                    if (comPesos) {
+                        pesosBrutos[k] = bufferPesos[i];
+                    }
+                }
+            }
+        }
+
+        // Ordena cada lista, junta repetidos e tira laços, em paralelo
+        int[] tamanho = new int[n];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            int a = inicioBruto[v];
+            int b = inicioBruto[v + 1];
+            if (comPesos) {
+                ordenarComPesos(bruto, pesosBrutos, a, b);
+            } else {
+                Arrays.sort(bruto, a, b);
+            }
+            int escrito = a;
+            for (int i = a; i < b; i++) {
+                if (bruto[i] == v) {
+                    continue;
+                }
+                if (escrito > a && bruto[escrito - 1] == bruto[i]) {
+                    // Com pesos, a lista está em ordem de peso dentro do par,
+                    // então o primeiro já é o menor
+                    if (comPesos && !menorPeso) {
+                        pesosBrutos[escrito - 1] += pesosBrutos[i];
+                    }
+                    continue;
+                }
+                bruto[escrito] = bruto[i];
+                if (comPesos) {
+                    pesosBrutos[escrito] = pesosBrutos[i];
+                }
+                escrito++;
+            }
+            tamanho[v] = escrito - a;
+        });
+
+        int[] inicio = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] = inicio[v] + tamanho[v];
+        }
+        int[] vizinhos = new int[inicio[n]];
+        int[] pesos = comPesos ? new int[vizinhos.length] : null;
+        IntStream.range(0, n).parallel().forEach(v -> {
+            System.arraycopy(bruto, inicioBruto[v], vizinhos, inicio[v], tamanho[v]);
+            if (comPesos) {
+                System.arraycopy(pesosBrutos, inicioBruto[v], pesos, inicio[v], tamanho[v]);
+            }
+        });
+        if (simetrico && comPesos) {
+            simetrizarPesos(inicio, vizinhos, pesos, menorPeso);
+        }
+        return new AdjacenciaSimples(inicio, vizinhos, pesos, grafo);
+    }
+
+    /**
+     * Num grafo simétrico os dois arcos de uma aresta podem ter pesos
+     * diferentes; cada lista só viu o de saída. Dá às duas pontas o maior dos
+     * dois (o menor, para distâncias), para que a aresta pese o mesmo lida de
+     * qualquer lado. Cada vértice só escreve na própria lista; ler a posição
+     * do outro lado já atualizada não muda o resultado, pois máximo e mínimo
+     * são idempotentes.
+     */
+    private static void simetrizarPesos(int[] inicio, int[] vizinhos, int[] pesos, boolean menorPeso) {
+        IntStream.range(0, inicio.length - 1).parallel().forEach(u -> {
+            for (int i = inicio[u]; i < inicio[u + 1]; i++) {
+                int v = vizinhos[i];
+                int j = Arrays.binarySearch(vizinhos, inicio[v], inicio[v + 1], u);
+                if (j >= 0) {
+                    pesos[i] = menorPeso ? Math.min(pesos[i], pesos[j]) : Math.max(pesos[i], pesos[j]);
+                }
+            }
+        });
+    }
+
+    private static void ordenarComPesos(int[] chaves, int[] pesos, int a, int b) {
+        long[] pares = new long[b - a];
+        for (int i = a; i < b; i++) {
+            // Bit de sinal invertido para que os pesos fiquem em ordem com sinal
+            pares[i - a] = ((long) chaves[i] << 32) | ((pesos[i] ^ Integer.MIN_VALUE) & 0xffffffffL);
+        }
+        Arrays.sort(pares);
+        for (int i = a; i < b; i++) {
+            chaves[i] = (int) (pares[i - a] >>> 32);
+            pesos[i] = (int) pares[i - a] ^ Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * @return Quantidade de arestas (cada uma aparece em duas listas).
+     */
+    long numeroArestas() {
+        return vizinhos.length / 2;
+    }
+
+    @Override
+    public int numeroVertices() {
+        return inicio.length - 1;
+    }
+
+    @Override
+    public long numeroArcos() {
+        return vizinhos.length;
+    }
+
+    @Override
+    public int grau(int v) {
+        return inicio[v + 1] - inicio[v];
+    }
+
+    @Override
+    public int vizinhos(int v, int[] destino, int deslocamento) {
+        int grau = grau(v);
+        System.arraycopy(vizinhos, inicio[v], destino, deslocamento, grau);
+        return grau;
+    }
+
+    @Override
+    public int pesos(int v, int[] destino, int deslocamento) {
+        int grau = grau(v);
+        if (pesos == null) {
+            Arrays.fill(destino, deslocamento, deslocamento + grau, 1);
+        } else {
+            System.arraycopy(pesos, inicio[v], destino, deslocamento, grau);
+        }
+        return grau;
+    }
+
+    @Override
+    public String getRotulo(int v) {
+        return origem.getRotulo(v);
+    }
+
+    @Override
+    public int indiceDe(String rotulo) {
+        return origem.indiceDe(rotulo);
+    }
+}
@@ -0,0 +1,326 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Algoritmos que trabalham sobre qualquer {@link GrafoIndexado}, usando apenas
+ * vetores de inteiros em vez de mapas de objetos.
+ */
+public class AlgoritmosIndexados {
+    /**
+     * Busca em largura a partir de uma origem, seguindo os arcos de saída.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param origem
+     *            Índice do vértice inicial.
+     * @param distancia
+     *            Recebe o número de arcos até cada vértice (-1 se inalcançável).
+     *            Deve ter tamanho n.
+     * @param pai
+     *            Recebe o antecessor de cada vértice na árvore de largura (-1
+     *            na origem e nos inalcançáveis). Pode ser null.
+     * @return Quantidade de vértices alcançados.
+     */
+    public static int buscaEmLargura(GrafoIndexado grafo, int origem, int[] distancia, int[] pai) {
+        int n = grafo.numeroVertices();
+        Arrays.fill(distancia, 0, n, -1);
+        if (pai != null) {
+            Arrays.fill(pai, 0, n, -1);
+        }
+        int[] fila = new int[n];
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        int cabeca = 0;
+        int cauda = 0;
+        fila[cauda++] = origem;
+        distancia[origem] = 0;
+
+        while (cabeca < cauda) {
+            int u = fila[cabeca++];
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                int v = vizinhos[i];
+                if (distancia[v] < 0) {
+                    distancia[v] = distancia[u] + 1;
+                    if (pai != null) {
+                        pai[v] = u;
+                    }
+                    fila[cauda++] = v;
+                }
+            }
+        }
+        return cauda;
+    }
+
+    /**
+     * Calcula as componentes conexas tratando cada arco como uma ligação nos
+     * dois sentidos (componentes fracamente conexas, no caso direcionado).
+     *
+     * @param grafo
+     *            O grafo.
+     * @return Para cada vértice, o identificador da sua componente. Os
+     *         identificadores vão de 0 ao número de componentes menos 1, na
+     *         ordem do menor vértice de cada componente.
+     */
+    public static int[] componentesConexas(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        UnionFind uf = new UnionFind(n);
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        for (int u = 0; u < n; u++) {
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                uf.union(u, vizinhos[i]);
+            }
+        }
+        return numerarComponentes(uf, n);
+    }
+
+    /**
+     * Renumera as raízes de um Union-Find como 0, 1, 2, ... na ordem do menor
+     * vértice de cada conjunto.
+     */
+    static int[] numerarComponentes(UnionFind uf, int n) {
+        int[] componente = new int[n];
+        int[] idDaRaiz = new int[n];
+        Arrays.fill(idDaRaiz, -1);
+        int total = 0;
+        for (int v = 0; v < n; v++) {
+            int raiz = uf.find(v);
+            if (idDaRaiz[raiz] < 0) {
+                idDaRaiz[raiz] = total++;
+            }
+            componente[v] = idDaRaiz[raiz];
+        }
+        return componente;
+    }
+
+    /**
+     * @param componente
+     *            Vetor retornado por {@link #componentesConexas(GrafoIndexado)}.
+     * @return Quantidade de componentes.
+     */
+    public static int contarComponentes(int[] componente) {
+        int maior = -1;
+        for (int c : componente) {
+            maior = Math.max(maior, c);
+        }
+        return maior + 1;
+    }
+
+    /**
+     * Monta o grafo transposto em vetores CSR. Usa uma cópia dos arcos no
+     * heap, então o grafo deve ter menos de 2^31 arcos.
+     *
+     * @return {inicio, origens}: os arcos que chegam em v são
+     *         {@code origens[inicio[v] .. inicio[v + 1] - 1]}.
+     */
+    static int[][] transpor(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        int[] inicio = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                inicio[vizinhos[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] += inicio[v];
+        }
+        int[] origens = new int[inicio[n]];
+        int[] proxima = Arrays.copyOf(inicio, n);
+        for (int u = 0; u < n; u++) {
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                origens[proxima[vizinhos[i]]++] = u;
+            }
+        }
+        return new int[][] { inicio, origens };
+    }
+
+    /**
+     * Verifica se todo arco (u, v) tem o seu inverso (v, u), ou seja, se o
+     * grafo é não direcionado. As listas de vizinhos são ordenadas uma vez e
+     * cada arco é procurado por busca binária, em paralelo por vértice. Usa
+     * uma cópia dos arcos no heap, então o grafo deve ter menos de 2^31 arcos.
+     *
+     * @param grafo
+     *            O grafo.
+     * @return true se todos os arcos tiverem inverso.
+     */
+    public static boolean simetrico(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int[] inicio = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] = inicio[v] + grafo.grau(v);
+        }
+        int[] ordenados = new int[inicio[n]];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            grafo.vizinhos(v, ordenados, inicio[v]);
+            Arrays.sort(ordenados, inicio[v], inicio[v + 1]);
+        });
+        return IntStream.range(0, n).parallel().allMatch(u -> {
+            for (int i = inicio[u]; i < inicio[u + 1]; i++) {
+                int v = ordenados[i];
+                if (Arrays.binarySearch(ordenados, inicio[v], inicio[v + 1], u) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Encontra as pontes de um grafo não direcionado (com os dois arcos de
+     * cada aresta) pelo algoritmo de Tarjan.
+     *
+     * @param grafo
+     *            O grafo.
+     * @return Pares (u, v) em sequência: as posições 2i e 2i+1 são as pontas
+     *         da i-ésima ponte, com u sendo o pai de v na busca em
+     *         profundidade.
+     */
+    public static int[] pontes(GrafoIndexado grafo) {
+        return new Tarjan(grafo).executar(true);
+    }
+
+    /**
+     * Encontra os vértices de articulação de um grafo não direcionado (com os
+     * dois arcos de cada aresta) pelo algoritmo de Tarjan.
+     *
+     * @param grafo
+     *            O grafo.
+     * @return Os índices dos vértices de articulação, em ordem crescente.
+     */
+    public static int[] articulacoes(GrafoIndexado grafo) {
+        return new Tarjan(grafo).executar(false);
+    }
+
+    /**
+     * Busca em profundidade iterativa que calcula os tempos de descoberta e os
+     * valores low. Em vez da recursão, usa uma pilha de quadros; os vizinhos de
+     * cada vértice da pilha ficam decodificados em uma pilha de arcos
+     * compartilhada, o que permite rodar em grafos comprimidos sem decodificar
+     * a mesma lista mais de uma vez e sem estourar a pilha da JVM.
+     */
+    private static class Tarjan {
+        private final GrafoIndexado grafo;
+        private final int n;
+        private final int[] descoberta;
+        private final int[] low;
+        private int[] arcos;
+
+        Tarjan(GrafoIndexado grafo) {
+            this.grafo = grafo;
+            this.n = grafo.numeroVertices();
+            this.descoberta = new int[n];
+            this.low = new int[n];
+            this.arcos = new int[Math.max(16, grafo.grauMaximo())];
+        }
+
+        int[] executar(boolean pontes) {
+            Medicao medicao = Instrumentacao.iniciar(pontes ? "pontesIndexado" : "articulacoesIndexado");
+            Arrays.fill(descoberta, -1);
+            int[] quadroVertice = new int[n];
+            int[] quadroInicio = new int[n];
+            int[] quadroFim = new int[n];
+            int[] quadroPosicao = new int[n];
+            boolean[] paiIgnorado = new boolean[n];
+            int[] filhos = new int[n];
+            boolean[] articulacao = new boolean[n];
+            int[] resultado = new int[16];
+            int quantidade = 0;
+            int tempo = 0;
+
+            for (int raiz = 0; raiz < n; raiz++) {
+                if (descoberta[raiz] >= 0) {
+                    continue;
+                }
+                int topo = 0;
+                descoberta[raiz] = low[raiz] = tempo++;
+                quadroVertice[0] = raiz;
+                quadroInicio[0] = 0;
+                quadroFim[0] = decodificar(raiz, 0);
+                quadroPosicao[0] = 0;
+                paiIgnorado[0] = false;
+
+                while (topo >= 0) {
+                    int u = quadroVertice[topo];
+                    if (quadroPosicao[topo] < quadroFim[topo]) {
+                        int v = arcos[quadroPosicao[topo]++];
+                        int pai = topo > 0 ? quadroVertice[topo - 1] : -1;
+                        // Apenas um arco de volta ao pai é o da própria árvore;
+                        // arestas paralelas contam como caminho alternativo
+                        if (v == pai && !paiIgnorado[topo]) {
+                            paiIgnorado[topo] = true;
+                            continue;
+                        }
+                        if (descoberta[v] < 0) {
+                            filhos[u]++;
+                            descoberta[v] = low[v] = tempo++;
+                            topo++;
+                            quadroVertice[topo] = v;
+                            quadroInicio[topo] = quadroFim[topo - 1];
+                            quadroFim[topo] = decodificar(v, quadroInicio[topo]);
+                            quadroPosicao[topo] = quadroInicio[topo];
+                            paiIgnorado[topo] = false;
+                        } else {
+                            low[u] = Math.min(low[u], descoberta[v]);
+                        }
+                        continue;
+                    }
+
+                    if (medicao != null) {
+                        medicao.verticesVisitados++;
+                        medicao.arestasVisitadas += quadroFim[topo] - quadroInicio[topo];
+                    }
+                    topo--;
+                    if (topo < 0) {
+                        break;
+                    }
+                    int pai = quadroVertice[topo];
+                    low[pai] = Math.min(low[pai], low[u]);
+                    if (pontes && low[u] > descoberta[pai]) {
+                        if (quantidade + 2 > resultado.length) {
+                            resultado = Arrays.copyOf(resultado, 2 * resultado.length);
+                        }
+                        resultado[quantidade++] = pai;
+                        resultado[quantidade++] = u;
+                    }
+                    if (topo > 0 && low[u] >= descoberta[pai]) {
+                        articulacao[pai] = true;
+                    }
+                }
+                if (filhos[raiz] > 1) {
+                    articulacao[raiz] = true;
+                }
+            }
+            Instrumentacao.concluir(medicao);
+
+            if (pontes) {
+                return Arrays.copyOf(resultado, quantidade);
+            }
+            for (int v = 0; v < n; v++) {
+                if (articulacao[v]) {
+                    if (quantidade == resultado.length) {
+                        resultado = Arrays.copyOf(resultado, 2 * resultado.length);
+                    }
+                    resultado[quantidade++] = v;
+                }
+            }
+            return Arrays.copyOf(resultado, quantidade);
+        }
+
+        /**
+         * Decodifica os vizinhos de v na pilha de arcos, a partir de inicio.
+         *
+         * @return Posição logo após o último vizinho.
+         */
+        private int decodificar(int v, int inicio) {
+            int grau = grafo.grau(v);
+            if (inicio + grau > arcos.length) {
+                arcos = Arrays.copyOf(arcos, Math.max(2 * arcos.length, inicio + grau));
+            }
+            return inicio + grafo.vizinhos(v, arcos, inicio);
+        }
+    }
+}
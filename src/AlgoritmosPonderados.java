@@ -0,0 +1,420 @@
+import java.util.Arrays;
+
+/**
+ * Caminhos mínimos, árvore geradora mínima e fluxo máximo sobre um
+ * {@link GrafoCompacto}, com o custo ou a capacidade de cada arco num vetor
+ * primitivo separado (veja {@link GrafoCompacto#porArco} e
+ * {@link AtributosAresta}). Cada algoritmo tem uma versão para {@code long} e,
+ * quando faz sentido, outra para {@code double}, para que nenhum valor seja
+ * encaixotado nem arredondado para {@code int}.
+ */
+public class AlgoritmosPonderados {
+    /**
+     * Dijkstra com custos inteiros.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param custo
+     *            Custo de cada arco, não negativo.
+     * @param origem
+     *            Vértice de origem.
+     * @param destino
+     *            Vértice em que a busca pode parar, ou -1 para calcular todas
+     *            as distâncias.
+     * @param distancia
+     *            Saída: distância de cada vértice, ou {@link Long#MAX_VALUE}
+     *            se não foi alcançado.
+     * @param pai
+     *            Saída: vértice anterior no caminho mínimo, ou -1.
+     * @return Quantidade de vértices com distância definitiva.
+     */
+    public static int dijkstra(GrafoCompacto grafo, long[] custo, int origem, int destino, long[] distancia,
+            int[] pai) {
+        Medicao medicao = Instrumentacao.iniciar("dijkstra");
+        Arrays.fill(distancia, Long.MAX_VALUE);
+        Arrays.fill(pai, -1);
+        // A chave do heap é double; só importa para a ordem de extração, e as
+        // distâncias exatas ficam no vetor
+        HeapIndexado heap = new HeapIndexado(grafo.numeroVertices());
+        distancia[origem] = 0;
+        heap.atualizar(origem, 0);
+        int definitivos = 0;
+        long relaxados = 0;
+        while (!heap.isVazio()) {
+            int u = heap.extrairMinimo();
+            definitivos++;
+            if (u == destino) {
+                break;
+            }
+            for (int a = grafo.inicio[u]; a < grafo.inicio[u + 1]; a++) {
+                if (custo[a] < 0) {
+                    throw new IllegalArgumentException("custo negativo no arco " + a + ": " + custo[a]);
+                }
+                int v = grafo.destinos[a];
+                long nova = distancia[u] + custo[a];
+                if (nova < distancia[v]) {
+                    distancia[v] = nova;
+                    pai[v] = u;
+                    heap.atualizar(v, nova);
+                }
+            }
+            relaxados += grafo.grau(u);
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = definitivos;
+            medicao.arestasVisitadas = relaxados;
+            Instrumentacao.concluir(medicao);
+        }
+        return definitivos;
+    }
+
+    /**
+     * Dijkstra com custos reais.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param custo
+     *            Custo de cada arco, não negativo.
+     * @param origem
+     *            Vértice de origem.
+     * @param destino
+     *            Vértice em que a busca pode parar, ou -1 para calcular todas
+     *            as distâncias.
+     * @param distancia
+     *            Saída: distância de cada vértice, ou
+     *            {@link Double#POSITIVE_INFINITY} se não foi alcançado.
+     * @param pai
+     *            Saída: vértice anterior no caminho mínimo, ou -1.
+     * @return Quantidade de vértices com distância definitiva.
+     */
+    public static int dijkstra(GrafoCompacto grafo, double[] custo, int origem, int destino, double[] distancia,
+            int[] pai) {
+        Medicao medicao = Instrumentacao.iniciar("dijkstra");
+        Arrays.fill(distancia, Double.POSITIVE_INFINITY);
+        Arrays.fill(pai, -1);
+        HeapIndexado heap = new HeapIndexado(grafo.numeroVertices());
+        distancia[origem] = 0;
+        heap.atualizar(origem, 0);
+        int definitivos = 0;
+        long relaxados = 0;
+        while (!heap.isVazio()) {
+            int u = heap.extrairMinimo();
+            definitivos++;
+            if (u == destino) {
+                break;
+            }
+            for (int a = grafo.inicio[u]; a < grafo.inicio[u + 1]; a++) {
+                if (!(custo[a] >= 0)) {
+                    throw new IllegalArgumentException("custo inválido no arco " + a + ": " + custo[a]);
+                }
+                int v = grafo.destinos[a];
+                double nova = distancia[u] + custo[a];
+                if (nova < distancia[v]) {
+                    distancia[v] = nova;
+                    pai[v] = u;
+                    heap.atualizar(v, nova);
+                }
+            }
+            relaxados += grafo.grau(u);
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = definitivos;
+            medicao.arestasVisitadas = relaxados;
+            Instrumentacao.concluir(medicao);
+        }
+        return definitivos;
+    }
+
+    /**
+     * Reconstrói o caminho a partir do vetor de pais de {@code dijkstra}.
+     *
+     * @return Os vértices da origem ao destino, ou um vetor vazio se o
+     *         destino não foi alcançado.
+     */
+    public static int[] caminho(int[] pai, int origem, int destino) {
+        int tamanho = 1;
+        for (int v = destino; v != origem; v = pai[v]) {
+            if (pai[v] < 0) {
+                return new int[0];
+            }
+            tamanho++;
+        }
+        int[] caminho = new int[tamanho];
+        for (int v = destino, i = tamanho - 1; i >= 0; v = pai[v], i--) {
+            caminho[i] = v;
+        }
+        return caminho;
+    }
+
+    /**
+     * Kruskal com custos inteiros. Os arcos são tratados como arestas sem
+     * sentido, então em grafos não direcionados cada aresta entra uma vez só.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param custo
+     *            Custo de cada arco.
+     * @return Os arcos escolhidos, em ordem crescente de custo (uma floresta
+     *         se o grafo for desconexo).
+     */
+    public static int[] arvoreGeradoraMinima(GrafoCompacto grafo, long[] custo) {
+        return kruskal(grafo, custo);
+    }
+
+    /**
+     * Kruskal com custos reais.
+     *
+     * @see #arvoreGeradoraMinima(GrafoCompacto, long[])
+     */
+    public static int[] arvoreGeradoraMinima(GrafoCompacto grafo, double[] custo) {
+        long[] chave = new long[custo.length];
+        for (int a = 0; a < custo.length; a++) {
+            // Bits do double numa ordem que a comparação de long respeita
+            long bits = Double.doubleToLongBits(custo[a]);
+            chave[a] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+        return kruskal(grafo, chave);
+    }
+
+    private static int[] kruskal(GrafoCompacto grafo, long[] chave) {
+        Medicao medicao = Instrumentacao.iniciar("arvoreGeradoraMinima");
+        int n = grafo.numeroVertices();
+        int[] ordem = ordenarPorChave(chave);
+        int[] origem = new int[chave.length];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(origem, grafo.inicio[u], grafo.inicio[u + 1], u);
+        }
+        UnionFind uf = new UnionFind(n);
+        int[] escolhidos = new int[Math.max(0, n - 1)];
+        int quantidade = 0;
+        for (int i = 0; i < ordem.length && quantidade < escolhidos.length; i++) {
+            int a = ordem[i];
+            int u = origem[a];
+            int v = grafo.destinos[a];
+            if (uf.find(u) != uf.find(v)) {
+                uf.union(u, v);
+                escolhidos[quantidade++] = a;
+            }
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = chave.length;
+            Instrumentacao.concluir(medicao);
+        }
+        return Arrays.copyOf(escolhidos, quantidade);
+    }
+
+    /**
+     * Ordena os índices 0..m-1 pela chave, de forma estável, com radix sort
+     * de 8 bits por passada. Passadas em que todas as chaves têm o mesmo byte
+     * são puladas, então custos pequenos custam uma ou duas passadas.
+     */
+    static int[] ordenarPorChave(long[] chave) {
+        int m = chave.length;
+        int[] ordem = new int[m];
+        for (int i = 0; i < m; i++) {
+            ordem[i] = i;
+        }
+        int[] auxiliar = new int[m];
+        int[] contagem = new int[257];
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 8) {
+            Arrays.fill(contagem, 0);
+            for (int i = 0; i < m; i++) {
+                contagem[digito(chave[i], deslocamento) + 1]++;
+            }
+            boolean trivial = false;
+            for (int d = 1; d <= 256 && !trivial; d++) {
+                trivial = contagem[d] == m;
+            }
+            if (trivial) {
+                continue;
+            }
+            for (int d = 0; d < 256; d++) {
+                contagem[d + 1] += contagem[d];
+            }
+            for (int i = 0; i < m; i++) {
+                int indice = ordem[i];
+                auxiliar[contagem[digito(chave[indice], deslocamento)]++] = indice;
+            }
+            int[] troca = ordem;
+            ordem = auxiliar;
+            auxiliar = troca;
+        }
+        return ordem;
+    }
+
+    private static int digito(long chave, int deslocamento) {
+        // Inverte o bit de sinal para que negativos venham antes
+        return (int) ((chave ^ Long.MIN_VALUE) >>> deslocamento) & 0xff;
+    }
+
+    /**
+     * Fluxo máximo pelo algoritmo de Dinic: a cada fase, uma busca em largura
+     * no grafo residual define os níveis, e buscas em profundidade iterativas
+     * enviam fluxo só por arcos que sobem um nível, com um ponteiro por vértice
+     * para não reexaminar arcos esgotados. Cada arco tem o seu próprio arco
+     * reverso no grafo residual, então arcos paralelos e antiparalelos (as
+     * duas direções de uma aresta não direcionada) mantêm capacidades
+     * independentes.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param capacidade
+     *            Capacidade de cada arco, não negativa.
+     * @param fonte
+     *            O vértice fonte.
+     * @param sumidouro
+     *            O vértice sumidouro.
+     * @return O valor do fluxo máximo.
+     */
+    public static long fluxoMaximo(GrafoCompacto grafo, long[] capacidade, int fonte, int sumidouro) {
+        if (fonte == sumidouro) {
+            throw new IllegalArgumentException("fonte e sumidouro são o mesmo vértice");
+        }
+        Medicao medicao = Instrumentacao.iniciar("fluxoMaximo");
+        Dinic dinic = new Dinic(grafo, capacidade, fonte, sumidouro);
+        long total = 0;
+        long caminhos = 0;
+        while (dinic.niveis()) {
+            System.arraycopy(dinic.inicio, 0, dinic.atual, 0, dinic.atual.length);
+            long enviado;
+            while ((enviado = dinic.aumentar()) > 0) {
+                total += enviado;
+                caminhos++;
+            }
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = grafo.numeroVertices();
+            medicao.arestasVisitadas = capacidade.length;
+            medicao.operacoes = caminhos; // Caminhos aumentantes
+            Instrumentacao.concluir(medicao);
+        }
+        return total;
+    }
+
+    private static class Dinic {
+        final int[] inicio;
+        final int[] atual;
+        final int[] para;
+        final int[] reverso;
+        final long[] residual;
+        final int[] nivel;
+        final int[] fila;
+        final int[] pilha;
+        final int fonte;
+        final int sumidouro;
+
+        Dinic(GrafoCompacto grafo, long[] capacidade, int fonte, int sumidouro) {
+            int n = grafo.numeroVertices();
+            this.fonte = fonte;
+            this.sumidouro = sumidouro;
+            inicio = new int[n + 1];
+            for (int u = 0; u < n; u++) {
+                for (int a = grafo.inicio[u]; a < grafo.inicio[u + 1]; a++) {
+                    if (capacidade[a] < 0) {
+                        throw new IllegalArgumentException("capacidade negativa no arco " + a + ": " + capacidade[a]);
+                    }
+                    int v = grafo.destinos[a];
+                    if (u != v) {
+                        inicio[u + 1]++;
+                        inicio[v + 1]++;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                inicio[v + 1] += inicio[v];
+            }
+            int total = inicio[n];
+            para = new int[total];
+            reverso = new int[total];
+            residual = new long[total];
+            int[] posicao = Arrays.copyOf(inicio, n);
+            for (int u = 0; u < n; u++) {
+                for (int a = grafo.inicio[u]; a < grafo.inicio[u + 1]; a++) {
+                    int v = grafo.destinos[a];
+                    if (u == v) {
+                        continue;
+                    }
+                    int ida = posicao[u]++;
+                    int volta = posicao[v]++;
+                    para[ida] = v;
+                    para[volta] = u;
+                    residual[ida] = capacidade[a];
+                    reverso[ida] = volta;
+                    reverso[volta] = ida;
+                }
+            }
+            atual = new int[n];
+            nivel = new int[n];
+            fila = new int[n];
+            pilha = new int[n];
+        }
+
+        /**
+         * @return true se o sumidouro ainda é alcançável no grafo residual.
+         */
+        boolean niveis() {
+            Arrays.fill(nivel, -1);
+            nivel[fonte] = 0;
+            fila[0] = fonte;
+            int cabeca = 0;
+            int cauda = 1;
+            while (cabeca < cauda) {
+                int u = fila[cabeca++];
+                for (int e = inicio[u]; e < inicio[u + 1]; e++) {
+                    int v = para[e];
+                    if (residual[e] > 0 && nivel[v] < 0) {
+                        nivel[v] = nivel[u] + 1;
+                        fila[cauda++] = v;
+                    }
+                }
+            }
+            return nivel[sumidouro] >= 0;
+        }
+
+        /**
+         * Procura um caminho da fonte ao sumidouro que sobe um nível a cada
+         * arco e envia por ele a sua capacidade residual mínima.
+         *
+         * @return O fluxo enviado, ou 0 se não há mais caminho nesta fase.
+         */
+        long aumentar() {
+            int topo = 0;
+            int u = fonte;
+            while (true) {
+                if (u == sumidouro) {
+                    long gargalo = Long.MAX_VALUE;
+                    for (int i = 0; i < topo; i++) {
+                        gargalo = Math.min(gargalo, residual[pilha[i]]);
+                    }
+                    for (int i = 0; i < topo; i++) {
+                        residual[pilha[i]] -= gargalo;
+                        residual[reverso[pilha[i]]] += gargalo;
+                    }
+                    return gargalo;
+                }
+                boolean avancou = false;
+                for (; atual[u] < inicio[u + 1]; atual[u]++) {
+                    int e = atual[u];
+                    int v = para[e];
+                    if (residual[e] > 0 && nivel[v] == nivel[u] + 1) {
+                        pilha[topo++] = e;
+                        u = v;
+                        avancou = true;
+                        break;
+                    }
+                }
+                if (!avancou) {
+                    if (topo == 0) {
+                        return 0;
+                    }
+                    // Beco sem saída: ninguém mais precisa passar por u
+                    nivel[u] = -1;
+                    int e = pilha[--topo];
+                    u = para[reverso[e]];
+                    atual[u]++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Análise de ligações sobre os arcos de um {@link GrafoIndexado}: PageRank,
+ * HITS e centralidade de Katz.
+ *
+ * Os três são iterações de potência, e cada iteração é um produto da matriz de
+ * adjacência (ou da sua transposta) por um vetor de doubles. O produto é feito
+ * "puxando" valores: cada vértice soma as contribuições dos arcos que chegam
+ * nele, usando o grafo transposto em CSR. Assim cada posição do vetor de saída
+ * é escrita por uma única thread, e os vértices são divididos em blocos
+ * processados em paralelo sem sincronização.
+ */
+public class AnaliseLigacoes {
+    private static final int TAMANHO_BLOCO = 2048;
+
+    /**
+     * Resultado de uma iteração de potência.
+     */
+    public static class Resultado {
+        private final double[] valores;
+        private final int iteracoes;
+        private final double residuo;
+        private final boolean convergiu;
+
+        Resultado(double[] valores, int iteracoes, double residuo, boolean convergiu) {
+            this.valores = valores;
+            this.iteracoes = iteracoes;
+            this.residuo = residuo;
+            this.convergiu = convergiu;
+        }
+
+        /**
+         * @return O valor de cada vértice (as autoridades, no HITS).
+         */
+        public double[] getValores() {
+            return valores;
+        }
+
+        public int getIteracoes() {
+            return iteracoes;
+        }
+
+        /**
+         * @return Diferença (norma L1) entre as duas últimas iterações.
+         */
+        public double getResiduo() {
+            return residuo;
+        }
+
+        /**
+         * @return false se o limite de iterações foi atingido antes da
+         *         tolerância.
+         */
+        public boolean isConvergiu() {
+            return convergiu;
+        }
+    }
+
+    /**
+     * Resultado do HITS: as autoridades em {@link #getValores()} e os hubs.
+     */
+    public static class ResultadoHits extends Resultado {
+        private final double[] hubs;
+
+        ResultadoHits(double[] autoridades, double[] hubs, int iteracoes, double residuo, boolean convergiu) {
+            super(autoridades, iteracoes, residuo, convergiu);
+            this.hubs = hubs;
+        }
+
+        public double[] getHubs() {
+            return hubs;
+        }
+    }
+
+    /**
+     * Arcos do grafo nos dois sentidos, em vetores CSR.
+     */
+    private static class Matriz {
+        final int n;
+        final int[] inicio;
+        final int[] destinos;
+        final int[] inicioT;
+        final int[] origens;
+        final int blocos;
+
+        Matriz(GrafoIndexado grafo) {
+            n = grafo.numeroVertices();
+            inicio = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                inicio[v + 1] = inicio[v] + grafo.grau(v);
+            }
+            destinos = new int[inicio[n]];
+            for (int v = 0; v < n; v++) {
+                grafo.vizinhos(v, destinos, inicio[v]);
+            }
+            int[][] transposto = AlgoritmosIndexados.transpor(grafo);
+            inicioT = transposto[0];
+            origens = transposto[1];
+            blocos = (n + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        }
+
+        int grauSaida(int v) {
+            return inicio[v + 1] - inicio[v];
+        }
+
+        /**
+         * saida[v] = soma de x[u] para cada arco u -> v (saida = A^T x).
+         */
+        void multiplicarTransposta(double[] x, double[] saida) {
+            IntStream.range(0, blocos).parallel().forEach(b -> {
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                    double soma = 0;
+                    for (int k = inicioT[v]; k < inicioT[v + 1]; k++) {
+                        soma += x[origens[k]];
+                    }
+                    saida[v] = soma;
+                }
+            });
+        }
+
+        /**
+         * saida[u] = soma de x[v] para cada arco u -> v (saida = A x).
+         */
+        void multiplicar(double[] x, double[] saida) {
+            IntStream.range(0, blocos).parallel().forEach(b -> {
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int u = b * TAMANHO_BLOCO; u < fim; u++) {
+                    double soma = 0;
+                    for (int k = inicio[u]; k < inicio[u + 1]; k++) {
+                        soma += x[destinos[k]];
+                    }
+                    saida[u] = soma;
+                }
+            });
+        }
+
+        double somar(double[] x) {
+            return IntStream.range(0, blocos).parallel().mapToDouble(b -> {
+                double soma = 0;
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                    soma += x[v];
+                }
+                return soma;
+            }).sum();
+        }
+
+        double distancia(double[] x, double[] y) {
+            return IntStream.range(0, blocos).parallel().mapToDouble(b -> {
+                double soma = 0;
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                    soma += Math.abs(x[v] - y[v]);
+                }
+                return soma;
+            }).sum();
+        }
+
+        void escalar(double[] x, double fator) {
+            IntStream.range(0, blocos).parallel().forEach(b -> {
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                    x[v] *= fator;
+                }
+            });
+        }
+    }
+
+    /**
+     * PageRank por iteração de potência. A cada passo, com probabilidade
+     * {@code amortecimento} o passeio segue um arco de saída escolhido ao acaso
+     * e, caso contrário, salta para um vértice sorteado pelo vetor de
+     * personalização. Vértices sem arcos de saída (dangling) saltam sempre,
+     * então a soma dos valores se mantém em 1.
+     *
+     * @param grafo
+     *            O grafo. Arcos repetidos contam em dobro.
+     * @param amortecimento
+     *            Probabilidade de seguir um arco (normalmente 0.85).
+     * @param personalizacao
+     *            Peso de cada vértice no salto, ou null para uniforme. É
+     *            normalizado para somar 1.
+     * @param tolerancia
+     *            Para quando a diferença L1 entre iterações for menor que isso.
+     * @param maximoIteracoes
+     *            Limite de iterações.
+     * @return O PageRank de cada vértice.
+     */
+    public static Resultado pageRank(GrafoIndexado grafo, double amortecimento, double[] personalizacao,
+            double tolerancia, int maximoIteracoes) {
+        if (amortecimento < 0 || amortecimento >= 1) {
+            throw new IllegalArgumentException("amortecimento deve estar em [0, 1)");
+        }
+        Medicao medicao = Instrumentacao.iniciar("pageRank");
+        Matriz matriz = new Matriz(grafo);
+        int n = matriz.n;
+        if (n == 0) {
+            return new Resultado(new double[0], 0, 0, true);
+        }
+        double[] salto = new double[n];
+        if (personalizacao == null) {
+            Arrays.fill(salto, 1.0 / n);
+        } else {
+            double total = 0;
+            for (double p : personalizacao) {
+                if (p < 0) {
+                    throw new IllegalArgumentException("personalização com valor negativo");
+                }
+                total += p;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("personalização sem nenhum valor positivo");
+            }
+            for (int v = 0; v < n; v++) {
+                salto[v] = personalizacao[v] / total;
+            }
+        }
+
+        double[] atual = salto.clone();
+        double[] contribuicao = new double[n];
+        double[] proximo = new double[n];
+        int iteracoes = 0;
+        double residuo = Double.POSITIVE_INFINITY;
+        while (iteracoes < maximoIteracoes && residuo >= tolerancia) {
+            double[] x = atual;
+            double pendente = IntStream.range(0, matriz.blocos).parallel().mapToDouble(b -> {
+                double dangling = 0;
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int u = b * TAMANHO_BLOCO; u < fim; u++) {
+                    int grau = matriz.grauSaida(u);
+                    if (grau == 0) {
+                        contribuicao[u] = 0;
+                        dangling += x[u];
+                    } else {
+                        contribuicao[u] = x[u] / grau;
+                    }
+                }
+                return dangling;
+            }).sum();
+
+            double[] y = proximo;
+            matriz.multiplicarTransposta(contribuicao, y);
+            double saltoTotal = amortecimento * pendente + (1 - amortecimento);
+            IntStream.range(0, matriz.blocos).parallel().forEach(b -> {
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                    y[v] = amortecimento * y[v] + saltoTotal * salto[v];
+                }
+            });
+            residuo = matriz.distancia(atual, proximo);
+            double[] troca = atual;
+            atual = proximo;
+            proximo = troca;
+            iteracoes++;
+        }
+        concluir(medicao, matriz, iteracoes);
+        return new Resultado(atual, iteracoes, residuo, residuo < tolerancia);
+    }
+
+    /**
+     * HITS (Kleinberg): a autoridade de um vértice é a soma dos hubs que
+     * apontam para ele, e o hub é a soma das autoridades para as quais ele
+     * aponta. Os dois vetores são normalizados para somar 1 a cada iteração.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param tolerancia
+     *            Para quando a diferença L1 das autoridades e dos hubs for
+     *            menor que isso.
+     * @param maximoIteracoes
+     *            Limite de iterações.
+     * @return Autoridades e hubs.
+     */
+    public static ResultadoHits hits(GrafoIndexado grafo, double tolerancia, int maximoIteracoes) {
+        Medicao medicao = Instrumentacao.iniciar("hits");
+        Matriz matriz = new Matriz(grafo);
+        int n = matriz.n;
+        double[] hubs = new double[n];
+        Arrays.fill(hubs, n == 0 ? 0 : 1.0 / n);
+        double[] autoridades = hubs.clone();
+        double[] novasAutoridades = new double[n];
+        double[] novosHubs = new double[n];
+        int iteracoes = 0;
+        double residuo = n == 0 ? 0 : Double.POSITIVE_INFINITY;
+        while (iteracoes < maximoIteracoes && residuo >= tolerancia) {
+            matriz.multiplicarTransposta(hubs, novasAutoridades);
+            normalizar(matriz, novasAutoridades);
+            matriz.multiplicar(novasAutoridades, novosHubs);
+            normalizar(matriz, novosHubs);
+            residuo = matriz.distancia(autoridades, novasAutoridades) + matriz.distancia(hubs, novosHubs);
+            double[] troca = autoridades;
+            autoridades = novasAutoridades;
+            novasAutoridades = troca;
+            troca = hubs;
+            hubs = novosHubs;
+            novosHubs = troca;
+            iteracoes++;
+        }
+        concluir(medicao, matriz, 2L * iteracoes);
+        return new ResultadoHits(autoridades, hubs, iteracoes, residuo, residuo < tolerancia);
+    }
+
+    private static void normalizar(Matriz matriz, double[] x) {
+        double soma = matriz.somar(x);
+        if (soma > 0) {
+            matriz.escalar(x, 1 / soma);
+        }
+    }
+
+    /**
+     * Centralidade de Katz: {@code x = alfa A^T x + beta}, ou seja, cada
+     * vértice recebe beta mais alfa vezes a soma dos valores de quem aponta
+     * para ele, o que conta os passeios que chegam nele com peso alfa^k para
+     * os de comprimento k. Só converge se alfa for menor que o inverso do
+     * maior autovalor da matriz de adjacência; como esse autovalor não passa do
+     * grau máximo, {@code alfa < 1 / grauMaximo} sempre converge.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param alfa
+     *            Fator de atenuação.
+     * @param beta
+     *            Valor recebido por todo vértice.
+     * @param tolerancia
+     *            Para quando a diferença L1 entre iterações for menor que isso.
+     * @param maximoIteracoes
+     *            Limite de iterações.
+     * @return A centralidade de cada vértice.
+     */
+    public static Resultado katz(GrafoIndexado grafo, double alfa, double beta, double tolerancia,
+            int maximoIteracoes) {
+        if (alfa <= 0) {
+            throw new IllegalArgumentException("alfa deve ser positivo");
+        }
+        Medicao medicao = Instrumentacao.iniciar("katz");
+        Matriz matriz = new Matriz(grafo);
+        int n = matriz.n;
+        double[] atual = new double[n];
+        Arrays.fill(atual, beta);
+        double[] proximo = new double[n];
+        int iteracoes = 0;
+        double residuo = n == 0 ? 0 : Double.POSITIVE_INFINITY;
+        while (iteracoes < maximoIteracoes && residuo >= tolerancia) {
+            matriz.multiplicarTransposta(atual, proximo);
+            double[] y = proximo;
+            IntStream.range(0, matriz.blocos).parallel().forEach(b -> {
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                    y[v] = alfa * y[v] + beta;
+                }
+            });
+            residuo = matriz.distancia(atual, proximo);
+            double[] troca = atual;
+            atual = proximo;
+            proximo = troca;
+            iteracoes++;
+            if (Double.isInfinite(residuo) || Double.isNaN(residuo)) {
+                break; // alfa grande demais: a série diverge
+            }
+        }
+        concluir(medicao, matriz, iteracoes);
+        return new Resultado(atual, iteracoes, residuo, residuo < tolerancia);
+    }
+
+    private static void concluir(Medicao medicao, Matriz matriz, long produtos) {
+        if (medicao != null) {
+            medicao.operacoes = produtos;
+            medicao.arestasVisitadas = produtos * matriz.origens.length;
+            medicao.bytesProcessados = produtos * (4L * matriz.origens.length + 8L * matriz.n);
+            Instrumentacao.concluir(medicao);
+        }
+    }
+}
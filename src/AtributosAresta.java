@@ -0,0 +1,336 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Atributos das arestas guardados por coluna: cada atributo é um vetor
+ * primitivo ({@code int[]}, {@code long[]} ou {@code double[]}) indexado pela
+ * posição da aresta em {@link Grafo#getArestas()}. Assim os algoritmos leem o
+ * custo ou a capacidade de um arco direto de um vetor, sem passar pelo objeto
+ * {@link Aresta}, e o mesmo grafo pode ter vários pesos (custo, capacidade,
+ * latência) ao mesmo tempo.
+ *
+ * Para os algoritmos sobre {@link GrafoCompacto}, {@link GrafoCompacto#porArco}
+ * reordena uma coluna para a ordem dos arcos.
+ */
+public class AtributosAresta {
+    public enum Tipo {
+        INT, LONG, DOUBLE;
+
+        /**
+         * @param nome
+         *            {@code int}, {@code long} ou {@code double}, em qualquer
+         *            caixa.
+         * @return O tipo correspondente.
+         */
+        public static Tipo de(String nome) {
+            switch (nome.toLowerCase(Locale.ROOT)) {
+            case "int":
+                return INT;
+            case "long":
+                return LONG;
+            case "double":
+                return DOUBLE;
+            default:
+                throw new IllegalArgumentException("tipo de atributo desconhecido: " + nome);
+            }
+        }
+    }
+
+    private final LinkedHashMap<String, Object> colunas = new LinkedHashMap<>();
+    private int tamanho;
+
+    /**
+     * @param tamanho
+     *            Quantidade de arestas.
+     */
+    public AtributosAresta(int tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * @return Quantidade de arestas.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @return Os nomes das colunas, na ordem em que foram criadas.
+     */
+    public Set<String> getNomes() {
+        return Collections.unmodifiableSet(colunas.keySet());
+    }
+
+    public boolean contem(String nome) {
+        return colunas.containsKey(nome);
+    }
+
+    /**
+     * @return O tipo da coluna.
+     */
+    public Tipo getTipo(String nome) {
+        Object coluna = coluna(nome);
+        if (coluna instanceof int[]) {
+            return Tipo.INT;
+        }
+        return coluna instanceof long[] ? Tipo.LONG : Tipo.DOUBLE;
+    }
+
+    /**
+     * Cria uma coluna com todos os valores zerados.
+     *
+     * @param nome
+     *            Nome da coluna.
+     * @param tipo
+     *            Tipo dos valores.
+     */
+    public void adicionarColuna(String nome, Tipo tipo) {
+        if (colunas.containsKey(nome)) {
+            throw new IllegalArgumentException("coluna já existe: " + nome);
+        }
+        int capacidade = Math.max(tamanho, 1);
+        switch (tipo) {
+        case INT:
+            colunas.put(nome, new int[capacidade]);
+            break;
+        case LONG:
+            colunas.put(nome, new long[capacidade]);
+            break;
+        default:
+            colunas.put(nome, new double[capacidade]);
+            break;
+        }
+    }
+
+    /**
+     * Guarda um vetor já preenchido como coluna.
+     *
+     * @param nome
+     *            Nome da coluna.
+     * @param valores
+     *            Um {@code int[]}, {@code long[]} ou {@code double[]} com pelo
+     *            menos {@link #tamanho()} posições. O vetor passa a ser da
+     *            coluna.
+     */
+    public void adicionarColuna(String nome, Object valores) {
+        if (colunas.containsKey(nome)) {
+            throw new IllegalArgumentException("coluna já existe: " + nome);
+        }
+        if (!(valores instanceof int[] || valores instanceof long[] || valores instanceof double[])) {
+            throw new IllegalArgumentException("coluna deve ser int[], long[] ou double[]");
+        }
+        if (comprimento(valores) < tamanho) {
+            throw new IllegalArgumentException("coluna " + nome + " com menos de " + tamanho + " valores");
+        }
+        colunas.put(nome, valores);
+    }
+
+    public void removerColuna(String nome) {
+        colunas.remove(nome);
+    }
+
+    /**
+     * @return Os valores da coluna {@code int}. O vetor é compartilhado e pode
+     *         ter mais posições que {@link #tamanho()}.
+     */
+    public int[] getInteiros(String nome) {
+        return (int[]) colunaDoTipo(nome, Tipo.INT);
+    }
+
+    /**
+     * @return Os valores da coluna {@code long}. O vetor é compartilhado e
+     *         pode ter mais posições que {@link #tamanho()}.
+     */
+    public long[] getLongos(String nome) {
+        return (long[]) colunaDoTipo(nome, Tipo.LONG);
+    }
+
+    /**
+     * @return Os valores da coluna {@code double}. O vetor é compartilhado e
+     *         pode ter mais posições que {@link #tamanho()}.
+     */
+    public double[] getReais(String nome) {
+        return (double[]) colunaDoTipo(nome, Tipo.DOUBLE);
+    }
+
+    /**
+     * @return Cópia da coluna convertida para {@code long}.
+     * @throws IllegalArgumentException
+     *             Se a coluna for {@code double} e tiver algum valor não
+     *             inteiro.
+     */
+    public long[] comoLongos(String nome) {
+        Object coluna = coluna(nome);
+        long[] valores = new long[tamanho];
+        if (coluna instanceof int[]) {
+            int[] inteiros = (int[]) coluna;
+            for (int i = 0; i < tamanho; i++) {
+                valores[i] = inteiros[i];
+            }
+        } else if (coluna instanceof long[]) {
+            System.arraycopy(coluna, 0, valores, 0, tamanho);
+        } else {
+            double[] reais = (double[]) coluna;
+            for (int i = 0; i < tamanho; i++) {
+                valores[i] = (long) reais[i];
+                if (valores[i] != reais[i]) {
+                    throw new IllegalArgumentException("coluna " + nome + " tem valor não inteiro: " + reais[i]);
+                }
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * @return Cópia da coluna convertida para {@code double}.
+     */
+    public double[] comoReais(String nome) {
+        Object coluna = coluna(nome);
+        double[] valores = new double[tamanho];
+        if (coluna instanceof int[]) {
+            int[] inteiros = (int[]) coluna;
+            for (int i = 0; i < tamanho; i++) {
+                valores[i] = inteiros[i];
+            }
+        } else if (coluna instanceof long[]) {
+            long[] longos = (long[]) coluna;
+            for (int i = 0; i < tamanho; i++) {
+                valores[i] = longos[i];
+            }
+        } else {
+            System.arraycopy(coluna, 0, valores, 0, tamanho);
+        }
+        return valores;
+    }
+
+    /**
+     * Define o valor de uma aresta, convertendo para o tipo da coluna.
+     *
+     * @param aresta
+     *            Índice da aresta.
+     * @param nome
+     *            Nome da coluna.
+     * @param valor
+     *            O valor.
+     */
+    public void definir(int aresta, String nome, double valor) {
+        if (aresta < 0 || aresta >= tamanho) {
+            throw new IndexOutOfBoundsException("aresta " + aresta);
+        }
+        Object coluna = coluna(nome);
+        if (coluna instanceof int[]) {
+            ((int[]) coluna)[aresta] = (int) valor;
+        } else if (coluna instanceof long[]) {
+            ((long[]) coluna)[aresta] = (long) valor;
+        } else {
+            ((double[]) coluna)[aresta] = valor;
+        }
+    }
+
+    /**
+     * Mesmo que {@link #definir(int, String, double)}, sem perder precisão em
+     * colunas {@code long}.
+     */
+    public void definir(int aresta, String nome, long valor) {
+        if (aresta < 0 || aresta >= tamanho) {
+            throw new IndexOutOfBoundsException("aresta " + aresta);
+        }
+        Object coluna = coluna(nome);
+        if (coluna instanceof long[]) {
+            ((long[]) coluna)[aresta] = valor;
+        } else {
+            definir(aresta, nome, (double) valor);
+        }
+    }
+
+    /**
+     * @return O valor de uma aresta, como {@code double}.
+     */
+    public double valor(int aresta, String nome) {
+        Object coluna = coluna(nome);
+        if (coluna instanceof int[]) {
+            return ((int[]) coluna)[aresta];
+        }
+        return coluna instanceof long[] ? ((long[]) coluna)[aresta] : ((double[]) coluna)[aresta];
+    }
+
+    /**
+     * Acrescenta uma aresta ao fim, com todos os atributos zerados. Os vetores
+     * crescem em dobro, então acrescentar m arestas custa O(m).
+     *
+     * @return O índice da nova aresta.
+     */
+    int acrescentar() {
+        for (Map.Entry<String, Object> entrada : colunas.entrySet()) {
+            Object coluna = entrada.getValue();
+            if (comprimento(coluna) == tamanho) {
+                int nova = Math.max(4, tamanho * 2);
+                if (coluna instanceof int[]) {
+                    entrada.setValue(Arrays.copyOf((int[]) coluna, nova));
+                } else if (coluna instanceof long[]) {
+                    entrada.setValue(Arrays.copyOf((long[]) coluna, nova));
+                } else {
+                    entrada.setValue(Arrays.copyOf((double[]) coluna, nova));
+                }
+            }
+        }
+        return tamanho++;
+    }
+
+    /**
+     * @return Cópia independente, com os vetores do tamanho exato.
+     */
+    public AtributosAresta copiar() {
+        AtributosAresta copia = new AtributosAresta(tamanho);
+        for (Map.Entry<String, Object> entrada : colunas.entrySet()) {
+            Object coluna = entrada.getValue();
+            Object novo;
+            if (coluna instanceof int[]) {
+                novo = Arrays.copyOf((int[]) coluna, Math.max(tamanho, 1));
+            } else if (coluna instanceof long[]) {
+                novo = Arrays.copyOf((long[]) coluna, Math.max(tamanho, 1));
+            } else {
+                novo = Arrays.copyOf((double[]) coluna, Math.max(tamanho, 1));
+            }
+            copia.colunas.put(entrada.getKey(), novo);
+        }
+        return copia;
+    }
+
+    /**
+     * @return Estimativa, em bytes, da memória ocupada pelas colunas.
+     */
+    public long tamanhoEstimado() {
+        long total = 0;
+        for (Object coluna : colunas.values()) {
+            total += 16L + (coluna instanceof int[] ? 4L : 8L) * comprimento(coluna);
+        }
+        return total;
+    }
+
+    private Object coluna(String nome) {
+        Object coluna = colunas.get(nome);
+        if (coluna == null) {
+            throw new IllegalArgumentException("coluna inexistente: " + nome);
+        }
+        return coluna;
+    }
+
+    private Object colunaDoTipo(String nome, Tipo tipo) {
+        if (getTipo(nome) != tipo) {
+            throw new IllegalArgumentException("coluna " + nome + " é " + getTipo(nome) + ", não " + tipo);
+        }
+        return colunas.get(nome);
+    }
+
+    private static int comprimento(Object coluna) {
+        if (coluna instanceof int[]) {
+            return ((int[]) coluna).length;
+        }
+        return coluna instanceof long[] ? ((long[]) coluna).length : ((double[]) coluna).length;
+    }
+}
@@ -0,0 +1,435 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Mede o desempenho de cada método público de {@link Grafo} e do leitor
+ * {@link LeituraEscrita#lerGrafo(String)} sobre grafos sintéticos de tamanhos
+ * crescentes.
+ *
+ * Para cada combinação de família, tamanho e método são feitas execuções de
+ * aquecimento e depois execuções medidas. São reportados tempo por operação,
+ * vazão, bytes alocados por operação e taxa de alocação (somados sobre todas
+ * as threads vivas, inclusive as do pool paralelo) e coletas de lixo
+ * ocorridas. Ao final de cada método é estimado o
+ * expoente de crescimento do tempo em relação ao tamanho (inclinação em
+ * escala log-log).
+ *
+ * Antes de cada execução o cache do grafo é invalidado, para que o cálculo
+ * seja de fato medido, e métodos que alteram o grafo recebem uma cópia
+ * (feita fora da medição).
+ *
+ * Tudo roda numa única JVM, então serve para uma comparação rápida sem
+ * build. Para números publicáveis (JVMs separadas, {@code Blackhole},
+ * profiler de GC) use os benchmarks JMH de {@code jmh/}, que medem os mesmos
+ * casos por meio de {@link #preparacao} e {@link #execucao}.
+ *
+ * Uso: {@code Benchmark [--tamanhos 1000,10000] [--familias ERDOS_RENYI,GRADE]
+ * [--metodos isConexo,fluxoMaximo] [--aquecimento 3] [--iteracoes 5]
+ * [--csv resultado.csv]}.
+ */
+public class Benchmark {
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+
+    /**
+     * Um método a ser medido.
+     */
+    static class Caso {
+        final String nome;
+        final Function<Grafo, Object> execucao;
+        final boolean alteraGrafo;
+        final int tamanhoMaximo;
+
+        Caso(String nome, Function<Grafo, Object> execucao, boolean alteraGrafo, int tamanhoMaximo) {
+            this.nome = nome;
+            this.execucao = execucao;
+            this.alteraGrafo = alteraGrafo;
+            this.tamanhoMaximo = tamanhoMaximo;
+        }
+    }
+
+    /**
+     * Resultado das execuções medidas de um caso.
+     */
+    static class Medida {
+        String familia;
+        int vertices;
+        int arestas;
+        String metodo;
+        double nanosPorOperacao;
+        double bytesPorOperacao;
+        long coletas;
+        long tempoColetaMs;
+        String observacao = "";
+
+        double vazao() {
+            return 1e9 / nanosPorOperacao;
+        }
+
+        double taxaAlocacaoMBs() {
+            return bytesPorOperacao / nanosPorOperacao * 1e9 / (1 << 20);
+        }
+    }
+
+    static List<Caso> casos() {
+        List<Caso> casos = new ArrayList<>();
+        int semLimite = Integer.MAX_VALUE;
+        casos.add(new Caso("isPonderado", Grafo::isPonderado, false, semLimite));
+        casos.add(new Caso("isDirecionado", Grafo::isDirecionado, false, 20_000));
+        casos.add(new Caso("isConexo", Grafo::isConexo, false, semLimite));
+        casos.add(new Caso("isBipartido", Grafo::isBipartido, false, semLimite));
+        casos.add(new Caso("isEuleriano", Grafo::isEuleriano, false, semLimite));
+        casos.add(new Caso("isHamiltoniano", Grafo::isHamiltoniano, false, 12));
+        casos.add(new Caso("isCiclico", Grafo::isCiclico, false, semLimite));
+        casos.add(new Caso("isPlanar", Grafo::isPlanar, false, semLimite));
+        casos.add(new Caso("getComponentesConexas", Grafo::getComponentesConexas, false, semLimite));
+        casos.add(new Caso("encontrarCaminhoEuleriano", Grafo::encontrarCaminhoEuleriano, false, semLimite));
+        casos.add(new Caso("encontrarCaminhoHamiltoniano", Grafo::encontrarCaminhoHamiltoniano, false, 12));
+        casos.add(new Caso("getMatrizAdjacencia", Grafo::getMatrizAdjacencia, false, 5_000));
+        casos.add(new Caso("getListaAdjacencia", Grafo::getListaAdjacencia, false, semLimite));
+        casos.add(new Caso("encontrarVerticesArticulacao", Grafo::encontrarVerticesArticulacao, false, semLimite));
+        casos.add(new Caso("encontrarArestasPonte", Grafo::encontrarArestasPonte, false, semLimite));
+        casos.add(new Caso("gerarArvoreDeProfundidade", g -> g.gerarArvoreDeProfundidade(primeiro(g)), false,
+                semLimite));
+        casos.add(new Caso("gerarArvoreDeLargura", g -> g.gerarArvoreDeLargura(primeiro(g)), false, semLimite));
+        casos.add(new Caso("gerarArvoreGeradoraMinima", Grafo::gerarArvoreGeradoraMinima, false, semLimite));
+        casos.add(new Caso("gerarOrdemTopologica", Grafo::gerarOrdemTopologica, false, semLimite));
+        casos.add(new Caso("fluxoMaximo", g -> g.fluxoMaximo(primeiro(g), ultimo(g)), false, 100_000));
+        casos.add(new Caso("fechoTransitivo", Grafo::fechoTransitivo, false, 300));
+        casos.add(new Caso("caminhoMinimo", g -> g.caminhoMinimo(primeiro(g), ultimo(g)), false, semLimite));
+        casos.add(new Caso("caminhosMinimos", g -> g.caminhosMinimos(primeiro(g), ultimo(g), 10), false, semLimite));
+        casos.add(new Caso("contarTriangulos", Grafo::contarTriangulos, false, semLimite));
+        casos.add(new Caso("getCentralidadeHarmonica", Grafo::getCentralidadeHarmonica, false, 10_000));
+        casos.add(new Caso("getPageRank", Grafo::getPageRank, false, semLimite));
+        casos.add(new Caso("detectarComunidades", g -> g.detectarComunidades(Comunidades.Metodo.LEIDEN), false,
+                semLimite));
+        casos.add(new Caso("corteMinimo", Grafo::corteMinimo, false, 10_000));
+        casos.add(new Caso("getExcentricidades", Grafo::getExcentricidades, false, 10_000));
+        casos.add(new Caso("getDiametro", Grafo::getDiametro, false, semLimite));
+        return casos;
+    }
+
+    /**
+     * Ponte para os benchmarks JMH, que ficam num pacote nomeado e não
+     * enxergam as classes do pacote padrão. Gera o grafo da família e
+     * tamanho pedidos e devolve quem prepara cada invocação, fora da medição:
+     * o próprio grafo com o cache descartado ou, para casos que alteram o
+     * grafo, uma cópia. Para {@code lerGrafo}, devolve o caminho de um
+     * arquivo temporário com o grafo no formato nativo.
+     *
+     * @throws IllegalArgumentException
+     *             Se o método não existe ou o tamanho passa do limite do caso.
+     */
+    public static Supplier<Object> preparacao(String familia, int tamanho, String metodo) throws IOException {
+        Grafo grafo = new GeradorGrafos(42, 10).gerar(GeradorGrafos.Familia.valueOf(familia), tamanho);
+        if (metodo.equals("lerGrafo")) {
+            Path arquivo = Files.createTempFile("benchmark-grafo", ".txt");
+            arquivo.toFile().deleteOnExit();
+            try (Writer saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+                Exportador.exportarGrafo(grafo, Exportador.Formato.NATIVO, saida);
+            }
+            String caminho = arquivo.toString();
+            return () -> caminho;
+        }
+        Caso caso = caso(metodo);
+        if (grafo.getVertices().size() > caso.tamanhoMaximo) {
+            throw new IllegalArgumentException(metodo + " só é medido até " + caso.tamanhoMaximo + " vértices");
+        }
+        return () -> preparar(grafo, caso);
+    }
+
+    /**
+     * @return A execução de um caso sobre o objeto devolvido por
+     *         {@link #preparacao}.
+     * @see #preparacao(String, int, String)
+     */
+    public static Function<Object, Object> execucao(String metodo) {
+        if (metodo.equals("lerGrafo")) {
+            return caminho -> {
+                try {
+                    return LeituraEscrita.lerGrafo((String) caminho);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        }
+        Function<Grafo, Object> execucao = caso(metodo).execucao;
+        return grafo -> execucao.apply((Grafo) grafo);
+    }
+
+    private static Caso caso(String metodo) {
+        for (Caso caso : casos()) {
+            if (caso.nome.equals(metodo)) {
+                return caso;
+            }
+        }
+        throw new IllegalArgumentException("método desconhecido: " + metodo);
+    }
+
+    private static Vertice primeiro(Grafo grafo) {
+        return grafo.getVertices().get("v0");
+    }
+
+    private static Vertice ultimo(Grafo grafo) {
+        return grafo.getVertices().get("v" + (grafo.getVertices().size() - 1));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] tamanhos = { 100, 1_000, 10_000 };
+        List<GeradorGrafos.Familia> familias = new ArrayList<>(Arrays.asList(GeradorGrafos.Familia.values()));
+        List<String> metodos = null;
+        int aquecimento = 3;
+        int iteracoes = 5;
+        String csv = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--tamanhos":
+                    tamanhos = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--familias":
+                    familias.clear();
+                    for (String f : args[i + 1].split(",")) {
+                        familias.add(GeradorGrafos.Familia.valueOf(f.toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--metodos":
+                    metodos = Arrays.asList(args[i + 1].split(","));
+                    break;
+                case "--aquecimento":
+                    aquecimento = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iteracoes":
+                    iteracoes = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--csv":
+                    csv = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+
+        List<Caso> casos = new ArrayList<>();
+        for (Caso caso : casos()) {
+            if (metodos == null || metodos.contains(caso.nome)) {
+                casos.add(caso);
+            }
+        }
+        boolean medirLeitura = metodos == null || metodos.contains("lerGrafo");
+
+        List<Medida> medidas = new ArrayList<>();
+        PrintWriter console = new PrintWriter(System.out, true);
+        console.printf("%-20s %9s %10s %-30s %14s %14s %14s %10s %6s%n", "familia", "vertices", "arestas",
+                "metodo", "ns/op", "ops/s", "B/op", "MB/s aloc", "GCs");
+        for (GeradorGrafos.Familia familia : familias) {
+            for (int tamanho : tamanhos) {
+                Grafo grafo = new GeradorGrafos(42, 10).gerar(familia, tamanho);
+                if (medirLeitura) {
+                    Medida medida = medirLeitura(grafo, aquecimento, iteracoes);
+                    medida.familia = familia.name();
+                    imprimir(console, medida);
+                    medidas.add(medida);
+                }
+                for (Caso caso : casos) {
+                    if (grafo.getVertices().size() > caso.tamanhoMaximo) {
+                        continue;
+                    }
+                    Medida medida = medir(grafo, caso, aquecimento, iteracoes);
+                    medida.familia = familia.name();
+                    imprimir(console, medida);
+                    medidas.add(medida);
+                }
+            }
+        }
+
+        console.println();
+        console.println("Expoente de crescimento (tempo ~ vertices^k):");
+        imprimirEscalas(console, medidas);
+
+        if (csv != null) {
+            try (Writer saida = new FileWriter(csv, StandardCharsets.UTF_8)) {
+                escreverCsv(medidas, saida);
+            }
+        }
+    }
+
+    /**
+     * Mede um caso sobre o grafo dado.
+     */
+    static Medida medir(Grafo grafo, Caso caso, int aquecimento, int iteracoes) {
+        Medida medida = novaMedida(grafo, caso.nome);
+        try {
+            for (int i = 0; i < aquecimento; i++) {
+                caso.execucao.apply(preparar(grafo, caso));
+            }
+            long nanos = 0;
+            long bytes = 0;
+            long coletas = contarColetas();
+            long tempoColeta = tempoColetas();
+            for (int i = 0; i < iteracoes; i++) {
+                Grafo alvo = preparar(grafo, caso);
+                long bytesAntes = bytesAlocados();
+                long inicio = System.nanoTime();
+                Object resultado = caso.execucao.apply(alvo);
+                nanos += System.nanoTime() - inicio;
+                bytes += bytesAlocados() - bytesAntes;
+                consumir(resultado);
+            }
+            medida.nanosPorOperacao = (double) nanos / iteracoes;
+            medida.bytesPorOperacao = (double) bytes / iteracoes;
+            medida.coletas = contarColetas() - coletas;
+            medida.tempoColetaMs = tempoColetas() - tempoColeta;
+        } catch (StackOverflowError e) {
+            medida.nanosPorOperacao = Double.NaN;
+            medida.observacao = "estouro de pilha";
+        } catch (RuntimeException e) {
+            medida.nanosPorOperacao = Double.NaN;
+            medida.observacao = e.toString();
+        }
+        return medida;
+    }
+
+    /**
+     * Mede a leitura do grafo a partir de um arquivo no formato nativo.
+     */
+    static Medida medirLeitura(Grafo grafo, int aquecimento, int iteracoes) throws IOException {
+        Path arquivo = Files.createTempFile("benchmark-grafo", ".txt");
+        try {
+            try (Writer saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+                Exportador.exportarGrafo(grafo, Exportador.Formato.NATIVO, saida);
+            }
+            Caso leitura = new Caso("lerGrafo", g -> {
+                try {
+                    return LeituraEscrita.lerGrafo(arquivo.toString());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }, false, Integer.MAX_VALUE);
+            Medida medida = medir(grafo, leitura, aquecimento, iteracoes);
+            double megabytes = Files.size(arquivo) / (double) (1 << 20);
+            medida.observacao = String.format(Locale.ROOT, "%.1f MB/s lidos",
+                    megabytes / (medida.nanosPorOperacao / 1e9));
+            return medida;
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    private static Grafo preparar(Grafo grafo, Caso caso) {
+        if (caso.alteraGrafo) {
+            return grafo.copiar();
+        }
+        grafo.marcarAlteracao(); // Descarta o cache para medir o cálculo
+        return grafo;
+    }
+
+    private static Medida novaMedida(Grafo grafo, String metodo) {
+        Medida medida = new Medida();
+        medida.vertices = grafo.getVertices().size();
+        medida.arestas = grafo.getArestas().size();
+        medida.metodo = metodo;
+        return medida;
+    }
+
+    private static volatile Object sumidouro;
+
+    /**
+     * Impede que o JIT descarte um resultado não usado: a escrita volátil
+     * publica a referência, então o resultado precisa ter sido calculado.
+     */
+    private static void consumir(Object resultado) {
+        sumidouro = resultado;
+    }
+
+    /**
+     * Bytes alocados por todas as threads vivas. Só a thread atual deixaria
+     * de fora o que os algoritmos paralelos alocam nas threads do
+     * {@code ForkJoinPool}; threads que terminam durante a medição saem da
+     * soma, o que não acontece com as do pool comum, que ficam ativas.
+     */
+    private static long bytesAlocados() {
+        long total = 0;
+        for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    private static long contarColetas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, coletor.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long tempoColetas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, coletor.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static void imprimir(PrintWriter console, Medida m) {
+        console.printf(Locale.ROOT, "%-20s %9d %10d %-30s %14.0f %14.1f %14.0f %10.1f %6d %s%n", m.familia,
+                m.vertices, m.arestas, m.metodo, m.nanosPorOperacao, m.vazao(), m.bytesPorOperacao,
+                m.taxaAlocacaoMBs(), m.coletas, m.observacao);
+    }
+
+    /**
+     * Para cada família e método com pelo menos dois tamanhos medidos, ajusta
+     * uma reta por mínimos quadrados a log(tempo) x log(vertices).
+     */
+    static void imprimirEscalas(PrintWriter console, List<Medida> medidas) {
+        Map<String, List<Medida>> grupos = new LinkedHashMap<>();
+        for (Medida m : medidas) {
+            if (!Double.isNaN(m.nanosPorOperacao) && m.nanosPorOperacao > 0) {
+                grupos.computeIfAbsent(m.familia + " " + m.metodo, k -> new ArrayList<>()).add(m);
+            }
+        }
+        for (Map.Entry<String, List<Medida>> grupo : grupos.entrySet()) {
+            List<Medida> pontos = grupo.getValue();
+            if (pontos.size() < 2) {
+                continue;
+            }
+            double somaX = 0, somaY = 0, somaXY = 0, somaXX = 0;
+            for (Medida m : pontos) {
+                double x = Math.log(m.vertices);
+                double y = Math.log(m.nanosPorOperacao);
+                somaX += x;
+                somaY += y;
+                somaXY += x * y;
+                somaXX += x * x;
+            }
+            int n = pontos.size();
+            double inclinacao = (n * somaXY - somaX * somaY) / (n * somaXX - somaX * somaX);
+            console.printf(Locale.ROOT, "  %-52s k = %.2f%n", grupo.getKey(), inclinacao);
+        }
+    }
+
+    static void escreverCsv(List<Medida> medidas, Writer saida) throws IOException {
+        saida.write("familia,vertices,arestas,metodo,ns_por_op,ops_por_s,bytes_por_op,mb_s_alocados,coletas,"
+                + "tempo_coleta_ms,observacao\n");
+        for (Medida m : medidas) {
+            saida.write(String.format(Locale.ROOT, "%s,%d,%d,%s,%.1f,%.3f,%.1f,%.3f,%d,%d,\"%s\"%n", m.familia,
+                    m.vertices, m.arestas, m.metodo, m.nanosPorOperacao, m.vazao(), m.bytesPorOperacao,
+                    m.taxaAlocacaoMBs(), m.coletas, m.tempoColetaMs, m.observacao));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache de resultados calculados sobre um grafo.
+ *
+ * Cada entrada fica associada à versão do grafo em que foi calculada; quando a
+ * versão muda, todo o conteúdo é descartado. O tamanho é limitado tanto pela
+ * quantidade de entradas quanto por uma estimativa de bytes ocupados, e as
+ * entradas usadas há mais tempo são removidas primeiro.
+ */
+class CacheGrafo {
+    private final int capacidadeEntradas;
+    private final long capacidadeBytes;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long versao = -1;
+    private long bytesUsados = 0;
+
+    private static class Entrada {
+        final Object valor;
+        final long tamanho;
+
+        Entrada(Object valor, long tamanho) {
+            this.valor = valor;
+            this.tamanho = tamanho;
+        }
+    }
+
+    /**
+     * @param capacidadeEntradas
+     *            Número máximo de resultados guardados.
+     * @param capacidadeBytes
+     *            Soma máxima dos tamanhos estimados dos resultados.
+     */
+    CacheGrafo(int capacidadeEntradas, long capacidadeBytes) {
+        this.capacidadeEntradas = capacidadeEntradas;
+        this.capacidadeBytes = capacidadeBytes;
+    }
+
+    /**
+     * Retorna o resultado guardado para a chave, calculando-o se necessário.
+     * O cálculo é feito fora do bloqueio, então duas threads podem calcular o
+     * mesmo valor ao mesmo tempo; apenas um deles fica guardado.
+     *
+     * @param chave
+     *            Identificador do resultado.
+     * @param versaoAtual
+     *            Versão atual do grafo.
+     * @param calculo
+     *            Como calcular o resultado.
+     * @param tamanho
+     *            Estimativa do tamanho do resultado, em bytes.
+     * @return O resultado.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T obter(String chave, long versaoAtual, Supplier<T> calculo, ToLongFunction<T> tamanho) {
+        synchronized (this) {
+            validar(versaoAtual);
+            Entrada entrada = entradas.get(chave);
+            if (entrada != null) {
+                return (T) entrada.valor;
+            }
+        }
+
+        T valor = calculo.get();
+        long bytes = tamanho.applyAsLong(valor);
+
+        synchronized (this) {
+            // Se o grafo mudou durante o cálculo, o resultado já está velho
+            if (versaoAtual == versao && bytes <= capacidadeBytes) {
+                Entrada anterior = entradas.put(chave, new Entrada(valor, bytes));
+                if (anterior != null) {
+                    bytesUsados -= anterior.tamanho;
+                }
+                bytesUsados += bytes;
+                liberarEspaco();
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta tudo se a versão do grafo mudou.
+     */
+    synchronized void validar(long versaoAtual) {
+        if (versaoAtual != versao) {
+            entradas.clear();
+            bytesUsados = 0;
+            versao = versaoAtual;
+        }
+    }
+
+    synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    synchronized long bytesUsados() {
+        return bytesUsados;
+    }
+
+    private void liberarEspaco() {
+        Iterator<Map.Entry<String, Entrada>> iterador = entradas.entrySet().iterator();
+        while ((entradas.size() > capacidadeEntradas || bytesUsados > capacidadeBytes) && iterador.hasNext()) {
+            bytesUsados -= iterador.next().getValue().tamanho;
+            iterador.remove();
+        }
+    }
+}
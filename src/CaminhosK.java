@@ -0,0 +1,669 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Os k menores caminhos entre dois vértices de um {@link GrafoCompacto}, com
+ * um custo não negativo por arco.
+ *
+ * Cada consulta começa com um Dijkstra reverso a partir do destino, que dá a
+ * distância exata h(v) de cada vértice até o destino e a árvore de menores
+ * caminhos. O primeiro caminho é lido direto da árvore.
+ *
+ * {@link #yen(int, int, int)} devolve caminhos simples (sem repetir
+ * vértices). A cada caminho aceito, os desvios de cada vértice do caminho são
+ * buscados em paralelo, só a partir do ponto em que ele se desviou do caminho
+ * que o gerou (regra de Lawler). Cada desvio primeiro tenta seguir a árvore;
+ * se ela passa por um vértice ou arco proibido, roda um A* com h como
+ * potencial, que é exato no grafo inteiro e por isso visita pouco além do
+ * necessário.
+ *
+ * {@link #eppstein(int, int, int)} devolve os k menores passeios, que podem
+ * repetir vértices e arcos, em tempo O(m + n log n + k log k) depois da
+ * árvore: cada passeio é a árvore mais uma sequência de arcos de desvio, e as
+ * sequências são enumeradas em ordem de custo por heaps esquerdistas
+ * persistentes. É o modo indicado para k grande quando ciclos são aceitáveis.
+ *
+ * As distâncias, a árvore, o heap e as marcas das buscas ficam em vetores de
+ * trabalho por thread, reaproveitados entre consultas, então uma consulta só
+ * aloca os caminhos candidatos. Uma instância pode ser usada por várias
+ * threads ao mesmo tempo.
+ */
+public class CaminhosK {
+    /**
+     * A partir deste número de arcos os desvios de um caminho são buscados em
+     * paralelo.
+     */
+    public static final int LIMIAR_PARALELO = 1 << 15;
+
+    /**
+     * Algoritmo da consulta.
+     */
+    public enum Modo {
+        /** Caminhos simples, pelo algoritmo de Yen. */
+        YEN,
+        /** Passeios (podem repetir vértices), pelo algoritmo de Eppstein. */
+        EPPSTEIN
+    }
+
+    /**
+     * Um caminho do resultado, como vetores de índices do grafo compacto.
+     */
+    public static class Caminho {
+        private final int[] vertices;
+        private final int[] arcos;
+        private final double custo;
+        /** Posição do vértice em que o caminho se desviou do que o gerou. */
+        private final int desvio;
+
+        Caminho(int[] vertices, int[] arcos, double custo, int desvio) {
+            this.vertices = vertices;
+            this.arcos = arcos;
+            this.custo = custo;
+            this.desvio = desvio;
+        }
+
+        /**
+         * @return Os vértices, da origem ao destino.
+         */
+        public int[] getVertices() {
+            return vertices;
+        }
+
+        /**
+         * @return Os índices dos arcos usados, em ordem; úteis quando há arcos
+         *         paralelos.
+         */
+        public int[] getArcos() {
+            return arcos;
+        }
+
+        /**
+         * @return A soma dos custos dos arcos.
+         */
+        public double getCusto() {
+            return custo;
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            return outro instanceof Caminho && Arrays.equals(arcos, ((Caminho) outro).arcos)
+                    && vertices[0] == ((Caminho) outro).vertices[0];
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(arcos) + vertices[0];
+        }
+    }
+
+    /**
+     * Vetores de trabalho de uma thread. A árvore (h e proximo) é da consulta
+     * que a thread coordena; o restante é das buscas de desvio que ela
+     * executa, inclusive as de consultas coordenadas por outras threads.
+     */
+    private static final class Espaco {
+        final double[] h;
+        final int[] proximo;
+        final double[] g;
+        final int[] arcoPai;
+        final int[] marca;
+        final int[] bloqueio;
+        final HeapIndexado heap;
+        int rodada;
+
+        Espaco(int n) {
+            h = new double[n];
+            proximo = new int[n];
+            g = new double[n];
+            arcoPai = new int[n];
+            marca = new int[n];
+            bloqueio = new int[n];
+            heap = new HeapIndexado(n);
+        }
+
+        /**
+         * Invalida, em O(1), as distâncias e os bloqueios da busca anterior.
+         */
+        int novaRodada() {
+            if (++rodada == Integer.MAX_VALUE) {
+                Arrays.fill(marca, 0);
+                Arrays.fill(bloqueio, 0);
+                rodada = 1;
+            }
+            return rodada;
+        }
+    }
+
+    /** Nó de um heap esquerdista persistente de arcos de desvio. */
+    private static final class No {
+        final double chave;
+        final int arco;
+        final No esquerda;
+        final No direita;
+        final int posto;
+
+        No(double chave, int arco, No esquerda, No direita) {
+            this.chave = chave;
+            this.arco = arco;
+            this.esquerda = esquerda;
+            this.direita = direita;
+            this.posto = direita == null ? 1 : direita.posto + 1;
+        }
+    }
+
+    /**
+     * Estado da enumeração de Eppstein: um arco de desvio, como nó do heap da
+     * árvore (no != null) ou como posição na lista ordenada de desvios do seu
+     * vértice, e o estado do desvio anterior do passeio.
+     */
+    private static final class Estado {
+        final double custo;
+        final No no;
+        final int arco;
+        final int indice;
+        final Estado anterior;
+
+        Estado(double custo, No no, int arco, int indice, Estado anterior) {
+            this.custo = custo;
+            this.no = no;
+            this.arco = arco;
+            this.indice = indice;
+            this.anterior = anterior;
+        }
+    }
+
+    private final GrafoCompacto grafo;
+    private final double[] custo;
+    /** Origem de cada arco. */
+    private final int[] cauda;
+    /** Arcos de entrada de cada vértice: {@code arcosEntrada[inicioEntrada[v]..]}. */
+    private final int[] inicioEntrada;
+    private final int[] arcosEntrada;
+    private final ThreadLocal<Espaco> espacos;
+
+    /**
+     * @param grafo
+     *            O grafo.
+     * @param custo
+     *            Custo de cada arco, na ordem de {@code grafo.destinos}.
+     * @throws IllegalArgumentException
+     *             Se algum custo for negativo.
+     */
+    public CaminhosK(GrafoCompacto grafo, double[] custo) {
+        int n = grafo.numeroVertices();
+        int m = grafo.destinos.length;
+        if (custo.length != m) {
+            throw new IllegalArgumentException("um custo por arco: " + custo.length + " != " + m);
+        }
+        for (double c : custo) {
+            if (!(c >= 0)) {
+                throw new IllegalArgumentException("custo negativo: " + c);
+            }
+        }
+        this.grafo = grafo;
+        this.custo = custo;
+        cauda = new int[m];
+        inicioEntrada = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int a = grafo.inicio[u]; a < grafo.inicio[u + 1]; a++) {
+                cauda[a] = u;
+                inicioEntrada[grafo.destinos[a] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            inicioEntrada[v + 1] += inicioEntrada[v];
+        }
+        arcosEntrada = new int[m];
+        int[] proxima = Arrays.copyOf(inicioEntrada, n);
+        for (int a = 0; a < m; a++) {
+            arcosEntrada[proxima[grafo.destinos[a]]++] = a;
+        }
+        espacos = ThreadLocal.withInitial(() -> new Espaco(n));
+    }
+
+    /**
+     * @param origem
+     *            Índice do primeiro vértice.
+     * @param destino
+     *            Índice do último vértice.
+     * @param k
+     *            Quantidade máxima de caminhos.
+     * @param modo
+     *            Caminhos simples ({@link Modo#YEN}) ou passeios
+     *            ({@link Modo#EPPSTEIN}).
+     * @return Até k caminhos em ordem crescente de custo; vazio se o destino
+     *         não for alcançável.
+     */
+    public List<Caminho> menores(int origem, int destino, int k, Modo modo) {
+        return modo == Modo.YEN ? yen(origem, destino, k) : eppstein(origem, destino, k);
+    }
+
+    /**
+     * Os k menores caminhos simples, pelo algoritmo de Yen.
+     *
+     * @see #menores(int, int, int, Modo)
+     */
+    public List<Caminho> yen(int origem, int destino, int k) {
+        validar(origem, destino, k);
+        Medicao medicao = Instrumentacao.iniciar("caminhosK");
+        Espaco arvore = espacos.get();
+        List<Caminho> aceitos = new ArrayList<>(k);
+        arvoreAte(arvore, destino, medicao);
+        if (arvore.h[origem] < Double.POSITIVE_INFINITY) {
+            aceitos.add(pelaArvore(arvore, origem, destino, null, 0, 0, 0));
+        }
+        PriorityQueue<Caminho> candidatos = new PriorityQueue<>(CaminhosK::comparar);
+        Set<Caminho> vistos = new HashSet<>();
+        boolean paralelo = grafo.destinos.length >= LIMIAR_PARALELO;
+
+        while (!aceitos.isEmpty() && aceitos.size() < k) {
+            Caminho anterior = aceitos.get(aceitos.size() - 1);
+            int primeiro = anterior.desvio;
+            int quantidade = anterior.vertices.length - 1 - primeiro;
+            Caminho[] desvios = new Caminho[Math.max(0, quantidade)];
+            if (paralelo && quantidade > 1) {
+                IntStream.range(0, quantidade).parallel()
+                        .forEach(i -> desvios[i] = desviar(arvore, anterior, primeiro + i, destino, aceitos));
+            } else {
+                for (int i = 0; i < quantidade; i++) {
+                    desvios[i] = desviar(arvore, anterior, primeiro + i, destino, aceitos);
+                }
+            }
+            if (medicao != null) {
+                medicao.operacoes += quantidade;
+            }
+            for (Caminho c : desvios) {
+                if (c != null && vistos.add(c)) {
+                    candidatos.add(c);
+                }
+            }
+            Caminho proximo = candidatos.poll();
+            if (proximo == null) {
+                break;
+            }
+            aceitos.add(proximo);
+        }
+        Instrumentacao.concluir(medicao);
+        return aceitos;
+    }
+
+    /**
+     * Os k menores passeios, pelo algoritmo de Eppstein. Diferente de
+     * {@link #yen(int, int, int)}, os passeios podem repetir vértices.
+     *
+     * @see #menores(int, int, int, Modo)
+     */
+    public List<Caminho> eppstein(int origem, int destino, int k) {
+        validar(origem, destino, k);
+        Medicao medicao = Instrumentacao.iniciar("caminhosKEppstein");
+        Espaco arvore = espacos.get();
+        List<Caminho> passeios = new ArrayList<>(k);
+        arvoreAte(arvore, destino, medicao);
+        if (arvore.h[origem] == Double.POSITIVE_INFINITY) {
+            Instrumentacao.concluir(medicao);
+            return passeios;
+        }
+        Map<Integer, int[]> listas = new HashMap<>();
+        Map<Integer, No> heaps = new HashMap<>();
+        passeios.add(passeio(arvore, origem, destino, null));
+        PriorityQueue<Estado> fila = new PriorityQueue<>((a, b) -> Double.compare(a.custo, b.custo));
+        No raiz = heapDaArvore(arvore, origem, listas, heaps);
+        if (raiz != null) {
+            fila.add(new Estado(arvore.h[origem] + raiz.chave, raiz, raiz.arco, 0, null));
+        }
+        while (passeios.size() < k && !fila.isEmpty()) {
+            Estado e = fila.poll();
+            passeios.add(passeio(arvore, origem, destino, e));
+            double semEste = e.custo - desvioDe(arvore, e.arco);
+            if (e.no != null) {
+                for (No filho : new No[] { e.no.esquerda, e.no.direita }) {
+                    if (filho != null) {
+                        fila.add(new Estado(semEste + filho.chave, filho, filho.arco, 0, e.anterior));
+                    }
+                }
+            }
+            int[] lista = listaDe(arvore, cauda[e.arco], listas);
+            if (e.indice + 1 < lista.length) {
+                int a = lista[e.indice + 1];
+                fila.add(new Estado(semEste + desvioDe(arvore, a), null, a, e.indice + 1, e.anterior));
+            }
+            No seguinte = heapDaArvore(arvore, grafo.destinos[e.arco], listas, heaps);
+            if (seguinte != null) {
+                fila.add(new Estado(e.custo + seguinte.chave, seguinte, seguinte.arco, 0, e));
+            }
+        }
+        if (medicao != null) {
+            medicao.operacoes += passeios.size();
+        }
+        Instrumentacao.concluir(medicao);
+        return passeios;
+    }
+
+    /**
+     * @return Estimativa, em bytes, da memória dos índices (sem os vetores de
+     *         trabalho das threads).
+     */
+    public long tamanhoEstimado() {
+        return 3 * 16L + 4L * (cauda.length + inicioEntrada.length + arcosEntrada.length);
+    }
+
+    private void validar(int origem, int destino, int k) {
+        int n = grafo.numeroVertices();
+        if (origem < 0 || origem >= n) {
+            throw new IllegalArgumentException("vértice inexistente: " + origem);
+        }
+        if (destino < 0 || destino >= n) {
+            throw new IllegalArgumentException("vértice inexistente: " + destino);
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("k deve ser positivo: " + k);
+        }
+    }
+
+    /**
+     * Dijkstra pelos arcos de entrada a partir do destino: h(v) é a distância
+     * de v ao destino e proximo[v] o arco de v na árvore (-1 no destino e nos
+     * vértices que não o alcançam).
+     */
+    private void arvoreAte(Espaco e, int destino, Medicao medicao) {
+        Arrays.fill(e.h, Double.POSITIVE_INFINITY);
+        Arrays.fill(e.proximo, -1);
+        HeapIndexado heap = e.heap;
+        heap.limpar();
+        e.h[destino] = 0;
+        heap.atualizar(destino, 0);
+        while (!heap.isVazio()) {
+            int v = heap.extrairMinimo();
+            double hv = e.h[v];
+            for (int i = inicioEntrada[v]; i < inicioEntrada[v + 1]; i++) {
+                int a = arcosEntrada[i];
+                int u = cauda[a];
+                double novo = hv + custo[a];
+                if (novo < e.h[u]) {
+                    e.h[u] = novo;
+                    e.proximo[u] = a;
+                    heap.atualizar(u, novo);
+                }
+            }
+            if (medicao != null) {
+                medicao.verticesVisitados++;
+                medicao.arestasVisitadas += inicioEntrada[v + 1] - inicioEntrada[v];
+            }
+        }
+    }
+
+    /**
+     * Busca o melhor desvio de {@code anterior} no vértice da posição
+     * {@code posicao}: o mesmo prefixo até ali e depois o menor caminho até o
+     * destino que não passa pelos vértices do prefixo nem pelos arcos que os
+     * caminhos já aceitos com o mesmo prefixo usam em seguida.
+     *
+     * @return O caminho candidato, ou null se não houver desvio.
+     */
+    private Caminho desviar(Espaco arvore, Caminho anterior, int posicao, int destino, List<Caminho> aceitos) {
+        Espaco e = espacos.get();
+        int rodada = e.novaRodada();
+        int[] prefixo = anterior.arcos;
+        int desvio = anterior.vertices[posicao];
+        double custoPrefixo = 0;
+        for (int i = 0; i < posicao; i++) {
+            e.bloqueio[anterior.vertices[i]] = rodada;
+            custoPrefixo += custo[prefixo[i]];
+        }
+        int[] proibidos = new int[aceitos.size()];
+        int quantidade = 0;
+        for (Caminho c : aceitos) {
+            if (c.arcos.length > posicao && Arrays.equals(c.arcos, 0, posicao, prefixo, 0, posicao)) {
+                proibidos[quantidade++] = c.arcos[posicao];
+            }
+        }
+
+        // Primeiro a árvore: se ela evita o que está proibido, é o melhor desvio
+        boolean livre = !contem(proibidos, quantidade, arvore.proximo[desvio]);
+        for (int v = desvio; livre && v != destino;) {
+            v = grafo.destinos[arvore.proximo[v]];
+            livre = e.bloqueio[v] != rodada;
+        }
+        if (livre) {
+            return pelaArvore(arvore, anterior.vertices[0], destino, anterior, posicao, custoPrefixo, posicao);
+        }
+
+        // Senão, A* com h como potencial
+        HeapIndexado heap = e.heap;
+        heap.limpar();
+        e.marca[desvio] = rodada;
+        e.g[desvio] = 0;
+        e.arcoPai[desvio] = -1;
+        heap.atualizar(desvio, arvore.h[desvio]);
+        boolean achou = false;
+        while (!heap.isVazio()) {
+            int u = heap.extrairMinimo();
+            if (u == destino) {
+                achou = true;
+                break;
+            }
+            double gu = e.g[u];
+            for (int a = grafo.inicio[u]; a < grafo.inicio[u + 1]; a++) {
+                int v = grafo.destinos[a];
+                if (e.bloqueio[v] == rodada || arvore.h[v] == Double.POSITIVE_INFINITY
+                        || (u == desvio && contem(proibidos, quantidade, a))) {
+                    continue;
+                }
+                double novo = gu + custo[a];
+                if (e.marca[v] != rodada || novo < e.g[v]) {
+                    e.marca[v] = rodada;
+                    e.g[v] = novo;
+                    e.arcoPai[v] = a;
+                    heap.atualizar(v, novo + arvore.h[v]);
+                }
+            }
+        }
+        heap.limpar();
+        if (!achou) {
+            return null;
+        }
+        int passos = 0;
+        for (int v = destino; v != desvio; v = cauda[e.arcoPai[v]]) {
+            passos++;
+        }
+        int[] arcos = Arrays.copyOf(prefixo, posicao + passos);
+        int[] vertices = Arrays.copyOf(anterior.vertices, posicao + passos + 1);
+        int i = arcos.length;
+        for (int v = destino; v != desvio; v = cauda[e.arcoPai[v]]) {
+            vertices[i] = v;
+            arcos[--i] = e.arcoPai[v];
+        }
+        return new Caminho(vertices, arcos, custoPrefixo + e.g[destino], posicao);
+    }
+
+    /**
+     * Monta o caminho que segue {@code base} até a posição dada e depois a
+     * árvore até o destino.
+     */
+    private Caminho pelaArvore(Espaco arvore, int origem, int destino, Caminho base, int posicao,
+            double custoPrefixo, int desvio) {
+        int inicio = base == null ? origem : base.vertices[posicao];
+        int passos = 0;
+        for (int v = inicio; v != destino; v = grafo.destinos[arvore.proximo[v]]) {
+            passos++;
+        }
+        int[] arcos = base == null ? new int[passos] : Arrays.copyOf(base.arcos, posicao + passos);
+        int[] vertices = base == null ? new int[passos + 1] : Arrays.copyOf(base.vertices, posicao + passos + 1);
+        vertices[posicao] = inicio;
+        int i = posicao;
+        for (int v = inicio; v != destino; v = grafo.destinos[arvore.proximo[v]]) {
+            arcos[i] = arvore.proximo[v];
+            vertices[++i] = grafo.destinos[arcos[i - 1]];
+        }
+        return new Caminho(vertices, arcos, custoPrefixo + arvore.h[inicio], desvio);
+    }
+
+    private static boolean contem(int[] arcos, int quantidade, int arco) {
+        for (int i = 0; i < quantidade; i++) {
+            if (arcos[i] == arco) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ordem dos candidatos: custo, depois número de arcos e por fim os arcos,
+     * para que o resultado não dependa da ordem em que os desvios terminam.
+     */
+    private static int comparar(Caminho a, Caminho b) {
+        int c = Double.compare(a.custo, b.custo);
+        if (c == 0) {
+            c = Integer.compare(a.arcos.length, b.arcos.length);
+        }
+        return c != 0 ? c : Arrays.compare(a.arcos, b.arcos);
+    }
+
+    /**
+     * @return O quanto o arco a encarece um passeio em relação à árvore.
+     */
+    private double desvioDe(Espaco arvore, int a) {
+        return Math.max(0, custo[a] + arvore.h[grafo.destinos[a]] - arvore.h[cauda[a]]);
+    }
+
+    /**
+     * @return Os arcos de desvio de u (os que saem de u, chegam a um vértice
+     *         que alcança o destino e não são o arco da árvore), em ordem
+     *         crescente de {@link #desvioDe(Espaco, int)}.
+     */
+    private int[] listaDe(Espaco arvore, int u, Map<Integer, int[]> listas) {
+        int[] lista = listas.get(u);
+        if (lista == null) {
+            lista = new int[grafo.inicio[u + 1] - grafo.inicio[u]];
+            double[] chaves = new double[lista.length];
+            int quantidade = 0;
+            for (int a = grafo.inicio[u]; a < grafo.inicio[u + 1]; a++) {
+                if (a != arvore.proximo[u] && arvore.h[grafo.destinos[a]] < Double.POSITIVE_INFINITY) {
+                    double chave = desvioDe(arvore, a);
+                    int i = quantidade++;
+                    for (; i > 0 && chaves[i - 1] > chave; i--) {
+                        chaves[i] = chaves[i - 1];
+                        lista[i] = lista[i - 1];
+                    }
+                    chaves[i] = chave;
+                    lista[i] = a;
+                }
+            }
+            lista = Arrays.copyOf(lista, quantidade);
+            listas.put(u, lista);
+        }
+        return lista;
+    }
+
+    /**
+     * Heap com o melhor desvio de cada vértice do caminho de v até o destino
+     * na árvore. O heap de v é o do sucessor com um nó a mais, então todos
+     * juntos ocupam O(n log n) e só são montados para os vértices visitados.
+     */
+    private No heapDaArvore(Espaco arvore, int v, Map<Integer, int[]> listas, Map<Integer, No> heaps) {
+        int[] pilha = new int[16];
+        int topo = 0;
+        int w = v;
+        while (!heaps.containsKey(w)) {
+            if (topo == pilha.length) {
+                pilha = Arrays.copyOf(pilha, 2 * topo);
+            }
+            pilha[topo++] = w;
+            int a = arvore.proximo[w];
+            if (a < 0) {
+                break;
+            }
+            w = grafo.destinos[a];
+        }
+        while (topo > 0) {
+            int u = pilha[--topo];
+            int a = arvore.proximo[u];
+            No heap = a < 0 ? null : heaps.get(grafo.destinos[a]);
+            int[] lista = listaDe(arvore, u, listas);
+            if (lista.length > 0) {
+                heap = unir(heap, new No(desvioDe(arvore, lista[0]), lista[0], null, null));
+            }
+            heaps.put(u, heap);
+        }
+        return heaps.get(v);
+    }
+
+    /**
+     * União persistente de dois heaps esquerdistas: copia só a espinha
+     * direita, de tamanho O(log n).
+     */
+    private static No unir(No a, No b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (b.chave < a.chave) {
+            No troca = a;
+            a = b;
+            b = troca;
+        }
+        No esquerda = a.esquerda;
+        No direita = unir(a.direita, b);
+        if (esquerda == null || esquerda.posto < direita.posto) {
+            No troca = esquerda;
+            esquerda = direita;
+            direita = troca;
+        }
+        return new No(a.chave, a.arco, esquerda, direita);
+    }
+
+    /**
+     * Monta o passeio que segue a árvore e toma, em ordem, os arcos de desvio
+     * do estado e dos seus anteriores.
+     */
+    private Caminho passeio(Espaco arvore, int origem, int destino, Estado estado) {
+        int quantidade = 0;
+        for (Estado e = estado; e != null; e = e.anterior) {
+            quantidade++;
+        }
+        int[] desvios = new int[quantidade];
+        for (Estado e = estado; e != null; e = e.anterior) {
+            desvios[--quantidade] = e.arco;
+        }
+        int[] arcos = new int[16];
+        int passos = 0;
+        double total = 0;
+        int v = origem;
+        for (int d = 0; d <= desvios.length; d++) {
+            int parada = d < desvios.length ? cauda[desvios[d]] : destino;
+            while (v != parada) {
+                if (passos == arcos.length) {
+                    arcos = Arrays.copyOf(arcos, 2 * passos);
+                }
+                int a = arvore.proximo[v];
+                arcos[passos++] = a;
+                total += custo[a];
+                v = grafo.destinos[a];
+            }
+            if (d < desvios.length) {
+                if (passos == arcos.length) {
+                    arcos = Arrays.copyOf(arcos, 2 * passos);
+                }
+                arcos[passos++] = desvios[d];
+                total += custo[desvios[d]];
+                v = grafo.destinos[desvios[d]];
+            }
+        }
+        arcos = Arrays.copyOf(arcos, passos);
+        int[] vertices = new int[passos + 1];
+        vertices[0] = origem;
+        for (int i = 0; i < passos; i++) {
+            vertices[i + 1] = grafo.destinos[arcos[i]];
+        }
+        return new Caminho(vertices, arcos, total, 0);
+    }
+}
@@ -0,0 +1,350 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Medidas de centralidade sobre um {@link GrafoIndexado}: intermediação
+ * (Brandes), proximidade e centralidade harmônica.
+ *
+ * Todas fazem uma busca de caminhos mínimos por vértice de origem (largura se
+ * o grafo não for ponderado, Dijkstra caso contrário). As origens são
+ * distribuídas entre as threads do {@link java.util.concurrent.ForkJoinPool}
+ * comum, e cada thread tem os seus próprios vetores de distância, contagem de
+ * caminhos e dependência, reaproveitados entre origens. No modo ponderado os
+ * pesos devem ser positivos.
+ */
+public class Centralidade {
+    /** Origens processadas por tarefa. */
+    private static final int ORIGENS_POR_TAREFA = 16;
+
+    /**
+     * Estimativa da intermediação a partir de uma amostra de origens.
+     */
+    public static class Estimativa {
+        private final double[] valores;
+        private final int amostras;
+        private final double erroMaximo;
+        private final double confianca;
+
+        Estimativa(double[] valores, int amostras, double erroMaximo, double confianca) {
+            this.valores = valores;
+            this.amostras = amostras;
+            this.erroMaximo = erroMaximo;
+            this.confianca = confianca;
+        }
+
+        /**
+         * @return A intermediação estimada de cada vértice, na mesma escala de
+         *         {@link Centralidade#intermediacao(GrafoIndexado, boolean, boolean)}.
+         */
+        public double[] getValores() {
+            return valores;
+        }
+
+        public int getAmostras() {
+            return amostras;
+        }
+
+        /**
+         * @return Erro máximo de cada valor, com a probabilidade de
+         *         {@link #getConfianca()}, na mesma escala dos valores.
+         */
+        public double getErroMaximo() {
+            return erroMaximo;
+        }
+
+        public double getConfianca() {
+            return confianca;
+        }
+    }
+
+    /**
+     * Vetores de trabalho de uma thread.
+     */
+    private static class Espaco {
+        final double[] distancia;
+        final double[] caminhos;
+        final double[] dependencia;
+        final int[] ordem;
+        final double[] acumulado;
+        final HeapIndexado heap;
+        final int[] vizinhos;
+        final int[] pesos;
+
+        Espaco(int n, int grauMaximo, boolean ponderado) {
+            distancia = new double[n];
+            Arrays.fill(distancia, -1);
+            caminhos = new double[n];
+            dependencia = new double[n];
+            ordem = new int[n];
+            acumulado = new double[n];
+            heap = ponderado ? new HeapIndexado(n) : null;
+            vizinhos = new int[Math.max(1, grauMaximo)];
+            pesos = new int[Math.max(1, grauMaximo)];
+        }
+
+        /**
+         * Caminhos mínimos a partir de s. Preenche distância e quantidade de
+         * caminhos mínimos dos vértices alcançados.
+         *
+         * @return Quantidade de vértices alcançados; {@code ordem} os tem em
+         *         ordem não decrescente de distância.
+         */
+        int buscar(GrafoIndexado grafo, int s, boolean ponderado) {
+            int alcancados = 0;
+            distancia[s] = 0;
+            caminhos[s] = 1;
+            if (!ponderado) {
+                ordem[alcancados++] = s;
+                for (int cabeca = 0; cabeca < alcancados; cabeca++) {
+                    int u = ordem[cabeca];
+                    int grau = grafo.vizinhos(u, vizinhos, 0);
+                    for (int i = 0; i < grau; i++) {
+                        int v = vizinhos[i];
+                        if (distancia[v] < 0) {
+                            distancia[v] = distancia[u] + 1;
+                            ordem[alcancados++] = v;
+                        }
+                        if (distancia[v] == distancia[u] + 1) {
+                            caminhos[v] += caminhos[u];
+                        }
+                    }
+                }
+                return alcancados;
+            }
+
+            heap.atualizar(s, 0);
+            while (!heap.isVazio()) {
+                int u = heap.extrairMinimo();
+                ordem[alcancados++] = u;
+                int grau = grafo.vizinhos(u, vizinhos, 0);
+                grafo.pesos(u, pesos, 0);
+                for (int i = 0; i < grau; i++) {
+                    int v = vizinhos[i];
+                    if (pesos[i] <= 0) {
+                        throw new IllegalArgumentException("peso não positivo no arco " + grafo.getRotulo(u) + " -> "
+                                + grafo.getRotulo(v));
+                    }
+                    double nova = distancia[u] + pesos[i];
+                    if (distancia[v] < 0 || nova < distancia[v]) {
+                        distancia[v] = nova;
+                        caminhos[v] = caminhos[u];
+                        heap.atualizar(v, nova);
+                    } else if (nova == distancia[v]) {
+                        caminhos[v] += caminhos[u];
+                    }
+                }
+            }
+            return alcancados;
+        }
+
+        /**
+         * Acumula as dependências de s (Brandes), percorrendo os alcançados do
+         * mais distante para o mais próximo e olhando os sucessores de cada um
+         * no DAG de caminhos mínimos.
+         */
+        void acumular(GrafoIndexado grafo, int s, int alcancados, boolean ponderado, double escala) {
+            for (int k = alcancados - 1; k >= 0; k--) {
+                int v = ordem[k];
+                int grau = grafo.vizinhos(v, vizinhos, 0);
+                if (ponderado) {
+                    grafo.pesos(v, pesos, 0);
+                }
+                double soma = 0;
+                for (int i = 0; i < grau; i++) {
+                    int w = vizinhos[i];
+                    double peso = ponderado ? pesos[i] : 1;
+                    if (distancia[w] == distancia[v] + peso) {
+                        soma += (1 + dependencia[w]) / caminhos[w];
+                    }
+                }
+                dependencia[v] = caminhos[v] * soma;
+                if (v != s) {
+                    acumulado[v] += escala * dependencia[v];
+                }
+            }
+        }
+
+        void limpar(int alcancados) {
+            for (int k = 0; k < alcancados; k++) {
+                int v = ordem[k];
+                distancia[v] = -1;
+                caminhos[v] = 0;
+                dependencia[v] = 0;
+            }
+        }
+    }
+
+    /**
+     * Intermediação (betweenness) exata pelo algoritmo de Brandes: para cada
+     * vértice, a soma, sobre todos os pares (s, t), da fração dos caminhos
+     * mínimos de s a t que passam por ele.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param ponderado
+     *            true para usar os pesos dos arcos como distâncias.
+     * @param direcionado
+     *            false se cada aresta aparece nos dois sentidos; nesse caso
+     *            cada par é contado uma única vez.
+     * @return A intermediação de cada vértice.
+     */
+    public static double[] intermediacao(GrafoIndexado grafo, boolean ponderado, boolean direcionado) {
+        int n = grafo.numeroVertices();
+        int[] origens = IntStream.range(0, n).toArray();
+        return intermediacao(grafo, origens, ponderado, direcionado ? 1.0 : 0.5, "intermediacao");
+    }
+
+    /**
+     * Estimativa da intermediação usando apenas uma amostra uniforme de
+     * origens, com o resultado escalado por n/k. Pela desigualdade de
+     * Hoeffding (com união sobre os n vértices), com
+     * {@code k = ln(2n / (1 - confianca)) / (2 erro²)} origens, cada valor
+     * dividido por n(n-2) (metade disso no caso não direcionado) fica a no
+     * máximo {@code erro} do exato com a probabilidade pedida.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param ponderado
+     *            true para usar os pesos dos arcos como distâncias.
+     * @param direcionado
+     *            false se cada aresta aparece nos dois sentidos.
+     * @param erro
+     *            Erro máximo, na escala normalizada (entre 0 e 1).
+     * @param confianca
+     *            Probabilidade de todos os valores respeitarem o erro.
+     * @param semente
+     *            Semente do sorteio das origens.
+     * @return A estimativa, com o erro convertido para a escala dos valores.
+     */
+    public static Estimativa intermediacaoAproximada(GrafoIndexado grafo, boolean ponderado, boolean direcionado,
+            double erro, double confianca, long semente) {
+        if (erro <= 0 || confianca <= 0 || confianca >= 1) {
+            throw new IllegalArgumentException("erro deve ser positivo e confiança entre 0 e 1");
+        }
+        int n = grafo.numeroVertices();
+        long necessarias = (long) Math.ceil(Math.log(2.0 * Math.max(1, n) / (1 - confianca)) / (2 * erro * erro));
+        int k = (int) Math.min(n, necessarias);
+        double fator = direcionado ? 1.0 : 0.5;
+        double normalizacao = Math.max(1.0, n * (n - 2.0)) * fator;
+        if (k == n) {
+            return new Estimativa(intermediacao(grafo, ponderado, direcionado), n, 0, 1);
+        }
+
+        // Amostra sem repetição (Fisher-Yates parcial)
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        int[] todos = IntStream.range(0, n).toArray();
+        for (int i = 0; i < k; i++) {
+            int j = i + aleatorio.nextInt(n - i);
+            int troca = todos[i];
+            todos[i] = todos[j];
+            todos[j] = troca;
+        }
+        int[] origens = Arrays.copyOf(todos, k);
+        double[] valores = intermediacao(grafo, origens, ponderado, fator * n / k, "intermediacaoAproximada");
+        return new Estimativa(valores, k, erro * normalizacao, confianca);
+    }
+
+    private static double[] intermediacao(GrafoIndexado grafo, int[] origens, boolean ponderado, double escala,
+            String nome) {
+        Medicao medicao = Instrumentacao.iniciar(nome);
+        int n = grafo.numeroVertices();
+        int grauMaximo = grafo.grauMaximo();
+        ConcurrentLinkedQueue<Espaco> espacos = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Espaco> local = ThreadLocal.withInitial(() -> {
+            Espaco espaco = new Espaco(n, grauMaximo, ponderado);
+            espacos.add(espaco);
+            return espaco;
+        });
+
+        int tarefas = (origens.length + ORIGENS_POR_TAREFA - 1) / ORIGENS_POR_TAREFA;
+        IntStream.range(0, tarefas).parallel().forEach(t -> {
+            Espaco espaco = local.get();
+            int fim = Math.min(origens.length, (t + 1) * ORIGENS_POR_TAREFA);
+            for (int i = t * ORIGENS_POR_TAREFA; i < fim; i++) {
+                int s = origens[i];
+                int alcancados = espaco.buscar(grafo, s, ponderado);
+                espaco.acumular(grafo, s, alcancados, ponderado, escala);
+                espaco.limpar(alcancados);
+            }
+        });
+
+        double[] resultado = new double[n];
+        for (Espaco espaco : espacos) {
+            for (int v = 0; v < n; v++) {
+                resultado[v] += espaco.acumulado[v];
+            }
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = origens.length;
+            medicao.operacoes = espacos.size();
+            Instrumentacao.concluir(medicao);
+        }
+        return resultado;
+    }
+
+    /**
+     * Centralidade de proximidade (closeness): o inverso da distância média
+     * até os vértices alcançáveis, multiplicado pela fração de vértices
+     * alcançados (Wasserman e Faust), o que a mantém comparável em grafos
+     * desconexos. Vértices que não alcançam nenhum outro ficam com 0.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param ponderado
+     *            true para usar os pesos dos arcos como distâncias.
+     * @return A proximidade de cada vértice.
+     */
+    public static double[] proximidade(GrafoIndexado grafo, boolean ponderado) {
+        return porDistancias(grafo, ponderado, false);
+    }
+
+    /**
+     * Centralidade harmônica: a soma de 1/d(v, u) para todo u alcançável a
+     * partir de v.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param ponderado
+     *            true para usar os pesos dos arcos como distâncias.
+     * @return A centralidade harmônica de cada vértice.
+     */
+    public static double[] harmonica(GrafoIndexado grafo, boolean ponderado) {
+        return porDistancias(grafo, ponderado, true);
+    }
+
+    private static double[] porDistancias(GrafoIndexado grafo, boolean ponderado, boolean harmonica) {
+        Medicao medicao = Instrumentacao.iniciar(harmonica ? "centralidadeHarmonica" : "proximidade");
+        int n = grafo.numeroVertices();
+        int grauMaximo = grafo.grauMaximo();
+        ThreadLocal<Espaco> local = ThreadLocal.withInitial(() -> new Espaco(n, grauMaximo, ponderado));
+        double[] resultado = new double[n];
+
+        int tarefas = (n + ORIGENS_POR_TAREFA - 1) / ORIGENS_POR_TAREFA;
+        IntStream.range(0, tarefas).parallel().forEach(t -> {
+            Espaco espaco = local.get();
+            int fim = Math.min(n, (t + 1) * ORIGENS_POR_TAREFA);
+            for (int s = t * ORIGENS_POR_TAREFA; s < fim; s++) {
+                int alcancados = espaco.buscar(grafo, s, ponderado);
+                double soma = 0;
+                for (int k = 1; k < alcancados; k++) {
+                    double d = espaco.distancia[espaco.ordem[k]];
+                    soma += harmonica ? 1 / d : d;
+                }
+                if (harmonica) {
+                    resultado[s] = soma;
+                } else if (soma > 0) {
+                    double outros = alcancados - 1;
+                    resultado[s] = (outros / soma) * (outros / (n - 1));
+                }
+                espaco.limpar(alcancados);
+            }
+        });
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            Instrumentacao.concluir(medicao);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Cliente que gera carga sobre um {@link ServidorGrafo}: abre várias conexões
+ * em paralelo, envia as consultas em sequência por cada uma e mede a latência
+ * de cada resposta.
+ */
+public class ClienteCarga {
+    private final String host;
+    private final int porta;
+
+    /**
+     * Resumo de uma execução de carga.
+     */
+    public static class Resultado {
+        public final long consultas;
+        public final long erros;
+        public final long duracaoNanos;
+        private final long[] latencias;
+
+        Resultado(long[] latencias, long erros, long duracaoNanos) {
+            this.latencias = latencias;
+            this.consultas = latencias.length;
+            this.erros = erros;
+            this.duracaoNanos = duracaoNanos;
+            Arrays.sort(this.latencias);
+        }
+
+        /**
+         * @return Consultas respondidas por segundo.
+         */
+        public double getVazao() {
+            return consultas / (duracaoNanos / 1e9);
+        }
+
+        /**
+         * @param percentil
+         *            Valor entre 0 e 100.
+         * @return A latência no percentil dado, em nanossegundos.
+         */
+        public long getLatencia(double percentil) {
+            if (latencias.length == 0) {
+                return 0;
+            }
+            int posicao = (int) Math.ceil(percentil / 100.0 * latencias.length) - 1;
+            return latencias[Math.max(0, Math.min(latencias.length - 1, posicao))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d consultas (%d erros) em %.1f ms: %.0f consultas/s, p50 %.1f us, p99 %.1f us, max %.1f us",
+                    consultas, erros, duracaoNanos / 1e6, getVazao(), getLatencia(50) / 1e3,
+                    getLatencia(99) / 1e3, getLatencia(100) / 1e3);
+        }
+    }
+
+    /**
+     * Construtor.
+     *
+     * @param host
+     *            Endereço do servidor; null usa o loopback.
+     * @param porta
+     *            Porta do servidor.
+     */
+    public ClienteCarga(String host, int porta) {
+        this.host = host;
+        this.porta = porta;
+    }
+
+    /**
+     * Executa a carga.
+     *
+     * @param conexoes
+     *            Quantidade de conexões simultâneas.
+     * @param consultasPorConexao
+     *            Quantidade de consultas enviadas por conexão.
+     * @param consultas
+     *            Consultas usadas, em rodízio.
+     * @return O resumo da execução.
+     * @throws InterruptedException
+     *             Se a thread for interrompida enquanto aguarda as conexões.
+     */
+    public Resultado executar(int conexoes, int consultasPorConexao, List<String> consultas)
+            throws InterruptedException {
+        long[][] latencias = new long[conexoes][];
+        long[] erros = new long[conexoes];
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < conexoes; c++) {
+            final int id = c;
+            Thread thread = new Thread(() -> {
+                latencias[id] = new long[consultasPorConexao];
+                try {
+                    largada.await();
+                    erros[id] = conectarEEnviar(id, consultasPorConexao, consultas, latencias[id]);
+                } catch (IOException e) {
+                    erros[id] = consultasPorConexao;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "cliente-carga-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        long totalErros = 0;
+        int total = 0;
+        for (int c = 0; c < conexoes; c++) {
+            totalErros += erros[c];
+            total += latencias[c].length;
+        }
+        long[] todas = new long[total];
+        int posicao = 0;
+        for (long[] l : latencias) {
+            System.arraycopy(l, 0, todas, posicao, l.length);
+            posicao += l.length;
+        }
+        return new Resultado(todas, totalErros, duracao);
+    }
+
+    private long conectarEEnviar(int id, int quantidade, List<String> consultas, long[] latencias)
+            throws IOException {
+        long erros = 0;
+        InetAddress endereco = host == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host);
+        try (Socket socket = new Socket(endereco, porta);
+                BufferedReader entrada = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter saida = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            for (int i = 0; i < quantidade; i++) {
+                String consulta = consultas.get((id + i) % consultas.size());
+                long inicio = System.nanoTime();
+                saida.write(consulta);
+                saida.write('\n');
+                saida.flush();
+                String linha;
+                while ((linha = entrada.readLine()) != null && !linha.equals(ServidorGrafo.FIM_RESPOSTA)) {
+                    if (linha.startsWith("erro:")) {
+                        erros++;
+                    }
+                }
+                latencias[i] = System.nanoTime() - inicio;
+                if (linha == null) {
+                    throw new IOException("Conexão encerrada pelo servidor");
+                }
+            }
+            saida.write("sair\n");
+            saida.flush();
+        }
+        return erros;
+    }
+
+    /**
+     * Uso: {@code ClienteCarga <porta> <conexoes> <consultas-por-conexao>
+     * <arquivo-de-consultas>}. Com {@code --local <arquivo-do-grafo>} no lugar
+     * da porta, sobe um servidor na mesma JVM antes de gerar a carga.
+     */
+    public static void main(String[] args) throws Exception {
+        boolean local = args.length > 0 && args[0].equals("--local");
+        int posicao = local ? 2 : 1;
+        if (args.length != posicao + 3) {
+            usar();
+        }
+        // Argumentos e consultas primeiro: um erro aqui não pode deixar um
+        // servidor local rodando
+        int porta = 0;
+        int conexoes = 0;
+        int consultasPorConexao = 0;
+        try {
+            if (!local) {
+                porta = Integer.parseInt(args[0]);
+            }
+            conexoes = Integer.parseInt(args[posicao]);
+            consultasPorConexao = Integer.parseInt(args[posicao + 1]);
+        } catch (NumberFormatException e) {
+            usar();
+        }
+        if (conexoes <= 0 || consultasPorConexao <= 0) {
+            usar();
+        }
+        List<String> consultas = new ArrayList<>();
+        for (String linha : Files.readAllLines(Paths.get(args[posicao + 2]), StandardCharsets.UTF_8)) {
+            if (!linha.isBlank() && !linha.startsWith("#")) {
+                consultas.add(linha.trim());
+            }
+        }
+        if (consultas.isEmpty()) {
+            throw new IllegalArgumentException("nenhuma consulta em " + args[posicao + 2]);
+        }
+
+        if (!local) {
+            System.out.println(new ClienteCarga(null, porta).executar(conexoes, consultasPorConexao, consultas));
+            return;
+        }
+        try (ServidorGrafo servidor = new ServidorGrafo(LeituraEscrita.lerGrafo(args[1]), 0)) {
+            servidor.iniciar();
+            System.out.println(new ClienteCarga(null, servidor.getPorta()).executar(conexoes, consultasPorConexao,
+                    consultas));
+        }
+    }
+
+    private static void usar() {
+        System.err.println("uso: ClienteCarga <porta | --local arquivo-do-grafo> <conexoes>"
+                + " <consultas-por-conexao> <arquivo-de-consultas>");
+        System.exit(2);
+    }
+}
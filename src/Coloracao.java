@@ -0,0 +1,377 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Coloração de vértices: atribui a cada vértice uma cor (de 0 a k - 1) de modo
+ * que vértices vizinhos tenham cores diferentes. O sentido das arestas é
+ * ignorado.
+ *
+ * Todas as estratégias são gulosas e diferem na ordem em que os vértices são
+ * coloridos; cada vértice recebe a menor cor que nenhum vizinho já colorido
+ * usa. Os vértices de uma mesma cor formam um conjunto independente, então
+ * {@link Resultado#getClasses()} serve para agendar atualizações paralelas
+ * sem conflito: as classes são processadas uma após a outra, e os vértices de
+ * cada classe, em paralelo.
+ */
+public class Coloracao {
+    public enum Estrategia {
+        /** DSatur: colore primeiro o vértice com mais cores distintas na vizinhança. */
+        DSATUR,
+        /** Menor por último: ordem inversa da degeneração, usa no máximo degeneração + 1 cores. */
+        MENOR_ULTIMO,
+        /** Especulativa em paralelo: colore todos de uma vez e corrige os conflitos em rodadas. */
+        ESPECULATIVA
+    }
+
+    /** Abaixo desta quantidade de arcos a coloração especulativa é sequencial. */
+    static final long LIMIAR_PARALELO = 1 << 16;
+    private static final int TAMANHO_BLOCO = 2048;
+
+    /**
+     * Cores atribuídas aos vértices.
+     */
+    public static class Resultado {
+        private final int[] cores;
+        private final int numeroCores;
+        private final int rodadas;
+
+        Resultado(int[] cores, int rodadas) {
+            int maior = -1;
+            for (int c : cores) {
+                maior = Math.max(maior, c);
+            }
+            this.cores = cores;
+            this.numeroCores = maior + 1;
+            this.rodadas = rodadas;
+        }
+
+        /**
+         * @return A cor de cada vértice. O vetor é compartilhado.
+         */
+        public int[] getCores() {
+            return cores;
+        }
+
+        /**
+         * @return Quantidade de cores usadas.
+         */
+        public int getNumeroCores() {
+            return numeroCores;
+        }
+
+        /**
+         * @return Rodadas de correção de conflitos (1 nas estratégias
+         *         sequenciais).
+         */
+        public int getRodadas() {
+            return rodadas;
+        }
+
+        /**
+         * @return Os vértices de cada cor, em ordem crescente de índice.
+         */
+        public int[][] getClasses() {
+            int[] tamanhos = new int[numeroCores];
+            for (int c : cores) {
+                tamanhos[c]++;
+            }
+            int[][] classes = new int[numeroCores][];
+            for (int c = 0; c < numeroCores; c++) {
+                classes[c] = new int[tamanhos[c]];
+            }
+            Arrays.fill(tamanhos, 0);
+            for (int v = 0; v < cores.length; v++) {
+                classes[cores[v]][tamanhos[cores[v]]++] = v;
+            }
+            return classes;
+        }
+    }
+
+    /**
+     * Colore o grafo.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @param estrategia
+     *            A ordem de coloração.
+     * @return As cores.
+     */
+    public static Resultado colorir(GrafoIndexado grafo, boolean simetrico, Estrategia estrategia) {
+        return colorir(AdjacenciaSimples.de(grafo, simetrico, false), estrategia);
+    }
+
+    static Resultado colorir(AdjacenciaSimples grafo, Estrategia estrategia) {
+        switch (estrategia) {
+        case DSATUR:
+            return dsatur(grafo);
+        case MENOR_ULTIMO:
+            return menorUltimo(grafo);
+        default:
+            return especulativa(grafo);
+        }
+    }
+
+    /**
+     * Verifica se nenhum arco liga dois vértices da mesma cor.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param cores
+     *            A cor de cada vértice.
+     * @return true se a coloração é válida.
+     */
+    public static boolean isValida(GrafoIndexado grafo, int[] cores) {
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        for (int u = 0; u < grafo.numeroVertices(); u++) {
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                if (vizinhos[i] != u && cores[vizinhos[i]] == cores[u]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * DSatur (Brélaz): a cada passo colore o vértice com maior saturação, a
+     * quantidade de cores distintas entre os seus vizinhos, desempatando pelo
+     * grau entre os vizinhos ainda sem cor. A escolha usa um
+     * {@link HeapIndexado}, em O(m log n) no total.
+     *
+     * As cores já vistas por cada vértice ficam numa pequena tabela de
+     * dispersão própria, com capacidade proporcional ao grau, para que a
+     * saturação seja atualizada em O(1) por arco; isso ocupa de 2 a 4 inteiros
+     * por arco. Dá em geral menos cores que as outras estratégias, ao custo de
+     * ser sequencial.
+     */
+    static Resultado dsatur(AdjacenciaSimples grafo) {
+        Medicao medicao = Instrumentacao.iniciar("coloracaoDSatur");
+        int n = grafo.numeroVertices();
+        int grauMaximo = grafo.grauMaximo();
+        int[] cores = new int[n];
+        Arrays.fill(cores, -1);
+
+        int[] baseTabela = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            baseTabela[v + 1] = baseTabela[v] + Integer.highestOneBit(Math.max(1, grafo.grau(v)) * 2 - 1) * 2;
+        }
+        // Guarda cor + 1; zero é posição livre
+        int[] vistas = new int[baseTabela[n]];
+        int[] saturacao = new int[n];
+        int[] grauLivre = new int[n];
+        double fator = grauMaximo + 1.0;
+        HeapIndexado heap = new HeapIndexado(n);
+        for (int v = 0; v < n; v++) {
+            grauLivre[v] = grafo.grau(v);
+            heap.atualizar(v, -grauLivre[v]);
+        }
+
+        int[] marca = new int[grauMaximo + 2];
+        Arrays.fill(marca, -1);
+        while (!heap.isVazio()) {
+            int u = heap.extrairMinimo();
+            int cor = menorCorLivre(grafo, u, cores, marca, u);
+            cores[u] = cor;
+            for (int k = grafo.inicio[u]; k < grafo.inicio[u + 1]; k++) {
+                int v = grafo.vizinhos[k];
+                if (cores[v] >= 0) {
+                    continue;
+                }
+                grauLivre[v]--;
+                if (inserirCor(vistas, baseTabela[v], baseTabela[v + 1] - baseTabela[v], cor)) {
+                    saturacao[v]++;
+                }
+                heap.atualizar(v, -(saturacao[v] * fator + grauLivre[v]));
+            }
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            Instrumentacao.concluir(medicao);
+        }
+        return new Resultado(cores, 1);
+    }
+
+    /**
+     * Insere a cor na tabela de dispersão de um vértice.
+     *
+     * @return true se a cor ainda não estava na tabela.
+     */
+    private static boolean inserirCor(int[] tabela, int base, int capacidade, int cor) {
+        int mascara = capacidade - 1;
+        int i = cor * 0x9E3779B9 & mascara;
+        while (tabela[base + i] != 0) {
+            if (tabela[base + i] == cor + 1) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        tabela[base + i] = cor + 1;
+        return true;
+    }
+
+    /**
+     * Menor por último (Matula e Beck): colore na ordem inversa da remoção da
+     * decomposição em k-núcleos, de modo que cada vértice tem no máximo
+     * degeneração vizinhos coloridos antes dele.
+     */
+    static Resultado menorUltimo(AdjacenciaSimples grafo) {
+        Medicao medicao = Instrumentacao.iniciar("coloracaoMenorUltimo");
+        int n = grafo.numeroVertices();
+        int[] remocao = EstatisticasEstruturais.ordemDegeneracao(grafo);
+        int[] cores = new int[n];
+        Arrays.fill(cores, -1);
+        int[] marca = new int[grafo.grauMaximo() + 2];
+        Arrays.fill(marca, -1);
+        for (int i = n - 1; i >= 0; i--) {
+            int v = remocao[i];
+            cores[v] = menorCorLivre(grafo, v, cores, marca, v);
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            Instrumentacao.concluir(medicao);
+        }
+        return new Resultado(cores, 1);
+    }
+
+    /**
+     * Coloração especulativa (Gebremedhin e Manne, na versão iterativa de
+     * Çatalyürek et al.). Cada rodada colore em paralelo todos os vértices
+     * pendentes, lendo as cores dos vizinhos sem sincronização; dois vizinhos
+     * coloridos ao mesmo tempo podem escolher a mesma cor. Depois, também em
+     * paralelo, cada aresta com as duas pontas da mesma cor devolve o vértice
+     * que vem depois na ordem para a lista de pendentes da próxima rodada. A
+     * ordem é a de grau decrescente, que gasta bem menos cores que a
+     * numeração original em grafos com hubs. Os vértices
+     * fora da lista não mudam mais de cor, então cada rodada só precisa
+     * revisar os pendentes, e a quantidade de conflitos cai rapidamente.
+     *
+     * Foi preferida ao Jones-Plassmann, que não tem conflitos mas precisa de
+     * uma rodada por nível do grafo de prioridades e revisita os vizinhos a
+     * cada rodada.
+     */
+    static Resultado especulativa(AdjacenciaSimples grafo) {
+        int n = grafo.numeroVertices();
+        if (grafo.numeroArcos() < LIMIAR_PARALELO) {
+            int[] cores = new int[n];
+            Arrays.fill(cores, -1);
+            int[] marca = new int[grafo.grauMaximo() + 2];
+            Arrays.fill(marca, -1);
+            for (int v : maiorPrimeiro(grafo)) {
+                cores[v] = menorCorLivre(grafo, v, cores, marca, v);
+            }
+            return new Resultado(cores, 1);
+        }
+
+        Medicao medicao = Instrumentacao.iniciar("coloracaoEspeculativa");
+        int[] cores = new int[n];
+        Arrays.fill(cores, -1);
+        int tamanhoMarca = grafo.grauMaximo() + 2;
+        ThreadLocal<int[]> marcas = ThreadLocal.withInitial(() -> {
+            // A posição extra guarda o carimbo atual da thread
+            int[] marca = new int[tamanhoMarca + 1];
+            Arrays.fill(marca, -1);
+            marca[tamanhoMarca] = 0;
+            return marca;
+        });
+        boolean[] emConflito = new boolean[n];
+        int[] pendentes = maiorPrimeiro(grafo);
+        int[] posicao = new int[n];
+        for (int i = 0; i < n; i++) {
+            posicao[pendentes[i]] = i;
+        }
+        int rodadas = 0;
+        long conflitos = 0;
+
+        while (pendentes.length > 0) {
+            rodadas++;
+            int[] lista = pendentes;
+            int blocos = (lista.length + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+
+            IntStream.range(0, blocos).parallel().forEach(b -> {
+                int[] marca = marcas.get();
+                int fim = Math.min(lista.length, (b + 1) * TAMANHO_BLOCO);
+                for (int i = b * TAMANHO_BLOCO; i < fim; i++) {
+                    int carimbo = marca[tamanhoMarca]++;
+                    if (carimbo == Integer.MAX_VALUE) {
+                        Arrays.fill(marca, 0, tamanhoMarca, -1);
+                        marca[tamanhoMarca] = 1;
+                        carimbo = 0;
+                    }
+                    cores[lista[i]] = menorCorLivre(grafo, lista[i], cores, marca, carimbo);
+                }
+            });
+
+            // O fim do forEach garante que todas as cores escritas acima são
+            // visíveis aqui
+            IntStream.range(0, blocos).parallel().forEach(b -> {
+                int fim = Math.min(lista.length, (b + 1) * TAMANHO_BLOCO);
+                for (int i = b * TAMANHO_BLOCO; i < fim; i++) {
+                    int v = lista[i];
+                    boolean conflito = false;
+                    for (int k = grafo.inicio[v]; k < grafo.inicio[v + 1] && !conflito; k++) {
+                        int u = grafo.vizinhos[k];
+                        conflito = cores[u] == cores[v] && posicao[u] < posicao[v];
+                    }
+                    emConflito[v] = conflito;
+                }
+            });
+            pendentes = Arrays.stream(lista).parallel().filter(v -> emConflito[v]).toArray();
+            conflitos += pendentes.length;
+        }
+
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            medicao.operacoes = conflitos;
+            Instrumentacao.concluir(medicao);
+        }
+        return new Resultado(cores, rodadas);
+    }
+
+    /**
+     * Ordena os vértices por grau decrescente, por contagem, mantendo a ordem
+     * de índice entre os de mesmo grau.
+     */
+    private static int[] maiorPrimeiro(AdjacenciaSimples grafo) {
+        int n = grafo.numeroVertices();
+        int grauMaximo = grafo.grauMaximo();
+        int[] inicioGrau = new int[grauMaximo + 2];
+        for (int v = 0; v < n; v++) {
+            inicioGrau[grauMaximo - grafo.grau(v) + 1]++;
+        }
+        for (int d = 0; d <= grauMaximo; d++) {
+            inicioGrau[d + 1] += inicioGrau[d];
+        }
+        int[] ordem = new int[n];
+        for (int v = 0; v < n; v++) {
+            ordem[inicioGrau[grauMaximo - grafo.grau(v)]++] = v;
+        }
+        return ordem;
+    }
+
+    /**
+     * Menor cor não usada pelos vizinhos já coloridos de v. As cores
+     * proibidas são marcadas com o carimbo, que deve ser diferente a cada
+     * chamada com o mesmo vetor de marcas. Um vértice de grau g sempre acha
+     * cor em 0..g, então cores maiores dos vizinhos podem ser ignoradas.
+     */
+    private static int menorCorLivre(AdjacenciaSimples grafo, int v, int[] cores, int[] marca, int carimbo) {
+        int grau = grafo.grau(v);
+        for (int k = grafo.inicio[v]; k < grafo.inicio[v + 1]; k++) {
+            int c = cores[grafo.vizinhos[k]];
+            if (c >= 0 && c <= grau) {
+                marca[c] = carimbo;
+            }
+        }
+        int cor = 0;
+        while (marca[cor] == carimbo) {
+            cor++;
+        }
+        return cor;
+    }
+}
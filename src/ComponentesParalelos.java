@@ -0,0 +1,235 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Componentes conexas em paralelo pelo algoritmo Afforest (Sutton, Ben-Nun e
+ * Barak), uma variação do Shiloach-Vishkin.
+ *
+ * Cada vértice guarda um rótulo que aponta para outro vértice de menor índice
+ * da mesma componente, formando uma floresta. Ligar duas árvores é um único
+ * compare-and-set na raiz de maior índice, e a compressão de caminhos (pointer
+ * jumping) deixa cada vértice apontando direto para a raiz. O Afforest
+ * primeiro liga só os dois primeiros vizinhos de cada vértice, o que costuma
+ * formar quase toda a componente gigante; depois estima por amostragem qual é
+ * essa componente e processa os arcos restantes apenas dos vértices fora dela.
+ *
+ * A amostragem só é válida quando cada arco tem o seu inverso (grafo não
+ * direcionado); em grafos direcionados todos os arcos são processados e o
+ * resultado são as componentes fracamente conexas. Grafos pequenos usam a
+ * versão sequencial com {@link UnionFind}.
+ */
+public class ComponentesParalelos {
+    /** Abaixo desta quantidade de arcos o cálculo é sequencial. */
+    static final long LIMIAR_PARALELO = 1 << 16;
+    private static final int TAMANHO_BLOCO = 4096;
+    private static final int RODADAS_VIZINHOS = 2;
+    private static final int AMOSTRAS = 1024;
+    private static final VarHandle ROTULOS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Resultado do cálculo: a componente de cada vértice e o tamanho de cada
+     * componente.
+     */
+    public static class Resultado {
+        private final int[] componente;
+        private final int[] tamanhos;
+        private final int maior;
+
+        Resultado(int[] componente, int quantidade) {
+            this.componente = componente;
+            this.tamanhos = new int[quantidade];
+            for (int c : componente) {
+                tamanhos[c]++;
+            }
+            int maior = -1;
+            for (int c = 0; c < quantidade; c++) {
+                if (maior < 0 || tamanhos[c] > tamanhos[maior]) {
+                    maior = c;
+                }
+            }
+            this.maior = maior;
+        }
+
+        /**
+         * @return Para cada vértice, o identificador da sua componente (de 0 a
+         *         {@code getQuantidade() - 1}, na ordem do menor vértice de
+         *         cada componente). O vetor é compartilhado.
+         */
+        public int[] getComponente() {
+            return componente;
+        }
+
+        public int getQuantidade() {
+            return tamanhos.length;
+        }
+
+        /**
+         * @return O tamanho de cada componente. O vetor é compartilhado.
+         */
+        public int[] getTamanhos() {
+            return tamanhos;
+        }
+
+        /**
+         * @return Identificador da maior componente, ou -1 se o grafo for vazio.
+         */
+        public int getMaior() {
+            return maior;
+        }
+
+        /**
+         * @return Os vértices da maior componente, em ordem crescente.
+         */
+        public int[] verticesDaMaior() {
+            if (maior < 0) {
+                return new int[0];
+            }
+            int[] vertices = new int[tamanhos[maior]];
+            int k = 0;
+            for (int v = 0; v < componente.length; v++) {
+                if (componente[v] == maior) {
+                    vertices[k++] = v;
+                }
+            }
+            return vertices;
+        }
+    }
+
+    /**
+     * Calcula as componentes conexas.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso (grafo não direcionado),
+     *            o que permite pular os arcos da componente gigante.
+     * @return As componentes.
+     */
+    public static Resultado calcular(GrafoIndexado grafo, boolean simetrico) {
+        int n = grafo.numeroVertices();
+        if (grafo.numeroArcos() < LIMIAR_PARALELO) {
+            int[] componente = AlgoritmosIndexados.componentesConexas(grafo);
+            return new Resultado(componente, AlgoritmosIndexados.contarComponentes(componente));
+        }
+
+        Medicao medicao = Instrumentacao.iniciar("componentesParalelos");
+        AtomicLong arcosVisitados = new AtomicLong();
+        int[] rotulo = new int[n];
+        int blocos = (n + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[Math.max(1, grafo.grauMaximo())]);
+        IntStream.range(0, n).parallel().forEach(v -> rotulo[v] = v);
+
+        // Fase 1: apenas os primeiros vizinhos de cada vértice
+        for (int rodada = 0; rodada < RODADAS_VIZINHOS; rodada++) {
+            int r = rodada;
+            IntStream.range(0, blocos).parallel().forEach(b -> {
+                int[] vizinhos = buffers.get();
+                int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+                for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                    if (grafo.grau(v) > r) {
+                        grafo.vizinhos(v, vizinhos, 0);
+                        ligar(rotulo, v, vizinhos[r]);
+                    }
+                }
+            });
+            comprimir(rotulo, blocos);
+        }
+
+        // Fase 2: a componente mais frequente numa amostra é provavelmente a
+        // gigante, e os seus vértices já estão todos ligados entre si
+        int gigante = simetrico ? maisFrequente(rotulo) : -1;
+
+        // Fase 3: os arcos restantes dos vértices fora da componente gigante
+        IntStream.range(0, blocos).parallel().forEach(b -> {
+            int[] vizinhos = buffers.get();
+            int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+            long visitados = 0;
+            for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                if (rotulo[v] == gigante) {
+                    continue;
+                }
+                int grau = grafo.vizinhos(v, vizinhos, 0);
+                for (int i = simetrico ? RODADAS_VIZINHOS : 0; i < grau; i++) {
+                    ligar(rotulo, v, vizinhos[i]);
+                }
+                visitados += grau;
+            }
+            arcosVisitados.addAndGet(visitados);
+        });
+        comprimir(rotulo, blocos);
+
+        // Cada raiz é o menor vértice da sua componente
+        int quantidade = 0;
+        for (int v = 0; v < n; v++) {
+            rotulo[v] = rotulo[v] == v ? quantidade++ : rotulo[rotulo[v]];
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = arcosVisitados.get();
+            Instrumentacao.concluir(medicao);
+        }
+        return new Resultado(rotulo, quantidade);
+    }
+
+    /**
+     * Liga as árvores de u e v, pendurando a raiz de maior índice na de menor
+     * índice. Se outra thread alterar a raiz no meio do caminho, o
+     * compare-and-set falha e a subida recomeça.
+     */
+    private static void ligar(int[] rotulo, int u, int v) {
+        int p1 = rotulo[u];
+        int p2 = rotulo[v];
+        while (p1 != p2) {
+            int alto = Math.max(p1, p2);
+            int baixo = Math.min(p1, p2);
+            int paiAlto = (int) ROTULOS.getVolatile(rotulo, alto);
+            if (paiAlto == baixo) {
+                break;
+            }
+            if (paiAlto == alto && ROTULOS.compareAndSet(rotulo, alto, alto, baixo)) {
+                break;
+            }
+            p1 = rotulo[rotulo[alto]];
+            p2 = rotulo[baixo];
+        }
+    }
+
+    /**
+     * Faz cada vértice apontar direto para a raiz da sua árvore.
+     */
+    private static void comprimir(int[] rotulo, int blocos) {
+        int n = rotulo.length;
+        IntStream.range(0, blocos).parallel().forEach(b -> {
+            int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+            for (int v = b * TAMANHO_BLOCO; v < fim; v++) {
+                while (rotulo[rotulo[v]] != rotulo[v]) {
+                    rotulo[v] = rotulo[rotulo[v]];
+                }
+            }
+        });
+    }
+
+    private static int maisFrequente(int[] rotulo) {
+        SplittableRandom aleatorio = new SplittableRandom(rotulo.length);
+        int[] amostra = new int[AMOSTRAS];
+        for (int i = 0; i < AMOSTRAS; i++) {
+            amostra[i] = rotulo[aleatorio.nextInt(rotulo.length)];
+        }
+        Arrays.sort(amostra);
+        int melhor = amostra[0];
+        int melhorContagem = 0;
+        for (int i = 0, j; i < AMOSTRAS; i = j) {
+            for (j = i; j < AMOSTRAS && amostra[j] == amostra[i]; j++) {
+            }
+            if (j - i > melhorContagem) {
+                melhorContagem = j - i;
+                melhor = amostra[i];
+            }
+        }
+        return melhor;
+    }
+}
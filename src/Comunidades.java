@@ -0,0 +1,685 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Detecção de comunidades por maximização da modularidade, pelos algoritmos
+ * de Louvain e de Leiden:
+ *
+ * <ol>
+ * <li>Movimento local: cada vértice vai para a comunidade vizinha que mais
+ * aumenta a modularidade, em rodadas até o ganho parar. Os vértices são
+ * processados em paralelo, em blocos de uma ordem aleatória; os totais das
+ * comunidades são atualizados com operações atômicas e as decisões usam os
+ * valores do momento, como na propagação de rótulos de
+ * {@link Particionamento}. Para que dois vértices isolados não troquem de
+ * lugar um com o outro indefinidamente, um vértice sozinho só vai para outra
+ * comunidade de um vértice só se ela tiver número menor.</li>
+ * <li>Refinamento (só Leiden): dentro de cada comunidade, os vértices ainda
+ * sozinhos e bem ligados à comunidade se juntam, gulosamente, à
+ * subcomunidade bem ligada de maior ganho. As comunidades são refinadas em
+ * paralelo, cada uma por uma única thread. Isso garante comunidades
+ * conexas, o que o Louvain não garante.</li>
+ * <li>Agregação: cada comunidade (no Leiden, cada subcomunidade) vira um
+ * vértice do nível seguinte, com as arestas somadas e as internas como laço.
+ * No Leiden, o nível seguinte começa com a partição do movimento local, e
+ * não com um vértice por comunidade.</li>
+ * </ol>
+ *
+ * Repete até um nível em que nenhum vértice muda. O sentido das arestas é
+ * ignorado; o peso de uma aresta é a soma dos pesos dos arcos entre o par
+ * ({@link AdjacenciaSimples}) e laços do grafo original são descartados. O
+ * primeiro nível usa os vetores da adjacência sem copiá-los; os níveis
+ * agregados são bem menores.
+ *
+ * Com mais de uma thread, a ordem dos movimentos depende do escalonamento e
+ * o resultado pode variar entre execuções com a mesma semente.
+ */
+public class Comunidades {
+    /** Resolução da modularidade clássica. */
+    public static final double RESOLUCAO_PADRAO = 1;
+    private static final int MAXIMO_RODADAS = 32;
+    private static final int MAXIMO_NIVEIS = 64;
+    private static final double GANHO_MINIMO = 1e-6;
+    private static final int TAMANHO_BLOCO = 1024;
+    private static final VarHandle TOTAIS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle TAMANHOS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Algoritmo da detecção.
+     */
+    public enum Metodo {
+        LOUVAIN, LEIDEN
+    }
+
+    /**
+     * Comunidades dos vértices.
+     */
+    public static class Resultado {
+        private final int[] comunidade;
+        private final int quantidade;
+        private final double[] modularidades;
+
+        Resultado(int[] comunidade, int quantidade, double[] modularidades) {
+            this.comunidade = comunidade;
+            this.quantidade = quantidade;
+            this.modularidades = modularidades;
+        }
+
+        /**
+         * @return A comunidade (de 0 a {@link #getQuantidade()} - 1) de cada
+         *         vértice. O vetor é compartilhado.
+         */
+        public int[] getComunidade() {
+            return comunidade;
+        }
+
+        public int getQuantidade() {
+            return quantidade;
+        }
+
+        /**
+         * @return A modularidade da partição final.
+         */
+        public double getModularidade() {
+            return modularidades[modularidades.length - 1];
+        }
+
+        /**
+         * @return A modularidade depois do movimento local de cada nível, do
+         *         grafo original ao mais agregado.
+         */
+        public double[] getModularidades() {
+            return modularidades;
+        }
+
+        /**
+         * @return Quantidade de níveis, contando o grafo original.
+         */
+        public int getNiveis() {
+            return modularidades.length;
+        }
+    }
+
+    /**
+     * Um nível: grafo não direcionado em CSR, com cada aresta nas listas das
+     * duas pontas e as arestas internas de cada vértice agregado como laço.
+     */
+    private static final class Nivel {
+        final int[] inicio;
+        final int[] vizinhos;
+        /** Pesos do grafo original (nível 0); null nos agregados. */
+        final int[] pesosOriginais;
+        final long[] pesos;
+        /** Duas vezes o peso das arestas internas de cada vértice. */
+        final long[] laco;
+        /** Grau ponderado, com o laço. */
+        final long[] grau;
+
+        Nivel(int[] inicio, int[] vizinhos, int[] pesosOriginais, long[] pesos, long[] laco) {
+            this.inicio = inicio;
+            this.vizinhos = vizinhos;
+            this.pesosOriginais = pesosOriginais;
+            this.pesos = pesos;
+            this.laco = laco;
+            grau = new long[tamanho()];
+            IntStream.range(0, grau.length).parallel().forEach(v -> {
+                long soma = laco[v];
+                for (int a = inicio[v]; a < inicio[v + 1]; a++) {
+                    soma += peso(a);
+                }
+                grau[v] = soma;
+            });
+        }
+
+        int tamanho() {
+            return inicio.length - 1;
+        }
+
+        long peso(int a) {
+            return pesos != null ? pesos[a] : pesosOriginais != null ? pesosOriginais[a] : 1;
+        }
+
+        long somaGraus() {
+            return Arrays.stream(grau).parallel().sum();
+        }
+    }
+
+    /**
+     * Tabela de espalhamento de chave int para soma long, reaproveitada entre
+     * vértices: só as posições usadas são limpas.
+     */
+    private static final class Tabela {
+        int[] chaves = new int[0];
+        long[] valores;
+        int[] usadas;
+        int quantidade;
+        int deslocamento;
+
+        void preparar(int capacidade) {
+            int tamanho = Integer.highestOneBit(Math.max(8, 2 * capacidade) - 1) << 1;
+            if (tamanho > chaves.length) {
+                chaves = new int[tamanho];
+                Arrays.fill(chaves, -1);
+                valores = new long[tamanho];
+                usadas = new int[tamanho];
+                deslocamento = 32 - Integer.numberOfTrailingZeros(tamanho);
+            } else {
+                for (int i = 0; i < quantidade; i++) {
+                    chaves[usadas[i]] = -1;
+                }
+            }
+            quantidade = 0;
+        }
+
+        void somar(int chave, long valor) {
+            int mascara = chaves.length - 1;
+            int i = (chave * 0x9E3779B1) >>> deslocamento;
+            while (chaves[i] != chave) {
+                if (chaves[i] < 0) {
+                    chaves[i] = chave;
+                    valores[i] = 0;
+                    usadas[quantidade++] = i;
+                    break;
+                }
+                i = (i + 1) & mascara;
+            }
+            valores[i] += valor;
+        }
+
+        boolean contem(int chave) {
+            int mascara = chaves.length - 1;
+            for (int i = (chave * 0x9E3779B1) >>> deslocamento; chaves[i] >= 0; i = (i + 1) & mascara) {
+                if (chaves[i] == chave) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long obter(int chave) {
+            int mascara = chaves.length - 1;
+            for (int i = (chave * 0x9E3779B1) >>> deslocamento; chaves[i] >= 0; i = (i + 1) & mascara) {
+                if (chaves[i] == chave) {
+                    return valores[i];
+                }
+            }
+            return 0;
+        }
+
+        int chave(int j) {
+            return chaves[usadas[j]];
+        }
+
+        long valor(int j) {
+            return valores[usadas[j]];
+        }
+    }
+
+    private static final ThreadLocal<Tabela> TABELAS = ThreadLocal.withInitial(Tabela::new);
+
+    /**
+     * Detecta as comunidades.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @param metodo
+     *            Louvain ou Leiden.
+     * @param resolucao
+     *            Resolução da modularidade; valores maiores dão comunidades
+     *            menores.
+     * @param semente
+     *            Semente da ordem aleatória dos vértices.
+     * @return As comunidades.
+     */
+    public static Resultado detectar(GrafoIndexado grafo, boolean simetrico, Metodo metodo, double resolucao,
+            long semente) {
+        return detectar(AdjacenciaSimples.de(grafo, simetrico, true), metodo, resolucao, semente);
+    }
+
+    static Resultado detectar(AdjacenciaSimples grafo, Metodo metodo, double resolucao, long semente) {
+        Nivel nivel = nivelBase(grafo, resolucao);
+        int n = nivel.tamanho();
+        long doisW = nivel.somaGraus();
+        if (doisW == 0) {
+            return new Resultado(IntStream.range(0, n).toArray(), n, new double[] { 0 });
+        }
+        Medicao medicao = Instrumentacao.iniciar("comunidades");
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        // Vértice do nível atual de cada vértice original
+        int[] verticeDe = IntStream.range(0, n).toArray();
+        int[] inicial = null;
+        double[] modularidades = new double[MAXIMO_NIVEIS];
+        int niveis = 0;
+        int[] comunidade;
+
+        while (true) {
+            int tamanho = nivel.tamanho();
+            comunidade = inicial != null ? inicial : IntStream.range(0, tamanho).toArray();
+            long[] total = new long[tamanho];
+            int[] membros = new int[tamanho];
+            for (int v = 0; v < tamanho; v++) {
+                total[comunidade[v]] += nivel.grau[v];
+                membros[comunidade[v]]++;
+            }
+            int[] ordem = embaralhar(tamanho, aleatorio);
+            moverLocalmente(nivel, comunidade, total, membros, ordem, doisW, resolucao);
+            modularidades[niveis++] = modularidade(nivel, comunidade, total, doisW, resolucao);
+            int quantidade = renumerar(comunidade);
+            if (quantidade == tamanho || niveis == MAXIMO_NIVEIS) {
+                break;
+            }
+
+            int[] agregacao = comunidade;
+            int quantidadeAgregada = quantidade;
+            inicial = null;
+            if (metodo == Metodo.LEIDEN) {
+                int[] refinado = refinar(nivel, comunidade, quantidade, ordem, doisW, resolucao);
+                int refinadas = renumerar(refinado);
+                if (refinadas < tamanho) {
+                    agregacao = refinado;
+                    quantidadeAgregada = refinadas;
+                    inicial = new int[refinadas];
+                    for (int v = 0; v < tamanho; v++) {
+                        inicial[refinado[v]] = comunidade[v];
+                    }
+                } else {
+                    // O refinamento não juntou nada: agrega as partes conexas
+                    // de cada comunidade, o que nunca reduz a modularidade
+                    agregacao = partesConexas(nivel, comunidade);
+                    quantidadeAgregada = renumerar(agregacao);
+                    if (quantidadeAgregada == tamanho) {
+                        comunidade = agregacao;
+                        long[] totalPartes = nivel.grau.clone();
+                        modularidades[niveis - 1] = modularidade(nivel, comunidade, totalPartes, doisW, resolucao);
+                        break;
+                    }
+                }
+            }
+            nivel = agregar(nivel, agregacao, quantidadeAgregada);
+            int[] mapa = agregacao;
+            IntStream.range(0, n).parallel().forEach(v -> verticeDe[v] = mapa[verticeDe[v]]);
+        }
+
+        int[] ultima = comunidade;
+        int[] resultado = new int[n];
+        IntStream.range(0, n).parallel().forEach(v -> resultado[v] = ultima[verticeDe[v]]);
+        int quantidade = renumerar(resultado);
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            medicao.operacoes = niveis;
+            Instrumentacao.concluir(medicao);
+        }
+        return new Resultado(resultado, quantidade, Arrays.copyOf(modularidades, niveis));
+    }
+
+    /**
+     * Modularidade de uma partição qualquer.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @param comunidade
+     *            Comunidade de cada vértice, entre 0 e n - 1.
+     * @param resolucao
+     *            Resolução da modularidade.
+     * @return A modularidade, entre -1/2 e 1.
+     */
+    public static double modularidade(GrafoIndexado grafo, boolean simetrico, int[] comunidade, double resolucao) {
+        Nivel nivel = nivelBase(AdjacenciaSimples.de(grafo, simetrico, true), resolucao);
+        if (comunidade.length != nivel.tamanho()) {
+            throw new IllegalArgumentException(
+                    "uma comunidade por vértice: " + comunidade.length + " != " + nivel.tamanho());
+        }
+        long[] total = new long[nivel.tamanho()];
+        for (int v = 0; v < total.length; v++) {
+            if (comunidade[v] < 0 || comunidade[v] >= total.length) {
+                throw new IllegalArgumentException("comunidade inválida: " + comunidade[v]);
+            }
+            total[comunidade[v]] += nivel.grau[v];
+        }
+        long doisW = nivel.somaGraus();
+        return doisW == 0 ? 0 : modularidade(nivel, comunidade, total, doisW, resolucao);
+    }
+
+    private static Nivel nivelBase(AdjacenciaSimples grafo, double resolucao) {
+        if (!(resolucao > 0)) {
+            throw new IllegalArgumentException("resolução inválida: " + resolucao);
+        }
+        if (grafo.pesos != null) {
+            for (int p : grafo.pesos) {
+                if (p < 0) {
+                    throw new IllegalArgumentException("peso negativo: " + p);
+                }
+            }
+        }
+        return new Nivel(grafo.inicio, grafo.vizinhos, grafo.pesos, null, new long[grafo.numeroVertices()]);
+    }
+
+    private static int[] embaralhar(int n, SplittableRandom aleatorio) {
+        int[] ordem = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = aleatorio.nextInt(i + 1);
+            ordem[i] = ordem[j];
+            ordem[j] = i;
+        }
+        return ordem;
+    }
+
+    /**
+     * Rodadas de movimento local em paralelo até a modularidade parar de
+     * subir.
+     */
+    private static void moverLocalmente(Nivel nivel, int[] comunidade, long[] total, int[] membros, int[] ordem,
+            long doisW, double resolucao) {
+        int n = nivel.tamanho();
+        int blocos = (n + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        double anterior = modularidade(nivel, comunidade, total, doisW, resolucao);
+        for (int rodada = 0; rodada < MAXIMO_RODADAS; rodada++) {
+            int movidos = IntStream.range(0, blocos).parallel().map(bloco -> {
+                Tabela tabela = TABELAS.get();
+                int fim = Math.min(n, (bloco + 1) * TAMANHO_BLOCO);
+                int movidosBloco = 0;
+                for (int i = bloco * TAMANHO_BLOCO; i < fim; i++) {
+                    if (mover(nivel, ordem[i], comunidade, total, membros, doisW, resolucao, tabela)) {
+                        movidosBloco++;
+                    }
+                }
+                return movidosBloco;
+            }).sum();
+            if (movidos == 0) {
+                break;
+            }
+            double atual = modularidade(nivel, comunidade, total, doisW, resolucao);
+            if (atual - anterior < GANHO_MINIMO) {
+                break;
+            }
+            anterior = atual;
+        }
+    }
+
+    /**
+     * Move v para a comunidade vizinha de maior ganho de modularidade, se for
+     * melhor que ficar.
+     *
+     * @return true se v mudou de comunidade.
+     */
+    private static boolean mover(Nivel nivel, int v, int[] comunidade, long[] total, int[] membros, long doisW,
+            double resolucao, Tabela tabela) {
+        int atual = comunidade[v];
+        long grau = nivel.grau[v];
+        tabela.preparar(nivel.inicio[v + 1] - nivel.inicio[v]);
+        for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+            tabela.somar(comunidade[nivel.vizinhos[a]], nivel.peso(a));
+        }
+        // Ganho de v em cada comunidade, a menos do termo comum de sair da atual
+        double fator = resolucao * grau / doisW;
+        int melhor = atual;
+        double melhorGanho = tabela.obter(atual) - fator * ((long) TOTAIS.getOpaque(total, atual) - grau);
+        for (int j = 0; j < tabela.quantidade; j++) {
+            int c = tabela.chave(j);
+            if (c == atual) {
+                continue;
+            }
+            double ganho = tabela.valor(j) - fator * (long) TOTAIS.getOpaque(total, c);
+            if (ganho > melhorGanho || (ganho == melhorGanho && melhor != atual && c < melhor)) {
+                melhorGanho = ganho;
+                melhor = c;
+            }
+        }
+        if (melhor == atual) {
+            return false;
+        }
+        if (melhor > atual && (int) TAMANHOS.getOpaque(membros, atual) == 1
+                && (int) TAMANHOS.getOpaque(membros, melhor) == 1) {
+            return false;
+        }
+        TOTAIS.getAndAdd(total, atual, -grau);
+        TOTAIS.getAndAdd(total, melhor, grau);
+        TAMANHOS.getAndAdd(membros, atual, -1);
+        TAMANHOS.getAndAdd(membros, melhor, 1);
+        comunidade[v] = melhor;
+        return true;
+    }
+
+    /**
+     * Q = Σ_c [ interno_c / 2W - resolução · (total_c / 2W)² ].
+     */
+    private static double modularidade(Nivel nivel, int[] comunidade, long[] total, long doisW, double resolucao) {
+        long interno = IntStream.range(0, nivel.tamanho()).parallel().mapToLong(v -> {
+            long soma = nivel.laco[v];
+            int c = comunidade[v];
+            for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                if (comunidade[nivel.vizinhos[a]] == c) {
+                    soma += nivel.peso(a);
+                }
+            }
+            return soma;
+        }).sum();
+        double quadrados = Arrays.stream(total).parallel().mapToDouble(t -> (double) t * t).sum();
+        return (double) interno / doisW - resolucao * quadrados / ((double) doisW * doisW);
+    }
+
+    /**
+     * Renumera as comunidades de 0 a k - 1, na ordem do primeiro vértice.
+     *
+     * @return k.
+     */
+    private static int renumerar(int[] comunidade) {
+        int[] novo = new int[comunidade.length];
+        Arrays.fill(novo, -1);
+        int quantidade = 0;
+        for (int v = 0; v < comunidade.length; v++) {
+            int c = comunidade[v];
+            if (novo[c] < 0) {
+                novo[c] = quantidade++;
+            }
+            comunidade[v] = novo[c];
+        }
+        return quantidade;
+    }
+
+    /**
+     * @return Os vértices de cada grupo, {@code membros[inicio[c]..inicio[c+1]]},
+     *         na ordem dada.
+     */
+    private static int[][] agrupar(int[] grupo, int quantidade, int[] ordem) {
+        int[] inicio = new int[quantidade + 1];
+        for (int g : grupo) {
+            inicio[g + 1]++;
+        }
+        for (int c = 0; c < quantidade; c++) {
+            inicio[c + 1] += inicio[c];
+        }
+        int[] membros = new int[grupo.length];
+        int[] proxima = Arrays.copyOf(inicio, quantidade);
+        for (int v : ordem) {
+            membros[proxima[grupo[v]]++] = v;
+        }
+        return new int[][] { inicio, membros };
+    }
+
+    /**
+     * Refinamento do Leiden: parte de um vértice por subcomunidade e, dentro
+     * de cada comunidade, junta cada vértice ainda sozinho e bem ligado à
+     * subcomunidade bem ligada de maior ganho (se o ganho não for negativo).
+     * Uma parte S de uma comunidade C é bem ligada se o peso entre S e C - S
+     * é ao menos resolução · total(S) · (total(C) - total(S)) / 2W. Só
+     * arestas de peso positivo juntam vértices, então cada subcomunidade é
+     * conexa por elas.
+     *
+     * @return A subcomunidade de cada vértice (sempre dentro da sua
+     *         comunidade).
+     */
+    private static int[] refinar(Nivel nivel, int[] comunidade, int quantidade, int[] ordem, long doisW,
+            double resolucao) {
+        int n = nivel.tamanho();
+        int[] refinado = IntStream.range(0, n).toArray();
+        long[] totalRefinado = nivel.grau.clone();
+        int[] tamanhoRefinado = new int[n];
+        Arrays.fill(tamanhoRefinado, 1);
+        long[] totalComunidade = new long[quantidade];
+        for (int v = 0; v < n; v++) {
+            totalComunidade[comunidade[v]] += nivel.grau[v];
+        }
+        // Peso entre cada subcomunidade e o resto da sua comunidade
+        long[] externo = new long[n];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            long soma = 0;
+            for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                if (comunidade[nivel.vizinhos[a]] == comunidade[v]) {
+                    soma += nivel.peso(a);
+                }
+            }
+            externo[v] = soma;
+        });
+
+        int[][] grupos = agrupar(comunidade, quantidade, ordem);
+        int[] inicio = grupos[0];
+        int[] membros = grupos[1];
+        IntStream.range(0, quantidade).parallel().forEach(c -> {
+            Tabela tabela = TABELAS.get();
+            double totalC = totalComunidade[c];
+            for (int i = inicio[c]; i < inicio[c + 1]; i++) {
+                int v = membros[i];
+                if (refinado[v] != v || tamanhoRefinado[v] != 1) {
+                    continue;
+                }
+                long grau = nivel.grau[v];
+                if (externo[v] < resolucao * grau * (totalC - grau) / doisW) {
+                    continue;
+                }
+                tabela.preparar(nivel.inicio[v + 1] - nivel.inicio[v]);
+                for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                    int u = nivel.vizinhos[a];
+                    if (comunidade[u] == c && nivel.peso(a) > 0) {
+                        tabela.somar(refinado[u], nivel.peso(a));
+                    }
+                }
+                double fator = resolucao * grau / doisW;
+                int melhor = -1;
+                double melhorGanho = 0;
+                long pesoMelhor = 0;
+                for (int j = 0; j < tabela.quantidade; j++) {
+                    int r = tabela.chave(j);
+                    double ganho = tabela.valor(j) - fator * totalRefinado[r];
+                    boolean bemLigada = externo[r] >= resolucao * totalRefinado[r] * (totalC - totalRefinado[r]) / doisW;
+                    if (bemLigada && ganho >= 0 && (melhor < 0 || ganho > melhorGanho
+                            || (ganho == melhorGanho && r < melhor))) {
+                        melhor = r;
+                        melhorGanho = ganho;
+                        pesoMelhor = tabela.valor(j);
+                    }
+                }
+                if (melhor >= 0) {
+                    externo[melhor] += externo[v] - 2 * pesoMelhor;
+                    totalRefinado[melhor] += grau;
+                    tamanhoRefinado[melhor]++;
+                    tamanhoRefinado[v] = 0;
+                    refinado[v] = melhor;
+                }
+            }
+        });
+        return refinado;
+    }
+
+    /**
+     * @return As componentes conexas, por arestas de peso positivo, de cada
+     *         comunidade: vértices ligados e na mesma comunidade ficam juntos.
+     */
+    private static int[] partesConexas(Nivel nivel, int[] comunidade) {
+        int n = nivel.tamanho();
+        int[] parte = new int[n];
+        Arrays.fill(parte, -1);
+        int[] fila = new int[n];
+        for (int r = 0; r < n; r++) {
+            if (parte[r] >= 0) {
+                continue;
+            }
+            parte[r] = r;
+            int cauda = 0;
+            fila[cauda++] = r;
+            for (int cabeca = 0; cabeca < cauda; cabeca++) {
+                int v = fila[cabeca];
+                for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                    int u = nivel.vizinhos[a];
+                    if (parte[u] < 0 && comunidade[u] == comunidade[r] && nivel.peso(a) > 0) {
+                        parte[u] = r;
+                        fila[cauda++] = u;
+                    }
+                }
+            }
+        }
+        return parte;
+    }
+
+    /**
+     * Constrói o nível agregado: cada grupo vira um vértice, as arestas entre
+     * os mesmos dois grupos são somadas e as internas viram laço. Duas
+     * passagens em paralelo por grupo, uma para contar os vizinhos e outra
+     * para escrevê-los, sem vetores intermediários por aresta.
+     */
+    private static Nivel agregar(Nivel fino, int[] grupo, int quantidade) {
+        int[] ordem = IntStream.range(0, fino.tamanho()).toArray();
+        int[][] grupos = agrupar(grupo, quantidade, ordem);
+        int[] inicioMembros = grupos[0];
+        int[] membros = grupos[1];
+        long[] laco = new long[quantidade];
+        int[] grau = new int[quantidade];
+        IntStream.range(0, quantidade).parallel().forEach(c -> {
+            Tabela tabela = vizinhosDoGrupo(fino, grupo, c, inicioMembros, membros, quantidade);
+            long interno = tabela.obter(c);
+            for (int i = inicioMembros[c]; i < inicioMembros[c + 1]; i++) {
+                interno += fino.laco[membros[i]];
+            }
+            laco[c] = interno;
+            grau[c] = tabela.quantidade - (tabela.contem(c) ? 1 : 0);
+        });
+        int[] inicio = new int[quantidade + 1];
+        for (int c = 0; c < quantidade; c++) {
+            inicio[c + 1] = Math.addExact(inicio[c], grau[c]);
+        }
+        int[] vizinhos = new int[inicio[quantidade]];
+        long[] pesos = new long[vizinhos.length];
+        IntStream.range(0, quantidade).parallel().forEach(c -> {
+            Tabela tabela = vizinhosDoGrupo(fino, grupo, c, inicioMembros, membros, quantidade);
+            int escrito = inicio[c];
+            for (int j = 0; j < tabela.quantidade; j++) {
+                int d = tabela.chave(j);
+                if (d != c) {
+                    vizinhos[escrito] = d;
+                    pesos[escrito++] = tabela.valor(j);
+                }
+            }
+        });
+        return new Nivel(inicio, vizinhos, null, pesos, laco);
+    }
+
+    /**
+     * @return A tabela da thread com o peso de c para cada grupo vizinho
+     *         (incluindo o próprio c, pelas arestas internas).
+     */
+    private static Tabela vizinhosDoGrupo(Nivel fino, int[] grupo, int c, int[] inicioMembros, int[] membros,
+            int quantidade) {
+        long arcos = 0;
+        for (int i = inicioMembros[c]; i < inicioMembros[c + 1]; i++) {
+            int v = membros[i];
+            arcos += fino.inicio[v + 1] - fino.inicio[v];
+        }
+        Tabela tabela = TABELAS.get();
+        tabela.preparar((int) Math.min(arcos, quantidade));
+        for (int i = inicioMembros[c]; i < inicioMembros[c + 1]; i++) {
+            int v = membros[i];
+            for (int a = fino.inicio[v]; a < fino.inicio[v + 1]; a++) {
+                tabela.somar(grupo[fino.vizinhos[a]], fino.peso(a));
+            }
+        }
+        return tabela;
+    }
+}
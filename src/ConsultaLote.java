@@ -0,0 +1,498 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Executa consultas em lote sobre um grafo carregado uma única vez.
+ *
+ * Cada linha da entrada é um comando seguido de argumentos separados por
+ * espaços, por exemplo {@code caminho a b}, {@code pontes} ou
+ * {@code fluxo s t}. {@code preordem v} e {@code posordem v} listam a busca
+ * em profundidade a partir de v, ou de todas as componentes com
+ * {@code preordem v floresta}. {@code caminhos a b k} lista os k menores
+ * caminhos simples de a até b, um por linha, com o custo; {@code corte}
+ * escreve o valor do corte mínimo global e os vértices do lado menor;
+ * {@code comunidades [louvain|leiden]} escreve a modularidade e uma
+ * comunidade por linha; {@code raio} escreve o raio e os vértices do
+ * centro. Caminho, distância, fluxo e árvore geradora
+ * aceitam por último o nome de um atributo das arestas no lugar do peso,
+ * como em {@code caminho a b latencia}. Linhas vazias e linhas iniciadas por
+ * {@code #} são ignoradas. Para cada comando é escrita uma linha
+ * {@code > comando}, o resultado e uma linha {@code # tempo} com a duração da
+ * consulta. Um erro em uma consulta é reportado na saída e não interrompe as
+ * seguintes.
+ *
+ * Nenhum comando altera o grafo (o caminho euleriano, por exemplo, trabalha
+ * sobre uma cópia das listas de adjacência), então as consultas podem rodar
+ * em sequência ou em paralelo sobre o mesmo grafo.
+ */
+public class ConsultaLote {
+    private final Grafo grafo;
+    private boolean reportarTempos = true;
+    private boolean ecoarConsultas = true;
+
+    /**
+     * Construtor que recebe o grafo já carregado.
+     *
+     * @param grafo
+     *            O grafo sobre o qual as consultas são executadas.
+     */
+    public ConsultaLote(Grafo grafo) {
+        this.grafo = grafo;
+    }
+
+    /**
+     * Define se as linhas de tempo por consulta devem ser escritas.
+     *
+     * @param reportarTempos
+     *            true para escrever o tempo de cada consulta.
+     */
+    public void setReportarTempos(boolean reportarTempos) {
+        this.reportarTempos = reportarTempos;
+    }
+
+    /**
+     * Define se cada consulta deve ser repetida na saída antes do resultado.
+     *
+     * @param ecoarConsultas
+     *            true para escrever a linha {@code > comando}.
+     */
+    public void setEcoarConsultas(boolean ecoarConsultas) {
+        this.ecoarConsultas = ecoarConsultas;
+    }
+
+    /**
+     * Lê e executa todas as consultas da entrada, escrevendo os resultados na
+     * saída. A saída é esvaziada sempre que não há mais entrada disponível de
+     * imediato, para que o lote funcione tanto com arquivos quanto com pipes.
+     *
+     * @param entrada
+     *            Fonte das consultas, uma por linha.
+     * @param saida
+     *            Destino dos resultados.
+     * @return Quantidade de consultas executadas.
+     * @throws IOException
+     *             Se ocorrer um erro de leitura ou escrita.
+     */
+    public long executar(Reader entrada, Writer saida) throws IOException {
+        BufferedReader leitor = entrada instanceof BufferedReader ? (BufferedReader) entrada
+                : new BufferedReader(entrada);
+        BufferedWriter escritor = saida instanceof BufferedWriter ? (BufferedWriter) saida
+                : new BufferedWriter(saida, 1 << 16);
+
+        long consultas = 0;
+        long inicioLote = System.nanoTime();
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+            executarConsulta(linha, escritor);
+            consultas++;
+            if (!leitor.ready()) {
+                escritor.flush();
+            }
+        }
+        if (reportarTempos) {
+            escritor.write("# " + consultas + " consultas em " + formatarTempo(System.nanoTime() - inicioLote));
+            escritor.newLine();
+        }
+        escritor.flush();
+        return consultas;
+    }
+
+    /**
+     * Executa uma única consulta e escreve o resultado.
+     *
+     * @param linha
+     *            O comando e seus argumentos.
+     * @param saida
+     *            Destino do resultado.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public void executarConsulta(String linha, Writer saida) throws IOException {
+        String[] partes = linha.trim().split("\\s+");
+        if (ecoarConsultas) {
+            saida.write("> ");
+            saida.write(linha);
+            saida.write('\n');
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            responder(partes, saida);
+        } catch (IllegalArgumentException e) {
+            saida.write("erro: " + e.getMessage() + "\n");
+        } catch (RuntimeException e) {
+            saida.write("erro: " + e + "\n");
+        } catch (StackOverflowError e) {
+            // Buscas ainda recursivas (como a hamiltoniana) em entradas grandes;
+            // a pilha já foi desfeita aqui, então as próximas consultas seguem
+            saida.write("erro: pilha esgotada; entrada grande demais para esta consulta\n");
+        }
+        if (reportarTempos) {
+            saida.write("# " + formatarTempo(System.nanoTime() - inicio) + "\n");
+        }
+    }
+
+    private void responder(String[] partes, Writer saida) throws IOException {
+        String comando = partes[0].toLowerCase(Locale.ROOT);
+
+        switch (comando) {
+            case "vertices":
+                escreverLinha(saida, grafo.getVertices().size());
+                break;
+            case "arestas":
+            case "edges":
+                escreverLinha(saida, grafo.getArestas().size());
+                break;
+            case "conexo":
+            case "connected":
+                escreverLinha(saida, grafo.isConexo());
+                break;
+            case "bipartido":
+            case "bipartite":
+                escreverLinha(saida, grafo.isBipartido());
+                break;
+            case "euleriano":
+            case "eulerian":
+                escreverLinha(saida, grafo.isEuleriano());
+                break;
+            case "hamiltoniano":
+            case "hamiltonian":
+                escreverLinha(saida, grafo.isHamiltoniano());
+                break;
+            case "ciclico":
+            case "cyclic":
+                escreverLinha(saida, grafo.isCiclico());
+                break;
+            case "ciclo":
+            case "cycle":
+                escreverVertices(saida, grafo.encontrarCiclo(), " -> ");
+                break;
+            case "ciclos":
+            case "cycles":
+                int limite = partes.length > 1 ? Integer.parseInt(partes[1]) : 100;
+                for (List<Vertice> ciclo : grafo.enumerarCiclos(limite)) {
+                    escreverVertices(saida, ciclo, " -> ");
+                }
+                break;
+            case "intermediacao":
+            case "betweenness":
+                escreverValores(saida, grafo.getCentralidadeIntermediacao());
+                break;
+            case "proximidade":
+            case "closeness":
+                escreverValores(saida, grafo.getCentralidadeProximidade());
+                break;
+            case "harmonica":
+            case "harmonic":
+                escreverValores(saida, grafo.getCentralidadeHarmonica());
+                break;
+            case "pagerank":
+                escreverValores(saida, grafo.getPageRank());
+                break;
+            case "hits":
+                AnaliseLigacoes.ResultadoHits hits = grafo.getHits();
+                GrafoCompacto compacto = grafo.getCompacto();
+                for (int v = 0; v < compacto.numeroVertices(); v++) {
+                    escreverLinha(saida, compacto.getRotulo(v) + " " + hits.getValores()[v] + " " + hits.getHubs()[v]);
+                }
+                break;
+            case "katz":
+                double alfa = partes.length > 1 ? Double.parseDouble(partes[1])
+                        : 1.0 / (grafo.getCompacto().grauMaximo() + 1);
+                escreverValores(saida, grafo.getCentralidadeKatz(alfa));
+                break;
+            case "triangulos":
+            case "triangles":
+                escreverLinha(saida, grafo.contarTriangulos());
+                break;
+            case "agrupamento":
+            case "clustering":
+                escreverLinha(saida, grafo.getAgrupamentoGlobal() + " " + grafo.getAgrupamentoMedio());
+                escreverValores(saida, grafo.getAgrupamentoLocal());
+                break;
+            case "nucleos":
+            case "kcore":
+                escreverValores(saida, grafo.getNucleos());
+                break;
+            case "coloracao":
+            case "coloring":
+                Coloracao.Estrategia estrategia = partes.length > 1 ? estrategiaColoracao(partes[1])
+                        : Coloracao.Estrategia.DSATUR;
+                escreverLinha(saida, grafo.getColoracao(estrategia).getNumeroCores());
+                escreverValores(saida, grafo.colorir(estrategia));
+                break;
+            case "particionar":
+            case "partition":
+                int k = partes.length > 1 ? Integer.parseInt(partes[1]) : 2;
+                Particionamento.Resultado particao = grafo.particionar(k);
+                escreverLinha(saida, "corte " + particao.getCorte());
+                for (List<Vertice> parte : grafo.getPartes(k)) {
+                    escreverVertices(saida, parte, " ");
+                }
+                break;
+            case "comunidades":
+            case "communities":
+                Comunidades.Metodo metodo = partes.length > 1 && partes[1].equalsIgnoreCase("louvain")
+                        ? Comunidades.Metodo.LOUVAIN
+                        : Comunidades.Metodo.LEIDEN;
+                escreverLinha(saida, "modularidade " + grafo.detectarComunidades(metodo).getModularidade());
+                for (List<Vertice> comunidade : grafo.getComunidades(metodo)) {
+                    escreverVertices(saida, comunidade, " ");
+                }
+                break;
+            case "planar":
+                escreverLinha(saida, grafo.isPlanar());
+                break;
+            case "direcionado":
+            case "directed":
+                escreverLinha(saida, grafo.isDirecionado());
+                break;
+            case "ponderado":
+            case "weighted":
+                escreverLinha(saida, grafo.isPonderado());
+                break;
+            case "componentes":
+            case "components":
+                for (List<Vertice> componente : grafo.getComponentesConexas()) {
+                    escreverVertices(saida, componente, " ");
+                }
+                break;
+            case "euler":
+            case "euleriano-caminho":
+                escreverVertices(saida, grafo.encontrarCaminhoEuleriano(), " -> ");
+                break;
+            case "hamilton":
+            case "hamiltoniano-caminho":
+                escreverVertices(saida, grafo.encontrarCaminhoHamiltoniano(), " -> ");
+                break;
+            case "articulacoes":
+            case "articulation":
+                escreverVertices(saida, grafo.encontrarVerticesArticulacao(), " ");
+                break;
+            case "pontes":
+            case "bridges":
+                escreverArestas(saida, grafo.encontrarArestasPonte());
+                break;
+            case "dfs":
+                escreverArestas(saida, grafo.gerarArvoreDeProfundidade(vertice(partes, 1)).getArestas());
+                break;
+            case "bfs":
+                escreverArestas(saida, grafo.gerarArvoreDeLargura(vertice(partes, 1)).getArestas());
+                break;
+            case "preordem":
+            case "preorder":
+                escreverOrdem(saida, grafo.getBuscaEmProfundidade(vertice(partes, 1).valor, floresta(partes))
+                        .getPreOrdem());
+                break;
+            case "posordem":
+            case "postorder":
+                escreverOrdem(saida, grafo.getBuscaEmProfundidade(vertice(partes, 1).valor, floresta(partes))
+                        .getPosOrdem());
+                break;
+            case "mst":
+            case "agm":
+                escreverArestas(saida, grafo.gerarArvoreGeradoraMinima(coluna(partes, 1)).getArestas());
+                break;
+            case "topologica":
+            case "toposort":
+                if (!grafo.isDirecionado()) {
+                    throw new IllegalArgumentException("ordem topológica exige um grafo direcionado");
+                }
+                escreverVertices(saida, grafo.gerarOrdemTopologica(), " ");
+                break;
+            case "caminho":
+            case "shortest":
+                escreverVertices(saida, grafo.caminhoMinimo(vertice(partes, 1), vertice(partes, 2), coluna(partes, 3)),
+                        " -> ");
+                break;
+            case "caminhos":
+            case "kpaths":
+                escreverCaminhos(saida, partes);
+                break;
+            case "corte":
+            case "mincut":
+                escreverLinha(saida, grafo.corteMinimo().getValor());
+                escreverOrdem(saida, grafo.corteMinimo().getMenorLado());
+                break;
+            case "diametro":
+            case "diameter":
+                escreverLinha(saida, grafo.getDiametro());
+                break;
+            case "raio":
+            case "radius":
+                escreverLinha(saida, grafo.getRaio());
+                escreverVertices(saida, grafo.getCentro(), " ");
+                break;
+            case "excentricidade":
+            case "eccentricity":
+                escreverValores(saida, grafo.getExcentricidade());
+                break;
+            case "fluxo":
+            case "maxflow":
+                escreverLinha(saida, grafo.fluxoMaximo(vertice(partes, 1), vertice(partes, 2), coluna(partes, 3)));
+                break;
+            case "distancia":
+            case "distance":
+                escreverLinha(saida, grafo.distanciaMinima(vertice(partes, 1), vertice(partes, 2), coluna(partes, 3)));
+                break;
+            case "atributos":
+            case "attributes":
+                for (String nome : grafo.getAtributos().getNomes()) {
+                    escreverLinha(saida, nome + " " + grafo.getAtributos().getTipo(nome));
+                }
+                break;
+            case "fecho":
+            case "closure":
+                Map<Vertice, Set<Vertice>> fecho = grafo.fechoTransitivo();
+                Exportador.exportarFecho(fecho, saida);
+                break;
+            case "matriz":
+            case "matrix":
+                Exportador.exportarMatrizAdjacencia(grafo, Exportador.Formato.NATIVO, saida);
+                break;
+            case "adjacencia":
+            case "adjacency":
+                Exportador.exportarListaAdjacencia(grafo, saida);
+                break;
+            default:
+                throw new IllegalArgumentException("comando desconhecido: " + partes[0]);
+        }
+    }
+
+    private Vertice vertice(String[] partes, int posicao) {
+        if (partes.length <= posicao) {
+            throw new IllegalArgumentException(partes[0] + " espera " + posicao + " vértice(s)");
+        }
+        Vertice vertice = grafo.getVertices().get(partes[posicao]);
+        if (vertice == null) {
+            throw new IllegalArgumentException("vértice inexistente: " + partes[posicao]);
+        }
+        return vertice;
+    }
+
+    /**
+     * @return O atributo de aresta opcional na posição dada, ou {@code peso}.
+     */
+    private static String coluna(String[] partes, int posicao) {
+        return partes.length > posicao ? partes[posicao] : "peso";
+    }
+
+    private static Coloracao.Estrategia estrategiaColoracao(String nome) {
+        switch (nome.toLowerCase(Locale.ROOT)) {
+            case "dsatur":
+                return Coloracao.Estrategia.DSATUR;
+            case "menor-ultimo":
+            case "smallest-last":
+                return Coloracao.Estrategia.MENOR_ULTIMO;
+            case "especulativa":
+            case "speculative":
+            case "paralela":
+            case "parallel":
+                return Coloracao.Estrategia.ESPECULATIVA;
+            default:
+                throw new IllegalArgumentException("estratégia de coloração desconhecida: " + nome);
+        }
+    }
+
+    private static void escreverLinha(Writer saida, Object valor) throws IOException {
+        saida.write(String.valueOf(valor));
+        saida.write('\n');
+    }
+
+    private static void escreverVertices(Writer saida, Collection<Vertice> vertices, String separador)
+            throws IOException {
+        if (vertices == null) {
+            saida.write("null\n");
+            return;
+        }
+        boolean primeiro = true;
+        for (Vertice v : vertices) {
+            if (!primeiro) {
+                saida.write(separador);
+            }
+            saida.write(v.valor);
+            primeiro = false;
+        }
+        saida.write('\n');
+    }
+
+    /**
+     * @return true se o comando pede a floresta inteira ({@code floresta} ou
+     *         {@code forest} depois do vértice).
+     */
+    private static boolean floresta(String[] partes) {
+        return partes.length > 2 && (partes[2].equals("floresta") || partes[2].equals("forest"));
+    }
+
+    private void escreverOrdem(Writer saida, int[] ordem) throws IOException {
+        GrafoCompacto compacto = grafo.getCompacto();
+        for (int i = 0; i < ordem.length; i++) {
+            if (i > 0) {
+                saida.write(' ');
+            }
+            saida.write(compacto.getRotulo(ordem[i]));
+        }
+        saida.write('\n');
+    }
+
+    /**
+     * Executa {@code caminhos a b k [coluna]} e escreve um caminho por linha,
+     * com o custo seguido dos vértices.
+     */
+    private void escreverCaminhos(Writer saida, String[] partes) throws IOException {
+        if (partes.length <= 3) {
+            throw new IllegalArgumentException(partes[0] + " espera origem, destino e k");
+        }
+        GrafoCompacto compacto = grafo.getCompacto();
+        int origem = compacto.indiceDe(vertice(partes, 1).valor);
+        int destino = compacto.indiceDe(vertice(partes, 2).valor);
+        int k = Integer.parseInt(partes[3]);
+        for (CaminhosK.Caminho c : grafo.getCaminhosK(coluna(partes, 4)).yen(origem, destino, k)) {
+            saida.write(String.valueOf(c.getCusto()));
+            saida.write(':');
+            int[] vertices = c.getVertices();
+            for (int i = 0; i < vertices.length; i++) {
+                saida.write(i == 0 ? " " : " -> ");
+                saida.write(compacto.getRotulo(vertices[i]));
+            }
+            saida.write('\n');
+        }
+    }
+
+    private static void escreverValores(Writer saida, Map<Vertice, ? extends Number> valores) throws IOException {
+        for (Map.Entry<Vertice, ? extends Number> entrada : valores.entrySet()) {
+            saida.write(entrada.getKey().valor);
+            saida.write(' ');
+            saida.write(String.valueOf(entrada.getValue()));
+            saida.write('\n');
+        }
+    }
+
+    private static void escreverArestas(Writer saida, Collection<Aresta> arestas) throws IOException {
+        boolean primeiro = true;
+        for (Aresta a : arestas) {
+            if (!primeiro) {
+                saida.write(' ');
+            }
+            saida.write(a.toString());
+            primeiro = false;
+        }
+        saida.write('\n');
+    }
+
+    private static String formatarTempo(long nanos) {
+        return String.format(Locale.ROOT, "%.3f ms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,523 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Corte mínimo global de um grafo não direcionado ponderado: a divisão dos
+ * vértices em dois lados não vazios com a menor soma de pesos das arestas
+ * entre os lados, sem fonte nem sumidouro fixos. Generaliza as pontes (cortes
+ * de uma aresta) e mede a ligação mais fraca da topologia inteira.
+ *
+ * <ul>
+ * <li>{@link #stoerWagner} é exato: n - 1 fases de busca por máxima
+ * adjacência com um {@link HeapIndexado}, juntando a cada fase os dois
+ * últimos vértices, em O(nm log n).</li>
+ * <li>{@link #kargerStein} é aleatório: contrai arestas ao acaso, com
+ * probabilidade proporcional ao peso, até sobrar n/√2 vértices, resolve
+ * duas contrações independentes recursivamente e fica com o menor corte.
+ * Cada repetição acerta com probabilidade Ω(1/log n); as repetições rodam em
+ * paralelo, cada uma com o seu gerador, e fica o menor corte entre elas.</li>
+ * </ul>
+ *
+ * A contração usa relógios exponenciais: cada aresta recebe um tempo
+ * aleatório de taxa igual ao peso e as arestas são unidas em ordem de tempo
+ * (como no Kruskal), o que equivale a sortear uma aresta por vez com
+ * probabilidade proporcional ao peso.
+ *
+ * O sentido das arestas é ignorado; o peso de uma aresta é a soma dos pesos
+ * dos arcos entre o par ({@link AdjacenciaSimples}). Grafos desconexos têm
+ * corte 0, com uma componente de um lado.
+ */
+public class CorteMinimo {
+    /**
+     * Até este valor de n·m o corte de {@link #calcular} é sempre o exato.
+     */
+    public static final long LIMITE_EXATO = 1L << 28;
+    /** Tamanho a partir do qual a recursão de Karger-Stein usa o exato. */
+    private static final int BASE = 32;
+
+    /**
+     * Um corte: o valor e os dois lados.
+     */
+    public static class Resultado {
+        private final long valor;
+        private final boolean[] lado;
+        private final boolean exato;
+
+        Resultado(long valor, boolean[] lado, boolean exato) {
+            this.valor = valor;
+            this.lado = lado;
+            this.exato = exato;
+        }
+
+        /**
+         * @return Soma dos pesos das arestas entre os lados.
+         */
+        public long getValor() {
+            return valor;
+        }
+
+        /**
+         * @return Para cada vértice, true se ele está no lado menor. O vetor é
+         *         compartilhado.
+         */
+        public boolean[] getLado() {
+            return lado;
+        }
+
+        /**
+         * @return Os vértices do lado menor, em ordem crescente.
+         */
+        public int[] getMenorLado() {
+            return IntStream.range(0, lado.length).filter(v -> lado[v]).toArray();
+        }
+
+        /**
+         * @return true se o valor é garantidamente o mínimo; false se veio de
+         *         {@link CorteMinimo#kargerStein}, e pode ser maior que ele
+         *         com probabilidade pequena.
+         */
+        public boolean isExato() {
+            return exato;
+        }
+    }
+
+    /** Corte de um nível da recursão. */
+    private static final class Corte {
+        final long valor;
+        final boolean[] lado;
+
+        Corte(long valor, boolean[] lado) {
+            this.valor = valor;
+            this.lado = lado;
+        }
+    }
+
+    /** Lista de arestas (cada uma uma vez) de um grafo contraído. */
+    private static final class Arestas {
+        final int n;
+        final int[] a;
+        final int[] b;
+        final long[] peso;
+
+        Arestas(int n, int[] a, int[] b, long[] peso) {
+            this.n = n;
+            this.a = a;
+            this.b = b;
+            this.peso = peso;
+        }
+    }
+
+    /**
+     * Corte mínimo com o algoritmo exato quando n·m não passa de
+     * {@link #LIMITE_EXATO} ou quando o grafo é esparso (m < n·log₂² n, onde
+     * O(nm log n) de Stoer-Wagner ainda vence o O(n² log³ n) de
+     * Karger-Stein), e com Karger-Stein, com ⌈log₂ n⌉ repetições, nos
+     * grafos grandes e densos.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso; uma aresta cujos dois
+     *            arcos têm pesos diferentes vale o maior deles.
+     * @return O corte.
+     */
+    public static Resultado calcular(GrafoIndexado grafo, boolean simetrico) {
+        return calcular(AdjacenciaSimples.de(grafo, simetrico, true));
+    }
+
+    static Resultado calcular(AdjacenciaSimples grafo) {
+        long n = grafo.numeroVertices();
+        long log = 64 - Long.numberOfLeadingZeros(n);
+        if (n * grafo.numeroArestas() <= LIMITE_EXATO || grafo.numeroArestas() < n * log * log) {
+            return stoerWagner(grafo);
+        }
+        return kargerStein(grafo, repeticoesPadrao(grafo.numeroVertices()), 1);
+    }
+
+    /**
+     * Corte mínimo exato pelo algoritmo de Stoer-Wagner.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @return O corte.
+     */
+    public static Resultado stoerWagner(GrafoIndexado grafo, boolean simetrico) {
+        return stoerWagner(AdjacenciaSimples.de(grafo, simetrico, true));
+    }
+
+    static Resultado stoerWagner(AdjacenciaSimples grafo) {
+        Resultado desconexo = validar(grafo);
+        if (desconexo != null) {
+            return desconexo;
+        }
+        Medicao medicao = Instrumentacao.iniciar("corteStoerWagner");
+        long[] pesos = new long[grafo.vizinhos.length];
+        for (int i = 0; i < pesos.length; i++) {
+            pesos[i] = grafo.pesos == null ? 1 : grafo.pesos[i];
+        }
+        Corte corte = stoerWagner(grafo.numeroVertices(), grafo.inicio, grafo.vizinhos, pesos);
+        if (medicao != null) {
+            medicao.verticesVisitados = grafo.numeroVertices();
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            medicao.operacoes = grafo.numeroVertices() - 1;
+            Instrumentacao.concluir(medicao);
+        }
+        return resultado(corte, true);
+    }
+
+    /**
+     * Corte mínimo aleatório pelo algoritmo de Karger-Stein.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @param repeticoes
+     *            Quantidade de execuções independentes; a chance de erro cai
+     *            exponencialmente com ela.
+     * @param semente
+     *            Semente dos geradores; com a mesma semente o resultado é o
+     *            mesmo, qualquer que seja o número de threads.
+     * @return O menor corte encontrado.
+     */
+    public static Resultado kargerStein(GrafoIndexado grafo, boolean simetrico, int repeticoes, long semente) {
+        return kargerStein(AdjacenciaSimples.de(grafo, simetrico, true), repeticoes, semente);
+    }
+
+    static Resultado kargerStein(AdjacenciaSimples grafo, int repeticoes, long semente) {
+        if (repeticoes < 1) {
+            throw new IllegalArgumentException("repetições deve ser positivo: " + repeticoes);
+        }
+        Resultado desconexo = validar(grafo);
+        if (desconexo != null) {
+            return desconexo;
+        }
+        Medicao medicao = Instrumentacao.iniciar("corteKargerStein");
+        int n = grafo.numeroVertices();
+        int m = (int) grafo.numeroArestas();
+        int[] a = new int[m];
+        int[] b = new int[m];
+        long[] peso = new long[m];
+        int e = 0;
+        for (int u = 0; u < n; u++) {
+            for (int i = grafo.inicio[u]; i < grafo.inicio[u + 1]; i++) {
+                if (u < grafo.vizinhos[i]) {
+                    a[e] = u;
+                    b[e] = grafo.vizinhos[i];
+                    peso[e++] = grafo.pesos == null ? 1 : grafo.pesos[i];
+                }
+            }
+        }
+        Arestas base = new Arestas(n, a, b, peso);
+
+        // Os geradores são separados antes, em ordem, para não depender do
+        // escalonamento das threads
+        SplittableRandom raiz = new SplittableRandom(semente);
+        SplittableRandom[] geradores = new SplittableRandom[repeticoes];
+        for (int r = 0; r < repeticoes; r++) {
+            geradores[r] = raiz.split();
+        }
+        Corte[] cortes = new Corte[repeticoes];
+        IntStream.range(0, repeticoes).parallel().forEach(r -> cortes[r] = recursao(base, geradores[r]));
+        Corte melhor = cortes[0];
+        for (Corte c : cortes) {
+            if (c.valor < melhor.valor) {
+                melhor = c;
+            }
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            medicao.operacoes = repeticoes;
+            Instrumentacao.concluir(medicao);
+        }
+        return resultado(melhor, false);
+    }
+
+    /**
+     * @return Repetições usadas por {@link #calcular}: ⌈log₂ n⌉, no mínimo 4.
+     */
+    static int repeticoesPadrao(int n) {
+        return Math.max(4, 32 - Integer.numberOfLeadingZeros(n - 1));
+    }
+
+    /**
+     * Exige ao menos dois vértices e pesos não negativos.
+     *
+     * @return O corte 0 se o grafo for desconexo (a componente do vértice 0
+     *         de um lado), ou null.
+     */
+    private static Resultado validar(AdjacenciaSimples grafo) {
+        int n = grafo.numeroVertices();
+        if (n < 2) {
+            throw new IllegalArgumentException("o corte exige ao menos 2 vértices: " + n);
+        }
+        if (grafo.pesos != null) {
+            for (int p : grafo.pesos) {
+                if (p < 0) {
+                    throw new IllegalArgumentException("peso negativo: " + p);
+                }
+            }
+        }
+        boolean[] visitado = new boolean[n];
+        int[] fila = new int[n];
+        int cauda = 0;
+        visitado[0] = true;
+        fila[cauda++] = 0;
+        for (int cabeca = 0; cabeca < cauda; cabeca++) {
+            int u = fila[cabeca];
+            for (int i = grafo.inicio[u]; i < grafo.inicio[u + 1]; i++) {
+                int v = grafo.vizinhos[i];
+                if (!visitado[v]) {
+                    visitado[v] = true;
+                    fila[cauda++] = v;
+                }
+            }
+        }
+        return cauda == n ? null : resultado(new Corte(0, visitado), true);
+    }
+
+    /**
+     * Normaliza o lado marcado para o menor dos dois.
+     */
+    private static Resultado resultado(Corte corte, boolean exato) {
+        boolean[] lado = corte.lado;
+        int marcados = 0;
+        for (boolean x : lado) {
+            if (x) {
+                marcados++;
+            }
+        }
+        if (2 * marcados > lado.length) {
+            lado = lado.clone();
+            for (int v = 0; v < lado.length; v++) {
+                lado[v] = !lado[v];
+            }
+        }
+        return new Resultado(corte.valor, lado, exato);
+    }
+
+    /**
+     * Stoer-Wagner sobre listas de adjacência simétricas. Os vértices
+     * juntados formam listas encadeadas de membros; ao extrair um vértice da
+     * busca, os arcos de todos os seus membros aumentam a ligação dos
+     * vizinhos (chaves negativas no heap de mínimo).
+     */
+    private static Corte stoerWagner(int n, int[] inicio, int[] vizinhos, long[] pesos) {
+        int[] representante = new int[n];
+        int[] proximoMembro = new int[n];
+        int[] ultimoMembro = new int[n];
+        boolean[] ativo = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            representante[v] = v;
+            proximoMembro[v] = -1;
+            ultimoMembro[v] = v;
+            ativo[v] = true;
+        }
+        HeapIndexado heap = new HeapIndexado(n);
+        long melhor = Long.MAX_VALUE;
+        boolean[] melhorLado = null;
+
+        for (int fase = n; fase > 1 && melhor > 0; fase--) {
+            for (int v = 0; v < n; v++) {
+                if (ativo[v]) {
+                    heap.atualizar(v, 0);
+                }
+            }
+            int s = -1;
+            int t = -1;
+            double ligacao = 0;
+            while (!heap.isVazio()) {
+                ligacao = heap.chave(heap.minimo());
+                s = t;
+                t = heap.extrairMinimo();
+                for (int u = t; u >= 0; u = proximoMembro[u]) {
+                    for (int i = inicio[u]; i < inicio[u + 1]; i++) {
+                        int r = representante[vizinhos[i]];
+                        if (heap.contem(r)) {
+                            heap.atualizar(r, heap.chave(r) - pesos[i]);
+                        }
+                    }
+                }
+            }
+            long corte = Math.round(-ligacao);
+            if (corte < melhor) {
+                melhor = corte;
+                melhorLado = new boolean[n];
+                for (int u = t; u >= 0; u = proximoMembro[u]) {
+                    melhorLado[u] = true;
+                }
+            }
+            for (int u = t; u >= 0; u = proximoMembro[u]) {
+                representante[u] = s;
+            }
+            proximoMembro[ultimoMembro[s]] = t;
+            ultimoMembro[s] = ultimoMembro[t];
+            ativo[t] = false;
+        }
+        return new Corte(melhor, melhorLado);
+    }
+
+    /**
+     * Um nível de Karger-Stein: duas contrações independentes até n/√2 + 1
+     * vértices, resolvidas recursivamente. O menor grau ponderado do nível
+     * também é um corte e entra na comparação.
+     */
+    private static Corte recursao(Arestas grafo, SplittableRandom aleatorio) {
+        if (grafo.n <= BASE) {
+            return stoerWagner(grafo);
+        }
+        Corte melhor = menorGrau(grafo);
+        int alvo = (int) Math.ceil(1 + grafo.n / Math.sqrt(2));
+        for (int tentativa = 0; tentativa < 2; tentativa++) {
+            int[] rotulo = new int[grafo.n];
+            Corte corte = recursao(contrair(grafo, alvo, aleatorio, rotulo), aleatorio);
+            if (corte.valor < melhor.valor) {
+                boolean[] lado = new boolean[grafo.n];
+                for (int v = 0; v < grafo.n; v++) {
+                    lado[v] = corte.lado[rotulo[v]];
+                }
+                melhor = new Corte(corte.valor, lado);
+            }
+        }
+        return melhor;
+    }
+
+    private static Corte menorGrau(Arestas grafo) {
+        long[] grau = new long[grafo.n];
+        for (int e = 0; e < grafo.a.length; e++) {
+            grau[grafo.a[e]] += grafo.peso[e];
+            grau[grafo.b[e]] += grafo.peso[e];
+        }
+        int menor = 0;
+        for (int v = 1; v < grafo.n; v++) {
+            if (grau[v] < grau[menor]) {
+                menor = v;
+            }
+        }
+        boolean[] lado = new boolean[grafo.n];
+        lado[menor] = true;
+        return new Corte(grau[menor], lado);
+    }
+
+    /**
+     * Contrai arestas em ordem de relógios exponenciais até sobrarem
+     * {@code alvo} vértices (o grafo é conexo, então sempre sobram).
+     *
+     * @param rotulo
+     *            Recebe o vértice do grafo contraído de cada vértice.
+     * @return O grafo contraído, com as arestas paralelas somadas e sem
+     *         laços.
+     */
+    private static Arestas contrair(Arestas grafo, int alvo, SplittableRandom aleatorio, int[] rotulo) {
+        int m = grafo.a.length;
+        // Tempo como float não negativo (bits em ordem) e índice da aresta
+        // nos 32 bits de baixo
+        long[] ordem = new long[m];
+        for (int e = 0; e < m; e++) {
+            double sorteio = aleatorio.nextDouble();
+            float tempo = grafo.peso[e] == 0 ? Float.POSITIVE_INFINITY
+                    : (float) (Math.log1p(-sorteio) / -grafo.peso[e]);
+            ordem[e] = ((long) Float.floatToIntBits(tempo) << 32) | e;
+        }
+        Arrays.sort(ordem);
+        UnionFind conjuntos = new UnionFind(grafo.n);
+        int componentes = grafo.n;
+        for (int i = 0; i < m && componentes > alvo; i++) {
+            int e = (int) ordem[i];
+            int x = conjuntos.find(grafo.a[e]);
+            int y = conjuntos.find(grafo.b[e]);
+            if (x != y) {
+                conjuntos.union(x, y);
+                componentes--;
+            }
+        }
+        int[] novo = new int[grafo.n];
+        Arrays.fill(novo, -1);
+        int quantidade = 0;
+        for (int v = 0; v < grafo.n; v++) {
+            int r = conjuntos.find(v);
+            if (novo[r] < 0) {
+                novo[r] = quantidade++;
+            }
+            rotulo[v] = novo[r];
+        }
+
+        // Agrupa as arestas restantes pela menor ponta e soma as paralelas
+        int[] inicio = new int[quantidade + 1];
+        for (int e = 0; e < m; e++) {
+            int x = rotulo[grafo.a[e]];
+            int y = rotulo[grafo.b[e]];
+            if (x != y) {
+                inicio[Math.min(x, y) + 1]++;
+            }
+        }
+        for (int v = 0; v < quantidade; v++) {
+            inicio[v + 1] += inicio[v];
+        }
+        int[] outra = new int[inicio[quantidade]];
+        long[] pesoAgrupado = new long[outra.length];
+        int[] proxima = Arrays.copyOf(inicio, quantidade);
+        for (int e = 0; e < m; e++) {
+            int x = rotulo[grafo.a[e]];
+            int y = rotulo[grafo.b[e]];
+            if (x != y) {
+                int k = proxima[Math.min(x, y)]++;
+                outra[k] = Math.max(x, y);
+                pesoAgrupado[k] = grafo.peso[e];
+            }
+        }
+        int[] a = new int[outra.length];
+        int[] b = new int[outra.length];
+        long[] peso = new long[outra.length];
+        int[] marca = new int[quantidade];
+        int[] posicao = new int[quantidade];
+        int escritas = 0;
+        for (int x = 0; x < quantidade; x++) {
+            for (int k = inicio[x]; k < inicio[x + 1]; k++) {
+                int y = outra[k];
+                if (marca[y] == x + 1) {
+                    peso[posicao[y]] += pesoAgrupado[k];
+                } else {
+                    marca[y] = x + 1;
+                    posicao[y] = escritas;
+                    a[escritas] = x;
+                    b[escritas] = y;
+                    peso[escritas++] = pesoAgrupado[k];
+                }
+            }
+        }
+        return new Arestas(quantidade, Arrays.copyOf(a, escritas), Arrays.copyOf(b, escritas),
+                Arrays.copyOf(peso, escritas));
+    }
+
+    /**
+     * Stoer-Wagner sobre uma lista de arestas (a base da recursão).
+     */
+    private static Corte stoerWagner(Arestas grafo) {
+        int n = grafo.n;
+        int[] inicio = new int[n + 1];
+        for (int e = 0; e < grafo.a.length; e++) {
+            inicio[grafo.a[e] + 1]++;
+            inicio[grafo.b[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] += inicio[v];
+        }
+        int[] vizinhos = new int[inicio[n]];
+        long[] pesos = new long[vizinhos.length];
+        int[] proxima = Arrays.copyOf(inicio, n);
+        for (int e = 0; e < grafo.a.length; e++) {
+            int k = proxima[grafo.a[e]]++;
+            vizinhos[k] = grafo.b[e];
+            pesos[k] = grafo.peso[e];
+            k = proxima[grafo.b[e]]++;
+            vizinhos[k] = grafo.a[e];
+            pesos[k] = grafo.peso[e];
+        }
+        return stoerWagner(n, inicio, vizinhos, pesos);
+    }
+}
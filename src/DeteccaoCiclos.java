@@ -0,0 +1,370 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Detecção e enumeração de ciclos sobre um {@link GrafoIndexado}, sem
+ * recursão.
+ *
+ * Em grafos direcionados um ciclo é encontrado quando a busca em profundidade
+ * chega a um vértice cinza (ainda na pilha). Em grafos não direcionados vale a
+ * mesma regra, exceto pelo arco que volta ao pai pela própria aresta da árvore;
+ * arestas paralelas e laços contam como ciclos.
+ */
+public class DeteccaoCiclos {
+    private static final byte BRANCO = 0;
+    private static final byte CINZA = 1;
+    private static final byte PRETO = 2;
+
+    /**
+     * Procura um ciclo no grafo.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param direcionado
+     *            true para considerar o sentido dos arcos; false para grafos
+     *            com os dois arcos de cada aresta.
+     * @return Os vértices do ciclo na ordem em que são percorridos (o último
+     *         liga de volta ao primeiro), ou null se o grafo for acíclico.
+     */
+    public static int[] encontrarCiclo(GrafoIndexado grafo, boolean direcionado) {
+        Medicao medicao = Instrumentacao.iniciar("encontrarCiclo");
+        int n = grafo.numeroVertices();
+        byte[] cor = new byte[n];
+        int[] profundidade = new int[n];
+        int[] pilha = new int[n];
+        int[] posicao = new int[n];
+        int[] fim = new int[n];
+        boolean[] paiIgnorado = new boolean[n];
+        int[] arcos = new int[Math.max(16, grafo.grauMaximo())];
+        int[] ciclo = null;
+
+        for (int raiz = 0; raiz < n && ciclo == null; raiz++) {
+            if (cor[raiz] != BRANCO) {
+                continue;
+            }
+            int topo = 0;
+            pilha[0] = raiz;
+            cor[raiz] = CINZA;
+            profundidade[raiz] = 0;
+            arcos = garantir(arcos, grafo.grau(raiz));
+            posicao[0] = 0;
+            fim[0] = grafo.vizinhos(raiz, arcos, 0);
+            paiIgnorado[0] = direcionado;
+
+            while (topo >= 0 && ciclo == null) {
+                int u = pilha[topo];
+                if (posicao[topo] == fim[topo]) {
+                    cor[u] = PRETO;
+                    if (medicao != null) {
+                        medicao.verticesVisitados++;
+                        medicao.arestasVisitadas += grafo.grau(u);
+                    }
+                    topo--;
+                    continue;
+                }
+                int v = arcos[posicao[topo]++];
+                if (!paiIgnorado[topo] && topo > 0 && v == pilha[topo - 1]) {
+                    paiIgnorado[topo] = true;
+                    continue;
+                }
+                if (cor[v] == CINZA) {
+                    ciclo = Arrays.copyOfRange(pilha, profundidade[v], topo + 1);
+                } else if (cor[v] == BRANCO) {
+                    cor[v] = CINZA;
+                    topo++;
+                    pilha[topo] = v;
+                    profundidade[v] = topo;
+                    arcos = garantir(arcos, fim[topo - 1] + grafo.grau(v));
+                    posicao[topo] = fim[topo - 1];
+                    fim[topo] = posicao[topo] + grafo.vizinhos(v, arcos, posicao[topo]);
+                    paiIgnorado[topo] = direcionado;
+                }
+            }
+        }
+        Instrumentacao.concluir(medicao);
+        return ciclo;
+    }
+
+    private static int[] garantir(int[] vetor, int tamanho) {
+        return tamanho <= vetor.length ? vetor : Arrays.copyOf(vetor, Math.max(2 * vetor.length, tamanho));
+    }
+
+    /**
+     * Calcula as componentes fortemente conexas pelo algoritmo de Kosaraju,
+     * com as duas buscas iterativas.
+     *
+     * @param grafo
+     *            O grafo.
+     * @return Para cada vértice, o identificador da sua componente.
+     */
+    public static int[] componentesFortementeConexas(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int[][] transposto = AlgoritmosIndexados.transpor(grafo);
+        int[] inicioT = transposto[0];
+        int[] origensT = transposto[1];
+
+        // Primeira busca: ordem de término no grafo original
+        int[] ordem = new int[n];
+        int terminados = 0;
+        boolean[] visitado = new boolean[n];
+        int[] pilha = new int[n];
+        int[] posicao = new int[n];
+        int[] fim = new int[n];
+        int[] arcos = new int[Math.max(16, grafo.grauMaximo())];
+        for (int raiz = 0; raiz < n; raiz++) {
+            if (visitado[raiz]) {
+                continue;
+            }
+            int topo = 0;
+            pilha[0] = raiz;
+            visitado[raiz] = true;
+            posicao[0] = 0;
+            fim[0] = grafo.vizinhos(raiz, arcos, 0);
+            while (topo >= 0) {
+                if (posicao[topo] == fim[topo]) {
+                    ordem[terminados++] = pilha[topo--];
+                    continue;
+                }
+                int v = arcos[posicao[topo]++];
+                if (!visitado[v]) {
+                    visitado[v] = true;
+                    topo++;
+                    pilha[topo] = v;
+                    arcos = garantir(arcos, fim[topo - 1] + grafo.grau(v));
+                    posicao[topo] = fim[topo - 1];
+                    fim[topo] = posicao[topo] + grafo.vizinhos(v, arcos, posicao[topo]);
+                }
+            }
+        }
+
+        // Segunda busca: no transposto, em ordem decrescente de término
+        int[] componente = new int[n];
+        Arrays.fill(componente, -1);
+        int total = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int raiz = ordem[i];
+            if (componente[raiz] >= 0) {
+                continue;
+            }
+            int topo = 0;
+            pilha[0] = raiz;
+            componente[raiz] = total;
+            while (topo >= 0) {
+                int u = pilha[topo--];
+                for (int k = inicioT[u]; k < inicioT[u + 1]; k++) {
+                    int v = origensT[k];
+                    if (componente[v] < 0) {
+                        componente[v] = total;
+                        pilha[++topo] = v;
+                    }
+                }
+            }
+            total++;
+        }
+        return componente;
+    }
+
+    /**
+     * Enumera os ciclos elementares pelo algoritmo de Johnson. Para cada
+     * vértice s, em ordem, são listados os ciclos cujo menor vértice é s,
+     * restritos à componente fortemente conexa de s entre os vértices maiores
+     * ou iguais a s. Vértices bloqueados evitam repetir caminhos que não levam
+     * de volta a s.
+     *
+     * No caso não direcionado cada ciclo aparece uma vez (e não uma vez por
+     * sentido) e os ciclos de dois vértices, que seriam idas e voltas pela
+     * mesma aresta, são descartados.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param direcionado
+     *            true para considerar o sentido dos arcos.
+     * @param limite
+     *            Quantidade máxima de ciclos retornados.
+     * @return Os ciclos, cada um começando pelo seu menor vértice.
+     */
+    public static List<int[]> enumerarCiclos(GrafoIndexado grafo, boolean direcionado, int limite) {
+        List<int[]> ciclos = new ArrayList<>();
+        int n = grafo.numeroVertices();
+        if (limite <= 0 || n == 0) {
+            return ciclos;
+        }
+        Medicao medicao = Instrumentacao.iniciar("enumerarCiclos");
+        int[] componente = componentesFortementeConexas(grafo);
+        int[] tamanhoComponente = new int[n];
+        for (int c : componente) {
+            tamanhoComponente[c]++;
+        }
+        int[][] transposto = AlgoritmosIndexados.transpor(grafo);
+
+        int[] permitido = new int[n];
+        Arrays.fill(permitido, -1);
+        boolean[] bloqueado = new boolean[n];
+        int[][] listaB = new int[n][];
+        int[] tamanhoB = new int[n];
+        int[] pilha = new int[n];
+        int[] posicao = new int[n];
+        int[] fim = new int[n];
+        boolean[] encontrou = new boolean[n];
+        int[] arcos = new int[Math.max(16, grafo.grauMaximo())];
+        int[] fila = new int[n];
+        int[] desbloquear = new int[n];
+
+        for (int s = 0; s < n && ciclos.size() < limite; s++) {
+            if (tamanhoComponente[componente[s]] == 1) {
+                // Só pode haver um laço
+                int grau = grafo.vizinhos(s, arcos = garantir(arcos, grafo.grau(s)), 0);
+                for (int i = 0; i < grau; i++) {
+                    if (arcos[i] == s && ciclos.size() < limite) {
+                        ciclos.add(new int[] { s });
+                    }
+                }
+                continue;
+            }
+            marcarPermitidos(grafo, transposto, s, componente, permitido, fila);
+
+            // Busca de Johnson a partir de s, com pilha de quadros
+            int topo = 0;
+            pilha[0] = s;
+            bloqueado[s] = true;
+            encontrou[0] = false;
+            arcos = garantir(arcos, grafo.grau(s));
+            posicao[0] = 0;
+            fim[0] = grafo.vizinhos(s, arcos, 0);
+            while (topo >= 0 && ciclos.size() < limite) {
+                int v = pilha[topo];
+                if (posicao[topo] < fim[topo]) {
+                    int w = arcos[posicao[topo]++];
+                    if (permitido[w] != s) {
+                        continue;
+                    }
+                    if (w == s) {
+                        int[] ciclo = Arrays.copyOf(pilha, topo + 1);
+                        if (direcionado || ciclo.length == 1 || (ciclo.length > 2 && ciclo[1] < ciclo[topo])) {
+                            ciclos.add(ciclo);
+                        }
+                        encontrou[topo] = true;
+                    } else if (!bloqueado[w]) {
+                        topo++;
+                        pilha[topo] = w;
+                        bloqueado[w] = true;
+                        encontrou[topo] = false;
+                        arcos = garantir(arcos, fim[topo - 1] + grafo.grau(w));
+                        posicao[topo] = fim[topo - 1];
+                        fim[topo] = posicao[topo] + grafo.vizinhos(w, arcos, posicao[topo]);
+                    }
+                    continue;
+                }
+
+                if (encontrou[topo]) {
+                    desbloquear(v, bloqueado, listaB, tamanhoB, desbloquear);
+                } else {
+                    int inicioArcos = topo == 0 ? 0 : fim[topo - 1];
+                    for (int i = inicioArcos; i < fim[topo]; i++) {
+                        int w = arcos[i];
+                        if (permitido[w] == s) {
+                            adicionarB(listaB, tamanhoB, w, v);
+                        }
+                    }
+                }
+                if (medicao != null) {
+                    medicao.operacoes++;
+                }
+                topo--;
+                if (topo >= 0 && encontrou[topo + 1]) {
+                    encontrou[topo] = true;
+                }
+            }
+
+            // Limpa o estado dos vértices usados nesta rodada
+            for (int v = s; v < n; v++) {
+                if (permitido[v] == s) {
+                    bloqueado[v] = false;
+                    tamanhoB[v] = 0;
+                }
+            }
+        }
+        Instrumentacao.concluir(medicao);
+        return ciclos;
+    }
+
+    /**
+     * Marca com s os vértices maiores ou iguais a s que estão na mesma
+     * componente fortemente conexa de s nesse subgrafo: os alcançáveis a
+     * partir de s que também alcançam s.
+     */
+    private static void marcarPermitidos(GrafoIndexado grafo, int[][] transposto, int s, int[] componente,
+            int[] permitido, int[] fila) {
+        int[] inicioT = transposto[0];
+        int[] origensT = transposto[1];
+        int alvo = componente[s];
+        // Volta: quem alcança s (marcado temporariamente com -2 - s)
+        int marcaVolta = -2 - s;
+        int cabeca = 0;
+        int cauda = 0;
+        fila[cauda++] = s;
+        permitido[s] = marcaVolta;
+        while (cabeca < cauda) {
+            int u = fila[cabeca++];
+            for (int k = inicioT[u]; k < inicioT[u + 1]; k++) {
+                int v = origensT[k];
+                if (v > s && componente[v] == alvo && permitido[v] != marcaVolta) {
+                    permitido[v] = marcaVolta;
+                    fila[cauda++] = v;
+                }
+            }
+        }
+        // Ida: dos que alcançam s, os alcançáveis a partir de s
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        cabeca = 0;
+        cauda = 0;
+        fila[cauda++] = s;
+        permitido[s] = s;
+        while (cabeca < cauda) {
+            int u = fila[cabeca++];
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                int v = vizinhos[i];
+                if (permitido[v] == marcaVolta) {
+                    permitido[v] = s;
+                    fila[cauda++] = v;
+                }
+            }
+        }
+    }
+
+    private static void adicionarB(int[][] listaB, int[] tamanhoB, int w, int v) {
+        for (int i = 0; i < tamanhoB[w]; i++) {
+            if (listaB[w][i] == v) {
+                return;
+            }
+        }
+        if (listaB[w] == null) {
+            listaB[w] = new int[4];
+        } else if (tamanhoB[w] == listaB[w].length) {
+            listaB[w] = Arrays.copyOf(listaB[w], 2 * tamanhoB[w]);
+        }
+        listaB[w][tamanhoB[w]++] = v;
+    }
+
+    /**
+     * Desbloqueia u e, em cascata, os vértices que esperavam por ele.
+     */
+    private static void desbloquear(int u, boolean[] bloqueado, int[][] listaB, int[] tamanhoB, int[] pilha) {
+        int topo = 0;
+        pilha[0] = u;
+        bloqueado[u] = false;
+        while (topo >= 0) {
+            int x = pilha[topo--];
+            for (int i = 0; i < tamanhoB[x]; i++) {
+                int w = listaB[x][i];
+                if (bloqueado[w]) {
+                    bloqueado[w] = false;
+                    pilha[++topo] = w;
+                }
+            }
+            tamanhoB[x] = 0;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.stream.IntStream;
+
+/**
+ * Estatísticas estruturais de um grafo visto como não direcionado e simples
+ * ({@link AdjacenciaSimples}): triângulos, coeficientes de agrupamento e
+ * decomposição em k-núcleos.
+ */
+public class EstatisticasEstruturais {
+    private static final int TAMANHO_BLOCO = 1024;
+    private static final VarHandle CONTAGENS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Orientação das arestas do vértice de menor para o de maior posto, onde o
+     * posto ordena por grau e desempata pelo índice. Cada vértice fica com no
+     * máximo O(raiz de m) sucessores, o que limita o custo das interseções nos
+     * hubs, e cada triângulo é encontrado uma única vez.
+     */
+    private static int[][] orientar(AdjacenciaSimples grafo) {
+        int n = grafo.numeroVertices();
+        int[] inicio = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int contagem = 0;
+            for (int k = grafo.inicio[u]; k < grafo.inicio[u + 1]; k++) {
+                if (antes(grafo, u, grafo.vizinhos[k])) {
+                    contagem++;
+                }
+            }
+            inicio[u + 1] = inicio[u] + contagem;
+        }
+        int[] sucessores = new int[inicio[n]];
+        IntStream.range(0, n).parallel().forEach(u -> {
+            int escrito = inicio[u];
+            // As listas já estão em ordem crescente de índice
+            for (int k = grafo.inicio[u]; k < grafo.inicio[u + 1]; k++) {
+                int v = grafo.vizinhos[k];
+                if (antes(grafo, u, v)) {
+                    sucessores[escrito++] = v;
+                }
+            }
+        });
+        return new int[][] { inicio, sucessores };
+    }
+
+    private static boolean antes(AdjacenciaSimples grafo, int u, int v) {
+        int gu = grafo.grau(u);
+        int gv = grafo.grau(v);
+        return gu < gv || (gu == gv && u < v);
+    }
+
+    /**
+     * Conta os triângulos do grafo pela interseção das listas ordenadas de
+     * sucessores, em paralelo por vértice.
+     *
+     * @param grafo
+     *            O grafo.
+     * @return A quantidade de triângulos.
+     */
+    static long contarTriangulos(AdjacenciaSimples grafo) {
+        return contar(grafo, null);
+    }
+
+    /**
+     * @param grafo
+     *            O grafo.
+     * @return Quantidade de triângulos de que cada vértice participa.
+     */
+    static long[] triangulosPorVertice(AdjacenciaSimples grafo) {
+        long[] porVertice = new long[grafo.numeroVertices()];
+        contar(grafo, porVertice);
+        return porVertice;
+    }
+
+    private static long contar(AdjacenciaSimples grafo, long[] porVertice) {
+        Medicao medicao = Instrumentacao.iniciar("contarTriangulos");
+        int n = grafo.numeroVertices();
+        int[][] orientado = orientar(grafo);
+        int[] inicio = orientado[0];
+        int[] sucessores = orientado[1];
+        int blocos = (n + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+
+        long total = IntStream.range(0, blocos).parallel().mapToLong(b -> {
+            long soma = 0;
+            int fim = Math.min(n, (b + 1) * TAMANHO_BLOCO);
+            for (int u = b * TAMANHO_BLOCO; u < fim; u++) {
+                long deU = 0;
+                for (int k = inicio[u]; k < inicio[u + 1]; k++) {
+                    int v = sucessores[k];
+                    long deV = 0;
+                    // Interseção por intercalação de N+(u) e N+(v)
+                    int i = inicio[u];
+                    int j = inicio[v];
+                    while (i < inicio[u + 1] && j < inicio[v + 1]) {
+                        int a = sucessores[i];
+                        int c = sucessores[j];
+                        if (a < c) {
+                            i++;
+                        } else if (a > c) {
+                            j++;
+                        } else {
+                            deV++;
+                            if (porVertice != null) {
+                                CONTAGENS.getAndAdd(porVertice, a, 1L);
+                            }
+                            i++;
+                            j++;
+                        }
+                    }
+                    deU += deV;
+                    if (porVertice != null && deV > 0) {
+                        CONTAGENS.getAndAdd(porVertice, v, deV);
+                    }
+                }
+                if (porVertice != null && deU > 0) {
+                    CONTAGENS.getAndAdd(porVertice, u, deU);
+                }
+                soma += deU;
+            }
+            return soma;
+        }).sum();
+
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = sucessores.length;
+            medicao.operacoes = total;
+            Instrumentacao.concluir(medicao);
+        }
+        return total;
+    }
+
+    /**
+     * Coeficiente de agrupamento local: a fração dos pares de vizinhos de v
+     * que são vizinhos entre si. Vale 0 para vértices com menos de dois
+     * vizinhos.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param triangulos
+     *            Resultado de {@link #triangulosPorVertice(AdjacenciaSimples)}.
+     * @return O coeficiente de cada vértice.
+     */
+    static double[] agrupamentoLocal(AdjacenciaSimples grafo, long[] triangulos) {
+        int n = grafo.numeroVertices();
+        double[] coeficiente = new double[n];
+        for (int v = 0; v < n; v++) {
+            long grau = grafo.grau(v);
+            if (grau >= 2) {
+                coeficiente[v] = 2.0 * triangulos[v] / (grau * (grau - 1));
+            }
+        }
+        return coeficiente;
+    }
+
+    /**
+     * Coeficiente de agrupamento global (transitividade): três vezes o número
+     * de triângulos dividido pelo número de caminhos de comprimento 2.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param triangulos
+     *            Quantidade de triângulos do grafo.
+     * @return A transitividade, ou 0 se não houver caminhos de comprimento 2.
+     */
+    static double agrupamentoGlobal(AdjacenciaSimples grafo, long triangulos) {
+        double caminhos = 0;
+        for (int v = 0; v < grafo.numeroVertices(); v++) {
+            long grau = grafo.grau(v);
+            caminhos += grau * (grau - 1) / 2.0;
+        }
+        return caminhos == 0 ? 0 : 3.0 * triangulos / caminhos;
+    }
+
+    /**
+     * Decomposição em k-núcleos pelo algoritmo de Batagelj e Zaversnik, em
+     * tempo linear: os vértices ficam num vetor ordenado por grau (com o
+     * início de cada grau guardado à parte), e remover o de menor grau só
+     * move cada vizinho uma posição para o grupo de grau anterior.
+     *
+     * @param grafo
+     *            O grafo.
+     * @return O núcleo de cada vértice: o maior k tal que ele pertence a um
+     *         subgrafo em que todos os vértices têm grau pelo menos k.
+     */
+    static int[] decomposicaoNucleos(AdjacenciaSimples grafo) {
+        Medicao medicao = Instrumentacao.iniciar("decomposicaoNucleos");
+        int[] nucleos = degeneracao(grafo)[0];
+        if (medicao != null) {
+            medicao.verticesVisitados = nucleos.length;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            Instrumentacao.concluir(medicao);
+        }
+        return nucleos;
+    }
+
+    /**
+     * Ordem de degeneração: a sequência em que a decomposição em k-núcleos
+     * remove os vértices, cada um com grau mínimo no que resta do grafo.
+     *
+     * @param grafo
+     *            O grafo.
+     * @return Os vértices na ordem de remoção.
+     */
+    static int[] ordemDegeneracao(AdjacenciaSimples grafo) {
+        return degeneracao(grafo)[1];
+    }
+
+    private static int[][] degeneracao(AdjacenciaSimples grafo) {
+        int n = grafo.numeroVertices();
+        int[] grau = new int[n];
+        int maior = 0;
+        for (int v = 0; v < n; v++) {
+            grau[v] = grafo.grau(v);
+            maior = Math.max(maior, grau[v]);
+        }
+        int[] inicioGrupo = new int[maior + 1];
+        for (int v = 0; v < n; v++) {
+            inicioGrupo[grau[v]]++;
+        }
+        int acumulado = 0;
+        for (int d = 0; d <= maior; d++) {
+            int quantidade = inicioGrupo[d];
+            inicioGrupo[d] = acumulado;
+            acumulado += quantidade;
+        }
+        int[] ordem = new int[n];
+        int[] posicao = new int[n];
+        for (int v = 0; v < n; v++) {
+            posicao[v] = inicioGrupo[grau[v]]++;
+            ordem[posicao[v]] = v;
+        }
+        for (int d = maior; d > 0; d--) {
+            inicioGrupo[d] = inicioGrupo[d - 1];
+        }
+        inicioGrupo[0] = 0;
+
+        for (int i = 0; i < n; i++) {
+            int v = ordem[i];
+            for (int k = grafo.inicio[v]; k < grafo.inicio[v + 1]; k++) {
+                int u = grafo.vizinhos[k];
+                if (grau[u] > grau[v]) {
+                    // Troca u com o primeiro do seu grupo e encolhe o grupo
+                    int du = grau[u];
+                    int pu = posicao[u];
+                    int pw = inicioGrupo[du];
+                    int w = ordem[pw];
+                    if (u != w) {
+                        ordem[pu] = w;
+                        posicao[w] = pu;
+                        ordem[pw] = u;
+                        posicao[u] = pw;
+                    }
+                    inicioGrupo[du]++;
+                    grau[u]--;
+                }
+            }
+        }
+        return new int[][] { grau, ordem };
+    }
+
+    /**
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @return Quantidade de triângulos, ignorando o sentido dos arcos.
+     */
+    public static long contarTriangulos(GrafoIndexado grafo, boolean simetrico) {
+        return contarTriangulos(AdjacenciaSimples.de(grafo, simetrico, false));
+    }
+
+    /**
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @return O coeficiente de agrupamento local de cada vértice.
+     */
+    public static double[] agrupamentoLocal(GrafoIndexado grafo, boolean simetrico) {
+        AdjacenciaSimples simples = AdjacenciaSimples.de(grafo, simetrico, false);
+        return agrupamentoLocal(simples, triangulosPorVertice(simples));
+    }
+
+    /**
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @return O núcleo de cada vértice.
+     */
+    public static int[] decomposicaoNucleos(GrafoIndexado grafo, boolean simetrico) {
+        return decomposicaoNucleos(AdjacenciaSimples.de(grafo, simetrico, false));
+    }
+}
@@ -0,0 +1,38 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do Java Flight Recorder emitido ao fim de cada algoritmo
+ * instrumentado. Só é gravado quando há uma gravação ativa com o evento
+ * {@code grafo.Algoritmo} habilitado.
+ */
+@Name("grafo.Algoritmo")
+@Label("Algoritmo de grafo")
+@Category("Grafo")
+@Description("Execução de um algoritmo sobre um Grafo")
+class EventoAlgoritmo extends Event {
+    @Label("Algoritmo")
+    String algoritmo;
+
+    @Label("Vértices visitados")
+    long verticesVisitados;
+
+    @Label("Arestas visitadas")
+    long arestasVisitadas;
+
+    @Label("Operações")
+    @Description("Contador específico do algoritmo, como caminhos aumentantes ou nós expandidos")
+    long operacoes;
+
+    @Label("Bytes processados")
+    @DataAmount
+    long bytesProcessados;
+
+    @Label("Bytes alocados")
+    @DataAmount
+    long bytesAlocados;
+}
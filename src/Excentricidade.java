@@ -0,0 +1,449 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Excentricidades, diâmetro, raio e centro de um grafo não direcionado, sem
+ * uma busca a partir de cada vértice.
+ *
+ * {@link #calcular} usa a delimitação de Takes e Kosters: cada busca a partir
+ * de v, com excentricidade e(v), limita a excentricidade de todo vértice w
+ * alcançado entre {@code max(d(v,w), e(v) - d(v,w))} e
+ * {@code e(v) + d(v,w)}; um vértice com os dois limites iguais está
+ * resolvido. As buscas partem alternadamente do vértice pendente de menor
+ * limite inferior e do de maior limite superior (desempate pelo grau), o que
+ * em grafos reais resolve tudo com poucas dezenas de buscas. Se uma
+ * componente ainda tiver pendentes depois de {@link #LIMITE_DELIMITACAO}
+ * buscas (grafos aleatórios de diâmetro pequeno, por exemplo), os pendentes
+ * são resolvidos com uma busca cada, em paralelo.
+ *
+ * {@link #diametro} usa o iFUB quando só o diâmetro interessa: parte do
+ * centro aproximado de uma varredura dupla repetida (4-sweep) e busca a
+ * partir das camadas mais distantes desse centro, em paralelo dentro de cada
+ * camada, até o limite inferior alcançar o superior.
+ *
+ * Sem pesos as buscas são em largura ({@link Percurso#distancias}); com
+ * pesos, Dijkstra. O grafo deve ser simétrico (todo arco com o seu inverso);
+ * em grafos desconexos cada excentricidade é medida dentro da componente do
+ * vértice.
+ */
+public class Excentricidade {
+    /**
+     * Buscas de delimitação por componente antes de resolver os pendentes em
+     * paralelo.
+     */
+    public static final int LIMITE_DELIMITACAO = 64;
+
+    /**
+     * Excentricidades e medidas derivadas.
+     */
+    public static class Resultado {
+        private final long[] excentricidade;
+        private final long diametro;
+        private final long raio;
+        private final int[] centro;
+        private final int[] periferia;
+        private final int buscas;
+        private final boolean conexo;
+
+        Resultado(long[] excentricidade, int buscas, boolean conexo) {
+            this.excentricidade = excentricidade;
+            this.buscas = buscas;
+            this.conexo = conexo;
+            long maior = 0;
+            long menor = excentricidade.length == 0 ? 0 : Long.MAX_VALUE;
+            for (long e : excentricidade) {
+                maior = Math.max(maior, e);
+                menor = Math.min(menor, e);
+            }
+            diametro = maior;
+            raio = menor;
+            centro = IntStream.range(0, excentricidade.length).filter(v -> excentricidade[v] == raio).toArray();
+            periferia = IntStream.range(0, excentricidade.length).filter(v -> excentricidade[v] == diametro)
+                    .toArray();
+        }
+
+        /**
+         * @return A maior distância de cada vértice a outro da sua
+         *         componente. O vetor é compartilhado.
+         */
+        public long[] getExcentricidade() {
+            return excentricidade;
+        }
+
+        /**
+         * @return A maior excentricidade.
+         */
+        public long getDiametro() {
+            return diametro;
+        }
+
+        /**
+         * @return A menor excentricidade.
+         */
+        public long getRaio() {
+            return raio;
+        }
+
+        /**
+         * @return Os vértices de excentricidade igual ao raio.
+         */
+        public int[] getCentro() {
+            return centro;
+        }
+
+        /**
+         * @return Os vértices de excentricidade igual ao diâmetro.
+         */
+        public int[] getPeriferia() {
+            return periferia;
+        }
+
+        /**
+         * @return Quantidade de buscas feitas (o método ingênuo faz n).
+         */
+        public int getBuscas() {
+            return buscas;
+        }
+
+        /**
+         * @return false se o grafo é desconexo; nesse caso as distâncias
+         *         infinitas entre componentes não entram nas medidas.
+         */
+        public boolean isConexo() {
+            return conexo;
+        }
+
+        /**
+         * @return Estimativa, em bytes, da memória ocupada.
+         */
+        public long tamanhoEstimado() {
+            return 3 * 16L + 8L * excentricidade.length + 4L * (centro.length + periferia.length);
+        }
+    }
+
+    /**
+     * Vetores de uma busca (em largura ou Dijkstra) reaproveitados entre
+     * buscas: só os vértices alcançados na busca anterior são limpos.
+     */
+    private static final class Busca {
+        final GrafoIndexado grafo;
+        final boolean ponderado;
+        final int[] nivel;
+        final long[] custo;
+        final int[] pai;
+        final int[] alcancados;
+        final int[] vizinhos;
+        final int[] pesos;
+        final HeapIndexado heap;
+        int quantidade;
+
+        Busca(GrafoIndexado grafo, boolean ponderado) {
+            int n = grafo.numeroVertices();
+            this.grafo = grafo;
+            this.ponderado = ponderado;
+            nivel = ponderado ? null : new int[n];
+            custo = ponderado ? new long[n] : null;
+            if (ponderado) {
+                Arrays.fill(custo, -1);
+            } else {
+                Arrays.fill(nivel, -1);
+            }
+            pai = new int[n];
+            alcancados = new int[n];
+            vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+            pesos = ponderado ? new int[vizinhos.length] : null;
+            heap = ponderado ? new HeapIndexado(n) : null;
+        }
+
+        /**
+         * @return A excentricidade da raiz na sua componente.
+         */
+        long executar(int raiz) {
+            for (int i = 0; i < quantidade; i++) {
+                if (ponderado) {
+                    custo[alcancados[i]] = -1;
+                } else {
+                    nivel[alcancados[i]] = -1;
+                }
+            }
+            if (!ponderado) {
+                quantidade = Percurso.distancias(grafo, raiz, nivel, pai, alcancados, vizinhos);
+                return nivel[alcancados[quantidade - 1]];
+            }
+            quantidade = 0;
+            custo[raiz] = 0;
+            pai[raiz] = -1;
+            heap.atualizar(raiz, 0);
+            while (!heap.isVazio()) {
+                int u = heap.extrairMinimo();
+                alcancados[quantidade++] = u;
+                int grau = grafo.vizinhos(u, vizinhos, 0);
+                grafo.pesos(u, pesos, 0);
+                for (int i = 0; i < grau; i++) {
+                    if (pesos[i] < 0) {
+                        throw new IllegalArgumentException("peso negativo: " + pesos[i]);
+                    }
+                    int v = vizinhos[i];
+                    long novo = custo[u] + pesos[i];
+                    if (custo[v] < 0 || novo < custo[v]) {
+                        custo[v] = novo;
+                        pai[v] = u;
+                        heap.atualizar(v, novo);
+                    }
+                }
+            }
+            return custo[alcancados[quantidade - 1]];
+        }
+
+        long distancia(int v) {
+            return ponderado ? custo[v] : nivel[v];
+        }
+    }
+
+    /**
+     * Calcula a excentricidade de todos os vértices.
+     *
+     * @param grafo
+     *            Um grafo simétrico.
+     * @param ponderado
+     *            true para usar os pesos dos arcos como comprimento (não
+     *            negativos); false para contar arcos.
+     * @return As excentricidades, o diâmetro, o raio e o centro.
+     */
+    public static Resultado calcular(GrafoIndexado grafo, boolean ponderado) {
+        int n = grafo.numeroVertices();
+        Medicao medicao = Instrumentacao.iniciar("excentricidade");
+        long[] inferior = new long[n];
+        long[] contadores = delimitar(grafo, ponderado, false, inferior);
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            medicao.operacoes = contadores[1];
+            Instrumentacao.concluir(medicao);
+        }
+        return new Resultado(inferior, (int) contadores[1], contadores[2] <= 1);
+    }
+
+    /**
+     * Delimitação de Takes e Kosters sobre cada componente.
+     *
+     * @param somenteDiametro
+     *            Se true, um vértice deixa de ser pendente quando o seu
+     *            limite superior não passa do maior diâmetro já encontrado,
+     *            e {@code inferior} não fica exato.
+     * @param inferior
+     *            Recebe as excentricidades (os limites inferiores).
+     * @return {diâmetro, buscas feitas, componentes}.
+     */
+    private static long[] delimitar(GrafoIndexado grafo, boolean ponderado, boolean somenteDiametro,
+            long[] inferior) {
+        int n = grafo.numeroVertices();
+        ThreadLocal<Busca> buscas = ThreadLocal.withInitial(() -> new Busca(grafo, ponderado));
+        Busca busca = buscas.get();
+        long[] superior = new long[n];
+        boolean[] visitado = new boolean[n];
+        long diametro = 0;
+        long total = 0;
+        int componentes = 0;
+
+        for (int r = 0; r < n; r++) {
+            if (visitado[r]) {
+                continue;
+            }
+            componentes++;
+            // A busca que descobre a componente já serve de delimitação
+            int[] membros = null;
+            boolean pelaMenor = true;
+            int escolhido = r;
+            int feitas = 0;
+            while (escolhido >= 0 && feitas < LIMITE_DELIMITACAO) {
+                long e = busca.executar(escolhido);
+                feitas++;
+                diametro = Math.max(diametro, e);
+                if (membros == null) {
+                    membros = Arrays.copyOf(busca.alcancados, busca.quantidade);
+                    for (int v : membros) {
+                        visitado[v] = true;
+                        inferior[v] = 0;
+                        superior[v] = Long.MAX_VALUE;
+                    }
+                }
+                for (int i = 0; i < busca.quantidade; i++) {
+                    int w = busca.alcancados[i];
+                    long d = busca.distancia(w);
+                    inferior[w] = Math.max(inferior[w], Math.max(d, e - d));
+                    superior[w] = Math.min(superior[w], e + d);
+                }
+                escolhido = proximo(grafo, membros, inferior, superior, somenteDiametro ? diametro : -1, pelaMenor);
+                pelaMenor = !pelaMenor;
+            }
+            total += feitas;
+            if (escolhido >= 0) {
+                long limite = somenteDiametro ? diametro : -1;
+                int[] restantes = Arrays.stream(membros)
+                        .filter(v -> inferior[v] != superior[v] && superior[v] > limite).toArray();
+                IntStream.of(restantes).parallel().forEach(v -> {
+                    long e = buscas.get().executar(v);
+                    inferior[v] = e;
+                    superior[v] = e;
+                });
+                total += restantes.length;
+                for (int v : restantes) {
+                    diametro = Math.max(diametro, inferior[v]);
+                }
+            }
+        }
+        return new long[] { diametro, total, componentes };
+    }
+
+    /**
+     * @param limite
+     *            Vértices com limite superior até aqui não são pendentes; -1
+     *            para exigir os limites iguais.
+     * @return O vértice pendente de menor limite inferior (ou de maior limite
+     *         superior), desempatando pelo maior grau; -1 se não há pendentes.
+     */
+    private static int proximo(GrafoIndexado grafo, int[] membros, long[] inferior, long[] superior, long limite,
+            boolean pelaMenor) {
+        int melhor = -1;
+        for (int v : membros) {
+            if (inferior[v] == superior[v] || superior[v] <= limite) {
+                continue;
+            }
+            if (melhor < 0) {
+                melhor = v;
+                continue;
+            }
+            long a = pelaMenor ? -inferior[v] : superior[v];
+            long b = pelaMenor ? -inferior[melhor] : superior[melhor];
+            if (a > b || (a == b && grafo.grau(v) > grafo.grau(melhor))) {
+                melhor = v;
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * Calcula só o diâmetro (a maior excentricidade). Sem pesos usa o iFUB,
+     * que costuma precisar de menos buscas que {@link #calcular}; com pesos,
+     * ou quando as camadas do iFUB ficam grandes demais, a mesma delimitação
+     * de {@link #calcular}, mas descartando os vértices cujo limite superior
+     * não passa do maior diâmetro já encontrado.
+     *
+     * @param grafo
+     *            Um grafo simétrico.
+     * @param ponderado
+     *            true para usar os pesos dos arcos como comprimento.
+     * @return O diâmetro (o maior entre as componentes, se desconexo).
+     */
+    public static long diametro(GrafoIndexado grafo, boolean ponderado) {
+        int n = grafo.numeroVertices();
+        Medicao medicao = Instrumentacao.iniciar("diametro");
+        if (ponderado) {
+            long[] contadores = delimitar(grafo, true, true, new long[n]);
+            if (medicao != null) {
+                medicao.operacoes = contadores[1];
+                Instrumentacao.concluir(medicao);
+            }
+            return contadores[0];
+        }
+        ThreadLocal<Busca> buscas = ThreadLocal.withInitial(() -> new Busca(grafo, false));
+        Busca busca = buscas.get();
+        boolean[] visitado = new boolean[n];
+        long diametro = 0;
+        int total = 0;
+        for (int r = 0; r < n; r++) {
+            if (visitado[r]) {
+                continue;
+            }
+            busca.executar(r);
+            total++;
+            int maiorGrau = r;
+            for (int i = 0; i < busca.quantidade; i++) {
+                int v = busca.alcancados[i];
+                visitado[v] = true;
+                if (grafo.grau(v) > grafo.grau(maiorGrau)) {
+                    maiorGrau = v;
+                }
+            }
+            if (busca.quantidade > 1) {
+                long[] resultado = ifub(busca, buscas, maiorGrau);
+                total += (int) resultado[1];
+                if (resultado[0] < 0) {
+                    long[] contadores = delimitar(grafo, false, true, new long[n]);
+                    if (medicao != null) {
+                        medicao.operacoes = total + contadores[1];
+                        Instrumentacao.concluir(medicao);
+                    }
+                    return contadores[0];
+                }
+                diametro = Math.max(diametro, resultado[0]);
+            }
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            medicao.operacoes = total;
+            Instrumentacao.concluir(medicao);
+        }
+        return diametro;
+    }
+
+    /**
+     * iFUB sobre a componente de {@code inicio}. Em grafos sem vértices
+     * periféricos destacados (grades) as camadas externas são enormes; se a
+     * próxima camada passar de {@link #LIMITE_DELIMITACAO} buscas no total,
+     * desiste.
+     *
+     * @return {diâmetro da componente, ou -1 se desistiu; buscas feitas}.
+     */
+    private static long[] ifub(Busca busca, ThreadLocal<Busca> buscas, int inicio) {
+        // 4-sweep: duas varreduras duplas, cada uma a partir do meio do
+        // caminho mais longo da anterior
+        long inferior = 0;
+        int raiz = inicio;
+        int feitas = 0;
+        for (int varredura = 0; varredura < 2; varredura++) {
+            busca.executar(raiz);
+            int a = busca.alcancados[busca.quantidade - 1];
+            long e = busca.executar(a);
+            feitas += 2;
+            inferior = Math.max(inferior, e);
+            int meio = busca.alcancados[busca.quantidade - 1];
+            for (long passo = 0; passo < e / 2; passo++) {
+                meio = busca.pai[meio];
+            }
+            raiz = meio;
+        }
+
+        // Camadas a partir do centro aproximado, da mais distante para dentro
+        long e = busca.executar(raiz);
+        feitas++;
+        inferior = Math.max(inferior, e);
+        int[] ordem = Arrays.copyOf(busca.alcancados, busca.quantidade);
+        int[] camada = new int[ordem.length];
+        for (int i = 0; i < ordem.length; i++) {
+            camada[i] = busca.nivel[ordem[i]];
+        }
+        int fim = ordem.length;
+        for (long i = e; i > 0 && 2 * i > inferior; i--) {
+            int comeco = fim;
+            while (comeco > 0 && camada[comeco - 1] == i) {
+                comeco--;
+            }
+            if (feitas + fim - comeco > LIMITE_DELIMITACAO) {
+                return new long[] { -1, feitas };
+            }
+            long maior = IntStream.range(comeco, fim).parallel().mapToLong(j -> buscas.get().executar(ordem[j]))
+                    .max().orElse(0);
+            feitas += fim - comeco;
+            fim = comeco;
+            inferior = Math.max(inferior, maior);
+            // Vértices mais internos têm excentricidade até 2(i - 1)
+            if (inferior > 2 * (i - 1)) {
+                break;
+            }
+        }
+        return new long[] { inferior, feitas };
+    }
+}
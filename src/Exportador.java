@@ -0,0 +1,582 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Classe responsável por exportar grafos e resultados de algoritmos.
+ *
+ * Toda a escrita é feita em blocos: o texto é acumulado em um buffer de
+ * tamanho fixo e enviado ao destino apenas quando o buffer enche, evitando
+ * uma chamada de escrita por vértice ou por célula da matriz.
+ */
+public class Exportador {
+    /**
+     * Formatos suportados na exportação.
+     *
+     * NATIVO segue o formato de entrada lido por {@link LeituraEscrita}
+     * ({@code V = {...}; A = {...};}, mais {@code C = {...};} se houver
+     * atributos). BINARIO só pode ser escrito em um canal e não guarda
+     * atributos de aresta.
+     */
+    public enum Formato {
+        NATIVO, CSV, DOT, BINARIO
+    }
+
+    /** Cabeçalho que identifica o formato binário. */
+    static final int ASSINATURA_BINARIA = 0x47524642; // "GRFB"
+
+    private static final int TAMANHO_BLOCO = 1 << 16;
+
+    /**
+     * Exporta um grafo (ou uma árvore gerada a partir dele) em formato textual,
+     * com os atributos das arestas: campos extras das tuplas e declaração
+     * {@code C} no NATIVO, colunas no CSV e atributos das arestas no DOT.
+     *
+     * @param grafo
+     *            O grafo a ser exportado.
+     * @param formato
+     *            NATIVO, CSV ou DOT.
+     * @param destino
+     *            Destino da escrita. Não é fechado ao final, apenas esvaziado.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarGrafo(Grafo grafo, Formato formato, Writer destino) throws IOException {
+        exportarArestas(grafo.getVertices().values(), grafo.getArestas(), grafo.getAtributos(), formato, destino);
+    }
+
+    /**
+     * Exporta um grafo em qualquer formato para um canal de bytes.
+     *
+     * @param grafo
+     *            O grafo a ser exportado.
+     * @param formato
+     *            Formato de saída.
+     * @param canal
+     *            Canal de destino. Não é fechado ao final.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     * @throws IllegalArgumentException
+     *             Se o formato for BINARIO e o grafo tiver atributos de aresta,
+     *             que esse formato não guarda.
+     */
+    public static void exportarGrafo(Grafo grafo, Formato formato, WritableByteChannel canal) throws IOException {
+        if (formato == Formato.BINARIO) {
+            if (!grafo.getAtributos().getNomes().isEmpty()) {
+                throw new IllegalArgumentException(
+                        "o formato BINARIO não guarda atributos de aresta; use NATIVO ou CSV");
+            }
+            exportarBinario(grafo.getVertices().values(), grafo.getArestas(), canal);
+        } else {
+            Writer destino = Channels.newWriter(canal, StandardCharsets.UTF_8);
+            exportarGrafo(grafo, formato, destino);
+        }
+    }
+
+    /**
+     * Exporta um conjunto de vértices e arestas em formato textual.
+     *
+     * @param vertices
+     *            Vértices a exportar.
+     * @param arestas
+     *            Arestas a exportar.
+     * @param formato
+     *            NATIVO, CSV ou DOT.
+     * @param destino
+     *            Destino da escrita.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarArestas(Collection<Vertice> vertices, List<Aresta> arestas, Formato formato,
+            Writer destino) throws IOException {
+        exportarArestas(vertices, arestas, null, formato, destino);
+    }
+
+    /**
+     * Mesmo que {@link #exportarArestas(Collection, List, Formato, Writer)},
+     * escrevendo também os atributos (indexados pela posição em
+     * {@code arestas}), se houver.
+     */
+    static void exportarArestas(Collection<Vertice> vertices, List<Aresta> arestas, AtributosAresta atributos,
+            Formato formato, Writer destino) throws IOException {
+        List<String> campos = camposDeAtributos(atributos);
+        Object[] colunas = new Object[campos.size()];
+        for (int c = 0; c < colunas.length; c++) {
+            colunas[c] = coluna(atributos, campos.get(c));
+        }
+        Saida saida = new Saida(destino);
+        int i = 0; // Posição da aresta, que indexa os atributos
+        switch (formato) {
+            case NATIVO:
+                saida.escrever("V = {");
+                boolean primeiro = true;
+                for (Vertice v : vertices) {
+                    if (!primeiro) {
+                        saida.escrever(',');
+                    }
+                    saida.escrever(v.valor);
+                    primeiro = false;
+                }
+                saida.escrever("};\nA = {");
+                primeiro = true;
+                for (Aresta a : arestas) {
+                    if (!primeiro) {
+                        saida.escrever(',');
+                    }
+                    saida.escrever('(').escrever(a.u.valor).escrever(',').escrever(a.v.valor);
+                    if (colunas.length > 0) {
+                        for (int c = 0; c < colunas.length; c++) {
+                            escreverValor(saida.escrever(','), colunas[c], a, i);
+                        }
+                    } else if (a.peso != 1) {
+                        saida.escrever(',').escrever(a.peso);
+                    }
+                    saida.escrever(')');
+                    primeiro = false;
+                    i++;
+                }
+                saida.escrever("};\n");
+                if (colunas.length > 0) {
+                    // Declara nome e tipo de cada campo, a partir do peso
+                    saida.escrever("C = {");
+                    for (int c = 0; c < colunas.length; c++) {
+                        String tipo = colunas[c] == null ? "int"
+                                : atributos.getTipo(campos.get(c)).name().toLowerCase(Locale.ROOT);
+                        saida.escrever(c > 0 ? "," : "").escrever(campos.get(c)).escrever(':').escrever(tipo);
+                    }
+                    saida.escrever("};\n");
+                }
+                break;
+            case CSV:
+                saida.escrever("origem,destino");
+                if (colunas.length == 0) {
+                    saida.escrever(",peso");
+                }
+                for (String campo : campos) {
+                    saida.escrever(',').escrever(campo);
+                }
+                saida.escrever('\n');
+                for (Aresta a : arestas) {
+                    saida.escrever(a.u.valor).escrever(',').escrever(a.v.valor);
+                    if (colunas.length == 0) {
+                        saida.escrever(',').escrever(a.peso);
+                    }
+                    for (int c = 0; c < colunas.length; c++) {
+                        escreverValor(saida.escrever(','), colunas[c], a, i);
+                    }
+                    saida.escrever('\n');
+                    i++;
+                }
+                break;
+            case DOT:
+                saida.escrever("digraph G {\n");
+                for (Vertice v : vertices) {
+                    saida.escrever("  \"").escrever(v.valor).escrever("\";\n");
+                }
+                for (Aresta a : arestas) {
+                    saida.escrever("  \"").escrever(a.u.valor).escrever("\" -> \"").escrever(a.v.valor)
+                            .escrever("\" [weight=").escrever(a.peso);
+                    for (int c = 0; c < colunas.length; c++) {
+                        if (colunas[c] != null) {
+                            saida.escrever(", ").escrever(campos.get(c)).escrever("=\"");
+                            escreverValor(saida, colunas[c], a, i).escrever('"');
+                        }
+                    }
+                    saida.escrever("];\n");
+                    i++;
+                }
+                saida.escrever("}\n");
+                break;
+            default:
+                throw new IllegalArgumentException("Formato " + formato + " não é textual");
+        }
+        saida.esvaziar();
+    }
+
+    /**
+     * @return Os nomes dos campos de atributos, na ordem em que o NATIVO os
+     *         escreve depois do destino: primeiro {@code peso} (a coluna, se
+     *         existir, senão o peso inteiro das arestas) e depois as demais
+     *         colunas na ordem em que foram criadas. Vazio se não houver
+     *         atributos.
+     */
+    private static List<String> camposDeAtributos(AtributosAresta atributos) {
+        List<String> campos = new ArrayList<>();
+        if (atributos == null || atributos.getNomes().isEmpty()) {
+            return campos;
+        }
+        campos.add("peso");
+        for (String nome : atributos.getNomes()) {
+            if (!nome.equals("peso")) {
+                campos.add(nome);
+            }
+        }
+        return campos;
+    }
+
+    /**
+     * @return O vetor da coluna, ou {@code null} para {@code peso} sem coluna
+     *         própria.
+     */
+    private static Object coluna(AtributosAresta atributos, String nome) {
+        if (!atributos.contem(nome)) {
+            return null;
+        }
+        switch (atributos.getTipo(nome)) {
+            case INT:
+                return atributos.getInteiros(nome);
+            case LONG:
+                return atributos.getLongos(nome);
+            default:
+                return atributos.getReais(nome);
+        }
+    }
+
+    private static Saida escreverValor(Saida saida, Object coluna, Aresta a, int indice) throws IOException {
+        if (coluna == null) {
+            return saida.escrever(a.peso);
+        }
+        if (coluna instanceof int[]) {
+            return saida.escrever(((int[]) coluna)[indice]);
+        }
+        if (coluna instanceof long[]) {
+            return saida.escrever(((long[]) coluna)[indice]);
+        }
+        return saida.escrever(((double[]) coluna)[indice]);
+    }
+
+    /**
+     * Escreve a lista de adjacência do grafo, um vértice por linha no formato
+     * {@code a -> b -> c;}.
+     *
+     * @param grafo
+     *            O grafo a ser exportado.
+     * @param destino
+     *            Destino da escrita.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarListaAdjacencia(Grafo grafo, Writer destino) throws IOException {
+        Saida saida = new Saida(destino);
+        for (Vertice v : grafo.getVertices().values()) {
+            saida.escrever(v.valor);
+            for (Vertice adj : v.adjacencia) {
+                saida.escrever(" -> ").escrever(adj.valor);
+            }
+            saida.escrever(";\n");
+        }
+        saida.esvaziar();
+    }
+
+    /**
+     * Escreve a matriz de adjacência do grafo linha a linha, sem alocar a matriz
+     * completa. Os valores seguem {@link Grafo#getMatrizAdjacencia()}.
+     *
+     * @param grafo
+     *            O grafo a ser exportado.
+     * @param formato
+     *            NATIVO (separado por espaços) ou CSV (com cabeçalho).
+     * @param destino
+     *            Destino da escrita.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarMatrizAdjacencia(Grafo grafo, Formato formato, Writer destino) throws IOException {
+        List<Vertice> ordem = new ArrayList<>(grafo.getVertices().values());
+        int n = ordem.size();
+        Map<Vertice, Integer> indices = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            indices.put(ordem.get(i), i);
+        }
+
+        // Agrupa as arestas por extremidade (nos dois sentidos, como a matriz)
+        List<Aresta> arestas = grafo.getArestas();
+        int[] inicio = new int[n + 1];
+        for (Aresta a : arestas) {
+            inicio[indices.get(a.u) + 1]++;
+            inicio[indices.get(a.v) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            inicio[i + 1] += inicio[i];
+        }
+        int[] posicao = inicio.clone();
+        int[] colunas = new int[2 * arestas.size()];
+        int[] pesos = new int[2 * arestas.size()];
+        for (Aresta a : arestas) {
+            int u = indices.get(a.u);
+            int v = indices.get(a.v);
+            colunas[posicao[u]] = v;
+            pesos[posicao[u]++] = a.peso;
+            colunas[posicao[v]] = u;
+            pesos[posicao[v]++] = a.peso;
+        }
+
+        Saida saida = new Saida(destino);
+        char separador = formato == Formato.CSV ? ',' : ' ';
+        if (formato == Formato.CSV) {
+            for (Vertice v : ordem) {
+                saida.escrever(separador).escrever(v.valor);
+            }
+            saida.escrever('\n');
+        }
+        int[] linha = new int[n];
+        for (int i = 0; i < n; i++) {
+            // As entradas de cada linha estão na ordem das arestas, então em caso
+            // de arestas repetidas vale a última, como em getMatrizAdjacencia
+            for (int k = inicio[i]; k < inicio[i + 1]; k++) {
+                linha[colunas[k]] = pesos[k];
+            }
+            if (formato == Formato.CSV) {
+                saida.escrever(ordem.get(i).valor).escrever(separador);
+            }
+            for (int j = 0; j < n; j++) {
+                if (j > 0) {
+                    saida.escrever(separador);
+                }
+                saida.escrever(linha[j]);
+            }
+            saida.escrever('\n');
+            for (int k = inicio[i]; k < inicio[i + 1]; k++) {
+                linha[colunas[k]] = 0;
+            }
+        }
+        saida.esvaziar();
+    }
+
+    /**
+     * Exporta uma lista de componentes (ou qualquer agrupamento de vértices).
+     * NATIVO e DOT escrevem um grupo por linha; CSV escreve pares
+     * {@code vertice,componente}.
+     *
+     * @param componentes
+     *            Os grupos de vértices.
+     * @param formato
+     *            NATIVO, CSV ou DOT.
+     * @param destino
+     *            Destino da escrita.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarComponentes(List<? extends Collection<Vertice>> componentes, Formato formato,
+            Writer destino) throws IOException {
+        Saida saida = new Saida(destino);
+        int id = 0;
+        switch (formato) {
+            case NATIVO:
+                for (Collection<Vertice> componente : componentes) {
+                    saida.escrever('{');
+                    boolean primeiro = true;
+                    for (Vertice v : componente) {
+                        if (!primeiro) {
+                            saida.escrever(',');
+                        }
+                        saida.escrever(v.valor);
+                        primeiro = false;
+                    }
+                    saida.escrever("};\n");
+                }
+                break;
+            case CSV:
+                saida.escrever("vertice,componente\n");
+                for (Collection<Vertice> componente : componentes) {
+                    for (Vertice v : componente) {
+                        saida.escrever(v.valor).escrever(',').escrever(id).escrever('\n');
+                    }
+                    id++;
+                }
+                break;
+            case DOT:
+                saida.escrever("graph G {\n");
+                for (Collection<Vertice> componente : componentes) {
+                    saida.escrever("  subgraph cluster_").escrever(id++).escrever(" {");
+                    for (Vertice v : componente) {
+                        saida.escrever(" \"").escrever(v.valor).escrever("\";");
+                    }
+                    saida.escrever(" }\n");
+                }
+                saida.escrever("}\n");
+                break;
+            default:
+                throw new IllegalArgumentException("Formato " + formato + " não é textual");
+        }
+        saida.esvaziar();
+    }
+
+    /**
+     * Escreve uma sequência de vértices (caminho, ordem topológica etc.) em uma
+     * linha, separados pelo separador dado.
+     *
+     * @param vertices
+     *            Os vértices, na ordem de escrita.
+     * @param separador
+     *            Texto colocado entre dois vértices.
+     * @param destino
+     *            Destino da escrita.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarSequencia(Collection<Vertice> vertices, String separador, Writer destino)
+            throws IOException {
+        Saida saida = new Saida(destino);
+        boolean primeiro = true;
+        for (Vertice v : vertices) {
+            if (!primeiro) {
+                saida.escrever(separador);
+            }
+            saida.escrever(v.valor);
+            primeiro = false;
+        }
+        saida.escrever('\n');
+        saida.esvaziar();
+    }
+
+    /**
+     * Escreve o fecho transitivo, uma linha por vértice no formato
+     * {@code a -> b c d}.
+     *
+     * @param fecho
+     *            O fecho transitivo calculado por {@link Grafo#fechoTransitivo()}.
+     * @param destino
+     *            Destino da escrita.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarFecho(Map<Vertice, Set<Vertice>> fecho, Writer destino) throws IOException {
+        Saida saida = new Saida(destino);
+        for (Map.Entry<Vertice, Set<Vertice>> entrada : fecho.entrySet()) {
+            saida.escrever(entrada.getKey().valor).escrever(" ->");
+            for (Vertice u : entrada.getValue()) {
+                saida.escrever(' ').escrever(u.valor);
+            }
+            saida.escrever('\n');
+        }
+        saida.esvaziar();
+    }
+
+    /**
+     * Escreve o grafo no formato binário: assinatura, número de vértices, rótulos
+     * (tamanho em bytes + UTF-8), número de arestas e, para cada aresta, os
+     * índices de origem e destino e o peso, todos como inteiros big-endian.
+     *
+     * @param vertices
+     *            Vértices a exportar.
+     * @param arestas
+     *            Arestas a exportar.
+     * @param canal
+     *            Canal de destino.
+     * @throws IOException
+     *             Se ocorrer um erro de escrita.
+     */
+    public static void exportarBinario(Collection<Vertice> vertices, List<Aresta> arestas, WritableByteChannel canal)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BLOCO);
+        Map<Vertice, Integer> indices = new HashMap<>();
+        buffer.putInt(ASSINATURA_BINARIA);
+        buffer.putInt(vertices.size());
+        for (Vertice v : vertices) {
+            indices.put(v, indices.size());
+            byte[] rotulo = v.valor.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < 4 + rotulo.length) {
+                despejar(buffer, canal);
+            }
+            buffer.putInt(rotulo.length);
+            if (rotulo.length > buffer.remaining()) {
+                buffer.flip();
+                escreverTudo(buffer, canal);
+                escreverTudo(ByteBuffer.wrap(rotulo), canal);
+                buffer.clear();
+            } else {
+                buffer.put(rotulo);
+            }
+        }
+        if (buffer.remaining() < 4) {
+            despejar(buffer, canal);
+        }
+        buffer.putInt(arestas.size());
+        for (Aresta a : arestas) {
+            if (buffer.remaining() < 12) {
+                despejar(buffer, canal);
+            }
+            buffer.putInt(indices.get(a.u));
+            buffer.putInt(indices.get(a.v));
+            buffer.putInt(a.peso);
+        }
+        despejar(buffer, canal);
+    }
+
+    private static void despejar(ByteBuffer buffer, WritableByteChannel canal) throws IOException {
+        buffer.flip();
+        escreverTudo(buffer, canal);
+        buffer.clear();
+    }
+
+    private static void escreverTudo(ByteBuffer buffer, WritableByteChannel canal) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    /**
+     * Buffer de caracteres que é enviado ao {@link Writer} em blocos.
+     */
+    static class Saida {
+        private final Writer destino;
+        private final char[] bloco = new char[TAMANHO_BLOCO];
+        private int usado = 0;
+
+        Saida(Writer destino) {
+            this.destino = destino;
+        }
+
+        Saida escrever(char c) throws IOException {
+            if (usado == bloco.length) {
+                despejar();
+            }
+            bloco[usado++] = c;
+            return this;
+        }
+
+        Saida escrever(String s) throws IOException {
+            int n = s.length();
+            if (n > bloco.length) {
+                despejar();
+                destino.write(s);
+                return this;
+            }
+            if (usado + n > bloco.length) {
+                despejar();
+            }
+            s.getChars(0, n, bloco, usado);
+            usado += n;
+            return this;
+        }
+
+        Saida escrever(long valor) throws IOException {
+            return escrever(Long.toString(valor));
+        }
+
+        Saida escrever(double valor) throws IOException {
+            return escrever(Double.toString(valor));
+        }
+
+        private void despejar() throws IOException {
+            destino.write(bloco, 0, usado);
+            usado = 0;
+        }
+
+        void esvaziar() throws IOException {
+            despejar();
+            destino.flush();
+        }
+    }
+}
@@ -0,0 +1,714 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Gera grafos sintéticos grandes direto em arquivo, sem montar o grafo em
+ * memória: Erdős–Rényi, Barabási–Albert, R-MAT (Kronecker 2x2), geométrico
+ * aleatório e grade.
+ *
+ * Como em {@link GeradorGrafos}, os grafos são não direcionados (cada aresta é
+ * escrita nos dois sentidos, um logo após o outro) e os vértices se chamam
+ * {@code v0, v1, ...}. A saída usa os formatos de {@link Exportador}: NATIVO
+ * (lido por {@link LeituraEscrita#lerGrafo}), CSV ou BINARIO.
+ *
+ * O trabalho é dividido em blocos de tamanho fixo, e cada bloco tem o seu
+ * próprio gerador pseudoaleatório derivado da semente e do número do bloco.
+ * Os blocos são gerados em paralelo, em ondas, e escritos na ordem; assim a
+ * memória usada é limitada pelo tamanho de uma onda e, com a mesma semente, o
+ * arquivo é sempre o mesmo, qualquer que seja o número de processadores.
+ */
+public class GeradorEmDisco {
+    /** Probabilidades (a, b, c, d) usuais do R-MAT. */
+    public static final double[] RMAT_PADRAO = { 0.57, 0.19, 0.19, 0.05 };
+
+    private static final int VERTICES_POR_BLOCO = 1 << 14;
+    private static final int ARESTAS_POR_BLOCO = 1 << 16;
+    private static final int BLOCOS_POR_ONDA = 4 * Runtime.getRuntime().availableProcessors();
+    private static final long DOURADO = 0x9E3779B97F4A7C15L;
+
+    private final long semente;
+    private final int pesoMaximo;
+    private final Exportador.Formato formato;
+    private final ThreadLocal<Lote> lotes = ThreadLocal.withInitial(Lote::new);
+
+    /**
+     * Trabalho de um bloco: escreve as arestas do bloco no lote.
+     */
+    private interface Fonte {
+        void gerar(int bloco, Lote lote);
+    }
+
+    /**
+     * @param semente
+     *            Semente dos geradores pseudoaleatórios.
+     * @param pesoMaximo
+     *            Pesos são sorteados entre 1 e este valor; 1 gera um grafo não
+     *            ponderado.
+     * @param formato
+     *            NATIVO, CSV ou BINARIO.
+     */
+    public GeradorEmDisco(long semente, int pesoMaximo, Exportador.Formato formato) {
+        if (formato == Exportador.Formato.DOT) {
+            throw new IllegalArgumentException("Formato " + formato + " não é suportado pelo gerador");
+        }
+        if (pesoMaximo < 1) {
+            throw new IllegalArgumentException("peso máximo deve ser positivo: " + pesoMaximo);
+        }
+        this.semente = semente;
+        this.pesoMaximo = pesoMaximo;
+        this.formato = formato;
+    }
+
+    /**
+     * Modelo G(n, p) com p escolhido para que o número esperado de arestas
+     * seja m. Cada bloco de vértices u sorteia os vizinhos v > u pulando
+     * direto para o próximo sucesso (saltos geométricos), então o custo é
+     * proporcional ao número de arestas e não ao de pares.
+     *
+     * @return Quantidade de arcos escritos (o dobro do número de arestas).
+     */
+    public long erdosRenyi(int n, long m, Path destino) throws IOException {
+        double pares = (double) n * (n - 1) / 2;
+        double p = pares == 0 ? 0 : Math.min(1, m / pares);
+        double logNaoAresta = Math.log1p(-p);
+        return escrever(n, blocos(n, VERTICES_POR_BLOCO), 2 * Math.min(m, (long) pares), destino, (bloco, lote) -> {
+            if (p == 0) {
+                return;
+            }
+            SplittableRandom aleatorio = aleatorio(bloco, 0);
+            int fim = (int) Math.min(n, (long) (bloco + 1) * VERTICES_POR_BLOCO);
+            for (int u = bloco * VERTICES_POR_BLOCO; u < fim; u++) {
+                long v = u;
+                while (true) {
+                    v += p == 1 ? 1 : 1 + (long) (Math.log(1 - aleatorio.nextDouble()) / logNaoAresta);
+                    if (v >= n) {
+                        break;
+                    }
+                    lote.ligar(u, (int) v, peso(aleatorio));
+                }
+            }
+        });
+    }
+
+    /**
+     * Modelo de Barabási-Albert: os vértices v0..vk formam um grafo completo
+     * e cada vértice seguinte se liga a k anteriores escolhidos com
+     * probabilidade proporcional ao grau.
+     *
+     * Em vez de manter o vetor de extremidades de {@link GeradorGrafos}, a
+     * extremidade sorteada por cada aresta é uma função da semente e do número
+     * da aresta, e uma posição já preenchida é recalculada seguindo as
+     * escolhas para trás (Sanders e Schulz). Isso não usa memória e permite
+     * gerar os vértices em qualquer ordem; escolhas repetidas de um mesmo
+     * vértice viram uma só aresta.
+     *
+     * @return Quantidade de arcos escritos.
+     */
+    public long barabasiAlbert(int n, int k, Path destino) throws IOException {
+        if (k < 1) {
+            throw new IllegalArgumentException("k deve ser positivo: " + k);
+        }
+        int inicial = Math.min(n, k + 1);
+        long arestasIniciais = (long) inicial * (inicial - 1) / 2;
+        int[][] completo = new int[2][(int) arestasIniciais];
+        for (int v = 1, e = 0; v < inicial; v++) {
+            for (int u = 0; u < v; u++, e++) {
+                completo[0][e] = u;
+                completo[1][e] = v;
+            }
+        }
+        long arestas = arestasIniciais + (long) (n - inicial) * k;
+        return escrever(n, blocos(n, VERTICES_POR_BLOCO), 2 * arestas, destino, (bloco, lote) -> {
+            int[] escolhidos = new int[k];
+            int fim = (int) Math.min(n, (long) (bloco + 1) * VERTICES_POR_BLOCO);
+            for (int v = bloco * VERTICES_POR_BLOCO; v < fim; v++) {
+                if (v < inicial) {
+                    for (int u = 0; u < v; u++) {
+                        long e = (long) v * (v - 1) / 2 + u;
+                        lote.ligar(u, v, peso(e));
+                    }
+                    continue;
+                }
+                long primeira = arestasIniciais + (long) (v - inicial) * k;
+                int quantidade = 0;
+                for (int j = 0; j < k; j++) {
+                    int u = extremidade(2 * (primeira + j), arestasIniciais, inicial, k, completo);
+                    boolean repetido = false;
+                    for (int i = 0; i < quantidade && !repetido; i++) {
+                        repetido = escolhidos[i] == u;
+                    }
+                    if (!repetido) {
+                        escolhidos[quantidade++] = u;
+                        lote.ligar(u, v, peso(primeira + j));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Valor da posição do vetor virtual de extremidades: a posição 2e + 1 é o
+     * vértice que criou a aresta e, e a posição 2e é uma posição anterior à
+     * primeira aresta desse vértice, sorteada a partir de e.
+     */
+    private int extremidade(long posicao, long arestasIniciais, int inicial, int k, int[][] completo) {
+        while (true) {
+            long e = posicao >>> 1;
+            if (e < arestasIniciais) {
+                return completo[(int) (posicao & 1)][(int) e];
+            }
+            long ordem = (e - arestasIniciais) / k;
+            if ((posicao & 1) == 1) {
+                return (int) (inicial + ordem);
+            }
+            long primeira = arestasIniciais + ordem * k;
+            posicao = (misturar(semente ^ (e * DOURADO)) >>> 1) % (2 * primeira);
+        }
+    }
+
+    /**
+     * R-MAT: cada aresta desce log2(n) níveis da matriz de adjacência,
+     * escolhendo em cada nível um dos quatro quadrantes com probabilidades
+     * (a, b, c, d). Laços são descartados; arestas repetidas são mantidas.
+     *
+     * @param escala
+     *            O grafo tem 2^escala vértices.
+     * @param m
+     *            Número de arestas sorteadas.
+     * @param probabilidades
+     *            {a, b, c, d}, normalizadas pela soma; veja
+     *            {@link #RMAT_PADRAO}.
+     * @return Quantidade de arcos escritos.
+     */
+    public long rmat(int escala, long m, double[] probabilidades, Path destino) throws IOException {
+        if (escala < 0 || escala > 30) {
+            throw new IllegalArgumentException("escala fora de 0..30: " + escala);
+        }
+        if (probabilidades.length != 4) {
+            throw new IllegalArgumentException("R-MAT espera 4 probabilidades");
+        }
+        double soma = probabilidades[0] + probabilidades[1] + probabilidades[2] + probabilidades[3];
+        double a = probabilidades[0] / soma;
+        double ab = a + probabilidades[1] / soma;
+        double abc = ab + probabilidades[2] / soma;
+        int n = 1 << escala;
+        long quantidadeBlocos = (m + ARESTAS_POR_BLOCO - 1) / ARESTAS_POR_BLOCO;
+        if (quantidadeBlocos > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("arestas demais: " + m);
+        }
+        return escrever(n, (int) quantidadeBlocos, 2 * m, destino, (bloco, lote) -> {
+            SplittableRandom aleatorio = aleatorio(bloco, 0);
+            long fim = Math.min(m, (long) (bloco + 1) * ARESTAS_POR_BLOCO);
+            for (long e = (long) bloco * ARESTAS_POR_BLOCO; e < fim; e++) {
+                int u = 0;
+                int v = 0;
+                for (int nivel = escala - 1; nivel >= 0; nivel--) {
+                    double r = aleatorio.nextDouble();
+                    if (r >= abc) {
+                        u |= 1 << nivel;
+                        v |= 1 << nivel;
+                    } else if (r >= ab) {
+                        u |= 1 << nivel;
+                    } else if (r >= a) {
+                        v |= 1 << nivel;
+                    }
+                }
+                int peso = peso(aleatorio);
+                if (u != v) {
+                    lote.ligar(u, v, peso);
+                }
+            }
+        });
+    }
+
+    /**
+     * Grafo geométrico aleatório: pontos no quadrado unitário, ligados quando
+     * estão a uma distância de no máximo raio. O quadrado é dividido em
+     * células de lado pelo menos raio; a quantidade de pontos de cada célula
+     * segue uma distribuição de Poisson de média n / células, e os pontos de
+     * uma célula são sempre regenerados a partir da semente da célula, então
+     * basta comparar cada célula com as vizinhas, sem guardar coordenadas.
+     *
+     * @param n
+     *            Número esperado de vértices (o número exato depende da
+     *            semente).
+     * @return Quantidade de arcos escritos.
+     */
+    public long geometrico(int n, double raio, Path destino) throws IOException {
+        if (!(raio > 0)) {
+            throw new IllegalArgumentException("raio deve ser positivo: " + raio);
+        }
+        int lado = (int) Math.max(1, Math.min(Math.floor(1 / raio), Math.sqrt(Integer.MAX_VALUE / 2.0)));
+        double largura = 1.0 / lado;
+        int celulas = lado * lado;
+        double media = (double) n / celulas;
+        int[] quantidade = new int[celulas];
+        IntStream.range(0, celulas).parallel().forEach(c -> quantidade[c] = poisson(aleatorio(c, 1), media));
+        int[] inicio = new int[celulas + 1];
+        for (int c = 0; c < celulas; c++) {
+            long proximo = (long) inicio[c] + quantidade[c];
+            if (proximo > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("vértices demais: " + n);
+            }
+            inicio[c + 1] = (int) proximo;
+        }
+        int total = inicio[celulas];
+        double raio2 = raio * raio;
+        int linhasPorBloco = Math.max(1, VERTICES_POR_BLOCO / Math.max(1, (int) Math.ceil(media * lado)));
+        double esperadas = total * Math.min(1.0, Math.PI * raio2) * total;
+        return escrever(total, blocos(lado, linhasPorBloco), (long) Math.min(esperadas, Long.MAX_VALUE), destino,
+                (bloco, lote) -> {
+                    int fim = (int) Math.min(lado, (long) (bloco + 1) * linhasPorBloco);
+                    double[] pontos = new double[0];
+                    double[] vizinhos = new double[0];
+                    for (int i = bloco * linhasPorBloco; i < fim; i++) {
+                        for (int j = 0; j < lado; j++) {
+                            int c = i * lado + j;
+                            pontos = pontos(c, i, j, largura, quantidade[c], pontos);
+                            SplittableRandom pesos = aleatorio(c, 3);
+                            for (int p = 0; p < quantidade[c]; p++) {
+                                for (int q = p + 1; q < quantidade[c]; q++) {
+                                    if (perto(pontos, p, pontos, q, raio2)) {
+                                        lote.ligar(inicio[c] + p, inicio[c] + q, peso(pesos));
+                                    }
+                                }
+                            }
+                            // Metade da vizinhança: direita e as três de baixo
+                            for (int d = 0; d < 4; d++) {
+                                int vi = d == 0 ? i : i + 1;
+                                int vj = d == 0 ? j + 1 : j + d - 2;
+                                if (vi >= lado || vj < 0 || vj >= lado) {
+                                    continue;
+                                }
+                                int vc = vi * lado + vj;
+                                vizinhos = pontos(vc, vi, vj, largura, quantidade[vc], vizinhos);
+                                for (int p = 0; p < quantidade[c]; p++) {
+                                    for (int q = 0; q < quantidade[vc]; q++) {
+                                        if (perto(pontos, p, vizinhos, q, raio2)) {
+                                            lote.ligar(inicio[c] + p, inicio[vc] + q, peso(pesos));
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Regenera as coordenadas (x, y) dos pontos da célula c.
+     */
+    private double[] pontos(int c, int linha, int coluna, double largura, int quantidade, double[] destino) {
+        if (destino.length < 2 * quantidade) {
+            destino = new double[Math.max(2 * quantidade, 2 * destino.length)];
+        }
+        SplittableRandom aleatorio = aleatorio(c, 2);
+        for (int p = 0; p < quantidade; p++) {
+            destino[2 * p] = (coluna + aleatorio.nextDouble()) * largura;
+            destino[2 * p + 1] = (linha + aleatorio.nextDouble()) * largura;
+        }
+        return destino;
+    }
+
+    private static boolean perto(double[] a, int p, double[] b, int q, double raio2) {
+        double dx = a[2 * p] - b[2 * q];
+        double dy = a[2 * p + 1] - b[2 * q + 1];
+        return dx * dx + dy * dy <= raio2;
+    }
+
+    private static int poisson(SplittableRandom aleatorio, double media) {
+        if (media > 30) {
+            return (int) Math.max(0, Math.round(media + Math.sqrt(media) * aleatorio.nextGaussian()));
+        }
+        double limite = Math.exp(-media);
+        double produto = aleatorio.nextDouble();
+        int k = 0;
+        while (produto > limite) {
+            produto *= aleatorio.nextDouble();
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Grade com {@code linhas x colunas} vértices, cada um ligado aos vizinhos
+     * de cima, baixo, esquerda e direita.
+     *
+     * @return Quantidade de arcos escritos.
+     */
+    public long grade(int linhas, int colunas, Path destino) throws IOException {
+        long total = (long) linhas * colunas;
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("vértices demais: " + total);
+        }
+        int linhasPorBloco = Math.max(1, VERTICES_POR_BLOCO / Math.max(1, colunas));
+        long arestas = (long) linhas * (colunas - 1) + (long) (linhas - 1) * colunas;
+        return escrever((int) total, blocos(linhas, linhasPorBloco), 2 * Math.max(0, arestas), destino,
+                (bloco, lote) -> {
+                    SplittableRandom aleatorio = aleatorio(bloco, 0);
+                    int fim = (int) Math.min(linhas, (long) (bloco + 1) * linhasPorBloco);
+                    for (int i = bloco * linhasPorBloco; i < fim; i++) {
+                        for (int j = 0; j < colunas; j++) {
+                            int v = i * colunas + j;
+                            if (j + 1 < colunas) {
+                                lote.ligar(v, v + 1, peso(aleatorio));
+                            }
+                            if (i + 1 < linhas) {
+                                lote.ligar(v, v + colunas, peso(aleatorio));
+                            }
+                        }
+                    }
+                });
+    }
+
+    private static int blocos(long itens, int porBloco) {
+        return (int) ((itens + porBloco - 1) / porBloco);
+    }
+
+    /**
+     * @return Gerador do bloco, independente da thread que o executa.
+     */
+    private SplittableRandom aleatorio(long bloco, int fluxo) {
+        return new SplittableRandom(misturar(semente + DOURADO * (bloco + 1) + fluxo * 0xBF58476D1CE4E5B9L));
+    }
+
+    private int peso(SplittableRandom aleatorio) {
+        return pesoMaximo > 1 ? 1 + aleatorio.nextInt(pesoMaximo) : 1;
+    }
+
+    /**
+     * @return Peso da aresta e, derivado só da semente e de e.
+     */
+    private int peso(long e) {
+        return pesoMaximo > 1 ? 1 + (int) ((misturar(semente ^ ~(e * DOURADO)) >>> 1) % pesoMaximo) : 1;
+    }
+
+    /**
+     * Finalizador do SplitMix64.
+     */
+    private static long misturar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Escreve o arquivo: cabeçalho e vértices, os arcos de cada bloco na
+     * ordem dos blocos e o rodapé.
+     *
+     * @param previstos
+     *            Quantidade nominal de arcos, para recusar cedo o que não cabe
+     *            no formato binário.
+     * @return Quantidade de arcos escritos.
+     */
+    private long escrever(int n, int blocos, long previstos, Path destino, Fonte fonte) throws IOException {
+        if (formato == Exportador.Formato.BINARIO && previstos > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("o formato binário comporta até " + Integer.MAX_VALUE + " arcos");
+        }
+        Medicao medicao = Instrumentacao.iniciar("geradorEmDisco");
+        long arcos = 0;
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long posicaoContagem = -1;
+            switch (formato) {
+            case NATIVO:
+                escreverTudo(ByteBuffer.wrap("V = {".getBytes(StandardCharsets.UTF_8)), canal);
+                escreverOndas(canal, blocos(n, VERTICES_POR_BLOCO), null, b -> rotulos(n, b));
+                escreverTudo(ByteBuffer.wrap("};\nA = {".getBytes(StandardCharsets.UTF_8)), canal);
+                break;
+            case CSV:
+                escreverTudo(ByteBuffer.wrap("origem,destino,peso\n".getBytes(StandardCharsets.UTF_8)), canal);
+                break;
+            default:
+                ByteBuffer cabecalho = ByteBuffer.allocate(8);
+                cabecalho.putInt(Exportador.ASSINATURA_BINARIA).putInt(n).flip();
+                escreverTudo(cabecalho, canal);
+                escreverOndas(canal, blocos(n, VERTICES_POR_BLOCO), null, b -> rotulos(n, b));
+                posicaoContagem = canal.position();
+                escreverTudo(ByteBuffer.allocate(4), canal);
+                break;
+            }
+
+            long[] contagem = new long[1];
+            escreverOndas(canal, blocos, contagem, b -> {
+                Lote lote = lotes.get();
+                lote.tamanho = 0;
+                fonte.gerar(b, lote);
+                return arcos(lote);
+            });
+            arcos = contagem[0];
+
+            if (formato == Exportador.Formato.NATIVO) {
+                escreverTudo(ByteBuffer.wrap("};\n".getBytes(StandardCharsets.UTF_8)), canal);
+            } else if (formato == Exportador.Formato.BINARIO) {
+                if (arcos > Integer.MAX_VALUE) {
+                    throw new IOException("o formato binário comporta até " + Integer.MAX_VALUE + " arcos");
+                }
+                ByteBuffer total = ByteBuffer.allocate(4);
+                total.putInt((int) arcos).flip();
+                while (total.hasRemaining()) {
+                    canal.write(total, posicaoContagem + total.position());
+                }
+            }
+            if (medicao != null) {
+                medicao.verticesVisitados += n;
+                medicao.arestasVisitadas += arcos;
+                medicao.bytesProcessados += canal.size();
+            }
+        }
+        Instrumentacao.concluir(medicao);
+        return arcos;
+    }
+
+    /**
+     * Gera os blocos em paralelo, uma onda por vez, e escreve o resultado de
+     * cada onda na ordem dos blocos. No formato NATIVO cada item vem precedido
+     * de vírgula, e a vírgula do primeiro item escrito é descartada.
+     *
+     * @param contagem
+     *            Se não for null, recebe na posição 0 a soma dos itens.
+     */
+    private void escreverOndas(FileChannel canal, int blocos, long[] contagem,
+            IntFunction<Bytes> gerador) throws IOException {
+        boolean primeiro = true;
+        for (int onda = 0; onda < blocos; onda += BLOCOS_POR_ONDA) {
+            int inicio = onda;
+            Bytes[] saidas = new Bytes[Math.min(blocos - onda, BLOCOS_POR_ONDA)];
+            IntStream.range(0, saidas.length).parallel().forEach(i -> saidas[i] = gerador.apply(inicio + i));
+            for (Bytes saida : saidas) {
+                if (saida.tamanho == 0) {
+                    continue;
+                }
+                int pular = primeiro && formato == Exportador.Formato.NATIVO ? 1 : 0;
+                escreverTudo(ByteBuffer.wrap(saida.dados, pular, saida.tamanho - pular), canal);
+                primeiro = false;
+                if (contagem != null) {
+                    contagem[0] += saida.itens;
+                }
+            }
+        }
+    }
+
+    private Bytes rotulos(int n, int bloco) {
+        Bytes saida = new Bytes(VERTICES_POR_BLOCO * 10);
+        int fim = (int) Math.min(n, (long) (bloco + 1) * VERTICES_POR_BLOCO);
+        for (int v = bloco * VERTICES_POR_BLOCO; v < fim; v++) {
+            if (formato == Exportador.Formato.NATIVO) {
+                saida.caractere(',');
+                saida.rotulo(v);
+            } else {
+                saida.int32(1 + digitos(v));
+                saida.rotulo(v);
+            }
+            saida.itens++;
+        }
+        return saida;
+    }
+
+    private Bytes arcos(Lote lote) {
+        Bytes saida = new Bytes(lote.tamanho * (formato == Exportador.Formato.BINARIO ? 12 : 24));
+        for (int i = 0; i < lote.tamanho; i++) {
+            int u = lote.origens[i];
+            int v = lote.destinos[i];
+            int peso = lote.pesos[i];
+            switch (formato) {
+            case NATIVO:
+                saida.caractere(',');
+                saida.caractere('(');
+                saida.rotulo(u);
+                saida.caractere(',');
+                saida.rotulo(v);
+                if (peso != 1) {
+                    saida.caractere(',');
+                    saida.inteiro(peso);
+                }
+                saida.caractere(')');
+                break;
+            case CSV:
+                saida.rotulo(u);
+                saida.caractere(',');
+                saida.rotulo(v);
+                saida.caractere(',');
+                saida.inteiro(peso);
+                saida.caractere('\n');
+                break;
+            default:
+                saida.int32(u);
+                saida.int32(v);
+                saida.int32(peso);
+                break;
+            }
+        }
+        saida.itens = lote.tamanho;
+        return saida;
+    }
+
+    private static int digitos(int v) {
+        int d = 1;
+        while (v >= 10) {
+            v /= 10;
+            d++;
+        }
+        return d;
+    }
+
+    private static void escreverTudo(ByteBuffer buffer, FileChannel canal) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    /**
+     * Arcos de um bloco, em vetores primitivos reaproveitados pela thread.
+     */
+    private static class Lote {
+        int[] origens = new int[1024];
+        int[] destinos = new int[1024];
+        int[] pesos = new int[1024];
+        int tamanho;
+
+        /** Acrescenta a aresta nos dois sentidos. */
+        void ligar(int u, int v, int peso) {
+            if (tamanho + 2 > origens.length) {
+                int capacidade = 2 * origens.length;
+                origens = Arrays.copyOf(origens, capacidade);
+                destinos = Arrays.copyOf(destinos, capacidade);
+                pesos = Arrays.copyOf(pesos, capacidade);
+            }
+            origens[tamanho] = u;
+            destinos[tamanho] = v;
+            pesos[tamanho++] = peso;
+            origens[tamanho] = v;
+            destinos[tamanho] = u;
+            pesos[tamanho++] = peso;
+        }
+    }
+
+    /**
+     * Bytes serializados de um bloco.
+     */
+    private static class Bytes {
+        byte[] dados;
+        int tamanho;
+        long itens;
+
+        Bytes(int capacidade) {
+            dados = new byte[Math.max(16, capacidade)];
+        }
+
+        private void garantir(int extra) {
+            if (tamanho + extra > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(2 * dados.length, tamanho + extra));
+            }
+        }
+
+        void caractere(int b) {
+            garantir(1);
+            dados[tamanho++] = (byte) b;
+        }
+
+        /** Escreve {@code v<indice>}. */
+        void rotulo(int v) {
+            caractere('v');
+            inteiro(v);
+        }
+
+        /** Escreve o número em decimal. */
+        void inteiro(int valor) {
+            garantir(11);
+            if (valor < 0) {
+                dados[tamanho++] = '-';
+                valor = -valor;
+            }
+            int d = digitos(valor);
+            for (int i = tamanho + d - 1; i >= tamanho; i--) {
+                dados[i] = (byte) ('0' + valor % 10);
+                valor /= 10;
+            }
+            tamanho += d;
+        }
+
+        void int32(int valor) {
+            garantir(4);
+            dados[tamanho++] = (byte) (valor >>> 24);
+            dados[tamanho++] = (byte) (valor >>> 16);
+            dados[tamanho++] = (byte) (valor >>> 8);
+            dados[tamanho++] = (byte) valor;
+        }
+    }
+
+    /**
+     * Uso: {@code GeradorEmDisco <familia> <n> <destino> [--grau g]
+     * [--semente s] [--peso-maximo p] [--formato NATIVO|CSV|BINARIO]}.
+     * Famílias: {@code erdos-renyi}, {@code barabasi-albert}, {@code rmat},
+     * {@code geometrico} e {@code grade}. O grau médio g (8 por padrão) define
+     * m, k ou o raio conforme a família; a grade é quadrada.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("uso: GeradorEmDisco <familia> <n> <destino> [--grau g] [--semente s]"
+                    + " [--peso-maximo p] [--formato NATIVO|CSV|BINARIO]");
+            System.exit(2);
+        }
+        String familia = args[0].toLowerCase(Locale.ROOT);
+        int n = Integer.parseInt(args[1]);
+        Path destino = Paths.get(args[2]);
+        double grau = 8;
+        long semente = 42;
+        int pesoMaximo = 1;
+        Exportador.Formato formato = Exportador.Formato.NATIVO;
+        for (int i = 3; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "--grau":
+                grau = Double.parseDouble(args[i + 1]);
+                break;
+            case "--semente":
+                semente = Long.parseLong(args[i + 1]);
+                break;
+            case "--peso-maximo":
+                pesoMaximo = Integer.parseInt(args[i + 1]);
+                break;
+            case "--formato":
+                formato = Exportador.Formato.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                break;
+            default:
+                throw new IllegalArgumentException("opção desconhecida: " + args[i]);
+            }
+        }
+        GeradorEmDisco gerador = new GeradorEmDisco(semente, pesoMaximo, formato);
+        long inicio = System.nanoTime();
+        long arcos;
+        switch (familia) {
+        case "erdos-renyi":
+            arcos = gerador.erdosRenyi(n, (long) (n * grau / 2), destino);
+            break;
+        case "barabasi-albert":
+            arcos = gerador.barabasiAlbert(n, Math.max(1, (int) Math.round(grau / 2)), destino);
+            break;
+        case "rmat":
+            int escala = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+            arcos = gerador.rmat(escala, (long) ((1L << escala) * grau / 2), RMAT_PADRAO, destino);
+            break;
+        case "geometrico":
+            arcos = gerador.geometrico(n, Math.sqrt(grau / (Math.PI * n)), destino);
+            break;
+        case "grade":
+            int lado = Math.max(1, (int) Math.round(Math.sqrt(n)));
+            arcos = gerador.grade(lado, lado, destino);
+            break;
+        default:
+            throw new IllegalArgumentException("família desconhecida: " + familia);
+        }
+        System.out.printf(Locale.ROOT, "%d arcos em %.1f s%n", arcos, (System.nanoTime() - inicio) / 1e9);
+    }
+}
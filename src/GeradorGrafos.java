@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Gera grafos sintéticos em memória para testes e medições de desempenho.
+ *
+ * Todos os grafos gerados são não direcionados: cada aresta aparece nos dois
+ * sentidos, como no arquivo {@code grafo.txt}. Os vértices se chamam
+ * {@code v0, v1, ...} e, com a mesma semente, o resultado é sempre o mesmo.
+ */
+public class GeradorGrafos {
+    /**
+     * Famílias de grafos disponíveis.
+     */
+    public enum Familia {
+        /** G(n, m) com grau médio 8. */
+        ERDOS_RENYI,
+        /** Grade quadrada de lado aproximadamente raiz de n. */
+        GRADE,
+        /** Barabási-Albert (lei de potência) com 4 arestas por vértice novo. */
+        LEI_DE_POTENCIA,
+        /** Caminho simples v0 - v1 - ... - v(n-1). */
+        CAMINHO,
+        /** Bipartido completo K(8, n-8), para que o número de arestas cresça linearmente. */
+        BIPARTIDO_COMPLETO
+    }
+
+    private final SplittableRandom aleatorio;
+    private final int pesoMaximo;
+
+    /**
+     * @param semente
+     *            Semente do gerador pseudoaleatório.
+     * @param pesoMaximo
+     *            Pesos são sorteados entre 1 e este valor; 1 gera um grafo não
+     *            ponderado.
+     */
+    public GeradorGrafos(long semente, int pesoMaximo) {
+        this.aleatorio = new SplittableRandom(semente);
+        this.pesoMaximo = pesoMaximo;
+    }
+
+    /**
+     * Gera um grafo da família dada com aproximadamente n vértices.
+     *
+     * @param familia
+     *            Família do grafo.
+     * @param n
+     *            Número de vértices.
+     * @return O grafo gerado.
+     */
+    public Grafo gerar(Familia familia, int n) {
+        switch (familia) {
+            case ERDOS_RENYI:
+                return erdosRenyi(n, 4L * n);
+            case GRADE:
+                int lado = Math.max(1, (int) Math.round(Math.sqrt(n)));
+                return grade(lado, lado);
+            case LEI_DE_POTENCIA:
+                return barabasiAlbert(n, 4);
+            case CAMINHO:
+                return caminho(n);
+            case BIPARTIDO_COMPLETO:
+                int a = Math.min(8, Math.max(1, n / 2));
+                return bipartidoCompleto(a, Math.max(1, n - a));
+            default:
+                throw new IllegalArgumentException("Família desconhecida: " + familia);
+        }
+    }
+
+    /**
+     * Grafo aleatório com n vértices e m arestas distintas, sem laços.
+     */
+    public Grafo erdosRenyi(int n, long m) {
+        long maximo = (long) n * (n - 1) / 2;
+        m = Math.min(m, maximo);
+        Construtor construtor = new Construtor(n);
+        Set<Long> usadas = new HashSet<>();
+        while (usadas.size() < m) {
+            int u = aleatorio.nextInt(n);
+            int v = aleatorio.nextInt(n);
+            if (u == v) {
+                continue;
+            }
+            long chave = (long) Math.min(u, v) * n + Math.max(u, v);
+            if (usadas.add(chave)) {
+                construtor.ligar(u, v);
+            }
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * Grade com {@code linhas x colunas} vértices, cada um ligado aos vizinhos
+     * de cima, baixo, esquerda e direita.
+     */
+    public Grafo grade(int linhas, int colunas) {
+        Construtor construtor = new Construtor(linhas * colunas);
+        for (int i = 0; i < linhas; i++) {
+            for (int j = 0; j < colunas; j++) {
+                int v = i * colunas + j;
+                if (j + 1 < colunas) {
+                    construtor.ligar(v, v + 1);
+                }
+                if (i + 1 < linhas) {
+                    construtor.ligar(v, v + colunas);
+                }
+            }
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * Modelo de Barabási-Albert: cada vértice novo se liga a k vértices
+     * existentes escolhidos com probabilidade proporcional ao grau.
+     */
+    public Grafo barabasiAlbert(int n, int k) {
+        Construtor construtor = new Construtor(n);
+        int inicial = Math.min(n, k + 1);
+        // Extremidades de todas as arestas: sortear uma posição equivale a
+        // sortear um vértice proporcionalmente ao grau
+        int[] extremidades = new int[2 * (inicial * (inicial - 1) / 2 + (n - inicial) * k)];
+        int usadas = 0;
+        for (int u = 0; u < inicial; u++) {
+            for (int v = u + 1; v < inicial; v++) {
+                construtor.ligar(u, v);
+                extremidades[usadas++] = u;
+                extremidades[usadas++] = v;
+            }
+        }
+        Set<Integer> escolhidos = new HashSet<>();
+        for (int v = inicial; v < n; v++) {
+            escolhidos.clear();
+            while (escolhidos.size() < k) {
+                escolhidos.add(extremidades[aleatorio.nextInt(usadas)]);
+            }
+            for (int u : escolhidos) {
+                construtor.ligar(u, v);
+                extremidades[usadas++] = u;
+                extremidades[usadas++] = v;
+            }
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * Caminho simples com n vértices.
+     */
+    public Grafo caminho(int n) {
+        Construtor construtor = new Construtor(n);
+        for (int v = 0; v + 1 < n; v++) {
+            construtor.ligar(v, v + 1);
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * Bipartido completo K(a, b): os primeiros a vértices ligados a todos os
+     * b seguintes.
+     */
+    public Grafo bipartidoCompleto(int a, int b) {
+        Construtor construtor = new Construtor(a + b);
+        for (int u = 0; u < a; u++) {
+            for (int v = a; v < a + b; v++) {
+                construtor.ligar(u, v);
+            }
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * Acumula arestas não direcionadas entre vértices numerados.
+     */
+    private class Construtor {
+        private final Vertice[] vertices;
+        private final List<Aresta> arestas = new ArrayList<>();
+
+        Construtor(int n) {
+            vertices = new Vertice[n];
+            for (int i = 0; i < n; i++) {
+                vertices[i] = new Vertice("v" + i);
+            }
+        }
+
+        void ligar(int u, int v) {
+            int peso = pesoMaximo > 1 ? 1 + aleatorio.nextInt(pesoMaximo) : 1;
+            vertices[u].adjacencia.add(vertices[v]);
+            vertices[v].adjacencia.add(vertices[u]);
+            arestas.add(new Aresta(vertices[u], vertices[v], peso));
+            arestas.add(new Aresta(vertices[v], vertices[u], peso));
+        }
+
+        Grafo construir() {
+            HashMap<String, Vertice> mapa = new HashMap<>(vertices.length * 2);
+            for (Vertice vertice : vertices) {
+                mapa.put(vertice.valor, vertice);
+            }
+            return new Grafo(mapa, arestas);
+        }
+    }
+}
@@ -1,14 +1,20 @@
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.Stack;
+import java.util.function.IntPredicate;
 
 /**
  * Classe que representa um grafo com vértices e arestas.
@@ -16,6 +22,10 @@ import java.util.Stack;
 public class Grafo {
     private HashMap<String, Vertice> vertices;
     private List<Aresta> arestas;
+    private volatile long versao = 0;
+    private final CacheGrafo cache = new CacheGrafo(64, Runtime.getRuntime().maxMemory() / 8);
+    private volatile Reordenacao.Estrategia reordenacao = Reordenacao.Estrategia.ORIGINAL;
+    private AtributosAresta atributos;
 
     /**
      * Construtor para inicializar o grafo com vértices e arestas.
@@ -31,12 +41,23 @@ public class Grafo {
     }
 
     /**
-     * Verifica se o grafo é ponderado.
+     * Verifica se o grafo é ponderado. O resultado fica em cache até a próxima
+     * alteração do grafo.
      *
      * @return true se pelo menos uma aresta tem peso diferente de 1, false caso
      *         contrário.
      */
     public boolean isPonderado() {
+        return cache.obter("ponderado", versao, this::calcularPonderado, r -> 16);
+    }
+
+    /**
+     * Verifica se o grafo é ponderado.
+     *
+     * @return true se pelo menos uma aresta tem peso diferente de 1, false caso
+     *         contrário.
+     */
+    private boolean calcularPonderado() {
         for (Aresta aresta : arestas) {
             if (aresta.peso != 1) {
                 return true;
@@ -46,55 +67,56 @@ public class Grafo {
     }
 
     /**
-     * Verifica se o grafo é direcionado.
+     * Verifica se o grafo é direcionado. O resultado fica em cache até a
+     * próxima alteração do grafo.
      *
      * @return true se houver pelo menos uma aresta que não tem a sua inversa
      *         presente, false caso contrário.
      */
     public boolean isDirecionado() {
-        for (Aresta aresta : arestas) {
-            boolean inversaEncontrada = false;
-            for (Aresta outraAresta : arestas) {
-                if (aresta.u.equals(outraAresta.v) && aresta.v.equals(outraAresta.u)) {
-                    inversaEncontrada = true;
-                    break;
-                }
-            }
-            if (!inversaEncontrada) {
-                return true;
-            }
-        }
-        return false;
+        return cache.obter("direcionado", versao, this::calcularDirecionado, r -> 16);
     }
 
     /**
-     * Verifica se o grafo é conexo.
+     * Verifica se o grafo é direcionado.
+     *
+     * @return true se houver pelo menos uma aresta que não tem a sua inversa
+     *         presente, false caso contrário.
+     */
+    private boolean calcularDirecionado() {
+        return !AlgoritmosIndexados.simetrico(getCompacto());
+    }
+
+    /**
+     * Verifica se o grafo é conexo (fracamente conexo, no caso direcionado).
+     * O resultado fica em cache até a próxima alteração do grafo.
      *
      * @return true se o grafo for conexo, false caso contrário.
      */
     public boolean isConexo() {
+        return cache.obter("conexo", versao, this::calcularConexo, r -> 16);
+    }
+
+    /**
+     * Verifica se o grafo é conexo.
+     *
+     * @return true se o grafo for conexo, false caso contrário.
+     */
+    private boolean calcularConexo() {
         if (vertices.isEmpty()) {
             return true; // Um grafo vazio é considerado conexo
         }
+        return getResultadoComponentes().getQuantidade() == 1;
+    }
 
-        // Realiza DFS para verificar conectividade
-        Set<Vertice> visitados = new HashSet<>();
-        Stack<Vertice> stack = new Stack<>();
-        stack.push(vertices.values().iterator().next());
-
-        while (!stack.isEmpty()) {
-            Vertice vertice = stack.pop();
-            if (!visitados.contains(vertice)) {
-                visitados.add(vertice);
-                for (Vertice adjacente : vertice.adjacencia) {
-                    if (!visitados.contains(adjacente)) {
-                        stack.push(adjacente);
-                    }
-                }
-            }
-        }
-
-        return visitados.size() == vertices.size();
+    /**
+     * Verifica se o grafo é bipartido. O resultado fica em cache até a próxima
+     * alteração do grafo.
+     *
+     * @return true se o grafo for bipartido, false caso contrário.
+     */
+    public boolean isBipartido() {
+        return cache.obter("bipartido", versao, this::calcularBipartido, r -> 16);
     }
 
     /**
@@ -102,7 +124,7 @@ public class Grafo {
      *
      * @return true se o grafo for bipartido, false caso contrário.
      */
-    public boolean isBipartido() {
+    private boolean calcularBipartido() {
         if (vertices.isEmpty()) {
             return true; // Um grafo vazio é considerado bipartido
         }
@@ -142,11 +164,21 @@ public class Grafo {
     }
 
     /**
-     * Verifica se o grafo é Euleriano.
+     * Verifica se o grafo é Euleriano. O resultado fica em cache até a próxima
+     * alteração do grafo.
      *
      * @return true se o grafo for Euleriano, false caso contrário.
      */
     public boolean isEuleriano() {
+        return cache.obter("euleriano", versao, this::calcularEuleriano, r -> 16);
+    }
+
+    /**
+     * Verifica se o grafo é Euleriano.
+     *
+     * @return true se o grafo for Euleriano, false caso contrário.
+     */
+    private boolean calcularEuleriano() {
         if (!isConexo()) {
             return false;
         }
@@ -181,7 +213,10 @@ public class Grafo {
         Vertice verticeInicial = vertices.values().iterator().next(); // Escolhe um vértice inicial
         caminho.add(verticeInicial);
         visitados.add(verticeInicial);
-        return buscaHamiltoniana(verticeInicial, caminho, visitados);
+        Medicao medicao = Instrumentacao.iniciar("buscaHamiltoniana");
+        boolean encontrado = buscaHamiltoniana(verticeInicial, caminho, visitados, medicao);
+        Instrumentacao.concluir(medicao);
+        return encontrado;
     }
 
     /**
@@ -193,9 +228,15 @@ public class Grafo {
      *            O caminho percorrido até agora.
      * @param visitados
      *            Conjunto de vértices visitados.
+     * @param medicao
+     *            Medição em andamento, ou null.
      * @return true se um ciclo Hamiltoniano for encontrado, false caso contrário.
      */
-    private boolean buscaHamiltoniana(Vertice verticeAtual, List<Vertice> caminho, Set<Vertice> visitados) {
+    private boolean buscaHamiltoniana(Vertice verticeAtual, List<Vertice> caminho, Set<Vertice> visitados,
+            Medicao medicao) {
+        if (medicao != null) {
+            medicao.operacoes++; // Nós expandidos
+        }
         if (caminho.size() == vertices.size()) {
             // Verifica se há uma aresta de volta para o vértice inicial
             Vertice verticeInicial = caminho.get(0);
@@ -206,7 +247,7 @@ public class Grafo {
             if (!visitados.contains(vizinho)) {
                 caminho.add(vizinho);
                 visitados.add(vizinho);
-                if (buscaHamiltoniana(vizinho, caminho, visitados)) {
+                if (buscaHamiltoniana(vizinho, caminho, visitados, medicao)) {
                     return true;
                 }
                 caminho.remove(caminho.size() - 1);
@@ -255,46 +296,452 @@ public class Grafo {
     }
 
     /**
-     * Verifica se o grafo é cíclico.
+     * Verifica se o grafo é cíclico, considerando o sentido das arestas se o
+     * grafo for direcionado. O resultado fica em cache até a próxima alteração
+     * do grafo.
      *
      * @return true se o grafo for cíclico, false caso contrário.
      */
     public boolean isCiclico() {
-        Set<Vertice> visitados = new HashSet<>();
-        for (Vertice vertice : vertices.values()) {
-            if (!visitados.contains(vertice)) {
-                if (dfsCiclico(vertice, visitados, null)) {
-                    return true;
+        return cache.obter("ciclico", versao, () -> !encontrarCiclo().isEmpty(), r -> 16);
+    }
+
+    /**
+     * Encontra um ciclo no grafo com uma busca em profundidade iterativa (três
+     * cores no caso direcionado; no não direcionado a volta pela aresta da
+     * árvore é ignorada). O resultado fica em cache até a próxima alteração do
+     * grafo e não pode ser modificado.
+     *
+     * @return Os vértices do ciclo, na ordem do percurso (o último liga ao
+     *         primeiro), ou uma lista vazia se o grafo for acíclico.
+     */
+    public List<Vertice> encontrarCiclo() {
+        return cache.obter("ciclo:" + reordenacao, versao, () -> {
+            GrafoCompacto compacto = getCompacto();
+            int[] ciclo = DeteccaoCiclos.encontrarCiclo(compacto, isDirecionado());
+            return ciclo == null ? Collections.<Vertice>emptyList()
+                    : Collections.unmodifiableList(paraVertices(compacto, ciclo));
+        }, r -> 16L + 8L * r.size());
+    }
+
+    /**
+     * Enumera os ciclos elementares do grafo pelo algoritmo de Johnson. No caso
+     * não direcionado cada ciclo aparece uma vez.
+     *
+     * @param limite
+     *            Quantidade máxima de ciclos (o total pode ser exponencial).
+     * @return Os ciclos encontrados, até o limite.
+     */
+    public List<List<Vertice>> enumerarCiclos(int limite) {
+        GrafoCompacto compacto = getCompacto();
+        List<List<Vertice>> ciclos = new ArrayList<>();
+        for (int[] ciclo : DeteccaoCiclos.enumerarCiclos(compacto, isDirecionado(), limite)) {
+            ciclos.add(paraVertices(compacto, ciclo));
+        }
+        return ciclos;
+    }
+
+    /**
+     * Calcula a intermediação (betweenness) de cada vértice pelo algoritmo de
+     * Brandes, em paralelo por vértice de origem, usando os pesos se o grafo
+     * for ponderado. O resultado fica em cache até a próxima alteração do
+     * grafo e não pode ser modificado.
+     *
+     * @return A intermediação de cada vértice.
+     */
+    public Map<Vertice, Double> getCentralidadeIntermediacao() {
+        return cache.obter("intermediacao", versao, () -> porVertice(
+                Centralidade.intermediacao(getCompacto(), isPonderado(), isDirecionado())),
+                r -> 16L + 64L * r.size());
+    }
+
+    /**
+     * Estima a intermediação a partir de uma amostra de origens, para grafos
+     * em que o cálculo exato é caro demais.
+     *
+     * @param erro
+     *            Erro máximo na escala normalizada (entre 0 e 1).
+     * @param confianca
+     *            Probabilidade de o erro ser respeitado por todos os vértices.
+     * @return A estimativa, na numeração de {@link #getCompacto()}.
+     */
+    public Centralidade.Estimativa estimarCentralidadeIntermediacao(double erro, double confianca) {
+        return Centralidade.intermediacaoAproximada(getCompacto(), isPonderado(), isDirecionado(), erro, confianca,
+                versao);
+    }
+
+    /**
+     * Calcula a centralidade de proximidade (closeness) de cada vértice. O
+     * resultado fica em cache até a próxima alteração do grafo.
+     *
+     * @return A proximidade de cada vértice.
+     */
+    public Map<Vertice, Double> getCentralidadeProximidade() {
+        return cache.obter("proximidade", versao,
+                () -> porVertice(Centralidade.proximidade(getCompacto(), isPonderado())), r -> 16L + 64L * r.size());
+    }
+
+    /**
+     * Calcula a centralidade harmônica de cada vértice. O resultado fica em
+     * cache até a próxima alteração do grafo.
+     *
+     * @return A centralidade harmônica de cada vértice.
+     */
+    public Map<Vertice, Double> getCentralidadeHarmonica() {
+        return cache.obter("harmonica", versao,
+                () -> porVertice(Centralidade.harmonica(getCompacto(), isPonderado())), r -> 16L + 64L * r.size());
+    }
+
+    /**
+     * Calcula o PageRank de cada vértice seguindo o sentido das arestas, com
+     * amortecimento 0,85 e salto uniforme. O resultado fica em cache até a
+     * próxima alteração do grafo.
+     *
+     * @return O PageRank de cada vértice (a soma é 1).
+     */
+    public Map<Vertice, Double> getPageRank() {
+        return cache.obter("pagerank", versao, () -> pageRank(0.85, null), r -> 16L + 64L * r.size());
+    }
+
+    /**
+     * Calcula o PageRank personalizado.
+     *
+     * @param amortecimento
+     *            Probabilidade de seguir uma aresta em vez de saltar.
+     * @param personalizacao
+     *            Peso de cada vértice no salto (ausentes valem 0), ou null
+     *            para salto uniforme.
+     * @return O PageRank de cada vértice.
+     */
+    public Map<Vertice, Double> pageRank(double amortecimento, Map<Vertice, Double> personalizacao) {
+        GrafoCompacto compacto = getCompacto();
+        double[] salto = null;
+        if (personalizacao != null) {
+            salto = new double[compacto.numeroVertices()];
+            for (Map.Entry<Vertice, Double> entrada : personalizacao.entrySet()) {
+                int indice = compacto.indiceDe(entrada.getKey().valor);
+                if (indice < 0) {
+                    throw new IllegalArgumentException("vértice inexistente: " + entrada.getKey().valor);
                 }
+                salto[indice] = entrada.getValue();
             }
         }
-        return false;
+        return porVertice(AnaliseLigacoes.pageRank(compacto, amortecimento, salto, 1e-10, 200).getValores());
     }
 
     /**
-     * Método recursivo para busca em profundidade para detectar ciclos.
+     * Calcula autoridades e hubs pelo HITS. O resultado fica em cache até a
+     * próxima alteração do grafo.
      *
-     * @param verticeAtual
-     *            O vértice atual na busca.
-     * @param visitados
-     *            Conjunto de vértices visitados.
-     * @param pai
-     *            O vértice pai no caminho atual.
-     * @return true se um ciclo for encontrado, false caso contrário.
+     * @return O resultado, na numeração de {@link #getCompacto()}.
      */
-    private boolean dfsCiclico(Vertice verticeAtual, Set<Vertice> visitados, Vertice pai) {
-        visitados.add(verticeAtual);
+    public AnaliseLigacoes.ResultadoHits getHits() {
+        return cache.obter("hits:" + reordenacao, versao, () -> AnaliseLigacoes.hits(getCompacto(), 1e-10, 200),
+                r -> 16L + 16L * r.getValores().length);
+    }
 
-        for (Vertice vizinho : verticeAtual.adjacencia) {
-            if (!visitados.contains(vizinho)) {
-                if (dfsCiclico(vizinho, visitados, verticeAtual)) {
-                    return true;
-                }
-            } else if (!vizinho.equals(pai)) {
-                return true;
+    /**
+     * Calcula a centralidade de Katz com beta = 1.
+     *
+     * @param alfa
+     *            Fator de atenuação; deve ser menor que 1 / grau máximo para
+     *            garantir a convergência.
+     * @return A centralidade de cada vértice.
+     */
+    public Map<Vertice, Double> getCentralidadeKatz(double alfa) {
+        return porVertice(AnaliseLigacoes.katz(getCompacto(), alfa, 1, 1e-10, 1000).getValores());
+    }
+
+    /**
+     * Retorna o grafo como não direcionado e simples (sem laços nem arestas
+     * repetidas), construído uma vez por versão.
+     */
+    AdjacenciaSimples getAdjacenciaSimples() {
+        Reordenacao.Estrategia estrategia = reordenacao;
+        return cache.obter("simples:" + estrategia, versao,
+                () -> AdjacenciaSimples.de(getCompacto(), !isDirecionado(), true),
+                r -> 16L + 4L * (r.inicio.length + 2L * r.vizinhos.length));
+    }
+
+    /**
+     * Conta os triângulos do grafo, ignorando o sentido das arestas. O
+     * resultado fica em cache até a próxima alteração do grafo.
+     *
+     * @return A quantidade de triângulos.
+     */
+    public long contarTriangulos() {
+        return cache.obter("triangulos", versao,
+                () -> EstatisticasEstruturais.contarTriangulos(getAdjacenciaSimples()), r -> 16);
+    }
+
+    private long[] getTriangulosPorVertice() {
+        return cache.obter("triangulosPorVertice:" + reordenacao, versao,
+                () -> EstatisticasEstruturais.triangulosPorVertice(getAdjacenciaSimples()), r -> 16L + 8L * r.length);
+    }
+
+    /**
+     * Calcula o coeficiente de agrupamento local de cada vértice, ignorando o
+     * sentido das arestas.
+     *
+     * @return O coeficiente de cada vértice.
+     */
+    public Map<Vertice, Double> getAgrupamentoLocal() {
+        return porVertice(EstatisticasEstruturais.agrupamentoLocal(getAdjacenciaSimples(), getTriangulosPorVertice()));
+    }
+
+    /**
+     * @return A média dos coeficientes de agrupamento locais.
+     */
+    public double getAgrupamentoMedio() {
+        double[] locais = EstatisticasEstruturais.agrupamentoLocal(getAdjacenciaSimples(), getTriangulosPorVertice());
+        double soma = 0;
+        for (double c : locais) {
+            soma += c;
+        }
+        return locais.length == 0 ? 0 : soma / locais.length;
+    }
+
+    /**
+     * @return O coeficiente de agrupamento global (transitividade).
+     */
+    public double getAgrupamentoGlobal() {
+        return EstatisticasEstruturais.agrupamentoGlobal(getAdjacenciaSimples(), contarTriangulos());
+    }
+
+    /**
+     * Calcula o k-núcleo de cada vértice, ignorando o sentido das arestas. O
+     * resultado fica em cache até a próxima alteração do grafo.
+     *
+     * @return O núcleo de cada vértice.
+     */
+    public Map<Vertice, Integer> getNucleos() {
+        return cache.obter("nucleos", versao,
+                () -> porVertice(EstatisticasEstruturais.decomposicaoNucleos(getAdjacenciaSimples())),
+                r -> 16L + 64L * r.size());
+    }
+
+    /**
+     * Colore os vértices de modo que vizinhos tenham cores diferentes,
+     * ignorando o sentido das arestas. O resultado fica em cache até a próxima
+     * alteração do grafo.
+     *
+     * @param estrategia
+     *            A estratégia de coloração.
+     * @return A cor de cada vértice, na numeração de {@link #getCompacto()},
+     *         e a quantidade de cores.
+     */
+    public Coloracao.Resultado getColoracao(Coloracao.Estrategia estrategia) {
+        return cache.obter("coloracao:" + estrategia + ":" + reordenacao, versao,
+                () -> Coloracao.colorir(getAdjacenciaSimples(), estrategia),
+                r -> 16L + 4L * r.getCores().length);
+    }
+
+    /**
+     * @param estrategia
+     *            A estratégia de coloração.
+     * @return A cor de cada vértice.
+     */
+    public Map<Vertice, Integer> colorir(Coloracao.Estrategia estrategia) {
+        return porVertice(getColoracao(estrategia).getCores());
+    }
+
+    /**
+     * Divide os vértices em k partes equilibradas com pouco peso de arestas
+     * entre partes, ignorando o sentido das arestas. O resultado fica em cache
+     * até a próxima alteração do grafo.
+     *
+     * @param k
+     *            Quantidade de partes.
+     * @return A parte de cada vértice, na numeração de {@link #getCompacto()},
+     *         o corte e os vértices de fronteira de cada parte.
+     */
+    public Particionamento.Resultado particionar(int k) {
+        return cache.obter("particao:" + k + ":" + reordenacao, versao,
+                () -> Particionamento.particionar(getAdjacenciaSimples(), k, Particionamento.DESEQUILIBRIO_PADRAO, 1),
+                r -> 16L + 4L * r.getParte().length * 2);
+    }
+
+    /**
+     * @param k
+     *            Quantidade de partes.
+     * @return Os vértices de cada parte.
+     */
+    public List<List<Vertice>> getPartes(int k) {
+        GrafoCompacto compacto = getCompacto();
+        int[] parte = particionar(k).getParte();
+        List<List<Vertice>> partes = new ArrayList<>(k);
+        for (int p = 0; p < k; p++) {
+            partes.add(new ArrayList<>());
+        }
+        for (int v = 0; v < parte.length; v++) {
+            partes.get(parte[v]).add(vertices.get(compacto.getRotulo(v)));
+        }
+        return partes;
+    }
+
+    /**
+     * Agrupa os vértices em comunidades maximizando a modularidade, com o
+     * peso das arestas e ignorando o sentido. O resultado fica em cache até a
+     * próxima alteração do grafo.
+     *
+     * @param metodo
+     *            Louvain ou Leiden (comunidades sempre conexas).
+     * @return A comunidade de cada vértice, na numeração de
+     *         {@link #getCompacto()}, e a modularidade de cada nível.
+     */
+    public Comunidades.Resultado detectarComunidades(Comunidades.Metodo metodo) {
+        return cache.obter("comunidades:" + metodo + ":" + reordenacao, versao,
+                () -> Comunidades.detectar(getAdjacenciaSimples(), metodo, Comunidades.RESOLUCAO_PADRAO, 1),
+                r -> 16L + 4L * r.getComunidade().length);
+    }
+
+    /**
+     * @param metodo
+     *            Louvain ou Leiden.
+     * @return Os vértices de cada comunidade.
+     */
+    public List<List<Vertice>> getComunidades(Comunidades.Metodo metodo) {
+        GrafoCompacto compacto = getCompacto();
+        Comunidades.Resultado resultado = detectarComunidades(metodo);
+        List<List<Vertice>> comunidades = new ArrayList<>(resultado.getQuantidade());
+        for (int c = 0; c < resultado.getQuantidade(); c++) {
+            comunidades.add(new ArrayList<>());
+        }
+        int[] comunidade = resultado.getComunidade();
+        for (int v = 0; v < comunidade.length; v++) {
+            comunidades.get(comunidade[v]).add(vertices.get(compacto.getRotulo(v)));
+        }
+        return comunidades;
+    }
+
+    /**
+     * Corte mínimo global: a divisão dos vértices em dois lados com a menor
+     * soma de pesos de arestas entre eles, ignorando o sentido das arestas
+     * (num grafo não direcionado, uma aresta cujos dois arcos têm pesos
+     * diferentes vale o maior deles). É exato em grafos pequenos e aleatório (Karger-Stein) nos grandes; veja
+     * {@link CorteMinimo#calcular(GrafoIndexado, boolean)}. O resultado fica
+     * em cache até a próxima alteração do grafo.
+     *
+     * @return O valor do corte e o lado de cada vértice, na numeração de
+     *         {@link #getCompacto()}.
+     */
+    public CorteMinimo.Resultado corteMinimo() {
+        return cache.obter("corteMinimo:" + reordenacao, versao,
+                () -> CorteMinimo.calcular(getAdjacenciaSimples()), r -> 16L + r.getLado().length);
+    }
+
+    /**
+     * @return As arestas, em qualquer sentido, que ligam os dois lados de
+     *         {@link #corteMinimo()}.
+     */
+    public List<Aresta> getArestasDoCorteMinimo() {
+        GrafoCompacto compacto = getCompacto();
+        boolean[] lado = corteMinimo().getLado();
+        List<Aresta> corte = new ArrayList<>();
+        for (Aresta a : arestas) {
+            if (lado[compacto.indiceDe(a.u.valor)] != lado[compacto.indiceDe(a.v.valor)]) {
+                corte.add(a);
             }
         }
-        return false;
+        return corte;
+    }
+
+    /**
+     * O grafo em que as distâncias de {@link #getExcentricidades()} são
+     * medidas: os arcos sem sentido, com o menor peso entre cada par. A
+     * delimitação e o iFUB supõem d(u, v) = d(v, u), o que também exige
+     * simetrizar os pesos de um grafo não direcionado cujos dois arcos de
+     * uma aresta pesam diferente; sem pesos, basta o grafo compacto.
+     */
+    private GrafoIndexado getGrafoDeDistancias() {
+        boolean direcionado = isDirecionado();
+        if (!direcionado && !isPonderado()) {
+            return getCompacto();
+        }
+        return cache.obter("distancias:" + reordenacao, versao,
+                () -> AdjacenciaSimples.de(getCompacto(), !direcionado, true, true),
+                r -> 16L + 4L * (r.inicio.length + 2L * r.vizinhos.length));
+    }
+
+    /**
+     * Calcula a excentricidade de todos os vértices, ignorando o sentido das
+     * arestas e usando os pesos como comprimento se o grafo for ponderado
+     * (entre dois vértices ligados por arcos de pesos diferentes, vale o
+     * menor). Usa poucas buscas na maioria dos grafos; veja {@link Excentricidade}.
+     * O resultado fica em cache até a próxima alteração do grafo.
+     *
+     * @return As excentricidades (dentro de cada componente), o diâmetro, o
+     *         raio e o centro, na numeração de {@link #getCompacto()}.
+     */
+    public Excentricidade.Resultado getExcentricidades() {
+        return cache.obter("excentricidades:" + reordenacao, versao,
+                () -> Excentricidade.calcular(getGrafoDeDistancias(), isPonderado()),
+                Excentricidade.Resultado::tamanhoEstimado);
+    }
+
+    /**
+     * @return A maior distância de cada vértice a outro da sua componente.
+     */
+    public Map<Vertice, Long> getExcentricidade() {
+        GrafoCompacto compacto = getCompacto();
+        long[] valores = getExcentricidades().getExcentricidade();
+        Map<Vertice, Long> mapa = new LinkedHashMap<>(valores.length * 2);
+        for (int v = 0; v < valores.length; v++) {
+            mapa.put(vertices.get(compacto.getRotulo(v)), valores[v]);
+        }
+        return Collections.unmodifiableMap(mapa);
+    }
+
+    /**
+     * Diâmetro do grafo, ignorando o sentido das arestas: a maior distância
+     * entre dois vértices de uma mesma componente. Sem pesos usa o iFUB, que
+     * não precisa de todas as excentricidades.
+     *
+     * @return O diâmetro.
+     */
+    public long getDiametro() {
+        return cache.obter("diametro:" + reordenacao, versao,
+                () -> Excentricidade.diametro(getGrafoDeDistancias(), isPonderado()), r -> 16);
+    }
+
+    /**
+     * @return A menor excentricidade.
+     */
+    public long getRaio() {
+        return getExcentricidades().getRaio();
+    }
+
+    /**
+     * @return Os vértices de excentricidade igual ao raio.
+     */
+    public List<Vertice> getCentro() {
+        return paraVertices(getCompacto(), getExcentricidades().getCentro());
+    }
+
+    private Map<Vertice, Double> porVertice(double[] valores) {
+        GrafoCompacto compacto = getCompacto();
+        Map<Vertice, Double> mapa = new LinkedHashMap<>(valores.length * 2);
+        for (int v = 0; v < valores.length; v++) {
+            mapa.put(vertices.get(compacto.getRotulo(v)), valores[v]);
+        }
+        return Collections.unmodifiableMap(mapa);
+    }
+
+    private Map<Vertice, Integer> porVertice(int[] valores) {
+        GrafoCompacto compacto = getCompacto();
+        Map<Vertice, Integer> mapa = new LinkedHashMap<>(valores.length * 2);
+        for (int v = 0; v < valores.length; v++) {
+            mapa.put(vertices.get(compacto.getRotulo(v)), valores[v]);
+        }
+        return Collections.unmodifiableMap(mapa);
+    }
+
+    private List<Vertice> paraVertices(GrafoCompacto compacto, int[] indices) {
+        List<Vertice> lista = new ArrayList<>(indices.length);
+        for (int indice : indices) {
+            lista.add(vertices.get(compacto.getRotulo(indice)));
+        }
+        return lista;
     }
 
     public boolean isPlanar() {
@@ -318,34 +765,57 @@ public class Grafo {
         return true;
     }
 
+    /**
+     * Retorna as componentes conexas do grafo (fracamente conexas, no caso
+     * direcionado), calculadas por {@link ComponentesParalelos}. O resultado
+     * fica em cache até a próxima alteração do grafo e não pode ser
+     * modificado.
+     *
+     * @return Lista de componentes, cada uma com seus vértices, na ordem de
+     *         {@link #getCompacto()}.
+     */
     public List<List<Vertice>> getComponentesConexas() {
-        List<List<Vertice>> componentes = new ArrayList<>();
-        Set<Vertice> visitados = new HashSet<>();
+        return cache.obter("componentes", versao,
+                () -> Collections.unmodifiableList(calcularComponentesConexas()),
+                r -> 16L + 8L * (r.size() + vertices.size()));
+    }
 
-        for (Vertice vertice : vertices.values()) {
-            if (!visitados.contains(vertice)) {
-                List<Vertice> componente = new ArrayList<>();
-                DFS(vertice, visitados, componente);
-                componentes.add(componente);
-            }
+    private List<List<Vertice>> calcularComponentesConexas() {
+        GrafoCompacto compacto = getCompacto();
+        ComponentesParalelos.Resultado resultado = getResultadoComponentes();
+        int[] componente = resultado.getComponente();
+        List<List<Vertice>> componentes = new ArrayList<>(resultado.getQuantidade());
+        for (int tamanho : resultado.getTamanhos()) {
+            componentes.add(new ArrayList<>(tamanho));
+        }
+        for (int v = 0; v < componente.length; v++) {
+            componentes.get(componente[v]).add(vertices.get(compacto.getRotulo(v)));
+        }
+        for (int c = 0; c < componentes.size(); c++) {
+            componentes.set(c, Collections.unmodifiableList(componentes.get(c)));
         }
-
         return componentes;
     }
 
-    private void DFS(Vertice vertice, Set<Vertice> visitados, List<Vertice> componente) {
-        visitados.add(vertice);
-        componente.add(vertice);
-
-        for (Vertice vizinho : vertice.adjacencia) {
-            if (!visitados.contains(vizinho)) {
-                DFS(vizinho, visitados, componente);
-            }
-        }
+    /**
+     * Calcula as componentes conexas em paralelo sobre {@link #getCompacto()}
+     * (componentes fracamente conexas, no caso direcionado). O resultado fica
+     * em cache até a próxima alteração do grafo.
+     *
+     * @return A componente de cada vértice, na numeração de
+     *         {@link #getCompacto()}, e os tamanhos das componentes.
+     */
+    public ComponentesParalelos.Resultado getResultadoComponentes() {
+        Reordenacao.Estrategia estrategia = reordenacao;
+        return cache.obter("resultadoComponentes:" + estrategia, versao,
+                () -> ComponentesParalelos.calcular(getCompacto(), !isDirecionado()),
+                r -> 16L + 4L * (r.getComponente().length + r.getQuantidade()));
     }
 
     /**
-     * Encontra um caminho euleriano no grafo.
+     * Encontra um caminho euleriano no grafo. A busca consome uma cópia das
+     * listas de adjacência, então o grafo não é alterado e a consulta pode
+     * rodar junto com outras.
      *
      * @return Lista representando o caminho euleriano, ou null se não existir.
      */
@@ -355,6 +825,11 @@ public class Grafo {
             return null;
         }
 
+        HashMap<Vertice, ArrayList<Vertice>> restantes = new HashMap<>(vertices.size() * 2);
+        for (Vertice v : vertices.values()) {
+            restantes.put(v, new ArrayList<>(v.adjacencia));
+        }
+
         // Encontra o vértice inicial para começar a busca
         Vertice inicio = encontrarVerticeInicial();
         List<Vertice> caminho = new ArrayList<>();
@@ -363,9 +838,10 @@ public class Grafo {
 
         while (!pilha.isEmpty()) {
             Vertice atual = pilha.peek();
-            if (!atual.adjacencia.isEmpty()) {
-                Vertice proximo = atual.adjacencia.remove(0);
-                removerAresta(atual, proximo);
+            ArrayList<Vertice> adjacentes = restantes.get(atual);
+            if (!adjacentes.isEmpty()) {
+                Vertice proximo = adjacentes.remove(0);
+                removerAresta(restantes, atual, proximo);
                 pilha.push(proximo);
             } else {
                 caminho.add(pilha.pop());
@@ -409,16 +885,17 @@ public class Grafo {
     }
 
     /**
-     * Remove a aresta do grafo entre os vértices u e v.
+     * Remove a aresta entre os vértices u e v das listas de adjacência
+     * restantes da busca do caminho euleriano.
      *
      * @param u
      *            Vértice u.
      * @param v
      *            Vértice v.
      */
-    private void removerAresta(Vertice u, Vertice v) {
-        u.adjacencia.remove(v);
-        v.adjacencia.remove(u);
+    private static void removerAresta(Map<Vertice, ArrayList<Vertice>> restantes, Vertice u, Vertice v) {
+        restantes.get(u).remove(v);
+        restantes.get(v).remove(u);
     }
 
     /**
@@ -430,17 +907,20 @@ public class Grafo {
         List<Vertice> caminho = new ArrayList<>();
         Set<Vertice> visitados = new HashSet<>();
 
+        Medicao medicao = Instrumentacao.iniciar("encontrarCaminhoHamiltoniano");
         // Inicia a busca de caminho hamiltoniano a partir de cada vértice
         for (Vertice v : vertices.values()) {
             caminho.clear();
             visitados.clear();
             caminho.add(v);
             visitados.add(v);
-            if (encontrarCaminhoHamiltonianoRecursivo(v, caminho, visitados)) {
+            if (encontrarCaminhoHamiltonianoRecursivo(v, caminho, visitados, medicao)) {
+                Instrumentacao.concluir(medicao);
                 return caminho;
             }
         }
 
+        Instrumentacao.concluir(medicao);
         return null; // Não encontrou caminho hamiltoniano
     }
 
@@ -453,9 +933,15 @@ public class Grafo {
      *            Lista que armazena o caminho hamiltoniano encontrado.
      * @param visitados
      *            Conjunto de vértices visitados.
+     * @param medicao
+     *            Medição em andamento, ou null.
      * @return true se encontrou um caminho hamiltoniano, false caso contrário.
      */
-    private boolean encontrarCaminhoHamiltonianoRecursivo(Vertice v, List<Vertice> caminho, Set<Vertice> visitados) {
+    private boolean encontrarCaminhoHamiltonianoRecursivo(Vertice v, List<Vertice> caminho, Set<Vertice> visitados,
+            Medicao medicao) {
+        if (medicao != null) {
+            medicao.operacoes++; // Nós expandidos
+        }
         // Caso base: se o caminho tem todos os vértices, é um caminho hamiltoniano
         if (caminho.size() == vertices.size()) {
             return true;
@@ -468,7 +954,7 @@ public class Grafo {
                 visitados.add(vizinho);
 
                 // Recursivamente tenta encontrar o caminho hamiltoniano
-                if (encontrarCaminhoHamiltonianoRecursivo(vizinho, caminho, visitados)) {
+                if (encontrarCaminhoHamiltonianoRecursivo(vizinho, caminho, visitados, medicao)) {
                     return true;
                 }
 
@@ -488,12 +974,15 @@ public class Grafo {
      */
     public int[][] getMatrizAdjacencia() {
         int n = vertices.size();
-        ArrayList<Vertice> verticesList = new ArrayList<>(vertices.values());
+        HashMap<Vertice, Integer> indices = new HashMap<>();
+        for (Vertice vertice : vertices.values()) {
+            indices.put(vertice, indices.size());
+        }
         int[][] matrizAdjacencia = new int[n][n];
 
         for (Aresta aresta : arestas) {
-            int uIndex = verticesList.indexOf(aresta.getVerticePartida());
-            int vIndex = verticesList.indexOf(aresta.getVerticeChegada());
+            int uIndex = indices.get(aresta.getVerticePartida());
+            int vIndex = indices.get(aresta.getVerticeChegada());
             matrizAdjacencia[uIndex][vIndex] = aresta.getPeso();
             matrizAdjacencia[vIndex][uIndex] = aresta.getPeso(); // Para grafos não direcionados
         }
@@ -502,112 +991,75 @@ public class Grafo {
     }
 
     /**
-     * Método para encontrar os vértices de articulação em um grafo.
+     * Retorna a lista de adjacência do grafo, um vértice por linha.
      *
-     * @return Conjunto de vértices de articulação.
+     * @return A lista de adjacência no formato {@code a -> b -> c;}.
      */
-    public Set<Vertice> encontrarVerticesArticulacao() {
-        Set<Vertice> articulacoes = new HashSet<>();
-        HashMap<Vertice, Integer> discovery = new HashMap<>();
-        HashMap<Vertice, Integer> low = new HashMap<>();
-        HashMap<Vertice, Vertice> parent = new HashMap<>();
-        Set<Vertice> visited = new HashSet<>();
-
-        for (Vertice vertice : vertices.values()) {
-            discovery.put(vertice, -1);
-            low.put(vertice, -1);
-            parent.put(vertice, null);
+    public String getListaAdjacencia() {
+        StringWriter saida = new StringWriter();
+        try {
+            Exportador.exportarListaAdjacencia(this, saida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter não lança IOException
         }
-
-        for (Vertice vertice : vertices.values()) {
-            if (!visited.contains(vertice)) {
-                dfsArticulacoes(vertice, visited, discovery, low, parent, articulacoes);
-            }
-        }
-
-        return articulacoes;
+        return saida.toString();
     }
 
-    private void dfsArticulacoes(Vertice u, Set<Vertice> visited, HashMap<Vertice, Integer> discovery,
-            Map<Vertice, Integer> low,
-            Map<Vertice, Vertice> parent, Set<Vertice> articulacoes) {
-        int time = 0;
-        visited.add(u);
-        discovery.put(u, time);
-        low.put(u, time);
-        time++;
-
-        int children = 0;
-        for (Vertice v : u.adjacencia) {
-            if (!visited.contains(v)) {
-                parent.put(v, u);
-                children++;
-                dfsArticulacoes(v, visited, discovery, low, parent, articulacoes);
-
-                low.put(u, Math.min(low.get(u), low.get(v)));
-
-                if (parent.get(u) == null && children > 1) {
-                    articulacoes.add(u);
-                }
+    /**
+     * Método para encontrar os vértices de articulação em um grafo. O resultado
+     * fica em cache até a próxima alteração do grafo e não pode ser modificado.
+     *
+     * @return Conjunto de vértices de articulação.
+     */
+    public Set<Vertice> encontrarVerticesArticulacao() {
+        return cache.obter("articulacoes", versao,
+                () -> Collections.unmodifiableSet(calcularVerticesArticulacao()), r -> 16L + 48L * r.size());
+    }
 
-                if (parent.get(u) != null && low.get(v) >= discovery.get(u)) {
-                    articulacoes.add(u);
-                }
-            } else if (!v.equals(parent.get(u))) {
-                low.put(u, Math.min(low.get(u), discovery.get(v)));
-            }
-        }
+    /**
+     * Método para encontrar os vértices de articulação em um grafo, pela busca
+     * iterativa de {@link AlgoritmosIndexados#articulacoes(GrafoIndexado)}.
+     *
+     * @return Conjunto de vértices de articulação.
+     */
+    private Set<Vertice> calcularVerticesArticulacao() {
+        GrafoCompacto compacto = getCompacto();
+        return new LinkedHashSet<>(paraVertices(compacto, AlgoritmosIndexados.articulacoes(compacto)));
     }
 
     /**
-     * Método para encontrar as arestas ponte em um grafo.
+     * Método para encontrar as arestas ponte em um grafo. O resultado fica em
+     * cache até a próxima alteração do grafo e não pode ser modificado.
      *
      * @return Lista de arestas ponte.
      */
     public List<Aresta> encontrarArestasPonte() {
-        List<Aresta> pontes = new ArrayList<>();
-        Map<Vertice, Integer> discovery = new HashMap<>();
-        Map<Vertice, Integer> low = new HashMap<>();
-        Map<Vertice, Vertice> parent = new HashMap<>();
-        Set<Vertice> visited = new HashSet<>();
-
-        for (Vertice vertice : vertices.values()) {
-            discovery.put(vertice, -1);
-            low.put(vertice, -1);
-            parent.put(vertice, null);
-        }
-
-        for (Vertice vertice : vertices.values()) {
-            if (!visited.contains(vertice)) {
-                dfsPontes(vertice, visited, discovery, low, parent, pontes);
-            }
-        }
-
-        return pontes;
+        return cache.obter("pontes", versao, () -> Collections.unmodifiableList(calcularArestasPonte()),
+                r -> 16L + 40L * r.size());
     }
 
-    private void dfsPontes(Vertice u, Set<Vertice> visited, Map<Vertice, Integer> discovery, Map<Vertice, Integer> low,
-            Map<Vertice, Vertice> parent, List<Aresta> pontes) {
-        int time = 0;
-        visited.add(u);
-        discovery.put(u, time);
-        low.put(u, time);
-        time++;
-
-        for (Vertice v : u.adjacencia) {
-            if (!visited.contains(v)) {
-                parent.put(v, u);
-                dfsPontes(v, visited, discovery, low, parent, pontes);
-
-                low.put(u, Math.min(low.get(u), low.get(v)));
-
-                if (low.get(v) > discovery.get(u)) {
-                    pontes.add(new Aresta(u, v, 0));
+    /**
+     * Método para encontrar as arestas ponte em um grafo, pela busca iterativa
+     * de {@link AlgoritmosIndexados#pontes(GrafoIndexado)}. Cada ponte é a
+     * aresta do grafo no sentido em que a busca a percorreu.
+     *
+     * @return Lista de arestas ponte.
+     */
+    private List<Aresta> calcularArestasPonte() {
+        GrafoCompacto compacto = getCompacto();
+        int[] pares = AlgoritmosIndexados.pontes(compacto);
+        List<Aresta> pontes = new ArrayList<>(pares.length / 2);
+        for (int i = 0; i < pares.length; i += 2) {
+            int u = pares[i];
+            int v = pares[i + 1];
+            for (int arco = compacto.inicio[u]; arco < compacto.inicio[u + 1]; arco++) {
+                if (compacto.destinos[arco] == v) {
+                    pontes.add(arestas.get(compacto.indiceAresta[arco]));
+                    break;
                 }
-            } else if (!v.equals(parent.get(u))) {
-                low.put(u, Math.min(low.get(u), discovery.get(v)));
             }
         }
+        return pontes;
     }
 
     /**
@@ -618,23 +1070,14 @@ public class Grafo {
      * @return A árvore de profundidade representada como um grafo.
      */
     public Grafo gerarArvoreDeProfundidade(Vertice verticeInicial) {
-        HashMap<String, Vertice> visitados = new HashMap<>();
-        List<Aresta> arestasArvore = new ArrayList<>();
-        dfsArvore(verticeInicial, visitados, arestasArvore, null);
-        return new Grafo(visitados, arestasArvore);
+        return gerarArvoreDeProfundidade(rotuloDe(verticeInicial));
     }
 
-    private void dfsArvore(Vertice vertice, HashMap<String, Vertice> visitados, List<Aresta> arestasArvore,
-            Vertice pai) {
-        visitados.put(vertice.toString(), vertice);
-        if (pai != null) {
-            arestasArvore.add(new Aresta(pai, vertice, 1));
-        }
-        for (Vertice vizinho : vertice.adjacencia) {
-            if (visitados.get(vizinho.toString()) == null) {
-                dfsArvore(vizinho, visitados, arestasArvore, vertice);
-            }
-        }
+    /**
+     * @see #gerarArvoreDeProfundidade(Vertice)
+     */
+    public Grafo gerarArvoreDeProfundidade(String raiz) {
+        return novaArvore(getBuscaEmProfundidade(raiz, false));
     }
 
     /**
@@ -645,24 +1088,87 @@ public class Grafo {
      * @return A árvore de largura representada como um grafo.
      */
     public Grafo gerarArvoreDeLargura(Vertice verticeInicial) {
-        HashMap<String, Vertice> visitados = new HashMap<>();
-        List<Aresta> arestasArvore = new ArrayList<>();
-        LinkedList<Vertice> fila = new LinkedList<>();
-        fila.add(verticeInicial);
-        visitados.put(verticeInicial.toString(), verticeInicial);
-
-        while (!fila.isEmpty()) {
-            Vertice vertice = fila.poll();
-            for (Vertice vizinho : vertice.adjacencia) {
-                if (visitados.get(vizinho.toString()) == null) {
-                    visitados.put(vizinho.toString(), vizinho);
-                    fila.add(vizinho);
-                    arestasArvore.add(new Aresta(vertice, vizinho, 1));
-                }
-            }
+        return gerarArvoreDeLargura(rotuloDe(verticeInicial));
+    }
+
+    /**
+     * @see #gerarArvoreDeLargura(Vertice)
+     */
+    public Grafo gerarArvoreDeLargura(String raiz) {
+        return novaArvore(getBuscaEmLargura(raiz, false));
+    }
+
+    /**
+     * Busca em profundidade com o resultado em vetores, na numeração de
+     * {@link #getCompacto()}. O resultado fica em cache até a próxima
+     * alteração do grafo e não deve ser modificado.
+     *
+     * @param raiz
+     *            Rótulo do vértice inicial.
+     * @param floresta
+     *            Se true, a busca continua pelos vértices não alcançados até
+     *            cobrir todas as componentes.
+     * @return Pai, profundidade, ordens e tempos de cada vértice.
+     */
+    public Percurso.Resultado getBuscaEmProfundidade(String raiz, boolean floresta) {
+        int indice = indiceDe(raiz);
+        return cache.obter("profundidade:" + raiz + ":" + floresta + ":" + reordenacao, versao,
+                () -> Percurso.profundidade(getCompacto(), indice, floresta), Percurso.Resultado::tamanhoEstimado);
+    }
+
+    /**
+     * Busca em largura com o resultado em vetores, na numeração de
+     * {@link #getCompacto()}. O resultado fica em cache até a próxima
+     * alteração do grafo e não deve ser modificado.
+     *
+     * @param raiz
+     *            Rótulo do vértice inicial.
+     * @param floresta
+     *            Se true, a busca continua pelos vértices não alcançados até
+     *            cobrir todas as componentes.
+     * @return Pai, profundidade, ordens e tempos de cada vértice.
+     */
+    public Percurso.Resultado getBuscaEmLargura(String raiz, boolean floresta) {
+        int indice = indiceDe(raiz);
+        return cache.obter("largura:" + raiz + ":" + floresta + ":" + reordenacao, versao,
+                () -> Percurso.largura(getCompacto(), indice, floresta), Percurso.Resultado::tamanhoEstimado);
+    }
+
+    private int indiceDe(String rotulo) {
+        int indice = rotulo == null ? -1 : getCompacto().indiceDe(rotulo);
+        if (indice < 0) {
+            throw new IllegalArgumentException("vértice não pertence ao grafo: " + rotulo);
         }
+        return indice;
+    }
+
+    private static String rotuloDe(Vertice vertice) {
+        if (vertice == null) {
+            throw new IllegalArgumentException("vértice inicial não informado");
+        }
+        return vertice.valor;
+    }
 
-        return new Grafo(visitados, arestasArvore);
+    /**
+     * Monta a árvore de uma busca como grafo, com os arcos de cada pai para os
+     * filhos na ordem de descoberta.
+     */
+    private Grafo novaArvore(Percurso.Resultado busca) {
+        GrafoCompacto compacto = getCompacto();
+        int[] ordem = busca.getPreOrdem();
+        int[] pai = busca.getPai();
+        HashMap<String, Vertice> novos = new HashMap<>(ordem.length * 2);
+        Vertice[] porIndice = new Vertice[compacto.numeroVertices()];
+        List<Aresta> arestasArvore = new ArrayList<>(Math.max(0, ordem.length - 1));
+        for (int v : ordem) {
+            porIndice[v] = new Vertice(compacto.getRotulo(v));
+            novos.put(porIndice[v].valor, porIndice[v]);
+            if (pai[v] >= 0) {
+                porIndice[pai[v]].adjacencia.add(porIndice[v]);
+                arestasArvore.add(new Aresta(porIndice[pai[v]], porIndice[v], 1));
+            }
+        }
+        return new Grafo(novos, arestasArvore);
     }
 
     /**
@@ -671,171 +1177,144 @@ public class Grafo {
      * @return A árvore geradora mínima representada como um grafo.
      */
     public Grafo gerarArvoreGeradoraMinima() {
-        List<Aresta> mstArestas = new ArrayList<>();
-        UnionFind uf = new UnionFind(vertices.size());
-        HashMap<Vertice, Integer> vertexIndexMap = new HashMap<>();
-        int index = 0;
+        return gerarArvoreGeradoraMinima("peso");
+    }
 
-        for (Vertice vertex : vertices.values()) {
-            vertexIndexMap.put(vertex, index++);
+    /**
+     * Gera uma árvore geradora mínima (ou floresta, se o grafo for desconexo)
+     * pelo algoritmo de Kruskal, usando como custo um atributo das arestas. O
+     * sentido das arestas é ignorado e a lista de arestas não é alterada.
+     *
+     * @param coluna
+     *            Nome do atributo (veja {@link #getAtributos()}); {@code peso}
+     *            usa o peso das arestas se não houver coluna com esse nome.
+     * @return A árvore geradora mínima representada como um grafo.
+     */
+    public Grafo gerarArvoreGeradoraMinima(String coluna) {
+        GrafoCompacto compacto = getCompacto();
+        int[] arcos = getTipoAtributo(coluna) == AtributosAresta.Tipo.DOUBLE
+                ? AlgoritmosPonderados.arvoreGeradoraMinima(compacto, getAtributoReal(coluna))
+                : AlgoritmosPonderados.arvoreGeradoraMinima(compacto, getAtributoLongo(coluna));
+        List<Aresta> mstArestas = new ArrayList<>(arcos.length);
+        for (int arco : arcos) {
+            mstArestas.add(arestas.get(compacto.indiceAresta[arco]));
         }
+        return novaArvore(vertices.values(), mstArestas);
+    }
 
-        Collections.sort(arestas, Comparator.comparingInt(Aresta::getPeso));
+    /**
+     * Monta uma árvore com vértices e arestas novos, cuja adjacência tem só as
+     * arestas da árvore. Os vértices do grafo não são compartilhados, então
+     * alterar a árvore não altera o grafo.
+     */
+    private static Grafo novaArvore(Collection<Vertice> verticesArvore, List<Aresta> arestasArvore) {
+        HashMap<String, Vertice> novos = new HashMap<>(verticesArvore.size() * 2);
+        for (Vertice vertice : verticesArvore) {
+            novos.put(vertice.valor, new Vertice(vertice.valor));
+        }
+        List<Aresta> novasArestas = new ArrayList<>(arestasArvore.size());
+        for (Aresta aresta : arestasArvore) {
+            Vertice u = novos.get(aresta.u.valor);
+            Vertice v = novos.get(aresta.v.valor);
+            u.adjacencia.add(v);
+            novasArestas.add(new Aresta(u, v, aresta.peso));
+        }
+        return new Grafo(novos, novasArestas);
+    }
 
-        for (Aresta aresta : arestas) {
-            int u = vertexIndexMap.get(aresta.getVerticePartida());
-            int v = vertexIndexMap.get(aresta.getVerticeChegada());
-            if (uf.find(u) != uf.find(v)) {
-                uf.union(u, v);
-                mstArestas.add(aresta);
+    /**
+     * Subgrafo induzido pelos vértices dados, sem cópia: os algoritmos sobre
+     * {@link GrafoIndexado} rodam direto na visão, e
+     * {@link VisaoGrafo#paraGrafo()} gera um grafo independente se necessário.
+     *
+     * @param selecionados
+     *            Os vértices do subgrafo.
+     * @return A visão, numerada na ordem de {@link #getCompacto()}.
+     */
+    public VisaoGrafo subgrafoInduzido(Collection<Vertice> selecionados) {
+        GrafoCompacto compacto = getCompacto();
+        BitSet conjunto = new BitSet(compacto.numeroVertices());
+        for (Vertice vertice : selecionados) {
+            int indice = compacto.indiceDe(vertice.valor);
+            if (indice < 0) {
+                throw new IllegalArgumentException("vértice não pertence ao grafo: " + vertice);
             }
+            conjunto.set(indice);
         }
+        return VisaoGrafo.induzido(compacto, conjunto);
+    }
 
-        return new Grafo(vertices, mstArestas);
+    /**
+     * @param minimo
+     *            Menor peso aceito.
+     * @param maximo
+     *            Maior peso aceito.
+     * @return Visão, sem cópia, com só as arestas de peso na faixa.
+     */
+    public VisaoGrafo filtrarPorPeso(int minimo, int maximo) {
+        return VisaoGrafo.porPeso(getCompacto(), minimo, maximo);
+    }
+
+    /**
+     * @return Visão, sem cópia, com todas as arestas invertidas.
+     */
+    public VisaoGrafo getTransposto() {
+        return VisaoGrafo.transposto(getCompacto());
     }
 
     /**
-     * Gera a ordem topológica do grafo.
+     * Gera a ordem topológica do grafo: a pós-ordem invertida da busca em
+     * profundidade iterativa de {@link Percurso}, que não estoura a pilha em
+     * grafos grandes.
      *
      * @return Lista de vértices na ordem topológica.
      */
     public List<Vertice> gerarOrdemTopologica() {
-        HashMap<String, Vertice> visitados = new HashMap<>();
-        Stack<Vertice> pilha = new Stack<>();
-        for (Vertice vertice : vertices.values()) {
-            if (visitados.get(vertice.toString()) == null) {
-                dfs(vertice, visitados, pilha);
-            }
+        GrafoCompacto compacto = getCompacto();
+        if (compacto.numeroVertices() == 0) {
+            return new ArrayList<>();
         }
-        List<Vertice> ordemTopologica = new ArrayList<>();
-        while (!pilha.isEmpty()) {
-            ordemTopologica.add(pilha.pop());
+        int[] posOrdem = Percurso.profundidade(compacto, 0, true).getPosOrdem();
+        List<Vertice> ordemTopologica = new ArrayList<>(posOrdem.length);
+        for (int i = posOrdem.length - 1; i >= 0; i--) {
+            ordemTopologica.add(vertices.get(compacto.getRotulo(posOrdem[i])));
         }
         return ordemTopologica;
     }
 
     /**
-     * Realiza uma busca em profundidade (DFS) para a ordenação topológica.
-     *
-     * @param vertice
-     *            O vértice atual.
-     * @param visitados
-     *            Conjunto de vértices visitados.
-     * @param pilha
-     *            Pilha para armazenar a ordem topológica.
-     */
-    private void dfs(Vertice vertice, HashMap<String, Vertice> visitados, Stack<Vertice> pilha) {
-        visitados.put(vertice.toString(), vertice);
-        for (Vertice adj : vertice.adjacencia) {
-            if (visitados.get(adj.toString()) == null) {
-                dfs(adj, visitados, pilha);
-            }
-        }
-        pilha.push(vertice);
-    }
-
-    /**
-     * Encontra o fluxo máximo de uma fonte para um sumidouro usando o algoritmo de
-     * Ford-Fulkerson.
+     * Encontra o fluxo máximo de uma fonte para um sumidouro usando o peso das
+     * arestas como capacidade.
      *
      * @param fonte
      *            O vértice fonte.
      * @param sumidouro
      *            O vértice sumidouro.
-     * @return O fluxo máximo entre a fonte e o sumidouro.
+     * @return O fluxo máximo entre a fonte e o sumidouro, limitado a
+     *         {@link Integer#MAX_VALUE}.
      */
     public int fluxoMaximo(Vertice fonte, Vertice sumidouro) {
-        Map<Vertice, Map<Vertice, Integer>> capacidade = new HashMap<>();
-        for (Aresta aresta : arestas) {
-            Vertice u = aresta.getVerticePartida();
-            Vertice v = aresta.getVerticeChegada();
-            int peso = aresta.getPeso();
-            capacidade.putIfAbsent(u, new HashMap<>());
-            capacidade.putIfAbsent(v, new HashMap<>());
-            capacidade.get(u).put(v, peso);
-            capacidade.get(v).put(u, 0); // Inicializa a capacidade de volta com 0 para grafos não direcionados
-        }
-
-        Map<Vertice, Map<Vertice, Integer>> fluxo = new HashMap<>();
-        for (Vertice u : capacidade.keySet()) {
-            fluxo.put(u, new HashMap<>());
-            for (Vertice v : capacidade.get(u).keySet()) {
-                fluxo.get(u).put(v, 0);
-            }
-        }
-
-        int fluxoMaximo = 0;
-
-        while (true) {
-            List<Vertice> caminho = bfsParaCaminho(fonte, sumidouro, capacidade, fluxo);
-            if (caminho == null) {
-                break;
-            }
-
-            int fluxoMinimo = Integer.MAX_VALUE;
-            for (int i = 0; i < caminho.size() - 1; i++) {
-                Vertice u = caminho.get(i);
-                Vertice v = caminho.get(i + 1);
-                fluxoMinimo = Math.min(fluxoMinimo, capacidade.get(u).get(v) - fluxo.get(u).get(v));
-            }
-
-            for (int i = 0; i < caminho.size() - 1; i++) {
-                Vertice u = caminho.get(i);
-                Vertice v = caminho.get(i + 1);
-                fluxo.get(u).put(v, fluxo.get(u).get(v) + fluxoMinimo);
-                fluxo.get(v).put(u, fluxo.get(v).get(u) - fluxoMinimo);
-            }
-
-            fluxoMaximo += fluxoMinimo;
-        }
-
-        return fluxoMaximo;
+        return (int) Math.min(Integer.MAX_VALUE, fluxoMaximo(fonte, sumidouro, "peso"));
     }
 
     /**
-     * Utiliza BFS para encontrar um caminho aumentante na rede residual.
+     * Encontra o fluxo máximo de uma fonte para um sumidouro pelo algoritmo de
+     * Dinic, usando como capacidade um atributo inteiro das arestas. Cada
+     * aresta tem a sua própria capacidade residual, então as duas direções de
+     * uma aresta não direcionada são independentes.
      *
      * @param fonte
      *            O vértice fonte.
      * @param sumidouro
      *            O vértice sumidouro.
-     * @param capacidade
-     *            Capacidade de fluxo entre os vértices.
-     * @param fluxo
-     *            O fluxo atual na rede.
-     * @return Uma lista de vértices representando um caminho aumentante, ou null se
-     *         não houver caminho.
-     */
-    private List<Vertice> bfsParaCaminho(Vertice fonte, Vertice sumidouro,
-            Map<Vertice, Map<Vertice, Integer>> capacidade,
-            Map<Vertice, Map<Vertice, Integer>> fluxo) {
-        Queue<Vertice> fila = new LinkedList<>();
-        Map<Vertice, Vertice> predecessores = new HashMap<>();
-
-        fila.add(fonte);
-        predecessores.put(fonte, null);
-
-        while (!fila.isEmpty()) {
-            Vertice u = fila.poll();
-
-            if (u.equals(sumidouro)) {
-                List<Vertice> caminho = new ArrayList<>();
-                for (Vertice v = sumidouro; v != null; v = predecessores.get(v)) {
-                    caminho.add(v);
-                }
-                Collections.reverse(caminho);
-                return caminho;
-            }
-
-            for (Vertice v : u.adjacencia) {
-                if (!predecessores.containsKey(v) && capacidade.get(u).get(v) > fluxo.get(u).get(v)) {
-                    fila.add(v);
-                    predecessores.put(v, u);
-                }
-            }
-        }
-
-        return null;
+     * @param coluna
+     *            Nome do atributo com as capacidades.
+     * @return O fluxo máximo entre a fonte e o sumidouro.
+     */
+    public long fluxoMaximo(Vertice fonte, Vertice sumidouro, String coluna) {
+        GrafoCompacto compacto = getCompacto();
+        return AlgoritmosPonderados.fluxoMaximo(compacto, getAtributoLongo(coluna), indiceDe(fonte.valor),
+                indiceDe(sumidouro.valor));
     }
 
     /**
@@ -865,34 +1344,383 @@ public class Grafo {
         return fecho;
     }
     /**
-     * Encontra o menor caminho entre dois vértices.
+     * Encontra o menor caminho entre dois vértices usando o algoritmo de
+     * Dijkstra sobre os pesos das arestas.
      *
      * @param origem o vértice de origem.
      * @param fim    o vértice de destino.
-     * @return uma lista contendo os vértices do menor caminho.
+     * @return uma lista contendo os vértices do menor caminho, da origem ao
+     *         destino, ou uma lista vazia se o destino não for alcançável.
      */
     public ArrayList<Vertice> caminhoMinimo(Vertice origem, Vertice fim){
-        Aresta anterior = arestas.get(0);
-        int n = 0;
+        return caminhoMinimo(origem, fim, "peso");
+    }
+
+    /**
+     * Encontra o menor caminho entre dois vértices usando o algoritmo de
+     * Dijkstra, com um atributo das arestas como custo. Atributos
+     * {@code double} usam distâncias reais; os inteiros, distâncias
+     * {@code long}.
+     *
+     * @param origem o vértice de origem.
+     * @param fim    o vértice de destino.
+     * @param coluna nome do atributo com os custos, que não podem ser
+     *               negativos.
+     * @return uma lista contendo os vértices do menor caminho, da origem ao
+     *         destino, ou uma lista vazia se o destino não for alcançável.
+     */
+    public ArrayList<Vertice> caminhoMinimo(Vertice origem, Vertice fim, String coluna) {
+        GrafoCompacto compacto = getCompacto();
+        int[] pai = new int[compacto.numeroVertices()];
+        int o = indiceDe(origem.valor);
+        int f = indiceDe(fim.valor);
+        dijkstra(compacto, coluna, o, f, pai);
         ArrayList<Vertice> caminho = new ArrayList<>();
-        while(!caminho.contains(fim)){
-            for(Aresta a : arestas){
-                if(n!=0){
-                    if(a.getPeso() < anterior.getPeso() && a.getVerticePartida().equals(origem)){
-                        caminho.add(a.getVerticeChegada());
-                        origem = a.getVerticeChegada();
-                    } else if (a.getPeso() > anterior.getPeso() && a.getVerticePartida().equals(origem)){
-                        caminho.add(anterior.getVerticeChegada());
-                        origem = anterior.getVerticeChegada();
-                    }
+        for (int v : AlgoritmosPonderados.caminho(pai, o, f)) {
+            caminho.add(vertices.get(compacto.getRotulo(v)));
+        }
+        return caminho;
+    }
+
+    /**
+     * @param origem o vértice de origem.
+     * @param fim    o vértice de destino.
+     * @param coluna nome do atributo com os custos.
+     * @return a soma dos custos do menor caminho, ou
+     *         {@link Double#POSITIVE_INFINITY} se o destino não for
+     *         alcançável.
+     */
+    public double distanciaMinima(Vertice origem, Vertice fim, String coluna) {
+        GrafoCompacto compacto = getCompacto();
+        int f = indiceDe(fim.valor);
+        return dijkstra(compacto, coluna, indiceDe(origem.valor), f,
+                new int[compacto.numeroVertices()])[f];
+    }
+
+    /**
+     * @see #caminhosMinimos(Vertice, Vertice, int, String)
+     */
+    public List<ArrayList<Vertice>> caminhosMinimos(Vertice origem, Vertice fim, int k) {
+        return caminhosMinimos(origem, fim, k, "peso");
+    }
+
+    /**
+     * Encontra os k menores caminhos simples entre dois vértices (algoritmo
+     * de Yen), para oferecer rotas alternativas.
+     *
+     * @param origem o vértice de origem.
+     * @param fim    o vértice de destino.
+     * @param k      quantidade máxima de caminhos.
+     * @param coluna nome do atributo com os custos, que não podem ser
+     *               negativos.
+     * @return até k caminhos em ordem crescente de custo, cada um da origem ao
+     *         destino; vazio se o destino não for alcançável.
+     * @see #getCaminhosK(String)
+     */
+    public List<ArrayList<Vertice>> caminhosMinimos(Vertice origem, Vertice fim, int k, String coluna) {
+        GrafoCompacto compacto = getCompacto();
+        List<ArrayList<Vertice>> caminhos = new ArrayList<>(k);
+        for (CaminhosK.Caminho c : getCaminhosK(coluna).yen(indiceDe(origem.valor), indiceDe(fim.valor), k)) {
+            ArrayList<Vertice> caminho = new ArrayList<>(c.getVertices().length);
+            for (int v : c.getVertices()) {
+                caminho.add(vertices.get(compacto.getRotulo(v)));
+            }
+            caminhos.add(caminho);
+        }
+        return caminhos;
+    }
+
+    /**
+     * Consultas de k menores caminhos sobre {@link #getCompacto()}, com os
+     * custos de um atributo. Fica em cache até a próxima alteração e pode ser
+     * consultado por várias threads; use-o diretamente para evitar a
+     * conversão para {@link Vertice} ou para o modo de passeios.
+     *
+     * @param coluna nome do atributo com os custos.
+     * @return O objeto de consulta.
+     */
+    public CaminhosK getCaminhosK(String coluna) {
+        Reordenacao.Estrategia estrategia = reordenacao;
+        return cache.obter("caminhosK:" + coluna + ":" + estrategia, versao,
+                () -> new CaminhosK(getCompacto(), getAtributoReal(coluna)), CaminhosK::tamanhoEstimado);
+    }
+
+    private double[] dijkstra(GrafoCompacto compacto, String coluna, int origem, int destino, int[] pai) {
+        int n = compacto.numeroVertices();
+        if (getTipoAtributo(coluna) == AtributosAresta.Tipo.DOUBLE) {
+            double[] distancia = new double[n];
+            AlgoritmosPonderados.dijkstra(compacto, getAtributoReal(coluna), origem, destino, distancia, pai);
+            return distancia;
+        }
+        long[] distancia = new long[n];
+        AlgoritmosPonderados.dijkstra(compacto, getAtributoLongo(coluna), origem, destino, distancia, pai);
+        double[] reais = new double[n];
+        for (int v = 0; v < n; v++) {
+            reais[v] = distancia[v] == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : distancia[v];
+        }
+        return reais;
+    }
+
+    /**
+     * Atributos das arestas por coluna, indexados pela posição da aresta em
+     * {@link #getArestas()}. Depois de alterar valores diretamente, chame
+     * {@link #marcarAlteracao()} para descartar os resultados em cache.
+     *
+     * @return Os atributos (criados vazios se o grafo não tiver nenhum).
+     */
+    public AtributosAresta getAtributos() {
+        if (atributos == null) {
+            atributos = new AtributosAresta(arestas.size());
+        }
+        return atributos;
+    }
+
+    /**
+     * @param atributos
+     *            Atributos com um valor por aresta de {@link #getArestas()}.
+     */
+    public void setAtributos(AtributosAresta atributos) {
+        if (atributos.tamanho() != arestas.size()) {
+            throw new IllegalArgumentException(
+                    "atributos para " + atributos.tamanho() + " arestas, grafo tem " + arestas.size());
+        }
+        this.atributos = atributos;
+        marcarAlteracao();
+    }
+
+    /**
+     * @return O tipo de uma coluna; {@code peso} sem coluna própria é o peso
+     *         {@code int} das arestas.
+     */
+    private AtributosAresta.Tipo getTipoAtributo(String coluna) {
+        if (atributos != null && atributos.contem(coluna)) {
+            return atributos.getTipo(coluna);
+        }
+        if (coluna.equals("peso")) {
+            return AtributosAresta.Tipo.INT;
+        }
+        throw new IllegalArgumentException("atributo inexistente: " + coluna);
+    }
+
+    /**
+     * @return A coluna, convertida para {@code long}, na ordem dos arcos de
+     *         {@link #getCompacto()}. Fica em cache até a próxima alteração.
+     */
+    private long[] getAtributoLongo(String coluna) {
+        Reordenacao.Estrategia estrategia = reordenacao;
+        return cache.obter("atributoLongo:" + coluna + ":" + estrategia, versao, () -> {
+            GrafoCompacto compacto = getCompacto();
+            if (atributos != null && atributos.contem(coluna)) {
+                return compacto.porArco(atributos.comoLongos(coluna));
+            }
+            getTipoAtributo(coluna);
+            long[] pesos = new long[compacto.pesos.length];
+            for (int a = 0; a < pesos.length; a++) {
+                pesos[a] = compacto.pesos[a];
+            }
+            return pesos;
+        }, r -> 16L + 8L * r.length);
+    }
+
+    /**
+     * @return A coluna, convertida para {@code double}, na ordem dos arcos de
+     *         {@link #getCompacto()}. Fica em cache até a próxima alteração.
+     */
+    private double[] getAtributoReal(String coluna) {
+        Reordenacao.Estrategia estrategia = reordenacao;
+        return cache.obter("atributoReal:" + coluna + ":" + estrategia, versao, () -> {
+            GrafoCompacto compacto = getCompacto();
+            if (atributos != null && atributos.contem(coluna)) {
+                return compacto.porArco(atributos.comoReais(coluna));
+            }
+            getTipoAtributo(coluna);
+            double[] pesos = new double[compacto.pesos.length];
+            for (int a = 0; a < pesos.length; a++) {
+                pesos[a] = compacto.pesos[a];
+            }
+            return pesos;
+        }, r -> 16L + 8L * r.length);
+    }
+
+    /**
+     * Monta um grafo com vértices e arestas novos a partir de um grafo
+     * indexado, por exemplo uma {@link VisaoGrafo} ou uma versão de
+     * {@link GrafoVersionado}.
+     *
+     * @param origem
+     *            O grafo indexado.
+     * @param incluir
+     *            Quais vértices (e os arcos entre eles) entram no grafo.
+     * @return O grafo.
+     */
+    public static Grafo de(GrafoIndexado origem, IntPredicate incluir) {
+        int n = origem.numeroVertices();
+        Vertice[] novos = new Vertice[n];
+        HashMap<String, Vertice> mapa = new HashMap<>(n * 2);
+        for (int v = 0; v < n; v++) {
+            if (incluir.test(v)) {
+                novos[v] = new Vertice(origem.getRotulo(v));
+                mapa.put(novos[v].valor, novos[v]);
+            }
+        }
+        List<Aresta> novasArestas = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, origem.numeroArcos()));
+        int[] vizinhos = new int[Math.max(1, origem.grauMaximo())];
+        int[] pesos = new int[vizinhos.length];
+        for (int v = 0; v < n; v++) {
+            if (novos[v] == null) {
+                continue;
+            }
+            int grau = origem.vizinhos(v, vizinhos, 0);
+            origem.pesos(v, pesos, 0);
+            novos[v].adjacencia.ensureCapacity(grau);
+            for (int i = 0; i < grau; i++) {
+                Vertice destino = novos[vizinhos[i]];
+                if (destino != null) {
+                    novos[v].adjacencia.add(destino);
+                    novasArestas.add(new Aresta(novos[v], destino, pesos[i]));
                 }
-                anterior = a;
-                n++;
             }
         }
-        return caminho;
+        return new Grafo(mapa, novasArestas);
+    }
+
+    /**
+     * Cria uma cópia independente do grafo, com novos vértices e arestas.
+     *
+     * @return Uma cópia do grafo.
+     */
+    public Grafo copiar() {
+        HashMap<String, Vertice> novosVertices = new HashMap<>();
+        for (Vertice vertice : vertices.values()) {
+            novosVertices.put(vertice.valor, new Vertice(vertice.valor));
+        }
+        for (Vertice vertice : vertices.values()) {
+            Vertice copia = novosVertices.get(vertice.valor);
+            copia.adjacencia.ensureCapacity(vertice.adjacencia.size());
+            for (Vertice adjacente : vertice.adjacencia) {
+                copia.adjacencia.add(novosVertices.get(adjacente.valor));
+            }
+        }
+        List<Aresta> novasArestas = new ArrayList<>(arestas.size());
+        for (Aresta aresta : arestas) {
+            novasArestas.add(new Aresta(novosVertices.get(aresta.u.valor), novosVertices.get(aresta.v.valor),
+                    aresta.peso));
+        }
+        Grafo copia = new Grafo(novosVertices, novasArestas);
+        if (atributos != null) {
+            copia.atributos = atributos.copiar();
+        }
+        return copia;
+    }
+
+    /**
+     * Adiciona um vértice ao grafo, se ainda não existir.
+     *
+     * @param rotulo
+     *            Rótulo do vértice.
+     * @return O vértice com esse rótulo.
+     */
+    public Vertice adicionarVertice(String rotulo) {
+        Vertice vertice = vertices.get(rotulo);
+        if (vertice == null) {
+            vertice = new Vertice(rotulo);
+            vertices.put(rotulo, vertice);
+            marcarAlteracao();
+        }
+        return vertice;
     }
 
+    /**
+     * Adiciona uma aresta de u para v.
+     *
+     * @param u
+     *            Vértice de partida (deve pertencer ao grafo).
+     * @param v
+     *            Vértice de chegada (deve pertencer ao grafo).
+     * @param peso
+     *            Peso da aresta.
+     * @return A aresta criada. Os seus atributos em {@link #getAtributos()}
+     *         ficam zerados, exceto uma coluna {@code peso}.
+     */
+    public Aresta adicionarAresta(Vertice u, Vertice v, int peso) {
+        Aresta aresta = new Aresta(u, v, peso);
+        u.adjacencia.add(v);
+        arestas.add(aresta);
+        if (atributos != null) {
+            int indice = atributos.acrescentar();
+            if (atributos.contem("peso")) {
+                atributos.definir(indice, "peso", peso);
+            }
+        }
+        marcarAlteracao();
+        return aresta;
+    }
+
+    /**
+     * Registra que o grafo foi alterado, descartando os resultados em cache.
+     * Deve ser chamado por quem altera diretamente as coleções retornadas por
+     * {@link #getVertices()} e {@link #getArestas()} ou a adjacência dos
+     * vértices.
+     */
+    public void marcarAlteracao() {
+        versao++;
+    }
+
+    /**
+     * @return Contador incrementado a cada alteração conhecida do grafo.
+     */
+    public long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Retorna a representação compacta (CSR) do grafo, construída uma vez por
+     * versão e numerada conforme {@link #setReordenacao(Reordenacao.Estrategia)}.
+     *
+     * @return A representação compacta.
+     */
+    public GrafoCompacto getCompacto() {
+        Reordenacao.Estrategia estrategia = reordenacao;
+        return cache.obter("compacto:" + estrategia, versao,
+                () -> Reordenacao.reordenar(GrafoCompacto.de(this), estrategia), GrafoCompacto::tamanhoEstimado);
+    }
+
+    /**
+     * Define como os vértices são numerados em {@link #getCompacto()}. Uma
+     * ordem que aproxima vértices vizinhos (como
+     * {@link Reordenacao.Estrategia#CUTHILL_MCKEE_REVERSO}) acelera as
+     * buscas; os resultados por rótulo ou por {@link Vertice} não mudam.
+     *
+     * @param estrategia
+     *            A estratégia de numeração.
+     */
+    public void setReordenacao(Reordenacao.Estrategia estrategia) {
+        this.reordenacao = estrategia;
+    }
+
+    public Reordenacao.Estrategia getReordenacao() {
+        return reordenacao;
+    }
+
+    /**
+     * @return O grau de saída de cada vértice, na numeração de
+     *         {@link #getCompacto()}. O vetor é compartilhado e não deve ser
+     *         alterado.
+     */
+    public int[] getGrausSaida() {
+        return cache.obter("grausSaida:" + reordenacao, versao, () -> getCompacto().grausSaida(),
+                r -> 16L + 4L * r.length);
+    }
+
+    /**
+     * @return O grau de entrada de cada vértice, na numeração de
+     *         {@link #getCompacto()}. O vetor é compartilhado e não deve ser
+     *         alterado.
+     */
+    public int[] getGrausEntrada() {
+        return cache.obter("grausEntrada:" + reordenacao, versao, () -> getCompacto().grausEntrada(),
+                r -> 16L + 4L * r.length);
+    }
 
     public HashMap<String, Vertice> getVertices() {
         return vertices;
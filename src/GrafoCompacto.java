@@ -0,0 +1,248 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Representação compacta (CSR) de um grafo: os vértices são numerados de 0 a
+ * n-1 e os arcos de saída de cada vértice ficam contíguos em vetores de
+ * inteiros. Os arcos de {@code v} ocupam as posições
+ * {@code inicio[v] .. inicio[v + 1] - 1} de {@code destinos} e {@code pesos}.
+ *
+ * Cada aresta (u, v) da lista de arestas vira um arco de u para v, na mesma
+ * ordem relativa da lista, como em {@link Vertice#adjacencia}.
+ */
+public class GrafoCompacto implements GrafoIndexado {
+    final int[] inicio;
+    final int[] destinos;
+    final int[] pesos;
+    final int[] indiceAresta;
+    final String[] rotulos;
+    private final HashMap<String, Integer> indices;
+
+    GrafoCompacto(int[] inicio, int[] destinos, int[] pesos, int[] indiceAresta, String[] rotulos) {
+        this.inicio = inicio;
+        this.destinos = destinos;
+        this.pesos = pesos;
+        this.indiceAresta = indiceAresta;
+        this.rotulos = rotulos;
+        this.indices = new HashMap<>(rotulos.length * 2);
+        for (int i = 0; i < rotulos.length; i++) {
+            indices.put(rotulos[i], i);
+        }
+    }
+
+    /**
+     * Copia qualquer grafo indexado (uma {@link VisaoGrafo}, uma versão de
+     * {@link GrafoVersionado}...) para a representação compacta, mantendo a
+     * numeração. Os arcos são numerados na ordem da origem
+     * ({@code indiceAresta[a] = a}).
+     *
+     * @param origem
+     *            O grafo indexado.
+     * @return A representação compacta.
+     */
+    public static GrafoCompacto de(GrafoIndexado origem) {
+        int n = origem.numeroVertices();
+        int[] inicio = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] = inicio[v] + origem.grau(v);
+        }
+        int[] destinos = new int[inicio[n]];
+        int[] pesos = new int[inicio[n]];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            origem.vizinhos(v, destinos, inicio[v]);
+            origem.pesos(v, pesos, inicio[v]);
+        });
+        int[] indiceAresta = new int[destinos.length];
+        for (int a = 0; a < indiceAresta.length; a++) {
+            indiceAresta[a] = a;
+        }
+        String[] rotulos = new String[n];
+        for (int v = 0; v < n; v++) {
+            rotulos[v] = origem.getRotulo(v);
+        }
+        return new GrafoCompacto(inicio, destinos, pesos, indiceAresta, rotulos);
+    }
+
+    /**
+     * Constrói a representação compacta de um grafo. Os vértices são numerados
+     * na ordem de iteração de {@link Grafo#getVertices()}.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @return A representação compacta.
+     */
+    public static GrafoCompacto de(Grafo grafo) {
+        int n = grafo.getVertices().size();
+        String[] rotulos = new String[n];
+        HashMap<Vertice, Integer> indices = new HashMap<>(n * 2);
+        for (Vertice vertice : grafo.getVertices().values()) {
+            rotulos[indices.size()] = vertice.valor;
+            indices.put(vertice, indices.size());
+        }
+
+        List<Aresta> arestas = grafo.getArestas();
+        int m = arestas.size();
+        int[] origem = new int[m];
+        int[] inicio = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            origem[i] = indices.get(arestas.get(i).u);
+            inicio[origem[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] += inicio[v];
+        }
+
+        int[] posicao = new int[n];
+        System.arraycopy(inicio, 0, posicao, 0, n);
+        int[] destinos = new int[m];
+        int[] pesos = new int[m];
+        int[] indiceAresta = new int[m];
+        for (int i = 0; i < m; i++) {
+            Aresta aresta = arestas.get(i);
+            int arco = posicao[origem[i]]++;
+            destinos[arco] = indices.get(aresta.v);
+            pesos[arco] = aresta.peso;
+            indiceAresta[arco] = i;
+        }
+        return new GrafoCompacto(inicio, destinos, pesos, indiceAresta, rotulos);
+    }
+
+    /**
+     * Cria uma cópia com os vértices renumerados. Os rótulos acompanham os
+     * vértices, então consultas por rótulo continuam dando o mesmo resultado, e
+     * cada arco mantém o índice da sua aresta.
+     *
+     * @param ordem
+     *            {@code ordem[novo] = antigo}, como em {@link Reordenacao}.
+     * @return O grafo renumerado.
+     */
+    public GrafoCompacto reordenar(int[] ordem) {
+        int n = numeroVertices();
+        int[] posicao = Reordenacao.inverter(ordem);
+        int[] novoInicio = new int[n + 1];
+        int[] novosDestinos = new int[destinos.length];
+        int[] novosPesos = new int[pesos.length];
+        int[] novoIndiceAresta = new int[indiceAresta.length];
+        String[] novosRotulos = new String[n];
+        int arco = 0;
+        for (int novo = 0; novo < n; novo++) {
+            int antigo = ordem[novo];
+            novosRotulos[novo] = rotulos[antigo];
+            novoInicio[novo] = arco;
+            for (int i = inicio[antigo]; i < inicio[antigo + 1]; i++, arco++) {
+                novosDestinos[arco] = posicao[destinos[i]];
+                novosPesos[arco] = pesos[i];
+                novoIndiceAresta[arco] = indiceAresta[i];
+            }
+        }
+        novoInicio[n] = arco;
+        return new GrafoCompacto(novoInicio, novosDestinos, novosPesos, novoIndiceAresta, novosRotulos);
+    }
+
+    @Override
+    public int numeroVertices() {
+        return rotulos.length;
+    }
+
+    @Override
+    public long numeroArcos() {
+        return destinos.length;
+    }
+
+    @Override
+    public int grau(int v) {
+        return inicio[v + 1] - inicio[v];
+    }
+
+    @Override
+    public int vizinhos(int v, int[] destino, int deslocamento) {
+        int grau = grau(v);
+        System.arraycopy(destinos, inicio[v], destino, deslocamento, grau);
+        return grau;
+    }
+
+    @Override
+    public int pesos(int v, int[] destino, int deslocamento) {
+        int grau = grau(v);
+        System.arraycopy(pesos, inicio[v], destino, deslocamento, grau);
+        return grau;
+    }
+
+    @Override
+    public String getRotulo(int v) {
+        return rotulos[v];
+    }
+
+    @Override
+    public int indiceDe(String rotulo) {
+        Integer indice = indices.get(rotulo);
+        return indice == null ? -1 : indice;
+    }
+
+    /**
+     * @return Vetor com o grau de saída de cada vértice.
+     */
+    public int[] grausSaida() {
+        int n = numeroVertices();
+        int[] graus = new int[n];
+        for (int v = 0; v < n; v++) {
+            graus[v] = grau(v);
+        }
+        return graus;
+    }
+
+    /**
+     * @return Vetor com o grau de entrada de cada vértice.
+     */
+    public int[] grausEntrada() {
+        int[] graus = new int[numeroVertices()];
+        for (int destino : destinos) {
+            graus[destino]++;
+        }
+        return graus;
+    }
+
+    /**
+     * Reordena valores indexados por aresta (como as colunas de
+     * {@link AtributosAresta}) para a ordem dos arcos.
+     *
+     * @param porAresta
+     *            Um valor por índice de aresta.
+     * @return {@code porArco[a] = porAresta[indiceAresta[a]]}.
+     */
+    public int[] porArco(int[] porAresta) {
+        int[] porArco = new int[destinos.length];
+        for (int a = 0; a < porArco.length; a++) {
+            porArco[a] = porAresta[indiceAresta[a]];
+        }
+        return porArco;
+    }
+
+    /** @see #porArco(int[]) */
+    public long[] porArco(long[] porAresta) {
+        long[] porArco = new long[destinos.length];
+        for (int a = 0; a < porArco.length; a++) {
+            porArco[a] = porAresta[indiceAresta[a]];
+        }
+        return porArco;
+    }
+
+    /** @see #porArco(int[]) */
+    public double[] porArco(double[] porAresta) {
+        double[] porArco = new double[destinos.length];
+        for (int a = 0; a < porArco.length; a++) {
+            porArco[a] = porAresta[indiceAresta[a]];
+        }
+        return porArco;
+    }
+
+    /**
+     * @return Estimativa, em bytes, da memória ocupada pela representação.
+     */
+    public long tamanhoEstimado() {
+        long vetores = 4L * (inicio.length + 3L * destinos.length) + 8L * rotulos.length;
+        long mapa = 48L * rotulos.length; // Entradas do HashMap de índices
+        return vetores + mapa;
+    }
+}
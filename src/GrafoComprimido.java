@@ -0,0 +1,424 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Grafo com listas de adjacência comprimidas, no estilo do WebGraph.
+ *
+ * Cada lista é ordenada e gravada como uma sequência de bytes:
+ * <ol>
+ * <li>o grau, em varint;</li>
+ * <li>a referência r: 0 se a lista não é copiada de outra, ou a distância para
+ * um dos {@value #JANELA} vértices anteriores cuja lista é parecida;</li>
+ * <li>com referência, os trechos copiados e pulados da lista de referência,
+ * como comprimentos alternados (começando por um trecho copiado);</li>
+ * <li>os vizinhos restantes (resíduos): o primeiro como diferença para v e os
+ * seguintes como diferença para o anterior (gaps), todos em varint;</li>
+ * <li>se o grafo for ponderado, os pesos na ordem da lista, em varint.</li>
+ * </ol>
+ * A cadeia de referências é limitada a {@value #PROFUNDIDADE_MAXIMA} níveis,
+ * o que limita o custo de decodificar uma lista. A decodificação acontece
+ * apenas quando os vizinhos de um vértice são pedidos, e os buffers usados são
+ * reaproveitados por thread.
+ *
+ * Observação: a ordem dos vizinhos passa a ser crescente pelo índice, e não a
+ * ordem original das arestas.
+ */
+public class GrafoComprimido implements GrafoIndexado {
+    static final int JANELA = 7;
+    static final int PROFUNDIDADE_MAXIMA = 3;
+    private static final int BITS_BLOCO = 30;
+    private static final long MASCARA = (1L << BITS_BLOCO) - 1;
+
+    private final String[] rotulos;
+    private final HashMap<String, Integer> indices;
+    private final long[] posicoes;
+    private final byte[][] blocos;
+    private final long numeroArcos;
+    private final boolean ponderado;
+    private final int grauMaximo;
+    private final ThreadLocal<int[][]> rascunho;
+
+    private GrafoComprimido(String[] rotulos, long[] posicoes, byte[][] blocos, long numeroArcos, boolean ponderado,
+            int grauMaximo) {
+        this.rotulos = rotulos;
+        this.posicoes = posicoes;
+        this.blocos = blocos;
+        this.numeroArcos = numeroArcos;
+        this.ponderado = ponderado;
+        this.grauMaximo = grauMaximo;
+        this.indices = new HashMap<>(rotulos.length * 2);
+        for (int i = 0; i < rotulos.length; i++) {
+            indices.put(rotulos[i], i);
+        }
+        // Por nível da cadeia de referências: lista de referência, lista atual e pesos
+        this.rascunho = ThreadLocal.withInitial(() -> new int[2 * PROFUNDIDADE_MAXIMA + 3][Math.max(1, grauMaximo)]);
+    }
+
+    /**
+     * Comprime um grafo indexado qualquer.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @return O grafo comprimido.
+     */
+    public static GrafoComprimido de(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int grauMaximo = grafo.grauMaximo();
+        int[] buffer = new int[Math.max(1, grauMaximo)];
+        int[] bufferPesos = new int[Math.max(1, grauMaximo)];
+
+        boolean ponderado = false;
+        for (int v = 0; v < n && !ponderado; v++) {
+            int grau = grafo.pesos(v, bufferPesos, 0);
+            for (int i = 0; i < grau && !ponderado; i++) {
+                ponderado = bufferPesos[i] != 1;
+            }
+        }
+
+        // Listas dos últimos JANELA vértices, para escolher a referência
+        int[][] janela = new int[JANELA + 1][];
+        int[] profundidade = new int[n];
+        Escritor escritor = new Escritor();
+        long[] posicoes = new long[n + 1];
+        boolean[] copiado = new boolean[Math.max(1, grauMaximo)];
+        long[] pares = new long[Math.max(1, grauMaximo)];
+
+        for (int v = 0; v < n; v++) {
+            posicoes[v] = escritor.tamanho;
+            int grau = grafo.vizinhos(v, buffer, 0);
+            grafo.pesos(v, bufferPesos, 0);
+            for (int i = 0; i < grau; i++) {
+                pares[i] = ((long) buffer[i] << 32) | (bufferPesos[i] & 0xffffffffL);
+            }
+            Arrays.sort(pares, 0, grau);
+            int[] lista = new int[grau];
+            int[] pesos = new int[grau];
+            for (int i = 0; i < grau; i++) {
+                lista[i] = (int) (pares[i] >>> 32);
+                pesos[i] = (int) pares[i];
+            }
+
+            // Escolhe a lista anterior com mais vizinhos em comum
+            int melhorReferencia = 0;
+            int melhorComum = 0;
+            for (int r = 1; r <= JANELA && r <= v; r++) {
+                int[] candidata = janela[(v - r) % (JANELA + 1)];
+                if (profundidade[v - r] >= PROFUNDIDADE_MAXIMA || candidata.length == 0) {
+                    continue;
+                }
+                int comum = contarComuns(lista, candidata);
+                if (comum > melhorComum) {
+                    melhorComum = comum;
+                    melhorReferencia = r;
+                }
+            }
+            // Uma referência só compensa se economiza mais do que custa descrever
+            if (melhorComum < 2) {
+                melhorReferencia = 0;
+            }
+
+            escritor.varint(grau);
+            if (grau > 0) {
+                escritor.varint(melhorReferencia);
+                int[] residuos = lista;
+                int quantidadeResiduos = grau;
+                if (melhorReferencia > 0) {
+                    profundidade[v] = profundidade[v - melhorReferencia] + 1;
+                    int[] referencia = janela[(v - melhorReferencia) % (JANELA + 1)];
+                    quantidadeResiduos = escreverCopia(escritor, lista, referencia, copiado);
+                    residuos = new int[quantidadeResiduos];
+                    int k = 0;
+                    for (int i = 0, j = 0; i < grau; i++) {
+                        // Marca quais elementos da lista foram copiados
+                        while (j < referencia.length && referencia[j] < lista[i]) {
+                            j++;
+                        }
+                        if (j < referencia.length && referencia[j] == lista[i] && copiado[j]) {
+                            j++;
+                        } else {
+                            residuos[k++] = lista[i];
+                        }
+                    }
+                }
+                if (quantidadeResiduos > 0) {
+                    escritor.varint(zigzag((long) residuos[0] - v));
+                    for (int i = 1; i < quantidadeResiduos; i++) {
+                        escritor.varint(residuos[i] - residuos[i - 1]);
+                    }
+                }
+                if (ponderado) {
+                    for (int i = 0; i < grau; i++) {
+                        escritor.varint(zigzag(pesos[i]));
+                    }
+                }
+            }
+            janela[v % (JANELA + 1)] = lista;
+        }
+        posicoes[n] = escritor.tamanho;
+
+        String[] rotulos = new String[n];
+        for (int v = 0; v < n; v++) {
+            rotulos[v] = grafo.getRotulo(v);
+        }
+        return new GrafoComprimido(rotulos, posicoes, escritor.finalizar(), grafo.numeroArcos(), ponderado,
+                grauMaximo);
+    }
+
+    private static int contarComuns(int[] a, int[] b) {
+        int comum = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                comum++;
+                i++;
+                j++;
+            }
+        }
+        return comum;
+    }
+
+    /**
+     * Escreve os trechos copiados/pulados da referência e marca em
+     * {@code copiado} os elementos da referência presentes na lista.
+     *
+     * @return Quantidade de elementos da lista que não vieram da referência.
+     */
+    private static int escreverCopia(Escritor escritor, int[] lista, int[] referencia, boolean[] copiado) {
+        int copiados = 0;
+        for (int i = 0, j = 0; j < referencia.length; j++) {
+            while (i < lista.length && lista[i] < referencia[j]) {
+                i++;
+            }
+            copiado[j] = i < lista.length && lista[i] == referencia[j];
+            if (copiado[j]) {
+                i++;
+                copiados++;
+            }
+        }
+        // Trechos alternados, começando por um trecho copiado (que pode ser vazio).
+        // O último trecho não é escrito: é o restante da referência.
+        int trechos = 0;
+        boolean estadoAtual = true;
+        for (int j = 0; j < referencia.length; j++) {
+            if (copiado[j] != estadoAtual) {
+                trechos++;
+                estadoAtual = !estadoAtual;
+            }
+        }
+        escritor.varint(trechos);
+        estadoAtual = true;
+        int comprimento = 0;
+        for (int j = 0; j < referencia.length; j++) {
+            if (copiado[j] != estadoAtual) {
+                escritor.varint(comprimento);
+                comprimento = 0;
+                estadoAtual = !estadoAtual;
+            }
+            comprimento++;
+        }
+        return lista.length - copiados;
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long desfazerZigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    /**
+     * Acumula bytes em blocos de 1 GiB.
+     */
+    private static class Escritor {
+        private byte[][] blocos = new byte[1][1 << 16];
+        long tamanho = 0;
+
+        void varint(long valor) {
+            while ((valor & ~0x7FL) != 0) {
+                escreverByte((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            escreverByte((int) valor);
+        }
+
+        private void escreverByte(int b) {
+            int bloco = (int) (tamanho >>> BITS_BLOCO);
+            int posicao = (int) (tamanho & MASCARA);
+            if (bloco == blocos.length) {
+                blocos = Arrays.copyOf(blocos, blocos.length + 1);
+                blocos[bloco] = new byte[1 << 16];
+            }
+            if (posicao == blocos[bloco].length) {
+                blocos[bloco] = Arrays.copyOf(blocos[bloco], (int) Math.min(1L << BITS_BLOCO, 2L * posicao));
+            }
+            blocos[bloco][posicao] = (byte) b;
+            tamanho++;
+        }
+
+        byte[][] finalizar() {
+            int ultimo = (int) (tamanho >>> BITS_BLOCO);
+            if (ultimo < blocos.length) {
+                blocos[ultimo] = Arrays.copyOf(blocos[ultimo], (int) (tamanho & MASCARA));
+            }
+            return blocos;
+        }
+    }
+
+    /**
+     * Leitor de varints a partir de uma posição.
+     */
+    private final class Leitor {
+        long posicao;
+
+        Leitor(long posicao) {
+            this.posicao = posicao;
+        }
+
+        long varint() {
+            long valor = 0;
+            int deslocamento = 0;
+            while (true) {
+                byte b = blocos[(int) (posicao >>> BITS_BLOCO)][(int) (posicao & MASCARA)];
+                posicao++;
+                valor |= (long) (b & 0x7F) << deslocamento;
+                if (b >= 0) {
+                    return valor;
+                }
+                deslocamento += 7;
+            }
+        }
+    }
+
+    /**
+     * Decodifica a lista de v em destino, a partir de deslocamento.
+     *
+     * @param pesosDestino
+     *            Recebe os pesos, ou null para ignorá-los.
+     * @param nivel
+     *            Nível na cadeia de referências, para escolher os buffers.
+     * @return O grau de v.
+     */
+    private int decodificar(int v, int[] destino, int deslocamento, int[] pesosDestino, int pesosDeslocamento,
+            int nivel) {
+        Leitor leitor = new Leitor(posicoes[v]);
+        int grau = (int) leitor.varint();
+        if (grau == 0) {
+            return 0;
+        }
+        int referencia = (int) leitor.varint();
+        int[][] buffers = rascunho.get();
+        int[] copiados = buffers[2 * nivel];
+        int quantidadeCopiados = 0;
+
+        if (referencia > 0) {
+            int[] listaReferencia = buffers[2 * nivel + 1];
+            int tamanhoReferencia = decodificar(v - referencia, listaReferencia, 0, null, 0, nivel + 1);
+            int trechos = (int) leitor.varint();
+            int j = 0;
+            boolean copiando = true;
+            for (int t = 0; t < trechos; t++) {
+                int comprimento = (int) leitor.varint();
+                if (copiando) {
+                    System.arraycopy(listaReferencia, j, copiados, quantidadeCopiados, comprimento);
+                    quantidadeCopiados += comprimento;
+                }
+                j += comprimento;
+                copiando = !copiando;
+            }
+            if (copiando) {
+                int resto = tamanhoReferencia - j;
+                System.arraycopy(listaReferencia, j, copiados, quantidadeCopiados, resto);
+                quantidadeCopiados += resto;
+            }
+        }
+
+        // Intercala os copiados (ordenados) com os resíduos (ordenados)
+        int quantidadeResiduos = grau - quantidadeCopiados;
+        int i = 0;
+        int escrito = deslocamento;
+        long anterior = 0;
+        for (int r = 0; r < quantidadeResiduos; r++) {
+            long residuo = r == 0 ? v + desfazerZigzag(leitor.varint()) : anterior + leitor.varint();
+            while (i < quantidadeCopiados && copiados[i] <= residuo) {
+                destino[escrito++] = copiados[i++];
+            }
+            destino[escrito++] = (int) residuo;
+            anterior = residuo;
+        }
+        while (i < quantidadeCopiados) {
+            destino[escrito++] = copiados[i++];
+        }
+
+        if (pesosDestino != null) {
+            for (int k = 0; k < grau; k++) {
+                pesosDestino[pesosDeslocamento + k] = ponderado ? (int) desfazerZigzag(leitor.varint()) : 1;
+            }
+        }
+        return grau;
+    }
+
+    @Override
+    public int numeroVertices() {
+        return rotulos.length;
+    }
+
+    @Override
+    public long numeroArcos() {
+        return numeroArcos;
+    }
+
+    @Override
+    public int grau(int v) {
+        return (int) new Leitor(posicoes[v]).varint();
+    }
+
+    @Override
+    public int grauMaximo() {
+        return grauMaximo;
+    }
+
+    @Override
+    public int vizinhos(int v, int[] destino, int deslocamento) {
+        return decodificar(v, destino, deslocamento, null, 0, 0);
+    }
+
+    @Override
+    public int pesos(int v, int[] destino, int deslocamento) {
+        if (!ponderado) {
+            int grau = grau(v);
+            Arrays.fill(destino, deslocamento, deslocamento + grau, 1);
+            return grau;
+        }
+        int[] vizinhos = rascunho.get()[2 * PROFUNDIDADE_MAXIMA + 2];
+        return decodificar(v, vizinhos, 0, destino, deslocamento, 0);
+    }
+
+    @Override
+    public String getRotulo(int v) {
+        return rotulos[v];
+    }
+
+    @Override
+    public int indiceDe(String rotulo) {
+        Integer indice = indices.get(rotulo);
+        return indice == null ? -1 : indice;
+    }
+
+    /**
+     * @return Bytes usados pelas listas comprimidas (sem rótulos e posições).
+     */
+    public long tamanhoComprimido() {
+        return posicoes[posicoes.length - 1];
+    }
+
+    /**
+     * @return Média de bits por arco nas listas comprimidas.
+     */
+    public double bitsPorArco() {
+        return numeroArcos == 0 ? 0 : 8.0 * tamanhoComprimido() / numeroArcos;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Grafo com vértices numerados de 0 a n-1, acessado apenas por índices.
+ *
+ * É a interface comum das representações sem um objeto por vértice ou por
+ * aresta ({@link GrafoCompacto}, {@link GrafoOffHeap}), permitindo que os
+ * algoritmos de {@link AlgoritmosIndexados} rodem sobre qualquer uma delas.
+ * Os arcos seguem a convenção do arquivo de entrada: um grafo não direcionado
+ * tem cada aresta nos dois sentidos.
+ */
+public interface GrafoIndexado {
+    int numeroVertices();
+
+    long numeroArcos();
+
+    /**
+     * @param v
+     *            Índice do vértice.
+     * @return Quantidade de arcos que saem de v.
+     */
+    int grau(int v);
+
+    /**
+     * Copia os destinos dos arcos que saem de v.
+     *
+     * @param v
+     *            Índice do vértice.
+     * @param destino
+     *            Vetor que recebe os índices; deve ter espaço para
+     *            {@code grau(v)} elementos a partir do deslocamento.
+     * @param deslocamento
+     *            Primeira posição escrita.
+     * @return Quantidade de vizinhos copiados (o grau de v).
+     */
+    int vizinhos(int v, int[] destino, int deslocamento);
+
+    /**
+     * Copia os pesos dos arcos que saem de v, na mesma ordem de
+     * {@link #vizinhos(int, int[], int)}.
+     *
+     * @param v
+     *            Índice do vértice.
+     * @param destino
+     *            Vetor que recebe os pesos.
+     * @param deslocamento
+     *            Primeira posição escrita.
+     * @return Quantidade de pesos copiados (o grau de v).
+     */
+    int pesos(int v, int[] destino, int deslocamento);
+
+    String getRotulo(int v);
+
+    /**
+     * @param rotulo
+     *            Rótulo do vértice.
+     * @return O índice do vértice, ou -1 se não existir.
+     */
+    int indiceDe(String rotulo);
+
+    /**
+     * @return O maior grau de saída do grafo.
+     */
+    default int grauMaximo() {
+        int maximo = 0;
+        for (int v = 0; v < numeroVertices(); v++) {
+            maximo = Math.max(maximo, grau(v));
+        }
+        return maximo;
+    }
+}
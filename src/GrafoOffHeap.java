@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Grafo com os arcos guardados fora do heap, no mesmo layout CSR de
+ * {@link GrafoCompacto}: deslocamentos (long por vértice), destinos e pesos
+ * (int por arco).
+ *
+ * No heap ficam apenas os rótulos e o mapa de rótulo para índice, então o uso
+ * de heap depende só da quantidade de vértices. Os arcos podem ficar em
+ * memória direta ou em um arquivo mapeado, para grafos maiores que a memória
+ * disponível. Se todos os pesos forem 1, o vetor de pesos não é criado.
+ *
+ * A memória é liberada quando o objeto deixa de ser referenciado; o arquivo
+ * mapeado é apenas área de trabalho e pode ser apagado depois disso.
+ */
+public class GrafoOffHeap implements GrafoIndexado {
+    private final String[] rotulos;
+    private final HashMap<String, Integer> indices;
+    private final SegmentoOffHeap inicio;
+    private final SegmentoOffHeap destinos;
+    private final SegmentoOffHeap pesos;
+    private final long numeroArcos;
+
+    private GrafoOffHeap(String[] rotulos, HashMap<String, Integer> indices, SegmentoOffHeap inicio,
+            SegmentoOffHeap destinos, SegmentoOffHeap pesos, long numeroArcos) {
+        this.rotulos = rotulos;
+        this.indices = indices;
+        this.inicio = inicio;
+        this.destinos = destinos;
+        this.pesos = pesos;
+        this.numeroArcos = numeroArcos;
+    }
+
+    /**
+     * Lê um arquivo no formato de {@link LeituraEscrita} direto para fora do
+     * heap, sem criar objetos por aresta. O arquivo é percorrido duas vezes: a
+     * primeira conta os graus e a segunda preenche os arcos.
+     *
+     * @param arquivo
+     *            Caminho do arquivo do grafo.
+     * @param mapeado
+     *            Arquivo usado como armazenamento dos arcos, ou null para usar
+     *            memória direta.
+     * @return O grafo carregado.
+     * @throws IOException
+     *             Se ocorrer um erro de leitura, de formato ou de mapeamento.
+     */
+    public static GrafoOffHeap carregar(String arquivo, Path mapeado) throws IOException {
+        List<String> listaRotulos = new ArrayList<>();
+        HashMap<String, Integer> indices = new HashMap<>();
+        int[][] graus = new int[1][];
+        long[] contagem = new long[1];
+        boolean[] ponderado = new boolean[1];
+
+        LeituraEscrita.percorrerArquivo(arquivo, new LeituraEscrita.OuvinteLeitura() {
+            @Override
+            public void vertice(String rotulo) {
+                indices.put(rotulo, listaRotulos.size());
+                listaRotulos.add(rotulo);
+            }
+
+            @Override
+            public void aresta(String[] campos, int quantidade) throws IOException {
+                if (graus[0] == null) {
+                    graus[0] = new int[listaRotulos.size()];
+                }
+                graus[0][indice(indices, campos[0])]++;
+                indice(indices, campos[1]);
+                if (quantidade >= 3 && Integer.parseInt(campos[2]) != 1) {
+                    ponderado[0] = true;
+                }
+                contagem[0]++;
+            }
+        });
+
+        int n = listaRotulos.size();
+        long m = contagem[0];
+        int[] grau = graus[0] == null ? new int[n] : graus[0];
+        SegmentoOffHeap[] segmentos = reservar(n, m, ponderado[0], mapeado);
+        SegmentoOffHeap inicio = segmentos[0];
+        SegmentoOffHeap destinos = segmentos[1];
+        SegmentoOffHeap pesos = segmentos[2];
+
+        // Cada vértice começa a ser preenchido no seu deslocamento
+        long[] posicao = new long[n];
+        long acumulado = 0;
+        for (int v = 0; v < n; v++) {
+            inicio.putLong(8L * v, acumulado);
+            posicao[v] = acumulado;
+            acumulado += grau[v];
+        }
+        inicio.putLong(8L * n, acumulado);
+
+        LeituraEscrita.percorrerArquivo(arquivo, new LeituraEscrita.OuvinteLeitura() {
+            @Override
+            public void vertice(String rotulo) {
+            }
+
+            @Override
+            public void aresta(String[] campos, int quantidade) throws IOException {
+                int u = indice(indices, campos[0]);
+                long arco = posicao[u]++;
+                destinos.putInt(4L * arco, indice(indices, campos[1]));
+                if (pesos != null) {
+                    pesos.putInt(4L * arco, quantidade >= 3 ? Integer.parseInt(campos[2]) : 1);
+                }
+            }
+        });
+
+        return new GrafoOffHeap(listaRotulos.toArray(new String[0]), indices, inicio, destinos, pesos, m);
+    }
+
+    /**
+     * Copia qualquer grafo indexado para fora do heap.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param mapeado
+     *            Arquivo usado como armazenamento dos arcos, ou null para usar
+     *            memória direta.
+     * @return A cópia fora do heap.
+     * @throws IOException
+     *             Se o mapeamento falhar.
+     */
+    public static GrafoOffHeap de(GrafoIndexado grafo, Path mapeado) throws IOException {
+        int n = grafo.numeroVertices();
+        int[] buffer = new int[Math.max(1, grafo.grauMaximo())];
+        boolean ponderado = false;
+        for (int v = 0; v < n && !ponderado; v++) {
+            int grau = grafo.pesos(v, buffer, 0);
+            for (int i = 0; i < grau; i++) {
+                if (buffer[i] != 1) {
+                    ponderado = true;
+                    break;
+                }
+            }
+        }
+
+        SegmentoOffHeap[] segmentos = reservar(n, grafo.numeroArcos(), ponderado, mapeado);
+        String[] rotulos = new String[n];
+        HashMap<String, Integer> indices = new HashMap<>(n * 2);
+        long arco = 0;
+        for (int v = 0; v < n; v++) {
+            rotulos[v] = grafo.getRotulo(v);
+            indices.put(rotulos[v], v);
+            segmentos[0].putLong(8L * v, arco);
+            int grau = grafo.vizinhos(v, buffer, 0);
+            for (int i = 0; i < grau; i++) {
+                segmentos[1].putInt(4L * (arco + i), buffer[i]);
+            }
+            if (ponderado) {
+                grafo.pesos(v, buffer, 0);
+                for (int i = 0; i < grau; i++) {
+                    segmentos[2].putInt(4L * (arco + i), buffer[i]);
+                }
+            }
+            arco += grau;
+        }
+        segmentos[0].putLong(8L * n, arco);
+        return new GrafoOffHeap(rotulos, indices, segmentos[0], segmentos[1], segmentos[2], arco);
+    }
+
+    private static int indice(HashMap<String, Integer> indices, String rotulo) throws IOException {
+        Integer indice = indices.get(rotulo);
+        if (indice == null) {
+            throw new IOException("Aresta com vértice que não está em V: " + rotulo);
+        }
+        return indice;
+    }
+
+    /**
+     * Reserva as regiões de deslocamentos, destinos e pesos (esta última só se
+     * o grafo for ponderado), em memória direta ou em regiões alinhadas de um
+     * arquivo.
+     */
+    private static SegmentoOffHeap[] reservar(int n, long m, boolean ponderado, Path mapeado) throws IOException {
+        long bytesInicio = 8L * (n + 1);
+        long bytesArcos = 4L * m;
+        if (mapeado == null) {
+            return new SegmentoOffHeap[] { SegmentoOffHeap.alocar(bytesInicio), SegmentoOffHeap.alocar(bytesArcos),
+                    ponderado ? SegmentoOffHeap.alocar(bytesArcos) : null };
+        }
+        long posicaoDestinos = alinhar(bytesInicio);
+        long posicaoPesos = alinhar(posicaoDestinos + bytesArcos);
+        // O mapeamento permanece válido depois que o canal é fechado
+        try (FileChannel canal = FileChannel.open(mapeado, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return new SegmentoOffHeap[] { SegmentoOffHeap.mapear(canal, 0, bytesInicio),
+                    SegmentoOffHeap.mapear(canal, posicaoDestinos, bytesArcos),
+                    ponderado ? SegmentoOffHeap.mapear(canal, posicaoPesos, bytesArcos) : null };
+        }
+    }
+
+    private static long alinhar(long posicao) {
+        return (posicao + 7) & ~7L;
+    }
+
+    /**
+     * Cria um {@link Grafo} comum com o mesmo conteúdo, para usar os algoritmos
+     * que ainda trabalham com objetos. Só é viável para grafos que cabem no
+     * heap.
+     *
+     * @return O grafo materializado.
+     */
+    public Grafo paraGrafo() {
+        int n = numeroVertices();
+        Vertice[] vertices = new Vertice[n];
+        HashMap<String, Vertice> mapa = new HashMap<>(n * 2);
+        for (int v = 0; v < n; v++) {
+            vertices[v] = new Vertice(rotulos[v]);
+            mapa.put(rotulos[v], vertices[v]);
+        }
+        List<Aresta> arestas = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, numeroArcos));
+        for (int v = 0; v < n; v++) {
+            long fim = primeiroArco(v + 1);
+            for (long arco = primeiroArco(v); arco < fim; arco++) {
+                Vertice destino = vertices[destinos.getInt(4L * arco)];
+                vertices[v].adjacencia.add(destino);
+                arestas.add(new Aresta(vertices[v], destino, peso(arco)));
+            }
+        }
+        return new Grafo(mapa, arestas);
+    }
+
+    private long primeiroArco(int v) {
+        return inicio.getLong(8L * v);
+    }
+
+    private int peso(long arco) {
+        return pesos == null ? 1 : pesos.getInt(4L * arco);
+    }
+
+    @Override
+    public int numeroVertices() {
+        return rotulos.length;
+    }
+
+    @Override
+    public long numeroArcos() {
+        return numeroArcos;
+    }
+
+    @Override
+    public int grau(int v) {
+        return (int) (primeiroArco(v + 1) - primeiroArco(v));
+    }
+
+    @Override
+    public int vizinhos(int v, int[] destino, int deslocamento) {
+        long primeiro = primeiroArco(v);
+        int grau = (int) (primeiroArco(v + 1) - primeiro);
+        for (int i = 0; i < grau; i++) {
+            destino[deslocamento + i] = destinos.getInt(4L * (primeiro + i));
+        }
+        return grau;
+    }
+
+    @Override
+    public int pesos(int v, int[] destino, int deslocamento) {
+        long primeiro = primeiroArco(v);
+        int grau = (int) (primeiroArco(v + 1) - primeiro);
+        for (int i = 0; i < grau; i++) {
+            destino[deslocamento + i] = peso(primeiro + i);
+        }
+        return grau;
+    }
+
+    @Override
+    public String getRotulo(int v) {
+        return rotulos[v];
+    }
+
+    @Override
+    public int indiceDe(String rotulo) {
+        Integer indice = indices.get(rotulo);
+        return indice == null ? -1 : indice;
+    }
+}
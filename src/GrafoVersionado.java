@@ -0,0 +1,541 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Grafo atualizado em lotes por um escritor enquanto vários leitores consultam
+ * versões imutáveis, sem travas no caminho de leitura.
+ *
+ * Cada versão é um {@link Instantaneo}, que implementa {@link GrafoIndexado}
+ * e nunca muda depois de publicado; qualquer algoritmo indexado pode rodar
+ * sobre ele em qualquer thread. As listas de adjacência ficam em blocos de
+ * {@value #TAMANHO_BLOCO} vértices: aplicar um {@link Lote} copia só os blocos
+ * dos vértices alterados (e o vetor de referências para os blocos), e os
+ * demais são compartilhados com a versão anterior. A nova versão é publicada
+ * de uma vez por uma {@link AtomicReference}, então um leitor vê a versão
+ * antiga ou a nova inteira, nunca um estado intermediário.
+ *
+ * Os índices dos vértices são estáveis entre versões. Um vértice removido
+ * continua ocupando o seu índice, sem arcos, e {@link Instantaneo#indiceDe}
+ * deixa de encontrá-lo; adicionar de novo o mesmo rótulo reaproveita o índice.
+ */
+public class GrafoVersionado {
+    /** Vértices por bloco de adjacência. */
+    public static final int TAMANHO_BLOCO = 256;
+    private static final int BITS_BLOCO = 8;
+    private static final int MASCARA_BLOCO = TAMANHO_BLOCO - 1;
+    private static final int[] VAZIO = new int[0];
+
+    /**
+     * Listas de adjacência de {@value #TAMANHO_BLOCO} vértices consecutivos.
+     * Depois de publicado, um bloco não é mais alterado.
+     */
+    private static final class Bloco {
+        final int[][] vizinhos = new int[TAMANHO_BLOCO][];
+        final int[][] pesos = new int[TAMANHO_BLOCO][];
+        final boolean[] removidos = new boolean[TAMANHO_BLOCO];
+
+        Bloco() {
+            Arrays.fill(vizinhos, VAZIO);
+            Arrays.fill(pesos, VAZIO);
+        }
+
+        Bloco copiar() {
+            Bloco copia = new Bloco();
+            System.arraycopy(vizinhos, 0, copia.vizinhos, 0, TAMANHO_BLOCO);
+            System.arraycopy(pesos, 0, copia.pesos, 0, TAMANHO_BLOCO);
+            System.arraycopy(removidos, 0, copia.removidos, 0, TAMANHO_BLOCO);
+            return copia;
+        }
+    }
+
+    /**
+     * Uma versão imutável do grafo.
+     */
+    public static final class Instantaneo implements GrafoIndexado {
+        private final Bloco[] blocos;
+        private final String[][] rotulos;
+        private final Map<String, Integer> indices;
+        private final int n;
+        private final long arcos;
+        private final long versao;
+
+        private Instantaneo(Bloco[] blocos, String[][] rotulos, Map<String, Integer> indices, int n, long arcos,
+                long versao) {
+            this.blocos = blocos;
+            this.rotulos = rotulos;
+            this.indices = indices;
+            this.n = n;
+            this.arcos = arcos;
+            this.versao = versao;
+        }
+
+        /**
+         * @return Número da versão, começando em 0 e somando 1 a cada lote.
+         */
+        public long getVersao() {
+            return versao;
+        }
+
+        @Override
+        public int numeroVertices() {
+            return n;
+        }
+
+        @Override
+        public long numeroArcos() {
+            return arcos;
+        }
+
+        @Override
+        public int grau(int v) {
+            return blocos[v >>> BITS_BLOCO].vizinhos[v & MASCARA_BLOCO].length;
+        }
+
+        @Override
+        public int vizinhos(int v, int[] destino, int deslocamento) {
+            int[] lista = blocos[v >>> BITS_BLOCO].vizinhos[v & MASCARA_BLOCO];
+            System.arraycopy(lista, 0, destino, deslocamento, lista.length);
+            return lista.length;
+        }
+
+        @Override
+        public int pesos(int v, int[] destino, int deslocamento) {
+            int[] lista = blocos[v >>> BITS_BLOCO].pesos[v & MASCARA_BLOCO];
+            System.arraycopy(lista, 0, destino, deslocamento, lista.length);
+            return lista.length;
+        }
+
+        @Override
+        public String getRotulo(int v) {
+            return rotulos[v >>> BITS_BLOCO][v & MASCARA_BLOCO];
+        }
+
+        @Override
+        public int indiceDe(String rotulo) {
+            Integer indice = indices.get(rotulo);
+            return indice == null || indice >= n || isRemovido(indice) ? -1 : indice;
+        }
+
+        /**
+         * @return true se o vértice foi removido nesta versão.
+         */
+        public boolean isRemovido(int v) {
+            return blocos[v >>> BITS_BLOCO].removidos[v & MASCARA_BLOCO];
+        }
+
+        /**
+         * @return Cópia desta versão como um {@link Grafo} independente, sem
+         *         os vértices removidos.
+         */
+        public Grafo paraGrafo() {
+            return Grafo.de(this, v -> !isRemovido(v));
+        }
+    }
+
+    /**
+     * Alterações aplicadas juntas, em ordem, por {@link #aplicar(Lote)}.
+     */
+    public static class Lote {
+        private static final byte ADICIONAR_VERTICE = 0;
+        private static final byte REMOVER_VERTICE = 1;
+        private static final byte ADICIONAR_ARCO = 2;
+        private static final byte REMOVER_ARCO = 3;
+
+        private byte[] tipos = new byte[16];
+        private final List<String> origens = new ArrayList<>();
+        private final List<String> destinos = new ArrayList<>();
+        private int[] pesos = new int[16];
+
+        private Lote registrar(byte tipo, String origem, String destino, int peso) {
+            int i = origens.size();
+            if (i == tipos.length) {
+                tipos = Arrays.copyOf(tipos, 2 * i);
+                pesos = Arrays.copyOf(pesos, 2 * i);
+            }
+            tipos[i] = tipo;
+            pesos[i] = peso;
+            origens.add(origem);
+            destinos.add(destino);
+            return this;
+        }
+
+        /**
+         * @return Quantidade de alterações no lote.
+         */
+        public int tamanho() {
+            return origens.size();
+        }
+
+        public Lote adicionarVertice(String rotulo) {
+            return registrar(ADICIONAR_VERTICE, rotulo, null, 0);
+        }
+
+        /**
+         * Remove o vértice e todos os arcos que saem dele ou chegam nele.
+         */
+        public Lote removerVertice(String rotulo) {
+            return registrar(REMOVER_VERTICE, rotulo, null, 0);
+        }
+
+        /**
+         * Adiciona o arco origem → destino, criando os vértices que não
+         * existirem.
+         */
+        public Lote adicionarArco(String origem, String destino, int peso) {
+            return registrar(ADICIONAR_ARCO, origem, destino, peso);
+        }
+
+        /**
+         * Adiciona a aresta nos dois sentidos, como no arquivo
+         * {@code grafo.txt}.
+         */
+        public Lote adicionarAresta(String u, String v, int peso) {
+            adicionarArco(u, v, peso);
+            return adicionarArco(v, u, peso);
+        }
+
+        /**
+         * Remove uma ocorrência do arco origem → destino, se houver.
+         */
+        public Lote removerArco(String origem, String destino) {
+            return registrar(REMOVER_ARCO, origem, destino, 0);
+        }
+
+        /**
+         * Remove uma ocorrência da aresta em cada sentido.
+         */
+        public Lote removerAresta(String u, String v) {
+            removerArco(u, v);
+            return removerArco(v, u);
+        }
+    }
+
+    /**
+     * Lista de adjacência em edição durante a aplicação de um lote.
+     */
+    private static final class Edicao {
+        int[] vizinhos;
+        int[] pesos;
+        int tamanho;
+
+        Edicao(int[] vizinhos, int[] pesos) {
+            this.vizinhos = Arrays.copyOf(vizinhos, Math.max(4, vizinhos.length));
+            this.pesos = Arrays.copyOf(pesos, this.vizinhos.length);
+            this.tamanho = vizinhos.length;
+        }
+
+        void adicionar(int destino, int peso) {
+            if (tamanho == vizinhos.length) {
+                vizinhos = Arrays.copyOf(vizinhos, 2 * tamanho);
+                pesos = Arrays.copyOf(pesos, 2 * tamanho);
+            }
+            vizinhos[tamanho] = destino;
+            pesos[tamanho++] = peso;
+        }
+
+        /**
+         * Remove a primeira ocorrência de destino, mantendo a ordem.
+         *
+         * @return true se havia um arco para destino.
+         */
+        boolean remover(int destino) {
+            for (int i = 0; i < tamanho; i++) {
+                if (vizinhos[i] == destino) {
+                    System.arraycopy(vizinhos, i + 1, vizinhos, i, tamanho - i - 1);
+                    System.arraycopy(pesos, i + 1, pesos, i, tamanho - i - 1);
+                    tamanho--;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** Rótulos por bloco; só recebem posições novas, que versões antigas não leem. */
+    private String[][] rotulos = new String[0][];
+    private final ConcurrentHashMap<String, Integer> indices = new ConcurrentHashMap<>();
+    private final AtomicReference<Instantaneo> atual;
+
+    /**
+     * Cria um grafo versionado vazio.
+     */
+    public GrafoVersionado() {
+        atual = new AtomicReference<>(new Instantaneo(new Bloco[0], rotulos, indices, 0, 0, 0));
+    }
+
+    /**
+     * Cria a versão 0 a partir de um grafo indexado, mantendo a numeração.
+     *
+     * @param inicial
+     *            O grafo inicial, por exemplo {@link Grafo#getCompacto()}.
+     */
+    public GrafoVersionado(GrafoIndexado inicial) {
+        int n = inicial.numeroVertices();
+        int quantidadeBlocos = (n + TAMANHO_BLOCO - 1) >>> BITS_BLOCO;
+        Bloco[] blocos = new Bloco[quantidadeBlocos];
+        rotulos = new String[quantidadeBlocos][];
+        IntStream.range(0, quantidadeBlocos).parallel().forEach(b -> {
+            Bloco bloco = new Bloco();
+            rotulos[b] = new String[TAMANHO_BLOCO];
+            int fim = Math.min(n, (b + 1) << BITS_BLOCO);
+            for (int v = b << BITS_BLOCO; v < fim; v++) {
+                int grau = inicial.grau(v);
+                int[] vizinhos = new int[grau];
+                int[] pesos = new int[grau];
+                inicial.vizinhos(v, vizinhos, 0);
+                inicial.pesos(v, pesos, 0);
+                bloco.vizinhos[v & MASCARA_BLOCO] = vizinhos;
+                bloco.pesos[v & MASCARA_BLOCO] = pesos;
+                rotulos[b][v & MASCARA_BLOCO] = inicial.getRotulo(v);
+            }
+            blocos[b] = bloco;
+        });
+        for (int v = 0; v < n; v++) {
+            indices.put(inicial.getRotulo(v), v);
+        }
+        atual = new AtomicReference<>(new Instantaneo(blocos, rotulos, indices, n, inicial.numeroArcos(), 0));
+    }
+
+    /**
+     * @return A versão publicada mais recente. Não trava e pode ser chamado de
+     *         qualquer thread.
+     */
+    public Instantaneo getInstantaneo() {
+        return atual.get();
+    }
+
+    /**
+     * Aplica as alterações do lote sobre a versão atual e publica o resultado
+     * como uma nova versão. Escritores concorrentes são serializados; os
+     * leitores não esperam.
+     *
+     * Remover um vértice percorre as listas dos outros vértices para apagar
+     * os arcos que chegam nele, em paralelo, então custa O(m) por lote que
+     * remove vértices; os demais lotes custam o tamanho das listas alteradas.
+     *
+     * @param lote
+     *            As alterações.
+     * @return A versão publicada.
+     */
+    public synchronized Instantaneo aplicar(Lote lote) {
+        Medicao medicao = Instrumentacao.iniciar("aplicarLote");
+        Instantaneo anterior = atual.get();
+        Instantaneo estado = anterior;
+        int[] posicao = { 0 };
+        do {
+            estado = aplicarTrecho(estado, lote, posicao, medicao);
+        } while (posicao[0] < lote.tamanho());
+        Instantaneo publicado = new Instantaneo(estado.blocos, rotulos, indices, estado.n, estado.arcos,
+                anterior.versao + 1);
+        atual.set(publicado);
+        if (medicao != null) {
+            medicao.operacoes += lote.tamanho();
+            Instrumentacao.concluir(medicao);
+        }
+        return publicado;
+    }
+
+    /**
+     * Aplica as alterações a partir de posicao[0] até o fim do lote ou até
+     * uma alteração que recria um vértice removido no mesmo trecho (os arcos
+     * que chegavam nele precisam ser apagados antes). Devolve o estado
+     * resultante, ainda não publicado, e avança posicao[0].
+     */
+    private Instantaneo aplicarTrecho(Instantaneo anterior, Lote lote, int[] posicao, Medicao medicao) {
+        int n = anterior.n;
+        long arcos = anterior.arcos;
+        HashMap<Integer, Edicao> edicoes = new HashMap<>();
+        HashMap<Integer, Boolean> situacao = new HashMap<>();
+        HashSet<String> removidosNoTrecho = new HashSet<>();
+
+        int i = posicao[0];
+        for (; i < lote.tamanho(); i++) {
+            String origem = lote.origens.get(i);
+            String destino = lote.destinos.get(i);
+            byte tipo = lote.tipos[i];
+            boolean recria = tipo == Lote.ADICIONAR_VERTICE || tipo == Lote.ADICIONAR_ARCO;
+            if (recria && (removidosNoTrecho.contains(origem) || removidosNoTrecho.contains(destino))) {
+                break;
+            }
+            switch (tipo) {
+            case Lote.ADICIONAR_VERTICE:
+                n = garantirVertice(origem, n, anterior, situacao);
+                break;
+            case Lote.REMOVER_VERTICE: {
+                int v = indiceAtual(origem, n, anterior, situacao);
+                if (v >= 0) {
+                    Edicao edicao = editar(v, anterior, edicoes);
+                    arcos -= edicao.tamanho;
+                    edicao.tamanho = 0;
+                    situacao.put(v, true);
+                    removidosNoTrecho.add(origem);
+                }
+                break;
+            }
+            case Lote.ADICIONAR_ARCO: {
+                n = garantirVertice(origem, n, anterior, situacao);
+                n = garantirVertice(destino, n, anterior, situacao);
+                editar(indices.get(origem), anterior, edicoes).adicionar(indices.get(destino), lote.pesos[i]);
+                arcos++;
+                break;
+            }
+            default: {
+                int u = indiceAtual(origem, n, anterior, situacao);
+                int v = indiceAtual(destino, n, anterior, situacao);
+                if (u >= 0 && v >= 0 && editar(u, anterior, edicoes).remover(v)) {
+                    arcos--;
+                }
+                break;
+            }
+            }
+        }
+        posicao[0] = i;
+
+        // Copia o vetor de blocos e só os blocos alterados
+        Bloco[] blocos = anterior.blocos;
+        int quantidadeBlocos = (n + TAMANHO_BLOCO - 1) >>> BITS_BLOCO;
+        Bloco[] novos = Arrays.copyOf(blocos, quantidadeBlocos);
+        boolean[] copiado = new boolean[quantidadeBlocos];
+        for (int b = blocos.length; b < quantidadeBlocos; b++) {
+            novos[b] = new Bloco();
+            copiado[b] = true;
+        }
+        for (Map.Entry<Integer, Boolean> entrada : situacao.entrySet()) {
+            int v = entrada.getKey();
+            copiarBloco(novos, copiado, v >>> BITS_BLOCO).removidos[v & MASCARA_BLOCO] = entrada.getValue();
+        }
+        for (Map.Entry<Integer, Edicao> entrada : edicoes.entrySet()) {
+            int v = entrada.getKey();
+            Edicao edicao = entrada.getValue();
+            Bloco bloco = copiarBloco(novos, copiado, v >>> BITS_BLOCO);
+            bloco.vizinhos[v & MASCARA_BLOCO] = edicao.tamanho == 0 ? VAZIO
+                    : Arrays.copyOf(edicao.vizinhos, edicao.tamanho);
+            bloco.pesos[v & MASCARA_BLOCO] = edicao.tamanho == 0 ? VAZIO : Arrays.copyOf(edicao.pesos, edicao.tamanho);
+        }
+        if (!removidosNoTrecho.isEmpty()) {
+            arcos -= removerArcosDeEntrada(novos, copiado, n);
+        }
+        if (medicao != null) {
+            medicao.verticesVisitados += edicoes.size();
+        }
+        return new Instantaneo(novos, rotulos, indices, n, arcos, anterior.versao);
+    }
+
+    /**
+     * Apaga, em paralelo por bloco, os arcos que chegam em vértices
+     * removidos.
+     *
+     * @return Quantidade de arcos apagados.
+     */
+    private static long removerArcosDeEntrada(Bloco[] blocos, boolean[] copiado, int n) {
+        boolean[] removido = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            removido[v] = blocos[v >>> BITS_BLOCO].removidos[v & MASCARA_BLOCO];
+        }
+        return IntStream.range(0, blocos.length).parallel().mapToLong(b -> {
+            long apagados = 0;
+            Bloco bloco = blocos[b];
+            for (int i = 0; i < TAMANHO_BLOCO; i++) {
+                int[] lista = bloco.vizinhos[i];
+                int manter = 0;
+                for (int u : lista) {
+                    if (!removido[u]) {
+                        manter++;
+                    }
+                }
+                if (manter == lista.length) {
+                    continue;
+                }
+                if (bloco == blocos[b] && !copiado[b]) {
+                    bloco = blocos[b] = bloco.copiar();
+                    copiado[b] = true;
+                }
+                int[] vizinhos = new int[manter];
+                int[] pesos = new int[manter];
+                for (int k = 0, j = 0; k < lista.length; k++) {
+                    if (!removido[lista[k]]) {
+                        vizinhos[j] = lista[k];
+                        pesos[j++] = bloco.pesos[i][k];
+                    }
+                }
+                bloco.vizinhos[i] = manter == 0 ? VAZIO : vizinhos;
+                bloco.pesos[i] = manter == 0 ? VAZIO : pesos;
+                apagados += lista.length - manter;
+            }
+            return apagados;
+        }).sum();
+    }
+
+    private static Bloco copiarBloco(Bloco[] blocos, boolean[] copiado, int b) {
+        if (!copiado[b]) {
+            blocos[b] = blocos[b].copiar();
+            copiado[b] = true;
+        }
+        return blocos[b];
+    }
+
+    private static Edicao editar(int v, Instantaneo anterior, HashMap<Integer, Edicao> edicoes) {
+        Edicao edicao = edicoes.get(v);
+        if (edicao == null) {
+            if (v < anterior.n) {
+                Bloco bloco = anterior.blocos[v >>> BITS_BLOCO];
+                edicao = new Edicao(bloco.vizinhos[v & MASCARA_BLOCO], bloco.pesos[v & MASCARA_BLOCO]);
+            } else {
+                edicao = new Edicao(VAZIO, VAZIO);
+            }
+            edicoes.put(v, edicao);
+        }
+        return edicao;
+    }
+
+    /**
+     * @return O índice do vértice no estado em edição, ou -1 se ele não existe
+     *         ou foi removido.
+     */
+    private int indiceAtual(String rotulo, int n, Instantaneo anterior, HashMap<Integer, Boolean> situacao) {
+        Integer indice = indices.get(rotulo);
+        if (indice == null || indice >= n) {
+            return -1;
+        }
+        Boolean removido = situacao.get(indice);
+        if (removido == null) {
+            removido = indice < anterior.n && anterior.isRemovido(indice);
+        }
+        return removido ? -1 : indice;
+    }
+
+    /**
+     * Garante que o vértice existe no estado em edição, criando um índice novo
+     * ou reativando um removido.
+     *
+     * @return O novo número de vértices.
+     */
+    private int garantirVertice(String rotulo, int n, Instantaneo anterior, HashMap<Integer, Boolean> situacao) {
+        Integer indice = indices.get(rotulo);
+        if (indice != null && indice < n) {
+            if (indiceAtual(rotulo, n, anterior, situacao) < 0) {
+                situacao.put(indice, false);
+            }
+            return n;
+        }
+        if (indice == null) {
+            indice = n;
+            if ((n >>> BITS_BLOCO) == rotulos.length) {
+                rotulos = Arrays.copyOf(rotulos, Math.max(4, 2 * rotulos.length));
+            }
+            if (rotulos[n >>> BITS_BLOCO] == null) {
+                rotulos[n >>> BITS_BLOCO] = new String[TAMANHO_BLOCO];
+            }
+            rotulos[n >>> BITS_BLOCO][n & MASCARA_BLOCO] = rotulo;
+            indices.put(rotulo, indice);
+        }
+        return Math.max(n, indice + 1);
+    }
+}
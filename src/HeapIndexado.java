@@ -0,0 +1,151 @@
+import java.util.Arrays;
+
+/**
+ * Heap binário de mínimo sobre os vértices 0..n-1, com a posição de cada
+ * vértice no heap guardada num vetor. Isso permite diminuir a chave de um
+ * vértice já inserido em O(log n), sem as entradas duplicadas de uma
+ * {@link java.util.PriorityQueue}, e reaproveitar o mesmo heap em várias
+ * buscas.
+ */
+public class HeapIndexado {
+    private final int[] heap;
+    private final int[] posicao;
+    private final double[] chave;
+    private int tamanho = 0;
+
+    /**
+     * @param capacidade
+     *            Quantidade de vértices (os índices vão de 0 a capacidade - 1).
+     */
+    public HeapIndexado(int capacidade) {
+        heap = new int[capacidade];
+        posicao = new int[capacidade];
+        chave = new double[capacidade];
+        Arrays.fill(posicao, -1);
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public boolean contem(int v) {
+        return posicao[v] >= 0;
+    }
+
+    /**
+     * @return A chave atual de v (válida enquanto v estiver no heap).
+     */
+    public double chave(int v) {
+        return chave[v];
+    }
+
+    /**
+     * Insere v ou, se já estiver no heap, altera a sua chave.
+     *
+     * @param v
+     *            O vértice.
+     * @param valor
+     *            A nova chave.
+     */
+    public void atualizar(int v, double valor) {
+        if (posicao[v] < 0) {
+            posicao[v] = tamanho;
+            heap[tamanho++] = v;
+            chave[v] = valor;
+            subir(posicao[v]);
+        } else if (valor < chave[v]) {
+            chave[v] = valor;
+            subir(posicao[v]);
+        } else {
+            chave[v] = valor;
+            descer(posicao[v]);
+        }
+    }
+
+    /**
+     * @return O vértice de menor chave, sem removê-lo.
+     */
+    public int minimo() {
+        return heap[0];
+    }
+
+    /**
+     * Remove e retorna o vértice de menor chave.
+     *
+     * @return O vértice removido.
+     */
+    public int extrairMinimo() {
+        int v = heap[0];
+        remover(v);
+        return v;
+    }
+
+    /**
+     * Remove v do heap, se estiver nele.
+     */
+    public void remover(int v) {
+        int i = posicao[v];
+        if (i < 0) {
+            return;
+        }
+        posicao[v] = -1;
+        tamanho--;
+        if (i < tamanho) {
+            int ultimo = heap[tamanho];
+            heap[i] = ultimo;
+            posicao[ultimo] = i;
+            subir(i);
+            descer(posicao[ultimo]);
+        }
+    }
+
+    /**
+     * Esvazia o heap em tempo proporcional ao seu tamanho.
+     */
+    public void limpar() {
+        for (int i = 0; i < tamanho; i++) {
+            posicao[heap[i]] = -1;
+        }
+        tamanho = 0;
+    }
+
+    private void subir(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int pai = (i - 1) >>> 1;
+            if (chave[heap[pai]] <= chave[v]) {
+                break;
+            }
+            heap[i] = heap[pai];
+            posicao[heap[i]] = i;
+            i = pai;
+        }
+        heap[i] = v;
+        posicao[v] = i;
+    }
+
+    private void descer(int i) {
+        int v = heap[i];
+        while (true) {
+            int filho = 2 * i + 1;
+            if (filho >= tamanho) {
+                break;
+            }
+            if (filho + 1 < tamanho && chave[heap[filho + 1]] < chave[heap[filho]]) {
+                filho++;
+            }
+            if (chave[v] <= chave[heap[filho]]) {
+                break;
+            }
+            heap[i] = heap[filho];
+            posicao[heap[i]] = i;
+            i = filho;
+        }
+        heap[i] = v;
+        posicao[v] = i;
+    }
+}
@@ -0,0 +1,140 @@
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+
+/**
+ * Ponto central da instrumentação dos algoritmos.
+ *
+ * Enquanto não houver ouvintes registrados nem uma gravação do JFR com o
+ * evento {@code grafo.Algoritmo} habilitado (iniciada por
+ * {@code -XX:StartFlightRecording}, jcmd ou pela API), {@link #iniciar(String)}
+ * retorna null e os algoritmos apenas testam essa referência, sem custo
+ * adicional. Uso típico dentro de um algoritmo:
+ *
+ * <pre>
+ * Medicao medicao = Instrumentacao.iniciar("fluxoMaximo");
+ * ...
+ * if (medicao != null) {
+ *     medicao.operacoes++;
+ * }
+ * ...
+ * Instrumentacao.concluir(medicao);
+ * </pre>
+ */
+public class Instrumentacao {
+    private static final List<OuvinteInstrumentacao> ouvintes = new CopyOnWriteArrayList<>();
+    private static volatile boolean jfr = false;
+    private static volatile boolean gravando = false;
+    private static volatile boolean ativa = false;
+
+    private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean MEDE_ALOCACAO = THREADS instanceof com.sun.management.ThreadMXBean;
+
+    static {
+        observarGravacoes();
+    }
+
+    /**
+     * Acompanha as gravações do JFR: a instrumentação liga sozinha enquanto
+     * alguma gravação em andamento tiver o evento habilitado, inclusive uma
+     * iniciada junto com a JVM.
+     */
+    private static void observarGravacoes() {
+        if (!FlightRecorder.isAvailable()) {
+            return;
+        }
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                verificarGravacoes();
+            }
+
+            @Override
+            public void recordingStateChanged(Recording gravacao) {
+                verificarGravacoes();
+            }
+        });
+        verificarGravacoes();
+    }
+
+    private static void verificarGravacoes() {
+        gravando = new EventoAlgoritmo().isEnabled();
+        atualizar();
+    }
+
+    /**
+     * Registra um ouvinte e ativa a instrumentação.
+     *
+     * @param ouvinte
+     *            O ouvinte.
+     */
+    public static void adicionarOuvinte(OuvinteInstrumentacao ouvinte) {
+        ouvintes.add(ouvinte);
+        atualizar();
+    }
+
+    /**
+     * Remove um ouvinte. Sem ouvintes e sem JFR, a instrumentação é desativada.
+     *
+     * @param ouvinte
+     *            O ouvinte.
+     */
+    public static void removerOuvinte(OuvinteInstrumentacao ouvinte) {
+        ouvintes.remove(ouvinte);
+        atualizar();
+    }
+
+    /**
+     * Força a criação de eventos {@code grafo.Algoritmo} mesmo sem gravação
+     * habilitando o evento (para gravações que o habilitem depois de
+     * iniciadas, por exemplo). Não é necessário para gravações comuns.
+     *
+     * @param ativo
+     *            true para emitir os eventos.
+     */
+    public static void setJfrAtivo(boolean ativo) {
+        jfr = ativo;
+        atualizar();
+    }
+
+    private static void atualizar() {
+        ativa = jfr || gravando || !ouvintes.isEmpty();
+    }
+
+    /**
+     * Inicia a medição de um algoritmo.
+     *
+     * @param algoritmo
+     *            Nome do algoritmo.
+     * @return A medição, ou null se a instrumentação está desativada.
+     */
+    public static Medicao iniciar(String algoritmo) {
+        return ativa ? new Medicao(algoritmo) : null;
+    }
+
+    /**
+     * Encerra a medição; não faz nada se ela for null.
+     *
+     * @param medicao
+     *            A medição retornada por {@link #iniciar(String)}.
+     */
+    public static void concluir(Medicao medicao) {
+        if (medicao != null) {
+            medicao.concluir();
+        }
+    }
+
+    static void notificar(Medicao medicao) {
+        for (OuvinteInstrumentacao ouvinte : ouvintes) {
+            ouvinte.aoConcluir(medicao);
+        }
+    }
+
+    static long bytesAlocadosNaThread() {
+        return MEDE_ALOCACAO ? ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -1,10 +1,48 @@
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 public class LeituraEscrita {
+  /**
+   * Recebe os elementos do arquivo conforme são lidos por
+   * {@link LeituraEscrita#percorrerArquivo(String, OuvinteLeitura)}.
+   */
+  public interface OuvinteLeitura {
+    /**
+     * Chamado para cada vértice do conjunto V, na ordem do arquivo.
+     */
+    void vertice(String rotulo) throws IOException;
+
+    /**
+     * Chamado para cada tupla do conjunto A. O vetor é reaproveitado entre as
+     * chamadas e não deve ser guardado.
+     *
+     * @param campos
+     *          Campos da tupla: origem, destino e eventuais campos extras.
+     * @param quantidade
+     *          Quantidade de campos preenchidos.
+     */
+    void aresta(String[] campos, int quantidade) throws IOException;
+
+    /**
+     * Chamado para cada declaração do conjunto opcional C, que dá nome e tipo
+     * aos campos extras das tuplas, a partir do terceiro.
+     *
+     * @param nome
+     *          Nome do atributo.
+     * @param tipo
+     *          {@code int}, {@code long} ou {@code double}, ou null se não
+     *          declarado.
+     */
+    default void coluna(String nome, String tipo) throws IOException {
+    }
+  }
+
   /**
    * Lê um grafo de um arquivo e cria um objeto Grafo.
    *
@@ -15,46 +53,333 @@ public class LeituraEscrita {
    *           Se ocorrer um erro ao ler o arquivo.
    */
   public static Grafo lerGrafo(String arquivo) throws IOException {
-    BufferedReader reader = new BufferedReader(new FileReader(arquivo));
-    StringBuilder conteudo = new StringBuilder();
-    String linha;
+    Medicao medicao = Instrumentacao.iniciar("lerGrafo");
+    HashMap<String, Vertice> vertices = new HashMap<>();
+    ArrayList<Aresta> arestas = new ArrayList<>();
+    ArrayList<ColunaLida> lidas = new ArrayList<>();
+    ArrayList<String[]> declaradas = new ArrayList<>();
+
+    percorrerArquivo(arquivo, new OuvinteLeitura() {
+      @Override
+      public void vertice(String rotulo) {
+        vertices.put(rotulo, new Vertice(rotulo));
+      }
+
+      @Override
+      public void aresta(String[] campos, int quantidade) throws IOException {
+        Vertice u = verticeExistente(vertices, campos[0]);
+        Vertice v = verticeExistente(vertices, campos[1]);
+
+        u.adjacencia.add(v);
+
+        int indice = arestas.size();
+        for (int i = 2; i < quantidade; i++) {
+          if (lidas.size() < i - 1) {
+            lidas.add(new ColunaLida(i == 2 ? 1 : 0));
+          }
+          lidas.get(i - 2).definir(indice, campos[i]);
+        }
+        int peso = (quantidade >= 3) ? lidas.get(0).comoInt(indice) : 1;
 
-    while ((linha = reader.readLine()) != null) {
-      conteudo.append(linha);
+        arestas.add(new Aresta(u, v, peso));
+      }
+
+      @Override
+      public void coluna(String nome, String tipo) {
+        declaradas.add(new String[] { nome, tipo });
+      }
+    });
+
+    Grafo grafo = new Grafo(vertices, arestas);
+    if (!lidas.isEmpty() || !declaradas.isEmpty()) {
+      grafo.setAtributos(montarAtributos(arestas.size(), lidas, declaradas));
+    }
+
+    if (medicao != null) {
+      // percorrerArquivo conta caracteres; em UTF-8 podem ser menos que bytes
+      medicao.bytesProcessados = new File(arquivo).length();
+      medicao.verticesVisitados = vertices.size();
+      medicao.arestasVisitadas = arestas.size();
     }
-    reader.close();
+    Instrumentacao.concluir(medicao);
 
-    // Removendo espaços
-    String conteudoStr = conteudo.toString().replace(" ", "");
+    return grafo;
+  }
 
-    // Encontrando os vértices
-    int inicioVertices = conteudoStr.indexOf('{') + 1;
-    int fimVertices = conteudoStr.indexOf('}');
-    String[] verticesArray = conteudoStr.substring(inicioVertices, fimVertices).split(",");
-    HashMap<String, Vertice> vertices = new HashMap<>();
-    for (String vertice : verticesArray) {
-      vertices.put(vertice, new Vertice(vertice));
+  /**
+   * Transforma os campos extras lidos em colunas. O terceiro campo (o peso)
+   * só vira coluna se for declarado em C (com outro nome ou tipo que não
+   * {@code peso:int}, que é o próprio peso das arestas) ou se algum valor não
+   * couber em {@code int}; os demais sempre viram colunas, chamadas {@code campo4},
+   * {@code campo5}, ... quando não declaradas. Sem declaração, o tipo é o
+   * menor entre {@code int}, {@code long} e {@code double} que representa
+   * todos os valores.
+   */
+  private static AtributosAresta montarAtributos(int arestas, List<ColunaLida> lidas, List<String[]> declaradas)
+      throws IOException {
+    AtributosAresta atributos = new AtributosAresta(arestas);
+    int campos = Math.max(lidas.size(), declaradas.size());
+    for (int i = 0; i < campos; i++) {
+      ColunaLida lida = i < lidas.size() ? lidas.get(i) : new ColunaLida(i == 0 ? 1 : 0);
+      String nome = i < declaradas.size() ? declaradas.get(i)[0] : (i == 0 ? "peso" : "campo" + (i + 3));
+      String tipo = i < declaradas.size() ? declaradas.get(i)[1] : null;
+      boolean pesoInteiro = i >= declaradas.size()
+          || (nome.equals("peso") && (tipo == null || tipo.equalsIgnoreCase("int")));
+      if (i == 0 && pesoInteiro && lida.cabeEmInt()) {
+        continue; // O peso inteiro já está nas arestas
+      }
+      AtributosAresta.Tipo efetivo;
+      try {
+        efetivo = tipo != null ? AtributosAresta.Tipo.de(tipo) : lida.tipoInferido();
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Declaração de atributo inválida: " + nome + ":" + tipo);
+      }
+      atributos.adicionarColuna(nome, lida.paraVetor(efetivo, arestas, nome));
     }
+    return atributos;
+  }
 
-    // Encontrando as arestas
-    int inicioArestas = conteudoStr.indexOf('{', fimVertices) + 1;
-    int fimArestas = conteudoStr.indexOf('}', inicioArestas);
-    String[] arestasArray = conteudoStr.substring(inicioArestas, fimArestas).split("\\),\\(");
+  /**
+   * Valores de um campo extra enquanto o arquivo é lido. Inteiros ficam como
+   * {@code long}; no primeiro valor não inteiro, a coluna inteira passa a
+   * guardar os bits de {@code double}.
+   */
+  private static class ColunaLida {
+    private final long padrao;
+    private long[] valores = new long[16];
+    private boolean[] presente = new boolean[16];
+    private boolean real = false;
+    private boolean cabeEmInt = true;
 
-    ArrayList<Aresta> arestas = new ArrayList<>();
-    for (String arestaStr : arestasArray) {
-      arestaStr = arestaStr.replace("(", "").replace(")", "");
-      String[] partes = arestaStr.split(",");
-      Vertice u = vertices.get(partes[0]);
-      Vertice v = vertices.get(partes[1]);
+    ColunaLida(long padrao) {
+      this.padrao = padrao;
+    }
+
+    void definir(int indice, String texto) throws IOException {
+      if (indice >= valores.length) {
+        int tamanho = Math.max(indice + 1, valores.length * 2);
+        valores = Arrays.copyOf(valores, tamanho);
+        presente = Arrays.copyOf(presente, tamanho);
+      }
+      presente[indice] = true;
+      if (!real) {
+        try {
+          long inteiro = Long.parseLong(texto);
+          valores[indice] = inteiro;
+          cabeEmInt &= inteiro == (int) inteiro;
+          return;
+        } catch (NumberFormatException e) {
+          // Tenta como real abaixo
+        }
+      }
+      double valor;
+      try {
+        valor = Double.parseDouble(texto);
+      } catch (NumberFormatException e) {
+        throw new IOException("Valor numérico inválido em aresta: " + texto);
+      }
+      if (!real) {
+        for (int i = 0; i < indice; i++) {
+          if (presente[i]) {
+            valores[i] = Double.doubleToRawLongBits(valores[i]);
+          }
+        }
+        real = true;
+        cabeEmInt = false;
+      }
+      valores[indice] = Double.doubleToRawLongBits(valor);
+    }
 
-      u.adjacencia.add(v);
+    /**
+     * @return O valor como peso inteiro das arestas, arredondado e limitado
+     *         ao intervalo de {@code int}.
+     */
+    int comoInt(int indice) {
+      if (indice >= valores.length || !presente[indice]) {
+        return (int) padrao;
+      }
+      if (real) {
+        return (int) Math.round(Double.longBitsToDouble(valores[indice]));
+      }
+      return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, valores[indice]));
+    }
 
-      int peso = (partes.length == 3) ? Integer.parseInt(partes[2]) : 1;
+    boolean cabeEmInt() {
+      return cabeEmInt;
+    }
+
+    AtributosAresta.Tipo tipoInferido() {
+      if (real) {
+        return AtributosAresta.Tipo.DOUBLE;
+      }
+      return cabeEmInt ? AtributosAresta.Tipo.INT : AtributosAresta.Tipo.LONG;
+    }
 
-      arestas.add(new Aresta(u, v, peso));
+    Object paraVetor(AtributosAresta.Tipo tipo, int tamanho, String nome) throws IOException {
+      if (tipo == AtributosAresta.Tipo.DOUBLE) {
+        double[] vetor = new double[Math.max(tamanho, 1)];
+        for (int i = 0; i < tamanho; i++) {
+          vetor[i] = valorReal(i);
+        }
+        return vetor;
+      }
+      if (real) {
+        throw new IOException("Atributo " + nome + " declarado como " + tipo + " tem valores não inteiros");
+      }
+      if (tipo == AtributosAresta.Tipo.INT && !cabeEmInt) {
+        throw new IOException("Atributo " + nome + " tem valores que não cabem em int");
+      }
+      long[] longos = new long[Math.max(tamanho, 1)];
+      for (int i = 0; i < tamanho; i++) {
+        longos[i] = i < valores.length && presente[i] ? valores[i] : padrao;
+      }
+      if (tipo == AtributosAresta.Tipo.LONG) {
+        return longos;
+      }
+      int[] inteiros = new int[longos.length];
+      for (int i = 0; i < tamanho; i++) {
+        inteiros[i] = (int) longos[i];
+      }
+      return inteiros;
     }
 
-    return new Grafo(vertices, arestas);
+    private double valorReal(int indice) {
+      if (indice >= valores.length || !presente[indice]) {
+        return padrao;
+      }
+      return real ? Double.longBitsToDouble(valores[indice]) : valores[indice];
+    }
+  }
+
+  private static Vertice verticeExistente(HashMap<String, Vertice> vertices, String rotulo) throws IOException {
+    Vertice vertice = vertices.get(rotulo);
+    if (vertice == null) {
+      throw new IOException("Aresta com vértice que não está em V: " + rotulo);
+    }
+    return vertice;
+  }
+
+  /**
+   * Lê o arquivo em blocos, sem carregá-lo inteiro na memória, e repassa cada
+   * vértice e cada aresta ao ouvinte. Espaços e quebras de linha são
+   * ignorados, como em {@link #lerGrafo(String)}.
+   *
+   * @param arquivo
+   *          Caminho do arquivo no formato
+   *          {@code V = {...}; A = {(u,v[,peso[,...]]),...}; [C = {nome:tipo,...};]}.
+   * @param ouvinte
+   *          Quem recebe os elementos lidos.
+   * @return Quantidade de caracteres lidos.
+   * @throws IOException
+   *           Se ocorrer um erro ao ler o arquivo ou se o formato for inválido.
+   */
+  public static long percorrerArquivo(String arquivo, OuvinteLeitura ouvinte) throws IOException {
+    try (Reader reader = new FileReader(arquivo)) {
+      return percorrer(reader, ouvinte);
+    }
+  }
+
+  /**
+   * Mesmo que {@link #percorrerArquivo(String, OuvinteLeitura)}, lendo de um
+   * {@link Reader} qualquer.
+   */
+  public static long percorrer(Reader reader, OuvinteLeitura ouvinte) throws IOException {
+    final int FORA = 0, VERTICES = 1, ENTRE = 2, ARESTAS = 3, TUPLA = 4, FIM = 5, COLUNAS = 6, FIM_COLUNAS = 7;
+    char[] bloco = new char[1 << 16];
+    StringBuilder token = new StringBuilder();
+    String[] campos = new String[8];
+    int quantidade = 0;
+    int estado = FORA;
+    long total = 0;
+    int lidos;
+
+    while ((lidos = reader.read(bloco)) > 0) {
+      total += lidos;
+      for (int i = 0; i < lidos; i++) {
+        char c = bloco[i];
+        if (Character.isWhitespace(c)) {
+          continue;
+        }
+        switch (estado) {
+          case FORA:
+            if (c == '{') {
+              estado = VERTICES;
+            }
+            break;
+          case VERTICES:
+            if (c == ',' || c == '}') {
+              if (token.length() > 0) {
+                ouvinte.vertice(token.toString());
+                token.setLength(0);
+              }
+              if (c == '}') {
+                estado = ENTRE;
+              }
+            } else {
+              token.append(c);
+            }
+            break;
+          case ENTRE:
+            if (c == '{') {
+              estado = ARESTAS;
+            }
+            break;
+          case ARESTAS:
+            if (c == '(') {
+              quantidade = 0;
+              estado = TUPLA;
+            } else if (c == '}') {
+              estado = FIM;
+            } else if (c != ',') {
+              throw new IOException("Caractere inesperado no conjunto de arestas: " + c);
+            }
+            break;
+          case TUPLA:
+            if (c == ',' || c == ')') {
+              if (quantidade == campos.length) {
+                campos = Arrays.copyOf(campos, campos.length * 2);
+              }
+              campos[quantidade++] = token.toString();
+              token.setLength(0);
+              if (c == ')') {
+                if (quantidade < 2) {
+                  throw new IOException("Aresta com menos de dois vértices");
+                }
+                ouvinte.aresta(campos, quantidade);
+                estado = ARESTAS;
+              }
+            } else {
+              token.append(c);
+            }
+            break;
+          case FIM:
+            if (c == '{') {
+              estado = COLUNAS;
+            }
+            break;
+          case COLUNAS:
+            if (c == ',' || c == '}') {
+              if (token.length() > 0) {
+                int separador = token.indexOf(":");
+                if (separador < 0) {
+                  ouvinte.coluna(token.toString(), null);
+                } else {
+                  ouvinte.coluna(token.substring(0, separador), token.substring(separador + 1));
+                }
+                token.setLength(0);
+              }
+              if (c == '}') {
+                estado = FIM_COLUNAS;
+              }
+            } else {
+              token.append(c);
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    return total;
   }
-}
\ No newline at end of file
+}
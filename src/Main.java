@@ -1,7 +1,37 @@
+import java.io.FileReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
 public class Main {
+    /**
+     * Uso: {@code Main [arquivo-do-grafo] [--lote <arquivo-de-consultas | ->]}.
+     * Sem {@code --lote}, abre o menu interativo. Com {@code --lote -}, as
+     * consultas são lidas da entrada padrão.
+     */
     public static void main(String[] args) throws Exception {
         String arquivo = "grafo.txt";
-        Menu menu = new Menu(arquivo);
-        menu.iniciarMenu(); 
+        String lote = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--lote") && i + 1 < args.length) {
+                lote = args[++i];
+            } else {
+                arquivo = args[i];
+            }
+        }
+
+        if (lote == null) {
+            Menu menu = new Menu(arquivo);
+            menu.iniciarMenu();
+            return;
+        }
+
+        Grafo grafo = LeituraEscrita.lerGrafo(arquivo);
+        ConsultaLote consultas = new ConsultaLote(grafo);
+        try (Reader entrada = lote.equals("-") ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : new FileReader(lote, StandardCharsets.UTF_8)) {
+            consultas.executar(entrada, new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
     }
-}
\ No newline at end of file
+}
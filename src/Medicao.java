@@ -0,0 +1,80 @@
+import java.util.Locale;
+
+/**
+ * Dados de uma execução de algoritmo: tempo de parede, contadores de trabalho
+ * e bytes alocados pela thread durante a execução.
+ *
+ * Os contadores são preenchidos pelo próprio algoritmo; o significado de
+ * {@code operacoes} depende de cada um (caminhos aumentantes no fluxo máximo,
+ * nós expandidos na busca hamiltoniana etc.).
+ */
+public class Medicao {
+    public final String algoritmo;
+    public long verticesVisitados;
+    public long arestasVisitadas;
+    public long operacoes;
+    public long bytesProcessados;
+
+    private final long inicioNanos;
+    private final long bytesIniciais;
+    private final EventoAlgoritmo evento;
+    private long duracaoNanos = -1;
+    private long bytesAlocados;
+
+    Medicao(String algoritmo) {
+        this.algoritmo = algoritmo;
+        this.evento = new EventoAlgoritmo();
+        this.evento.begin();
+        this.bytesIniciais = Instrumentacao.bytesAlocadosNaThread();
+        this.inicioNanos = System.nanoTime();
+    }
+
+    /**
+     * Encerra a medição e a repassa aos ouvintes e ao JFR.
+     */
+    void concluir() {
+        duracaoNanos = System.nanoTime() - inicioNanos;
+        bytesAlocados = bytesIniciais < 0 ? -1 : Instrumentacao.bytesAlocadosNaThread() - bytesIniciais;
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.algoritmo = algoritmo;
+            evento.verticesVisitados = verticesVisitados;
+            evento.arestasVisitadas = arestasVisitadas;
+            evento.operacoes = operacoes;
+            evento.bytesProcessados = bytesProcessados;
+            evento.bytesAlocados = bytesAlocados;
+            evento.commit();
+        }
+        Instrumentacao.notificar(this);
+    }
+
+    /**
+     * @return Duração da execução em nanossegundos, ou -1 se ainda não terminou.
+     */
+    public long getDuracaoNanos() {
+        return duracaoNanos;
+    }
+
+    /**
+     * @return Bytes alocados pela thread durante a execução, ou -1 se a JVM não
+     *         oferece essa medida.
+     */
+    public long getBytesAlocados() {
+        return bytesAlocados;
+    }
+
+    /**
+     * @return Bytes processados por segundo (útil para a leitura de arquivos).
+     */
+    public double getBytesPorSegundo() {
+        return bytesProcessados / (duracaoNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s: %.3f ms, %d vértices, %d arestas, %d operações, %d bytes processados, %d bytes alocados",
+                algoritmo, duracaoNanos / 1e6, verticesVisitados, arestasVisitadas, operacoes, bytesProcessados,
+                bytesAlocados);
+    }
+}
@@ -1,4 +1,10 @@
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +15,7 @@ public class Menu {
     Grafo grafo;
     String Arquivo;
     Scanner scanner = new Scanner(System.in);
+    Writer saida = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
     public Menu(String arquivo) {
         try{
             this.grafo = LeituraEscrita.lerGrafo(arquivo);
@@ -19,16 +26,24 @@ public class Menu {
     public void iniciarMenu(){
         System.out.println("Escolha uma opção:\n1 - Verificar\n2 - Listar\n3 - Gerar\n4 - Sair");
         String opcao = scanner.nextLine();
-        while(opcao != "4"){
+        while(!opcao.equals("4")){
             switch(opcao){
                 case "1":
                     verificar();
                     break;
                 case "2":
-                    listar();
+                    try {
+                        listar();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
                     break;
                 case "3":
-                    gerar();
+                    try {
+                        gerar();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
                     break;
                 default:
                     System.out.println("Opção inválida");
@@ -78,7 +93,7 @@ public class Menu {
                 break;
         }
     }
-    private void listar(){
+    private void listar() throws IOException{
         System.out.println(" a. Vértices\r\n" + //
                         " b. Arestas\r\n" + //
                         " c. Componentes conexas\r\n" + //
@@ -102,12 +117,7 @@ public class Menu {
                 break;
             case "c":
                 List<List<Vertice>> componentes = grafo.getComponentesConexas();
-                for(List<Vertice> c : componentes){
-                    for(Vertice v : c){
-                        System.out.print(v + " ");
-                    }
-                    System.out.println();
-                }
+                Exportador.exportarComponentes(componentes, Exportador.Formato.NATIVO, saida);
                 break;
             case "d":
                 List<Vertice> euler = grafo.encontrarCaminhoEuleriano();
@@ -137,7 +147,7 @@ public class Menu {
                 break;
         }
     }
-    private void gerar(){
+    private void gerar() throws IOException{
         System.out.println(" a. Matriz de adjacência\r\n" + //
                         " b. Lista de adjacência\r\n" + //
                         " c. Árvore de profundidade\r\n" + //
@@ -146,32 +156,33 @@ public class Menu {
                         " f. Ordem topológia\r\n" + //
                         " g. Caminho mínimo entre dois vértices\r\n" + //
                         " h. Fluxo máximo\r\n" + //
-                        " i. Fechamento transitivo");
+                        " i. Fechamento transitivo\r\n" + //
+                        " j. Exportar grafo para arquivo");
         String opcao = scanner.nextLine();
         switch (opcao) {
             case "a":
-                int matriz[][] = grafo.getMatrizAdjacencia();
-                for(int i = 0; i < matriz.length; i++){
-                    for(int j = 0; j < matriz.length; j++){
-                        System.out.print(matriz[i][j] + " ");
-                    }
-                    System.out.println();
-                }
+                Exportador.exportarMatrizAdjacencia(grafo, Exportador.Formato.NATIVO, saida);
                 break;
             case "b":
-                System.out.println(grafo.getListaAdjacencia());
+                Exportador.exportarListaAdjacencia(grafo, saida);
                 break;
             case "c":
-                Grafo profundidade = grafo.gerarArvoreDeProfundidade(grafo.getVertices().get(0));
-                System.out.println(profundidade.getListaAdjacencia());
+                System.out.println("Digite o vértice inicial:");
+                Vertice raizProfundidade = lerVertice();
+                if(raizProfundidade == null) break;
+                Grafo profundidade = grafo.gerarArvoreDeProfundidade(raizProfundidade);
+                Exportador.exportarListaAdjacencia(profundidade, saida);
                 break;
             case "d":
-                Grafo largura = grafo.gerarArvoreDeLargura(grafo.getVertices().get(0));
-                System.out.println(largura.getListaAdjacencia());
+                System.out.println("Digite o vértice inicial:");
+                Vertice raizLargura = lerVertice();
+                if(raizLargura == null) break;
+                Grafo largura = grafo.gerarArvoreDeLargura(raizLargura);
+                Exportador.exportarListaAdjacencia(largura, saida);
                 break;
             case "e":
                 Grafo minimo = grafo.gerarArvoreGeradoraMinima();
-                System.out.println(minimo.getListaAdjacencia());
+                Exportador.exportarListaAdjacencia(minimo, saida);
                 break;
             case "f":
                 if(!grafo.isDirecionado()) break; // Não é possível gerar ordem topológica em grafos não direcionados
@@ -183,9 +194,10 @@ public class Menu {
             case "g":
                 if(!grafo.isPonderado()) break; // Não é possível gerar caminho mínimo em grafos não ponderados
                 System.out.println("Digite o vértice de partida e o vértice de chegada:");
-                String partida = scanner.nextLine();
-                String chegada = scanner.nextLine();
-                ArrayList<Vertice> caminho = grafo.caminhoMinimo(grafo.getVertices().get(Integer.parseInt(partida)), grafo.getVertices().get(Integer.parseInt(chegada)));
+                Vertice partida = lerVertice();
+                Vertice chegada = lerVertice();
+                if(partida == null || chegada == null) break;
+                ArrayList<Vertice> caminho = grafo.caminhoMinimo(partida, chegada);
                 for(Vertice v : caminho){
                     System.out.print(v + " -> ");
                 }
@@ -193,23 +205,60 @@ public class Menu {
             case "h":
                 if(!grafo.isPonderado()) break; // Não é possível gerar fluxo máximo em grafos não ponderados
                 System.out.println("Digite o vértice de partida e o vértice de chegada:");
-                String origem = scanner.nextLine();
-                String fim = scanner.nextLine();
-                System.out.println(grafo.fluxoMaximo(grafo.getVertices().get(Integer.parseInt(origem)), grafo.getVertices().get(Integer.parseInt(fim))));
+                Vertice origem = lerVertice();
+                Vertice fim = lerVertice();
+                if(origem == null || fim == null) break;
+                System.out.println(grafo.fluxoMaximo(origem, fim));
                 break;
             case "i":
                 if(!grafo.isPonderado()) break; // Não é possível gerar fecho transitivo em grafos não ponderados
                 Map<Vertice, Set<Vertice>> fecho = grafo.fechoTransitivo();
-                for(Vertice v : fecho.keySet()){
-                    System.out.print(v + " -> ");
-                    for(Vertice u : fecho.get(v)){
-                        System.out.print(u + " ");
-                    }
-                    System.out.println();
+                Exportador.exportarFecho(fecho, saida);
+                break;
+            case "j":
+                System.out.println("Digite o formato (NATIVO, CSV, DOT, BINARIO) e o arquivo de destino:");
+                Exportador.Formato formato = lerFormato();
+                String destino = scanner.nextLine().trim();
+                if(formato == null) break;
+                if(formato == Exportador.Formato.BINARIO && !grafo.getAtributos().getNomes().isEmpty()){
+                    System.out.println("O formato BINARIO não guarda atributos de aresta; use NATIVO ou CSV");
+                    break;
                 }
+                try (FileChannel canal = FileChannel.open(Paths.get(destino), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    Exportador.exportarGrafo(grafo, formato, canal);
+                }
+                System.out.println("Grafo exportado para " + destino);
                 break;
             default:
                 break;
         }
     }
+    /**
+     * Lê um rótulo de vértice e o procura no grafo.
+     *
+     * @return O vértice, ou null (com aviso) se não existir.
+     */
+    private Vertice lerVertice(){
+        String rotulo = scanner.nextLine().trim();
+        Vertice vertice = grafo.getVertices().get(rotulo);
+        if(vertice == null){
+            System.out.println("Vértice inexistente: " + rotulo);
+        }
+        return vertice;
+    }
+    /**
+     * Lê o nome de um formato de exportação.
+     *
+     * @return O formato, ou null (com aviso) se não existir.
+     */
+    private Exportador.Formato lerFormato(){
+        String nome = scanner.nextLine().trim();
+        try {
+            return Exportador.Formato.valueOf(nome.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Formato inválido: " + nome);
+            return null;
+        }
+    }
 }
@@ -0,0 +1,14 @@
+/**
+ * Recebe as medições de cada execução de algoritmo instrumentado.
+ *
+ * @see Instrumentacao#adicionarOuvinte(OuvinteInstrumentacao)
+ */
+public interface OuvinteInstrumentacao {
+    /**
+     * Chamado na thread que executou o algoritmo, logo após o término.
+     *
+     * @param medicao
+     *            Os dados da execução.
+     */
+    void aoConcluir(Medicao medicao);
+}
@@ -0,0 +1,569 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Particionamento multinível em k partes de peso equilibrado com pouco peso de
+ * arestas cortadas, no esquema do METIS:
+ *
+ * <ol>
+ * <li>Contração: cada vértice é emparelhado com o vizinho livre ligado pela
+ * aresta mais pesada (heavy-edge matching), e cada par vira um vértice do
+ * nível seguinte, com a soma dos pesos. Repete até sobrar um grafo pequeno ou
+ * a contração parar de reduzir.</li>
+ * <li>Partição inicial do grafo mais contraído: os vértices, na ordem de uma
+ * busca em largura a partir de um vértice periférico, são distribuídos em
+ * faixas de peso igual. São feitas algumas tentativas e fica a de menor
+ * corte.</li>
+ * <li>Refinamento: a partição é projetada de volta nível a nível e, em cada
+ * um, vértices da fronteira mudam para a parte vizinha com que têm mais peso
+ * de arestas, em paralelo (propagação de rótulos).</li>
+ * </ol>
+ *
+ * O refinamento é a versão paralela por propagação de rótulos, e não o
+ * Fiduccia-Mattheyses, que é sequencial (uma fila de prioridade global de
+ * ganhos). Para que dois vizinhos não troquem de parte ao mesmo tempo e
+ * desfaçam o ganho um do outro, cada rodada tem duas metades: na primeira só
+ * valem movimentos para partes de número maior, na segunda para partes de
+ * número menor. O peso de cada parte é reservado com compare-and-set antes do
+ * movimento, então o limite de peso nunca é violado pelo refinamento.
+ *
+ * O sentido das arestas é ignorado; o peso de uma aresta é a soma dos pesos
+ * dos arcos entre o par ({@link AdjacenciaSimples}) e cada vértice pesa 1.
+ */
+public class Particionamento {
+    /** Desequilíbrio padrão: cada parte pode ter até 3% mais que a média. */
+    public static final double DESEQUILIBRIO_PADRAO = 0.03;
+    private static final int RODADAS_REFINAMENTO = 10;
+    private static final int TENTATIVAS_INICIAIS = 4;
+    private static final int TAMANHO_BLOCO = 1024;
+    private static final double REDUCAO_MINIMA = 0.95;
+    private static final VarHandle PESOS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Partição dos vértices.
+     */
+    public static class Resultado {
+        private final int[] parte;
+        private final int k;
+        private final long corte;
+        private final long[] pesos;
+        private final int[][] fronteira;
+        private final int niveis;
+
+        Resultado(int[] parte, int k, long corte, long[] pesos, int[][] fronteira, int niveis) {
+            this.parte = parte;
+            this.k = k;
+            this.corte = corte;
+            this.pesos = pesos;
+            this.fronteira = fronteira;
+            this.niveis = niveis;
+        }
+
+        /**
+         * @return A parte (de 0 a k - 1) de cada vértice. O vetor é
+         *         compartilhado.
+         */
+        public int[] getParte() {
+            return parte;
+        }
+
+        public int getQuantidadePartes() {
+            return k;
+        }
+
+        /**
+         * @return Soma dos pesos das arestas com pontas em partes diferentes.
+         */
+        public long getCorte() {
+            return corte;
+        }
+
+        /**
+         * @return Quantidade de vértices de cada parte.
+         */
+        public long[] getPesos() {
+            return pesos;
+        }
+
+        /**
+         * @return Para cada parte, os vértices dela com algum vizinho em outra
+         *         parte, em ordem crescente. São os vértices que precisam ser
+         *         trocados entre partes processadas separadamente.
+         */
+        public int[][] getFronteira() {
+            return fronteira;
+        }
+
+        /**
+         * @return Quantidade de níveis da hierarquia de contração, contando o
+         *         grafo original.
+         */
+        public int getNiveis() {
+            return niveis;
+        }
+    }
+
+    /**
+     * Um nível da hierarquia: grafo não direcionado em CSR com pesos nos
+     * vértices e nas arestas.
+     */
+    private static class Nivel {
+        final int[] inicio;
+        final int[] vizinhos;
+        final long[] pesoAresta;
+        final int[] pesoVertice;
+        /** Vértice do nível seguinte (mais contraído) de cada vértice deste. */
+        int[] mapa;
+
+        Nivel(int[] inicio, int[] vizinhos, long[] pesoAresta, int[] pesoVertice) {
+            this.inicio = inicio;
+            this.vizinhos = vizinhos;
+            this.pesoAresta = pesoAresta;
+            this.pesoVertice = pesoVertice;
+        }
+
+        int tamanho() {
+            return pesoVertice.length;
+        }
+    }
+
+    /**
+     * Particiona o grafo.
+     *
+     * @param grafo
+     *            O grafo de origem.
+     * @param simetrico
+     *            true se todo arco tem o seu inverso.
+     * @param k
+     *            Quantidade de partes, entre 1 e o número de vértices.
+     * @param desequilibrio
+     *            Quanto cada parte pode exceder a média de vértices (0,03 =
+     *            3%).
+     * @param semente
+     *            Semente da ordem aleatória do emparelhamento.
+     * @return A partição.
+     */
+    public static Resultado particionar(GrafoIndexado grafo, boolean simetrico, int k, double desequilibrio,
+            long semente) {
+        return particionar(AdjacenciaSimples.de(grafo, simetrico, true), k, desequilibrio, semente);
+    }
+
+    static Resultado particionar(AdjacenciaSimples grafo, int k, double desequilibrio, long semente) {
+        int n = grafo.numeroVertices();
+        if (k < 1 || k > Math.max(1, n)) {
+            throw new IllegalArgumentException("quantidade de partes deve estar entre 1 e " + n + ": " + k);
+        }
+        if (!(desequilibrio >= 0)) {
+            throw new IllegalArgumentException("desequilíbrio inválido: " + desequilibrio);
+        }
+        if (n == 0) {
+            return new Resultado(new int[0], k, 0, new long[k], new int[k][0], 1);
+        }
+        Medicao medicao = Instrumentacao.iniciar("particionar");
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        long pesoMaximo = (long) Math.ceil((1 + desequilibrio) * n / k);
+
+        // Contração
+        List<Nivel> niveis = new ArrayList<>();
+        niveis.add(nivelBase(grafo));
+        int limite = Math.max(64 * k, 512);
+        int pesoMaximoVertice = (int) Math.max(1, n / (4L * k));
+        Nivel atual = niveis.get(0);
+        while (atual.tamanho() > limite) {
+            int[] mapa = new int[atual.tamanho()];
+            int quantidade = emparelhar(atual, mapa, pesoMaximoVertice, aleatorio);
+            if (quantidade > REDUCAO_MINIMA * atual.tamanho()) {
+                break;
+            }
+            atual.mapa = mapa;
+            atual = contrair(atual, mapa, quantidade);
+            niveis.add(atual);
+        }
+
+        // Partição inicial
+        int[] parte = null;
+        long melhorCorte = Long.MAX_VALUE;
+        for (int tentativa = 0; tentativa < TENTATIVAS_INICIAIS; tentativa++) {
+            int[] candidata = particaoInicial(atual, k, aleatorio.nextInt(atual.tamanho()));
+            long[] pesos = pesosDasPartes(atual, candidata, k);
+            balancear(atual, candidata, pesos, k, pesoMaximo);
+            refinar(atual, candidata, pesos, k, pesoMaximo);
+            long corte = corte(atual, candidata);
+            if (corte < melhorCorte) {
+                melhorCorte = corte;
+                parte = candidata;
+            }
+        }
+
+        // Projeção e refinamento
+        for (int i = niveis.size() - 2; i >= 0; i--) {
+            Nivel fino = niveis.get(i);
+            int[] projetada = new int[fino.tamanho()];
+            for (int v = 0; v < projetada.length; v++) {
+                projetada[v] = parte[fino.mapa[v]];
+            }
+            parte = projetada;
+            long[] pesos = pesosDasPartes(fino, parte, k);
+            balancear(fino, parte, pesos, k, pesoMaximo);
+            refinar(fino, parte, pesos, k, pesoMaximo);
+        }
+
+        Nivel base = niveis.get(0);
+        Resultado resultado = new Resultado(parte, k, corte(base, parte), pesosDasPartes(base, parte, k),
+                fronteira(base, parte, k), niveis.size());
+        if (medicao != null) {
+            medicao.verticesVisitados = n;
+            medicao.arestasVisitadas = grafo.numeroArcos();
+            medicao.operacoes = niveis.size();
+            Instrumentacao.concluir(medicao);
+        }
+        return resultado;
+    }
+
+    private static Nivel nivelBase(AdjacenciaSimples grafo) {
+        long[] pesos = new long[grafo.vizinhos.length];
+        for (int a = 0; a < pesos.length; a++) {
+            pesos[a] = grafo.pesos == null ? 1 : grafo.pesos[a];
+        }
+        int[] pesoVertice = new int[grafo.numeroVertices()];
+        Arrays.fill(pesoVertice, 1);
+        return new Nivel(grafo.inicio, grafo.vizinhos, pesos, pesoVertice);
+    }
+
+    /**
+     * Heavy-edge matching em ordem aleatória. Pares cujo peso somado passaria
+     * do limite não são formados, para que nenhum vértice contraído fique
+     * pesado demais para equilibrar as partes.
+     *
+     * @return Quantidade de vértices do nível contraído.
+     */
+    private static int emparelhar(Nivel nivel, int[] mapa, int pesoMaximoVertice, SplittableRandom aleatorio) {
+        int n = nivel.tamanho();
+        int[] ordem = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = aleatorio.nextInt(i + 1);
+            ordem[i] = ordem[j];
+            ordem[j] = i;
+        }
+        int[] par = new int[n];
+        Arrays.fill(par, -1);
+        for (int v : ordem) {
+            if (par[v] >= 0) {
+                continue;
+            }
+            int escolhido = v;
+            long maisPesada = Long.MIN_VALUE;
+            for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                int u = nivel.vizinhos[a];
+                if (par[u] < 0 && u != v && nivel.pesoAresta[a] > maisPesada
+                        && nivel.pesoVertice[u] + nivel.pesoVertice[v] <= pesoMaximoVertice) {
+                    maisPesada = nivel.pesoAresta[a];
+                    escolhido = u;
+                }
+            }
+            par[v] = escolhido;
+            par[escolhido] = v;
+        }
+        Arrays.fill(mapa, -1);
+        int quantidade = 0;
+        for (int v = 0; v < n; v++) {
+            if (mapa[v] < 0) {
+                mapa[v] = quantidade;
+                mapa[par[v]] = quantidade;
+                quantidade++;
+            }
+        }
+        return quantidade;
+    }
+
+    /**
+     * Constrói o nível contraído: arestas entre os mesmos dois vértices
+     * contraídos são somadas e arestas internas a um par somem.
+     */
+    private static Nivel contrair(Nivel fino, int[] mapa, int quantidade) {
+        int n = fino.tamanho();
+        int[] primeiro = new int[quantidade];
+        int[] segundo = new int[quantidade];
+        Arrays.fill(primeiro, -1);
+        Arrays.fill(segundo, -1);
+        int[] pesoVertice = new int[quantidade];
+        for (int v = 0; v < n; v++) {
+            int c = mapa[v];
+            if (primeiro[c] < 0) {
+                primeiro[c] = v;
+            } else {
+                segundo[c] = v;
+            }
+            pesoVertice[c] += fino.pesoVertice[v];
+        }
+
+        int[] inicio = new int[quantidade + 1];
+        int[] vizinhos = new int[fino.vizinhos.length];
+        long[] pesos = new long[fino.vizinhos.length];
+        // posicao[d] vale enquanto marca[d] == c
+        int[] marca = new int[quantidade];
+        int[] posicao = new int[quantidade];
+        Arrays.fill(marca, -1);
+        int escrito = 0;
+        for (int c = 0; c < quantidade; c++) {
+            inicio[c] = escrito;
+            for (int membro = 0; membro < 2; membro++) {
+                int v = membro == 0 ? primeiro[c] : segundo[c];
+                if (v < 0) {
+                    continue;
+                }
+                for (int a = fino.inicio[v]; a < fino.inicio[v + 1]; a++) {
+                    int d = mapa[fino.vizinhos[a]];
+                    if (d == c) {
+                        continue;
+                    }
+                    if (marca[d] != c) {
+                        marca[d] = c;
+                        posicao[d] = escrito;
+                        vizinhos[escrito] = d;
+                        pesos[escrito] = 0;
+                        escrito++;
+                    }
+                    pesos[posicao[d]] += fino.pesoAresta[a];
+                }
+            }
+        }
+        inicio[quantidade] = escrito;
+        return new Nivel(inicio, Arrays.copyOf(vizinhos, escrito), Arrays.copyOf(pesos, escrito), pesoVertice);
+    }
+
+    /**
+     * Distribui os vértices, na ordem de uma busca em largura que parte do
+     * vértice mais distante do inicial, em k faixas de peso igual. Vértices
+     * próximos na busca tendem a ficar na mesma parte.
+     */
+    private static int[] particaoInicial(Nivel nivel, int k, int inicial) {
+        int n = nivel.tamanho();
+        int[] ordem = ordemLargura(nivel, inicial);
+        // O último alcançado antes de a busca sair da componente do inicial
+        int periferico = inicial;
+        boolean[] alcancado = new boolean[n];
+        alcancado[inicial] = true;
+        for (int i = 0; i < n && alcancado[ordem[i]]; i++) {
+            int u = ordem[i];
+            periferico = u;
+            for (int a = nivel.inicio[u]; a < nivel.inicio[u + 1]; a++) {
+                alcancado[nivel.vizinhos[a]] = true;
+            }
+        }
+        ordem = ordemLargura(nivel, periferico);
+
+        long total = 0;
+        for (int w : nivel.pesoVertice) {
+            total += w;
+        }
+        int[] parte = new int[n];
+        long acumulado = 0;
+        for (int v : ordem) {
+            long meio = acumulado + nivel.pesoVertice[v] / 2;
+            parte[v] = (int) Math.min(k - 1, meio * k / total);
+            acumulado += nivel.pesoVertice[v];
+        }
+        return parte;
+    }
+
+    /**
+     * @return Todos os vértices em ordem de busca em largura, começando pelo
+     *         inicial e recomeçando pelo menor vértice não visitado quando uma
+     *         componente acaba.
+     */
+    private static int[] ordemLargura(Nivel nivel, int inicial) {
+        int n = nivel.tamanho();
+        boolean[] visitado = new boolean[n];
+        int[] fila = new int[n];
+        int cauda = 0;
+        int proximo = 0;
+        int raiz = inicial;
+        while (cauda < n) {
+            while (visitado[raiz]) {
+                raiz = proximo++;
+            }
+            visitado[raiz] = true;
+            int cabeca = cauda;
+            fila[cauda++] = raiz;
+            while (cabeca < cauda) {
+                int u = fila[cabeca++];
+                for (int a = nivel.inicio[u]; a < nivel.inicio[u + 1]; a++) {
+                    int v = nivel.vizinhos[a];
+                    if (!visitado[v]) {
+                        visitado[v] = true;
+                        fila[cauda++] = v;
+                    }
+                }
+            }
+        }
+        return fila;
+    }
+
+    private static long[] pesosDasPartes(Nivel nivel, int[] parte, int k) {
+        long[] pesos = new long[k];
+        for (int v = 0; v < parte.length; v++) {
+            pesos[parte[v]] += nivel.pesoVertice[v];
+        }
+        return pesos;
+    }
+
+    /**
+     * Tira vértices das partes acima do limite, levando cada um para a parte
+     * com espaço com que ele tem mais peso de arestas (ou para a mais leve).
+     */
+    private static void balancear(Nivel nivel, int[] parte, long[] pesos, int k, long pesoMaximo) {
+        long[] conexao = new long[k];
+        for (int p = 0; p < k; p++) {
+            for (int v = 0; v < parte.length && pesos[p] > pesoMaximo; v++) {
+                if (parte[v] != p) {
+                    continue;
+                }
+                int w = nivel.pesoVertice[v];
+                Arrays.fill(conexao, 0);
+                for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                    conexao[parte[nivel.vizinhos[a]]] += nivel.pesoAresta[a];
+                }
+                int destino = -1;
+                for (int q = 0; q < k; q++) {
+                    if (q != p && pesos[q] + w <= pesoMaximo && (destino < 0 || conexao[q] > conexao[destino]
+                            || (conexao[q] == conexao[destino] && pesos[q] < pesos[destino]))) {
+                        destino = q;
+                    }
+                }
+                if (destino >= 0) {
+                    parte[v] = destino;
+                    pesos[p] -= w;
+                    pesos[destino] += w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagação de rótulos com restrição de peso, em paralelo por blocos de
+     * vértices. A primeira rodada visita todos os vértices; as seguintes, só
+     * os vizinhos dos que mudaram de parte, que são os únicos cujo ganho pode
+     * ter mudado. As leituras de {@code parte} de outros vértices não são
+     * sincronizadas: um valor desatualizado só torna um movimento menos
+     * vantajoso do que parecia, e o corte final é recalculado do zero.
+     */
+    private static void refinar(Nivel nivel, int[] parte, long[] pesos, int k, long pesoMaximo) {
+        int n = nivel.tamanho();
+        ThreadLocal<long[]> conexoes = ThreadLocal.withInitial(() -> new long[k]);
+        ThreadLocal<int[]> tocadas = ThreadLocal.withInitial(() -> new int[k]);
+        ThreadLocal<boolean[]> presentes = ThreadLocal.withInitial(() -> new boolean[k]);
+        boolean[] afetado = new boolean[n];
+        int[] ativos = IntStream.range(0, n).toArray();
+        for (int rodada = 0; rodada < RODADAS_REFINAMENTO && ativos.length > 0; rodada++) {
+            int[] lista = ativos;
+            int blocos = (lista.length + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+            AtomicLong movidos = new AtomicLong();
+            for (int sentido = 0; sentido < 2; sentido++) {
+                boolean paraCima = sentido == 0;
+                IntStream.range(0, blocos).parallel().forEach(b -> {
+                    long[] conexao = conexoes.get();
+                    int[] tocada = tocadas.get();
+                    boolean[] presente = presentes.get();
+                    long locais = 0;
+                    int fim = Math.min(lista.length, (b + 1) * TAMANHO_BLOCO);
+                    for (int i = b * TAMANHO_BLOCO; i < fim; i++) {
+                        int v = lista[i];
+                        int p = parte[v];
+                        int quantidade = 0;
+                        for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                            int q = parte[nivel.vizinhos[a]];
+                            if (!presente[q]) {
+                                presente[q] = true;
+                                tocada[quantidade++] = q;
+                            }
+                            conexao[q] += nivel.pesoAresta[a];
+                        }
+                        int destino = -1;
+                        long melhor = conexao[p];
+                        for (int j = 0; j < quantidade; j++) {
+                            int q = tocada[j];
+                            if (q != p && (q > p) == paraCima && conexao[q] > melhor) {
+                                melhor = conexao[q];
+                                destino = q;
+                            }
+                        }
+                        for (int j = 0; j < quantidade; j++) {
+                            conexao[tocada[j]] = 0;
+                            presente[tocada[j]] = false;
+                        }
+                        if (destino >= 0 && reservar(pesos, destino, nivel.pesoVertice[v], pesoMaximo)) {
+                            PESOS.getAndAdd(pesos, p, (long) -nivel.pesoVertice[v]);
+                            parte[v] = destino;
+                            locais++;
+                            // Escritas concorrentes de true no mesmo vetor são inofensivas
+                            for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                                afetado[nivel.vizinhos[a]] = true;
+                            }
+                        }
+                    }
+                    movidos.addAndGet(locais);
+                });
+            }
+            if (movidos.get() == 0) {
+                break;
+            }
+            ativos = IntStream.range(0, n).parallel().filter(v -> afetado[v]).toArray();
+            Arrays.fill(afetado, false);
+        }
+    }
+
+    private static boolean reservar(long[] pesos, int parte, int peso, long pesoMaximo) {
+        while (true) {
+            long atual = (long) PESOS.getVolatile(pesos, parte);
+            if (atual + peso > pesoMaximo) {
+                return false;
+            }
+            if (PESOS.compareAndSet(pesos, parte, atual, atual + peso)) {
+                return true;
+            }
+        }
+    }
+
+    private static long corte(Nivel nivel, int[] parte) {
+        long corte = 0;
+        for (int v = 0; v < parte.length; v++) {
+            for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1]; a++) {
+                if (parte[nivel.vizinhos[a]] != parte[v]) {
+                    corte += nivel.pesoAresta[a];
+                }
+            }
+        }
+        return corte / 2; // Cada aresta aparece nas duas listas
+    }
+
+    private static int[][] fronteira(Nivel nivel, int[] parte, int k) {
+        boolean[] naFronteira = new boolean[parte.length];
+        int[] tamanhos = new int[k];
+        for (int v = 0; v < parte.length; v++) {
+            for (int a = nivel.inicio[v]; a < nivel.inicio[v + 1] && !naFronteira[v]; a++) {
+                naFronteira[v] = parte[nivel.vizinhos[a]] != parte[v];
+            }
+            if (naFronteira[v]) {
+                tamanhos[parte[v]]++;
+            }
+        }
+        int[][] fronteira = new int[k][];
+        for (int p = 0; p < k; p++) {
+            fronteira[p] = new int[tamanhos[p]];
+        }
+        Arrays.fill(tamanhos, 0);
+        for (int v = 0; v < parte.length; v++) {
+            if (naFronteira[v]) {
+                fronteira[parte[v]][tamanhos[parte[v]]++] = v;
+            }
+        }
+        return fronteira;
+    }
+}
@@ -0,0 +1,327 @@
+import java.util.Arrays;
+
+/**
+ * Buscas em profundidade e em largura que devolvem a árvore de busca como
+ * vetores indexados pelos vértices (pai, profundidade, tempos e ordens), sem
+ * montar um {@link Grafo} nem criar objetos por aresta. No modo floresta a
+ * busca recomeça de cada vértice ainda não visitado, em ordem crescente de
+ * índice, até cobrir todas as componentes.
+ *
+ * A busca em profundidade é iterativa (pilha de quadros sobre uma pilha de
+ * arcos compartilhada, como em {@link AlgoritmosIndexados#pontes}) e visita os
+ * vizinhos na mesma ordem que a versão recursiva, então roda em grafos grandes
+ * sem estourar a pilha da JVM.
+ */
+public class Percurso {
+    /**
+     * Árvore (ou floresta) de uma busca. Vértices não alcançados têm pai,
+     * profundidade e tempos iguais a -1 e não aparecem nas ordens.
+     */
+    public static class Resultado {
+        private final int[] pai;
+        private final int[] profundidade;
+        private final int[] preOrdem;
+        private final int[] posOrdem;
+        private final int[] descoberta;
+        private final int[] finalizacao;
+        private final int[] raizes;
+
+        Resultado(int[] pai, int[] profundidade, int[] preOrdem, int[] posOrdem, int[] descoberta,
+                int[] finalizacao, int[] raizes) {
+            this.pai = pai;
+            this.profundidade = profundidade;
+            this.preOrdem = preOrdem;
+            this.posOrdem = posOrdem;
+            this.descoberta = descoberta;
+            this.finalizacao = finalizacao;
+            this.raizes = raizes;
+        }
+
+        /**
+         * @return O pai de cada vértice na árvore; -1 nas raízes e nos não
+         *         alcançados.
+         */
+        public int[] getPai() {
+            return pai;
+        }
+
+        /**
+         * @return Número de arcos da raiz até cada vértice.
+         */
+        public int[] getProfundidade() {
+            return profundidade;
+        }
+
+        /**
+         * @return Os vértices alcançados na ordem em que foram descobertos.
+         */
+        public int[] getPreOrdem() {
+            return preOrdem;
+        }
+
+        /**
+         * @return Os vértices alcançados na ordem em que foram finalizados.
+         *         Na busca em largura é igual à pré-ordem.
+         */
+        public int[] getPosOrdem() {
+            return posOrdem;
+        }
+
+        /**
+         * @return O tempo de descoberta de cada vértice. Descoberta e
+         *         finalização usam o mesmo relógio, de 0 a 2k-1 para k
+         *         vértices alcançados; na busca em profundidade, u é
+         *         ancestral de v se e somente se
+         *         {@code d[u] <= d[v] && f[v] <= f[u]}.
+         */
+        public int[] getDescoberta() {
+            return descoberta;
+        }
+
+        /**
+         * @return O tempo de finalização de cada vértice.
+         * @see #getDescoberta()
+         */
+        public int[] getFinalizacao() {
+            return finalizacao;
+        }
+
+        /**
+         * @return As raízes das árvores, na ordem em que foram usadas.
+         */
+        public int[] getRaizes() {
+            return raizes;
+        }
+
+        /**
+         * @return Quantidade de vértices alcançados.
+         */
+        public int getAlcancados() {
+            return preOrdem.length;
+        }
+
+        /**
+         * @return Estimativa, em bytes, da memória ocupada pelos vetores.
+         */
+        public long tamanhoEstimado() {
+            return 7 * 16L + 4L * (6L * pai.length + raizes.length);
+        }
+    }
+
+    /**
+     * Busca em profundidade seguindo os arcos de saída.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param raiz
+     *            Índice do primeiro vértice.
+     * @param floresta
+     *            Se true, continua a partir dos vértices não alcançados até
+     *            cobrir o grafo inteiro.
+     * @return A árvore de profundidade.
+     */
+    public static Resultado profundidade(GrafoIndexado grafo, int raiz, boolean floresta) {
+        int n = validar(grafo, raiz);
+        Medicao medicao = Instrumentacao.iniciar("percursoProfundidade");
+        int[] pai = new int[n];
+        int[] profundidade = new int[n];
+        int[] descoberta = new int[n];
+        int[] finalizacao = new int[n];
+        Arrays.fill(pai, -1);
+        Arrays.fill(profundidade, -1);
+        Arrays.fill(descoberta, -1);
+        Arrays.fill(finalizacao, -1);
+        int[] preOrdem = new int[n];
+        int[] posOrdem = new int[n];
+        int[] raizes = new int[Math.min(n, 16)];
+        int[] quadroVertice = new int[n];
+        int[] quadroPosicao = new int[n];
+        int[] quadroFim = new int[n];
+        int[] arcos = new int[Math.max(16, grafo.grauMaximo())];
+        int descobertos = 0;
+        int finalizados = 0;
+        int quantidadeRaizes = 0;
+        int tempo = 0;
+
+        for (int proxima = 0; proxima <= n; proxima++) {
+            int r = proxima == 0 ? raiz : proxima - 1;
+            if (descoberta[r] >= 0) {
+                continue;
+            }
+            if (quantidadeRaizes == raizes.length) {
+                raizes = Arrays.copyOf(raizes, 2 * raizes.length);
+            }
+            raizes[quantidadeRaizes++] = r;
+            descoberta[r] = tempo++;
+            profundidade[r] = 0;
+            preOrdem[descobertos++] = r;
+            int topo = 0;
+            quadroVertice[0] = r;
+            quadroPosicao[0] = 0;
+            quadroFim[0] = grafo.vizinhos(r, arcos, 0);
+
+            while (topo >= 0) {
+                int u = quadroVertice[topo];
+                if (quadroPosicao[topo] < quadroFim[topo]) {
+                    int v = arcos[quadroPosicao[topo]++];
+                    if (descoberta[v] < 0) {
+                        descoberta[v] = tempo++;
+                        pai[v] = u;
+                        profundidade[v] = topo + 1;
+                        preOrdem[descobertos++] = v;
+                        int inicio = quadroFim[topo];
+                        int grau = grafo.grau(v);
+                        if (inicio + grau > arcos.length) {
+                            arcos = Arrays.copyOf(arcos, Math.max(2 * arcos.length, inicio + grau));
+                        }
+                        topo++;
+                        quadroVertice[topo] = v;
+                        quadroPosicao[topo] = inicio;
+                        quadroFim[topo] = inicio + grafo.vizinhos(v, arcos, inicio);
+                    }
+                    continue;
+                }
+                if (medicao != null) {
+                    medicao.verticesVisitados++;
+                    medicao.arestasVisitadas += grafo.grau(u);
+                }
+                finalizacao[u] = tempo++;
+                posOrdem[finalizados++] = u;
+                topo--;
+            }
+            if (!floresta) {
+                break;
+            }
+        }
+        Instrumentacao.concluir(medicao);
+        return new Resultado(pai, profundidade, Arrays.copyOf(preOrdem, descobertos),
+                Arrays.copyOf(posOrdem, finalizados), descoberta, finalizacao, Arrays.copyOf(raizes, quantidadeRaizes));
+    }
+
+    /**
+     * Busca em largura seguindo os arcos de saída. Cada vértice é finalizado
+     * logo depois de ter os vizinhos enfileirados, então a pós-ordem é igual à
+     * pré-ordem.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param raiz
+     *            Índice do primeiro vértice.
+     * @param floresta
+     *            Se true, continua a partir dos vértices não alcançados até
+     *            cobrir o grafo inteiro.
+     * @return A árvore de largura.
+     */
+    public static Resultado largura(GrafoIndexado grafo, int raiz, boolean floresta) {
+        int n = validar(grafo, raiz);
+        Medicao medicao = Instrumentacao.iniciar("percursoLargura");
+        int[] pai = new int[n];
+        int[] profundidade = new int[n];
+        int[] descoberta = new int[n];
+        int[] finalizacao = new int[n];
+        Arrays.fill(pai, -1);
+        Arrays.fill(profundidade, -1);
+        Arrays.fill(descoberta, -1);
+        Arrays.fill(finalizacao, -1);
+        int[] fila = new int[n];
+        int[] raizes = new int[Math.min(n, 16)];
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        int cauda = 0;
+        int quantidadeRaizes = 0;
+        int tempo = 0;
+
+        for (int proxima = 0; proxima <= n; proxima++) {
+            int r = proxima == 0 ? raiz : proxima - 1;
+            if (descoberta[r] >= 0) {
+                continue;
+            }
+            if (quantidadeRaizes == raizes.length) {
+                raizes = Arrays.copyOf(raizes, 2 * raizes.length);
+            }
+            raizes[quantidadeRaizes++] = r;
+            int cabeca = cauda;
+            descoberta[r] = tempo++;
+            profundidade[r] = 0;
+            fila[cauda++] = r;
+            while (cabeca < cauda) {
+                int u = fila[cabeca++];
+                int grau = grafo.vizinhos(u, vizinhos, 0);
+                for (int i = 0; i < grau; i++) {
+                    int v = vizinhos[i];
+                    if (descoberta[v] < 0) {
+                        descoberta[v] = tempo++;
+                        pai[v] = u;
+                        profundidade[v] = profundidade[u] + 1;
+                        fila[cauda++] = v;
+                    }
+                }
+                finalizacao[u] = tempo++;
+                if (medicao != null) {
+                    medicao.verticesVisitados++;
+                    medicao.arestasVisitadas += grau;
+                }
+            }
+            if (!floresta) {
+                break;
+            }
+        }
+        Instrumentacao.concluir(medicao);
+        int[] ordem = Arrays.copyOf(fila, cauda);
+        return new Resultado(pai, profundidade, ordem, ordem, descoberta, finalizacao,
+                Arrays.copyOf(raizes, quantidadeRaizes));
+    }
+
+    /**
+     * Busca em largura que só calcula distâncias, sem alocar, para quem faz
+     * muitas buscas seguidas sobre os mesmos vetores (como
+     * {@link Excentricidade}).
+     *
+     * @param grafo
+     *            O grafo.
+     * @param raiz
+     *            Índice do primeiro vértice.
+     * @param distancia
+     *            Deve chegar com -1 em todos os vértices; recebe a distância
+     *            de cada vértice alcançado. Para reaproveitá-lo, basta voltar
+     *            a -1 os vértices de {@code fila[0..k)}.
+     * @param pai
+     *            Recebe o pai de cada vértice alcançado, ou null.
+     * @param fila
+     *            Recebe os k vértices alcançados, em ordem de distância.
+     * @param vizinhos
+     *            Buffer com espaço para o grau máximo.
+     * @return k, a quantidade de vértices alcançados. A excentricidade da
+     *         raiz é {@code distancia[fila[k - 1]]}.
+     */
+    static int distancias(GrafoIndexado grafo, int raiz, int[] distancia, int[] pai, int[] fila, int[] vizinhos) {
+        int cauda = 0;
+        distancia[raiz] = 0;
+        if (pai != null) {
+            pai[raiz] = -1;
+        }
+        fila[cauda++] = raiz;
+        for (int cabeca = 0; cabeca < cauda; cabeca++) {
+            int u = fila[cabeca];
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                int v = vizinhos[i];
+                if (distancia[v] < 0) {
+                    distancia[v] = distancia[u] + 1;
+                    if (pai != null) {
+                        pai[v] = u;
+                    }
+                    fila[cauda++] = v;
+                }
+            }
+        }
+        return cauda;
+    }
+
+    private static int validar(GrafoIndexado grafo, int raiz) {
+        int n = grafo.numeroVertices();
+        if (raiz < 0 || raiz >= n) {
+            throw new IllegalArgumentException("vértice inexistente: " + raiz);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,452 @@
+import java.util.Arrays;
+
+/**
+ * Renumeração de vértices para melhorar a localidade de memória.
+ *
+ * Na numeração original (ordem do {@code HashMap} de vértices) vizinhos ficam
+ * espalhados pelos vetores, e cada arco visitado tende a causar uma falta de
+ * cache. As estratégias daqui calculam uma ordem em que vértices visitados
+ * juntos ficam próximos. Todas recebem e devolvem a ordem como
+ * {@code ordem[novo] = antigo}.
+ *
+ * Os algoritmos consideram os arcos como estão no grafo, então devem ser usados
+ * com grafos não direcionados (os dois arcos de cada aresta) ou, no caso
+ * direcionado, tratam apenas os arcos de saída. A exceção é o Reverse
+ * Cuthill-McKee, que ignora o sentido dos arcos.
+ */
+public class Reordenacao {
+    public enum Estrategia {
+        /** Mantém a numeração original. */
+        ORIGINAL,
+        /** Ordem de visita da busca em largura. */
+        LARGURA,
+        /** Reverse Cuthill-McKee: largura partindo de vértices periféricos, com vizinhos por grau, invertida. */
+        CUTHILL_MCKEE_REVERSO,
+        /** Grau decrescente: os vértices mais acessados ficam juntos no início. */
+        GRAU,
+        /** Gorder simplificado: guloso que aproxima vértices com vizinhos em comum. */
+        GORDER
+    }
+
+    /** Tamanho da janela do Gorder. */
+    static final int JANELA_GORDER = 5;
+
+    /**
+     * Calcula uma nova ordem para os vértices.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param estrategia
+     *            A estratégia de ordenação.
+     * @return {@code ordem[novo] = antigo}.
+     */
+    public static int[] calcular(GrafoIndexado grafo, Estrategia estrategia) {
+        int[] ordem;
+        switch (estrategia) {
+        case LARGURA:
+            ordem = largura(grafo);
+            break;
+        case CUTHILL_MCKEE_REVERSO:
+            ordem = cuthillMcKeeReverso(grafo);
+            break;
+        case GRAU:
+            ordem = grau(grafo);
+            break;
+        case GORDER:
+            ordem = gorder(grafo);
+            break;
+        default:
+            ordem = identidade(grafo.numeroVertices());
+        }
+        validarPermutacao(ordem, grafo.numeroVertices(), estrategia);
+        return ordem;
+    }
+
+    /**
+     * Uma ordem que repete ou omite vértices corromperia o grafo renumerado
+     * (rótulos repetidos, arcos trocados), e todo algoritmo em cache rodaria
+     * sobre ele; melhor falhar aqui.
+     */
+    private static void validarPermutacao(int[] ordem, int n, Estrategia estrategia) {
+        boolean[] usado = new boolean[n];
+        if (ordem.length != n) {
+            throw new IllegalStateException(estrategia + " devolveu " + ordem.length + " vértices de " + n);
+        }
+        for (int v : ordem) {
+            if (v < 0 || v >= n || usado[v]) {
+                throw new IllegalStateException(estrategia + " não devolveu uma permutação (vértice " + v + ")");
+            }
+            usado[v] = true;
+        }
+    }
+
+    /**
+     * Aplica uma estratégia a um grafo compacto.
+     *
+     * @param grafo
+     *            O grafo.
+     * @param estrategia
+     *            A estratégia de ordenação.
+     * @return O grafo renumerado (o próprio grafo para {@link Estrategia#ORIGINAL}).
+     */
+    public static GrafoCompacto reordenar(GrafoCompacto grafo, Estrategia estrategia) {
+        if (estrategia == Estrategia.ORIGINAL) {
+            return grafo;
+        }
+        return grafo.reordenar(calcular(grafo, estrategia));
+    }
+
+    /**
+     * @param ordem
+     *            {@code ordem[novo] = antigo}.
+     * @return {@code posicao[antigo] = novo}.
+     */
+    public static int[] inverter(int[] ordem) {
+        int[] posicao = new int[ordem.length];
+        for (int i = 0; i < ordem.length; i++) {
+            posicao[ordem[i]] = i;
+        }
+        return posicao;
+    }
+
+    /**
+     * Traz um vetor indexado pela nova numeração para a original.
+     *
+     * @param valores
+     *            Valores por vértice, na nova numeração.
+     * @param ordem
+     *            {@code ordem[novo] = antigo}.
+     * @return Os mesmos valores indexados pela numeração original.
+     */
+    public static int[] paraOriginal(int[] valores, int[] ordem) {
+        int[] resultado = new int[valores.length];
+        for (int i = 0; i < ordem.length; i++) {
+            resultado[ordem[i]] = valores[i];
+        }
+        return resultado;
+    }
+
+    /**
+     * Como {@link #paraOriginal(int[], int[])}, para vetores cujos valores
+     * também são vértices (pais, por exemplo). Valores negativos são mantidos.
+     */
+    public static int[] verticesParaOriginal(int[] valores, int[] ordem) {
+        int[] resultado = new int[valores.length];
+        for (int i = 0; i < ordem.length; i++) {
+            int v = valores[i];
+            resultado[ordem[i]] = v < 0 ? v : ordem[v];
+        }
+        return resultado;
+    }
+
+    private static int[] identidade(int n) {
+        int[] ordem = new int[n];
+        for (int i = 0; i < n; i++) {
+            ordem[i] = i;
+        }
+        return ordem;
+    }
+
+    private static int[] largura(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int[] ordem = new int[n];
+        boolean[] visitado = new boolean[n];
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        int cauda = 0;
+        for (int raiz = 0; raiz < n; raiz++) {
+            if (visitado[raiz]) {
+                continue;
+            }
+            int cabeca = cauda;
+            visitado[raiz] = true;
+            ordem[cauda++] = raiz;
+            while (cabeca < cauda) {
+                int u = ordem[cabeca++];
+                int grau = grafo.vizinhos(u, vizinhos, 0);
+                for (int i = 0; i < grau; i++) {
+                    int v = vizinhos[i];
+                    if (!visitado[v]) {
+                        visitado[v] = true;
+                        ordem[cauda++] = v;
+                    }
+                }
+            }
+        }
+        return ordem;
+    }
+
+    private static int[] cuthillMcKeeReverso(GrafoIndexado original) {
+        // As buscas precisam alcançar a componente inteira: num grafo
+        // direcionado, seguir só os arcos de saída leva a raízes já
+        // numeradas por componentes anteriores
+        GrafoIndexado grafo = AdjacenciaSimples.de(original, false, false);
+        int n = grafo.numeroVertices();
+        int[] graus = new int[n];
+        for (int v = 0; v < n; v++) {
+            graus[v] = grafo.grau(v);
+        }
+        int[] ordem = new int[n];
+        boolean[] visitado = new boolean[n];
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        int[] nivel = new int[n];
+        int[] fila = new int[n];
+        int cauda = 0;
+
+        // Vértices em ordem de grau crescente: cada componente começa pelo seu
+        // vértice de menor grau, refinado para um vértice pseudo-periférico
+        int[] porGrau = ordenarPorGrau(graus, true);
+        for (int candidato : porGrau) {
+            if (visitado[candidato]) {
+                continue;
+            }
+            int raiz = pseudoPeriferico(grafo, candidato, graus, vizinhos, nivel, fila);
+            int cabeca = cauda;
+            visitado[raiz] = true;
+            ordem[cauda++] = raiz;
+            while (cabeca < cauda) {
+                int u = ordem[cabeca++];
+                int grau = grafo.vizinhos(u, vizinhos, 0);
+                int novos = 0;
+                for (int i = 0; i < grau; i++) {
+                    int v = vizinhos[i];
+                    if (!visitado[v]) {
+                        visitado[v] = true;
+                        vizinhos[novos++] = v;
+                    }
+                }
+                // Insertion sort por grau: as listas costumam ser curtas
+                for (int i = 1; i < novos; i++) {
+                    int v = vizinhos[i];
+                    int j = i - 1;
+                    while (j >= 0 && graus[vizinhos[j]] > graus[v]) {
+                        vizinhos[j + 1] = vizinhos[j];
+                        j--;
+                    }
+                    vizinhos[j + 1] = v;
+                }
+                System.arraycopy(vizinhos, 0, ordem, cauda, novos);
+                cauda += novos;
+            }
+        }
+
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int troca = ordem[i];
+            ordem[i] = ordem[j];
+            ordem[j] = troca;
+        }
+        return ordem;
+    }
+
+    /**
+     * Heurística de George e Liu: repete buscas em largura a partir do vértice
+     * de menor grau do último nível enquanto a excentricidade aumentar.
+     */
+    private static int pseudoPeriferico(GrafoIndexado grafo, int inicio, int[] graus, int[] vizinhos, int[] nivel,
+            int[] fila) {
+        int atual = inicio;
+        int excentricidade = -1;
+        for (int tentativa = 0; tentativa < 8; tentativa++) {
+            int cauda = 0;
+            fila[cauda++] = atual;
+            nivel[atual] = 0;
+            int cabeca = 0;
+            // nivel serve também de marcação; é limpo ao final
+            while (cabeca < cauda) {
+                int u = fila[cabeca++];
+                int grau = grafo.vizinhos(u, vizinhos, 0);
+                for (int i = 0; i < grau; i++) {
+                    int v = vizinhos[i];
+                    if (v != atual && nivel[v] == 0) {
+                        nivel[v] = nivel[u] + 1;
+                        fila[cauda++] = v;
+                    }
+                }
+            }
+            int ultimoNivel = nivel[fila[cauda - 1]];
+            int proximo = atual;
+            for (int i = cauda - 1; i >= 0 && nivel[fila[i]] == ultimoNivel; i--) {
+                if (proximo == atual || graus[fila[i]] < graus[proximo]) {
+                    proximo = fila[i];
+                }
+            }
+            for (int i = 0; i < cauda; i++) {
+                nivel[fila[i]] = 0;
+            }
+            if (ultimoNivel <= excentricidade) {
+                break;
+            }
+            excentricidade = ultimoNivel;
+            atual = proximo;
+        }
+        return atual;
+    }
+
+    private static int[] grau(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int[] graus = new int[n];
+        for (int v = 0; v < n; v++) {
+            graus[v] = grafo.grau(v);
+        }
+        return ordenarPorGrau(graus, false);
+    }
+
+    /**
+     * Counting sort estável dos vértices por grau.
+     */
+    private static int[] ordenarPorGrau(int[] graus, boolean crescente) {
+        int maior = 0;
+        for (int g : graus) {
+            maior = Math.max(maior, g);
+        }
+        int[] inicio = new int[maior + 2];
+        for (int g : graus) {
+            inicio[(crescente ? g : maior - g) + 1]++;
+        }
+        for (int i = 0; i <= maior; i++) {
+            inicio[i + 1] += inicio[i];
+        }
+        int[] ordem = new int[graus.length];
+        for (int v = 0; v < graus.length; v++) {
+            ordem[inicio[crescente ? graus[v] : maior - graus[v]]++] = v;
+        }
+        return ordem;
+    }
+
+    /**
+     * Versão simplificada do Gorder (Wei et al.): escolhe sempre o vértice com
+     * maior pontuação em relação aos últimos {@value #JANELA_GORDER}
+     * escolhidos, onde a pontuação conta vizinhos diretos e vizinhos em comum.
+     * Vértices de grau muito alto não propagam pontuação para os seus
+     * vizinhos, o que limita o custo em grafos com hubs.
+     */
+    private static int[] gorder(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int[] ordem = new int[n];
+        if (n == 0) {
+            return ordem;
+        }
+        int limiteHub = Math.max(64, (int) Math.sqrt(n));
+        FilaUnitaria fila = new FilaUnitaria(n);
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        int[] irmaos = new int[vizinhos.length];
+
+        int inicio = 0;
+        for (int v = 1; v < n; v++) {
+            if (grafo.grau(v) > grafo.grau(inicio)) {
+                inicio = v;
+            }
+        }
+        fila.remover(inicio);
+        ordem[0] = inicio;
+        atualizar(grafo, fila, inicio, 1, vizinhos, irmaos, limiteHub);
+
+        for (int i = 1; i < n; i++) {
+            if (i > JANELA_GORDER) {
+                atualizar(grafo, fila, ordem[i - JANELA_GORDER - 1], -1, vizinhos, irmaos, limiteHub);
+            }
+            int v = fila.extrairMaior();
+            ordem[i] = v;
+            atualizar(grafo, fila, v, 1, vizinhos, irmaos, limiteHub);
+        }
+        return ordem;
+    }
+
+    /**
+     * Soma delta à pontuação dos vizinhos de u e dos vizinhos dos seus
+     * vizinhos (que compartilham um vizinho com u).
+     */
+    private static void atualizar(GrafoIndexado grafo, FilaUnitaria fila, int u, int delta, int[] vizinhos,
+            int[] irmaos, int limiteHub) {
+        int grau = grafo.vizinhos(u, vizinhos, 0);
+        for (int i = 0; i < grau; i++) {
+            int x = vizinhos[i];
+            fila.somar(x, delta);
+            if (grafo.grau(x) > limiteHub) {
+                continue;
+            }
+            int grauX = grafo.vizinhos(x, irmaos, 0);
+            for (int j = 0; j < grauX; j++) {
+                if (irmaos[j] != u) {
+                    fila.somar(irmaos[j], delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fila de prioridade para pontuações inteiras que mudam de 1 em 1: cada
+     * pontuação tem uma lista duplamente encadeada de vértices, o que deixa
+     * incremento, decremento e remoção em O(1).
+     */
+    private static class FilaUnitaria {
+        private final int[] pontuacao;
+        private final int[] proximo;
+        private final int[] anterior;
+        private final boolean[] removido;
+        private int[] cabeca;
+        private int maior = 0;
+
+        FilaUnitaria(int n) {
+            pontuacao = new int[n];
+            proximo = new int[n];
+            anterior = new int[n];
+            removido = new boolean[n];
+            cabeca = new int[16];
+            Arrays.fill(cabeca, -1);
+            for (int v = n - 1; v >= 0; v--) {
+                inserir(v);
+            }
+        }
+
+        private void inserir(int v) {
+            int p = pontuacao[v];
+            if (p >= cabeca.length) {
+                int tamanhoAntigo = cabeca.length;
+                cabeca = Arrays.copyOf(cabeca, Math.max(2 * tamanhoAntigo, p + 1));
+                Arrays.fill(cabeca, tamanhoAntigo, cabeca.length, -1);
+            }
+            anterior[v] = -1;
+            proximo[v] = cabeca[p];
+            if (cabeca[p] >= 0) {
+                anterior[cabeca[p]] = v;
+            }
+            cabeca[p] = v;
+            maior = Math.max(maior, p);
+        }
+
+        private void desligar(int v) {
+            if (anterior[v] >= 0) {
+                proximo[anterior[v]] = proximo[v];
+            } else {
+                cabeca[pontuacao[v]] = proximo[v];
+            }
+            if (proximo[v] >= 0) {
+                anterior[proximo[v]] = anterior[v];
+            }
+        }
+
+        void somar(int v, int delta) {
+            // As pontuações de vértices já escolhidos não importam mais
+            if (removido[v]) {
+                return;
+            }
+            desligar(v);
+            pontuacao[v] += delta;
+            inserir(v);
+        }
+
+        void remover(int v) {
+            desligar(v);
+            removido[v] = true;
+        }
+
+        int extrairMaior() {
+            while (cabeca[maior] < 0) {
+                maior--;
+            }
+            int v = cabeca[maior];
+            remover(v);
+            return v;
+        }
+    }
+}
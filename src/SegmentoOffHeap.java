@@ -0,0 +1,89 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Região de memória fora do heap endereçada por posição em bytes (long).
+ *
+ * Como um {@link ByteBuffer} é limitado a 2 GiB, a região é dividida em
+ * blocos de 1 GiB. Inteiros e longs devem ser gravados em posições múltiplas
+ * do seu tamanho, o que garante que nunca atravessam a fronteira entre dois
+ * blocos.
+ */
+class SegmentoOffHeap {
+    private static final int BITS_BLOCO = 30;
+    private static final long TAMANHO_BLOCO = 1L << BITS_BLOCO;
+    private static final long MASCARA = TAMANHO_BLOCO - 1;
+
+    private final ByteBuffer[] blocos;
+    final long tamanho;
+
+    private SegmentoOffHeap(ByteBuffer[] blocos, long tamanho) {
+        this.blocos = blocos;
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * Aloca uma região em memória direta (limitada por
+     * {@code -XX:MaxDirectMemorySize}).
+     *
+     * @param bytes
+     *            Tamanho da região.
+     * @return A região, preenchida com zeros.
+     */
+    static SegmentoOffHeap alocar(long bytes) {
+        ByteBuffer[] blocos = new ByteBuffer[quantidadeBlocos(bytes)];
+        for (int i = 0; i < blocos.length; i++) {
+            long restante = bytes - i * TAMANHO_BLOCO;
+            blocos[i] = ByteBuffer.allocateDirect((int) Math.min(TAMANHO_BLOCO, restante))
+                    .order(ByteOrder.nativeOrder());
+        }
+        return new SegmentoOffHeap(blocos, bytes);
+    }
+
+    /**
+     * Mapeia uma região de um arquivo. As páginas são carregadas sob demanda
+     * pelo sistema operacional, o que permite regiões maiores que a memória.
+     *
+     * @param canal
+     *            Canal aberto para leitura e escrita.
+     * @param posicao
+     *            Posição inicial no arquivo (múltipla de 8).
+     * @param bytes
+     *            Tamanho da região.
+     * @return A região mapeada.
+     * @throws IOException
+     *             Se o mapeamento falhar.
+     */
+    static SegmentoOffHeap mapear(FileChannel canal, long posicao, long bytes) throws IOException {
+        ByteBuffer[] blocos = new ByteBuffer[quantidadeBlocos(bytes)];
+        for (int i = 0; i < blocos.length; i++) {
+            long inicio = i * TAMANHO_BLOCO;
+            long tamanhoBloco = Math.min(TAMANHO_BLOCO, bytes - inicio);
+            blocos[i] = canal.map(FileChannel.MapMode.READ_WRITE, posicao + inicio, tamanhoBloco)
+                    .order(ByteOrder.nativeOrder());
+        }
+        return new SegmentoOffHeap(blocos, bytes);
+    }
+
+    private static int quantidadeBlocos(long bytes) {
+        return (int) Math.max(1, (bytes + TAMANHO_BLOCO - 1) >>> BITS_BLOCO);
+    }
+
+    int getInt(long posicao) {
+        return blocos[(int) (posicao >>> BITS_BLOCO)].getInt((int) (posicao & MASCARA));
+    }
+
+    void putInt(long posicao, int valor) {
+        blocos[(int) (posicao >>> BITS_BLOCO)].putInt((int) (posicao & MASCARA), valor);
+    }
+
+    long getLong(long posicao) {
+        return blocos[(int) (posicao >>> BITS_BLOCO)].getLong((int) (posicao & MASCARA));
+    }
+
+    void putLong(long posicao, long valor) {
+        blocos[(int) (posicao >>> BITS_BLOCO)].putLong((int) (posicao & MASCARA), valor);
+    }
+}
@@ -0,0 +1,185 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor local que mantém um grafo carregado e responde consultas de vários
+ * clientes ao mesmo tempo.
+ *
+ * O protocolo é por linhas: o cliente envia um comando no formato aceito por
+ * {@link ConsultaLote} (por exemplo {@code caminho a b} ou {@code pontes}) e o
+ * servidor responde com as linhas do resultado seguidas de uma linha contendo
+ * apenas {@value #FIM_RESPOSTA}. O comando {@code sair} encerra a conexão.
+ *
+ * As consultas rodam sobre uma cópia do grafo feita na criação do servidor,
+ * que não é alterada depois disso; nenhuma consulta modifica o grafo (ver
+ * {@link ConsultaLote}). Para servir um grafo que recebe atualizações, veja
+ * {@link GrafoVersionado}. Cada conexão é atendida por uma thread virtual
+ * quando a JVM oferece esse recurso (JDK 21+), ou por um pool de threads
+ * comuns caso contrário.
+ */
+public class ServidorGrafo implements AutoCloseable {
+    /** Linha que marca o fim de cada resposta. */
+    public static final String FIM_RESPOSTA = ".";
+
+    private final Grafo instantaneo;
+    private final ServerSocket socket;
+    private final ExecutorService executor;
+    private final AtomicLong consultasAtendidas = new AtomicLong();
+    private volatile boolean ativo = true;
+    private Thread aceitador;
+
+    /**
+     * Cria o servidor e reserva a porta na interface de loopback.
+     *
+     * @param grafo
+     *            O grafo a ser servido. Uma cópia é feita neste momento.
+     * @param porta
+     *            Porta local; 0 escolhe uma porta livre.
+     * @throws IOException
+     *             Se não for possível abrir a porta.
+     */
+    public ServidorGrafo(Grafo grafo, int porta) throws IOException {
+        this.instantaneo = grafo.copiar();
+        this.socket = new ServerSocket();
+        this.socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+        this.executor = criarExecutor();
+    }
+
+    /**
+     * Começa a aceitar conexões em uma thread própria.
+     */
+    public void iniciar() {
+        aceitador = new Thread(this::aceitarConexoes, "servidor-grafo-" + getPorta());
+        aceitador.start();
+    }
+
+    /**
+     * @return A porta em que o servidor está escutando.
+     */
+    public int getPorta() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * @return Quantidade de consultas respondidas desde o início.
+     */
+    public long getConsultasAtendidas() {
+        return consultasAtendidas.get();
+    }
+
+    private void aceitarConexoes() {
+        while (ativo) {
+            try {
+                Socket cliente = socket.accept();
+                executor.execute(() -> atender(cliente));
+            } catch (SocketException e) {
+                break; // Socket fechado por close()
+            } catch (IOException e) {
+                if (ativo) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void atender(Socket cliente) {
+        ConsultaLote consultas = new ConsultaLote(instantaneo);
+        consultas.setEcoarConsultas(false);
+        consultas.setReportarTempos(false);
+        try (Socket conexao = cliente;
+                BufferedReader entrada = new BufferedReader(
+                        new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter saida = new BufferedWriter(
+                        new OutputStreamWriter(conexao.getOutputStream(), StandardCharsets.UTF_8), 1 << 14)) {
+            conexao.setTcpNoDelay(true);
+            String linha;
+            while ((linha = entrada.readLine()) != null) {
+                linha = linha.trim();
+                if (linha.isEmpty()) {
+                    continue;
+                }
+                if (linha.equals("sair") || linha.equals("quit")) {
+                    break;
+                }
+                consultas.executarConsulta(linha, saida);
+                saida.write(FIM_RESPOSTA);
+                saida.write('\n');
+                consultasAtendidas.incrementAndGet();
+                // Clientes que enviam várias consultas seguidas recebem as
+                // respostas em um único envio
+                if (!entrada.ready()) {
+                    saida.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Conexão encerrada pelo cliente
+        }
+    }
+
+    /**
+     * Para de aceitar conexões e aguarda as conexões abertas terminarem.
+     */
+    @Override
+    public void close() throws IOException {
+        ativo = false;
+        socket.close();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+            if (aceitador != null) {
+                aceitador.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Usa uma thread virtual por tarefa quando disponível. O acesso é feito por
+     * reflexão para que o projeto continue compilando em JDKs anteriores ao 21.
+     */
+    private static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(tarefa -> {
+                Thread thread = new Thread(tarefa, "servidor-grafo-conexao");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Uso: {@code ServidorGrafo <arquivo-do-grafo> [porta]}.
+     */
+    public static void main(String[] args) throws Exception {
+        String arquivo = args.length > 0 ? args[0] : "grafo.txt";
+        int porta = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        ServidorGrafo servidor = new ServidorGrafo(LeituraEscrita.lerGrafo(arquivo), porta);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                servidor.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        servidor.iniciar();
+        System.out.println("Servidor escutando em localhost:" + servidor.getPorta());
+    }
+}
@@ -16,14 +16,14 @@ class Vertice {
   }
 
   public String getListaDeAdjacencia() {
-    String res = this.toString();
+    StringBuilder res = new StringBuilder(this.toString());
 
     for (Vertice v : this.adjacencia) {
-      res += " -> " + v.toString();
+      res.append(" -> ").append(v.toString());
     }
-    res += ";";
+    res.append(";");
 
-    return res;
+    return res.toString();
   }
 
   @Override
@@ -0,0 +1,319 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Visão de um {@link GrafoIndexado} sem cópia dos arcos: subgrafo induzido por
+ * um conjunto de vértices, filtro de arcos por predicado ou faixa de peso e
+ * grafo transposto. As visões podem ser compostas (uma visão de uma visão) e
+ * qualquer algoritmo sobre {@link GrafoIndexado} roda sobre elas diretamente.
+ *
+ * A visão induzida numera os seus vértices de 0 a k-1 na ordem crescente dos
+ * índices da base e guarda só essa correspondência ({@link #paraBase(int)} e
+ * {@link #daBase(int)}). Os vizinhos são lidos da base a cada consulta e
+ * filtrados na hora; os graus são contados uma única vez, na primeira
+ * consulta. A transposta precisa de um índice dos arcos de entrada, também
+ * construído na primeira consulta. {@link #materializar()} copia a visão para
+ * um {@link GrafoCompacto} quando ela for percorrida muitas vezes.
+ */
+public class VisaoGrafo implements GrafoIndexado {
+    /**
+     * Critério de um filtro de arcos. Os índices são os da base.
+     */
+    public interface FiltroArco {
+        boolean aceita(int origem, int destino, int peso);
+    }
+
+    private final GrafoIndexado base;
+    /** Vértices da visão, em índices da base, ou null para todos. */
+    private final int[] membros;
+    /** Índice na visão de cada vértice da base, ou -1; null para todos. */
+    private final int[] posicao;
+    private final FiltroArco filtro;
+    private final boolean transposta;
+    private final ThreadLocal<int[][]> rascunho;
+
+    private volatile int[] graus;
+    private volatile long arcos = -1;
+    private volatile int[][] entrada;
+
+    private VisaoGrafo(GrafoIndexado base, int[] membros, FiltroArco filtro, boolean transposta) {
+        this.base = base;
+        this.membros = membros;
+        this.filtro = filtro;
+        this.transposta = transposta;
+        if (membros == null) {
+            posicao = null;
+        } else {
+            posicao = new int[base.numeroVertices()];
+            Arrays.fill(posicao, -1);
+            for (int i = 0; i < membros.length; i++) {
+                posicao[membros[i]] = i;
+            }
+        }
+        rascunho = ThreadLocal.withInitial(() -> {
+            int tamanho = Math.max(1, transposta ? grauEntradaMaximo() : base.grauMaximo());
+            return new int[][] { new int[tamanho], new int[tamanho] };
+        });
+    }
+
+    /**
+     * @param base
+     *            O grafo.
+     * @param vertices
+     *            Índices, na base, dos vértices que ficam na visão.
+     * @return O subgrafo induzido: os vértices dados e os arcos entre eles.
+     */
+    public static VisaoGrafo induzido(GrafoIndexado base, BitSet vertices) {
+        return new VisaoGrafo(base, vertices.stream().filter(v -> v < base.numeroVertices()).toArray(), null, false);
+    }
+
+    /**
+     * @see #induzido(GrafoIndexado, BitSet)
+     */
+    public static VisaoGrafo induzido(GrafoIndexado base, int[] vertices) {
+        BitSet conjunto = new BitSet(base.numeroVertices());
+        for (int v : vertices) {
+            if (v < 0 || v >= base.numeroVertices()) {
+                throw new IllegalArgumentException("vértice inexistente: " + v);
+            }
+            conjunto.set(v);
+        }
+        return induzido(base, conjunto);
+    }
+
+    /**
+     * @param base
+     *            O grafo.
+     * @param filtro
+     *            Critério dos arcos que ficam na visão.
+     * @return Os mesmos vértices, só com os arcos aceitos.
+     */
+    public static VisaoGrafo filtrado(GrafoIndexado base, FiltroArco filtro) {
+        return new VisaoGrafo(base, null, filtro, false);
+    }
+
+    /**
+     * @param base
+     *            O grafo.
+     * @param minimo
+     *            Menor peso aceito.
+     * @param maximo
+     *            Maior peso aceito.
+     * @return Os mesmos vértices, só com os arcos de peso na faixa.
+     */
+    public static VisaoGrafo porPeso(GrafoIndexado base, int minimo, int maximo) {
+        return filtrado(base, (origem, destino, peso) -> peso >= minimo && peso <= maximo);
+    }
+
+    /**
+     * @param base
+     *            O grafo.
+     * @return O grafo com todos os arcos invertidos.
+     */
+    public static VisaoGrafo transposto(GrafoIndexado base) {
+        return new VisaoGrafo(base, null, null, true);
+    }
+
+    /**
+     * @return O grafo sobre o qual a visão foi criada.
+     */
+    public GrafoIndexado getBase() {
+        return base;
+    }
+
+    /**
+     * @return O índice na base do vértice v da visão.
+     */
+    public int paraBase(int v) {
+        return membros == null ? v : membros[v];
+    }
+
+    /**
+     * @return O índice na visão do vértice v da base, ou -1 se ele não
+     *         pertence à visão.
+     */
+    public int daBase(int v) {
+        return posicao == null ? v : posicao[v];
+    }
+
+    @Override
+    public int numeroVertices() {
+        return membros == null ? base.numeroVertices() : membros.length;
+    }
+
+    @Override
+    public long numeroArcos() {
+        if (arcos < 0) {
+            if (membros == null && filtro == null) {
+                arcos = base.numeroArcos();
+            } else {
+                long soma = 0;
+                for (int g : graus()) {
+                    soma += g;
+                }
+                arcos = soma;
+            }
+        }
+        return arcos;
+    }
+
+    @Override
+    public int grau(int v) {
+        if (membros == null && filtro == null) {
+            if (!transposta) {
+                return base.grau(v);
+            }
+            int[] inicio = entrada()[0];
+            return inicio[v + 1] - inicio[v];
+        }
+        return graus()[v];
+    }
+
+    @Override
+    public int vizinhos(int v, int[] destino, int deslocamento) {
+        return ler(v, destino, null, deslocamento);
+    }
+
+    @Override
+    public int pesos(int v, int[] destino, int deslocamento) {
+        return ler(v, null, destino, deslocamento);
+    }
+
+    @Override
+    public String getRotulo(int v) {
+        return base.getRotulo(paraBase(v));
+    }
+
+    @Override
+    public int indiceDe(String rotulo) {
+        int indice = base.indiceDe(rotulo);
+        return indice < 0 ? -1 : daBase(indice);
+    }
+
+    /**
+     * Lê os arcos de v que passam pelos filtros, escrevendo os vizinhos
+     * (renumerados para a visão) e/ou os pesos.
+     */
+    private int ler(int v, int[] vizinhos, int[] pesos, int deslocamento) {
+        int b = paraBase(v);
+        int[][] buffers = rascunho.get();
+        int[] brutos = buffers[0];
+        int[] pesosBrutos = buffers[1];
+        int quantidade;
+        if (transposta) {
+            int[][] indice = entrada();
+            quantidade = indice[0][b + 1] - indice[0][b];
+            System.arraycopy(indice[1], indice[0][b], brutos, 0, quantidade);
+            System.arraycopy(indice[2], indice[0][b], pesosBrutos, 0, quantidade);
+        } else {
+            quantidade = base.vizinhos(b, brutos, 0);
+            if (pesos != null || filtro != null) {
+                base.pesos(b, pesosBrutos, 0);
+            }
+        }
+        int escritos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            int u = brutos[i];
+            if (posicao != null && posicao[u] < 0) {
+                continue;
+            }
+            if (filtro != null && !filtro.aceita(b, u, pesosBrutos[i])) {
+                continue;
+            }
+            if (vizinhos != null) {
+                vizinhos[deslocamento + escritos] = daBase(u);
+            }
+            if (pesos != null) {
+                pesos[deslocamento + escritos] = pesosBrutos[i];
+            }
+            escritos++;
+        }
+        return escritos;
+    }
+
+    private int[] graus() {
+        int[] contagem = graus;
+        if (contagem == null) {
+            int[] novo = new int[numeroVertices()];
+            // Cada thread lê a base no seu próprio buffer; sem destino, ler só conta
+            IntStream.range(0, novo.length).parallel().forEach(v -> novo[v] = ler(v, null, null, 0));
+            graus = contagem = novo;
+        }
+        return contagem;
+    }
+
+    /**
+     * Índice dos arcos de entrada da base: {inicio, origens, pesos}.
+     */
+    private int[][] entrada() {
+        int[][] indice = entrada;
+        if (indice == null) {
+            synchronized (this) {
+                indice = entrada;
+                if (indice == null) {
+                    entrada = indice = transpor(base);
+                }
+            }
+        }
+        return indice;
+    }
+
+    private int grauEntradaMaximo() {
+        int[] inicio = entrada()[0];
+        int maximo = 0;
+        for (int v = 0; v + 1 < inicio.length; v++) {
+            maximo = Math.max(maximo, inicio[v + 1] - inicio[v]);
+        }
+        return maximo;
+    }
+
+    private static int[][] transpor(GrafoIndexado grafo) {
+        int n = grafo.numeroVertices();
+        int[] vizinhos = new int[Math.max(1, grafo.grauMaximo())];
+        int[] pesosArco = new int[vizinhos.length];
+        int[] inicio = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            for (int i = 0; i < grau; i++) {
+                inicio[vizinhos[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            inicio[v + 1] += inicio[v];
+        }
+        int[] origens = new int[inicio[n]];
+        int[] pesos = new int[inicio[n]];
+        int[] proxima = Arrays.copyOf(inicio, n);
+        for (int u = 0; u < n; u++) {
+            int grau = grafo.vizinhos(u, vizinhos, 0);
+            grafo.pesos(u, pesosArco, 0);
+            for (int i = 0; i < grau; i++) {
+                int k = proxima[vizinhos[i]]++;
+                origens[k] = u;
+                pesos[k] = pesosArco[i];
+            }
+        }
+        return new int[][] { inicio, origens, pesos };
+    }
+
+    /**
+     * Copia a visão para uma representação compacta própria.
+     *
+     * @return O grafo compacto equivalente.
+     * @see GrafoCompacto#de(GrafoIndexado)
+     */
+    public GrafoCompacto materializar() {
+        return GrafoCompacto.de(this);
+    }
+
+    /**
+     * Copia a visão para um {@link Grafo} com vértices e arestas novos, sem
+     * nenhum objeto compartilhado com o grafo de origem.
+     *
+     * @return O grafo equivalente.
+     */
+    public Grafo paraGrafo() {
+        return Grafo.de(this, v -> true);
+    }
+}
@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExportadorTest {
+    @TempDir
+    Path pasta;
+
+    @Test
+    void nativoPreservaPesoRealECamposExtras() throws IOException {
+        Grafo original = ler("V = {a, b, c};\nA = {(a,b,0.4), (b,c,2.6,7)};\n");
+        Grafo relido = idaEVolta(original);
+
+        assertAtributosIguais(original, relido);
+        assertArrayEquals(new double[] { 0.4, 2.6 }, relido.getAtributos().comoReais("peso"));
+        assertArrayEquals(new long[] { 0, 7 }, relido.getAtributos().comoLongos("campo4"));
+    }
+
+    @Test
+    void nativoPreservaColunasDeclaradas() throws IOException {
+        Grafo original = ler("V = {a, b, c};\nA = {(a,b,3,10,0.25), (b,c,1,5,1.5)};\n"
+                + "C = {custo:int, capacidade:long, latencia:double};\n");
+        Grafo relido = idaEVolta(original);
+
+        assertAtributosIguais(original, relido);
+        assertEquals(AtributosAresta.Tipo.LONG, relido.getAtributos().getTipo("capacidade"));
+    }
+
+    @Test
+    void nativoSemAtributosNaoDeclaraColunas() throws IOException {
+        Grafo original = ler("V = {a, b};\nA = {(a,b,5)};\n");
+        Grafo relido = idaEVolta(original);
+
+        assertTrue(relido.getAtributos().getNomes().isEmpty());
+        assertEquals(5, relido.getArestas().get(0).peso);
+    }
+
+    @Test
+    void csvTemUmaColunaPorAtributo() throws IOException {
+        Grafo grafo = ler("V = {a, b, c};\nA = {(a,b,0.4), (b,c,2.6,7)};\n");
+        StringWriter saida = new StringWriter();
+        Exportador.exportarGrafo(grafo, Exportador.Formato.CSV, saida);
+
+        assertEquals("origem,destino,peso,campo4\na,b,0.4,0\nb,c,2.6,7\n", saida.toString());
+    }
+
+    @Test
+    void binarioRecusaGrafoComAtributos() throws IOException {
+        Grafo grafo = ler("V = {a, b};\nA = {(a,b,0.4)};\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Exportador.exportarGrafo(grafo, Exportador.Formato.BINARIO, Channels.newChannel(bytes)));
+    }
+
+    private Grafo ler(String conteudo) throws IOException {
+        Path arquivo = Files.createTempFile(pasta, "grafo", ".txt");
+        Files.writeString(arquivo, conteudo, StandardCharsets.UTF_8);
+        return LeituraEscrita.lerGrafo(arquivo.toString());
+    }
+
+    private Grafo idaEVolta(Grafo grafo) throws IOException {
+        Path arquivo = Files.createTempFile(pasta, "exportado", ".txt");
+        try (Writer saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            Exportador.exportarGrafo(grafo, Exportador.Formato.NATIVO, saida);
+        }
+        return LeituraEscrita.lerGrafo(arquivo.toString());
+    }
+
+    private static void assertAtributosIguais(Grafo esperado, Grafo obtido) {
+        AtributosAresta a = esperado.getAtributos();
+        AtributosAresta b = obtido.getAtributos();
+        assertEquals(a.getNomes(), b.getNomes());
+        for (String nome : a.getNomes()) {
+            assertEquals(a.getTipo(nome), b.getTipo(nome), nome);
+            assertArrayEquals(a.comoReais(nome), b.comoReais(nome), nome);
+        }
+        assertEquals(esperado.getArestas().size(), obtido.getArestas().size());
+        for (int i = 0; i < esperado.getArestas().size(); i++) {
+            assertEquals(esperado.getArestas().get(i).peso, obtido.getArestas().get(i).peso);
+        }
+    }
+}